@@ -20,6 +20,11 @@ public final class BoardConstants {
      */
     public static final int TOTAL_TILES_PER_COLOR =  22;
 
+    /**
+     * number of different sprites for each color
+     */
+    public static final int TOTAL_SPRITES = 3;
+
     /**
      * total number of tiles
      */
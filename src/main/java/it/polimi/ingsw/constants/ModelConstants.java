@@ -74,4 +74,9 @@ public class ModelConstants {
      */
     public static String PATH_SAVED_MATCHES = "./savedMatches/";
 
+    /**
+     * relative path of the journal of the moves (outside PATH_SAVED_MATCHES, which contains only the matches)
+     */
+    public static String PATH_JOURNAL = "./journal/";
+
 }
@@ -12,8 +12,18 @@ public class ServerConstants {
     public static final Integer PING_TIME = 10000;
     public static final Integer TCP_WAIT_TIME = 2000;
     public static final Integer CLIENT_SLEEPING_TIME = 5000;
+    public static final Integer FLUSH_INTERVAL = 1000;
+    public static final Integer COMMIT_WINDOW = 10;
+    public static final Integer CHECKPOINT_INTERVAL = 20;
+    public static final Integer BOT_THREADS = Math.max(1, Runtime.getRuntime().availableProcessors() / 4);
+    public static final Integer BOT_MOVE_BUDGET = 200;
+    public static final Integer BOT_REPORT_INTERVAL = 100;
+    public static final Integer BOT_MOVE_ATTEMPTS = 3;
+    public static final String BOT_NICKNAME = "Bot";
+    public static final String BOT_NICKNAME_REGEX = BOT_NICKNAME + "[0-9]+";
     public static final String LOBBY_SERVER = "LobbyServer";
     public static final String REGEX="_";
     public static final String JSON_EXTENSION="_.json";
+    public static final String BINARY_EXTENSION="_.bin";
 
 }
@@ -6,6 +6,7 @@ import it.polimi.ingsw.controller.exceptions.InvalidMoveException;
 import it.polimi.ingsw.controller.observers.VirtualView;
 import it.polimi.ingsw.model.GameModel;
 import it.polimi.ingsw.model.Position;
+import it.polimi.ingsw.model.persistence.PersistenceStrategy;
 import it.polimi.ingsw.network.server.MatchServer;
 
 import java.util.ArrayList;
@@ -36,7 +37,7 @@ public class GameController {
     private final int numPlayers;
 
     /**
-     * this attribute is an observer by class VirtualView
+     * this attribute is an observer by class VirtualView (null for the headless matches)
      */
     private final VirtualView gameStateObserver;
 
@@ -58,6 +59,20 @@ public class GameController {
 
     }
 
+    /**
+     * this method is the constructor of the headless controllers: the match has no server and no observers, and
+     * it is saved with the given strategy (with PersistenceStrategy.NONE it runs entirely in memory)
+     * @param nicknames nicknames of the players
+     * @param seed seed of the random generator of the match
+     * @param persistence the way the match is saved
+     */
+    public GameController(List<String> nicknames, long seed, PersistenceStrategy persistence){
+        this.playersList = new ArrayList<>(nicknames);
+        this.numPlayers = nicknames.size();
+        this.model = new GameModel(this.numPlayers, nicknames, seed, persistence);
+        this.gameStateObserver = null;
+    }
+
     /**
      * This method initializes a new gameController from a pre-existing model
      * @param model: the model to load
@@ -138,6 +153,14 @@ public class GameController {
         return this.model.getCurrentPlayer();
     }
 
+    /**
+     * this method returns the model of the game
+     * @return the model of the game
+     */
+    public GameModel getModel(){
+        return this.model;
+    }
+
     /**
      * This method forces the end of a game
      */
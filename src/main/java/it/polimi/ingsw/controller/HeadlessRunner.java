@@ -0,0 +1,84 @@
+package it.polimi.ingsw.controller;
+
+import it.polimi.ingsw.controller.exceptions.InvalidMoveException;
+import it.polimi.ingsw.controller.exceptions.InvalidNicknameException;
+import it.polimi.ingsw.model.GameModel;
+import it.polimi.ingsw.model.MoveGenerator;
+import it.polimi.ingsw.model.persistence.PersistenceStrategy;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+
+/**
+ * This class plays complete matches in-process: every match has a headless GameController (no MatchServer and no
+ * observers) and is never saved, so nothing is written to disk. The moves are chosen by a MoveChooser and played
+ * through the controller like the moves of the clients, so the matches go through the same checks.
+ * It is used by the bots, the tests and the benchmarks
+ */
+public final class HeadlessRunner {
+
+    /**
+     * This interface chooses the moves of the players of a headless match
+     */
+    public interface MoveChooser {
+        /**
+         * This method chooses the move of the current player
+         * @param model the match (it must not be changed)
+         * @param legalMoves the legal moves of the current player, encoded by the MoveGenerator (never empty)
+         * @return the chosen move, one of legalMoves
+         */
+        int chooseMove(GameModel model, int[] legalMoves);
+    }
+
+    /**
+     * Constructor (never called, the class only has static methods)
+     */
+    private HeadlessRunner(){}
+
+    /**
+     * This method returns a chooser that plays random legal moves
+     * @param seed seed of the random choices
+     * @return the chooser
+     */
+    public static MoveChooser randomMoves(long seed) {
+        SplittableRandom random = new SplittableRandom(seed);
+        return (model, legalMoves) -> legalMoves[random.nextInt(legalMoves.length)];
+    }
+
+    /**
+     * This method creates the nicknames of the players of a headless match
+     * @param numPlayers number of players
+     * @return the nicknames "player0", "player1", ...
+     */
+    public static List<String> nicknames(int numPlayers) {
+        List<String> nicknames = new ArrayList<>(numPlayers);
+        for (int i = 0; i < numPlayers; i++) nicknames.add("player" + i);
+        return nicknames;
+    }
+
+    /**
+     * This method plays a complete match in memory
+     * @param numPlayers number of players of the match
+     * @param seed seed of the match
+     * @param chooser the chooser of the moves of all the players
+     * @return the ended match
+     * @throws IllegalStateException if the current player has no legal move or the chosen move is refused
+     */
+    public static GameModel play(int numPlayers, long seed, MoveChooser chooser) {
+        GameController controller = new GameController(nicknames(numPlayers), seed, PersistenceStrategy.NONE);
+        GameModel model = controller.getModel();
+
+        while (!model.isGameOver()) {
+            int[] legalMoves = model.getLegalMoves();
+            if (legalMoves.length == 0) throw new IllegalStateException("No legal move for "+model.getCurrentPlayerNickName());
+            int move = chooser.chooseMove(model, legalMoves);
+            try {
+                controller.makeMove(MoveGenerator.positions(move), MoveGenerator.column(move), model.getCurrentPlayerNickName());
+            } catch (InvalidNicknameException | InvalidMoveException e) {
+                throw new IllegalStateException("Move refused: "+MoveGenerator.positions(move)+" in column "+MoveGenerator.column(move), e);
+            }
+        }
+        return model;
+    }
+}
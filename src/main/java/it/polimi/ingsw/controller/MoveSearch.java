@@ -0,0 +1,222 @@
+package it.polimi.ingsw.controller;
+
+import it.polimi.ingsw.model.GameModel;
+import it.polimi.ingsw.model.MoveGenerator;
+import it.polimi.ingsw.model.UndoRecord;
+
+/**
+ * This class chooses the moves of the bots with a search over the model: an alpha-beta search in which the player
+ * to move maximizes its lead (its points minus the best points of the others) and the other players minimize it.
+ * The moves are played on the searched match with GameModel.apply and taken back with GameModel.undo, so the
+ * match is left as it was.
+ * The search deepens one move at a time until the time budget of the move runs out: the move chosen is the best
+ * one of the last depth searched completely (the best move of a depth is searched first at the next one).
+ * An instance is used by one thread at a time
+ */
+public final class MoveSearch implements HeadlessRunner.MoveChooser {
+
+    /**
+     * maximum depth of the search, in moves
+     */
+    private static final int MAX_DEPTH = 16;
+
+    /**
+     * number of nodes searched between two checks of the time
+     */
+    private static final int CHECK_INTERVAL = 256;
+
+    /**
+     * time budget of a move, in nanoseconds
+     */
+    private final long budgetNanos;
+
+    /**
+     * deadline of the current search (see System.nanoTime)
+     */
+    private long deadline;
+
+    /**
+     * true if the current search ran out of time
+     */
+    private boolean aborted;
+
+    /**
+     * number of nodes of the current search
+     */
+    private long nodes;
+
+    /**
+     * the player the current search chooses the move of
+     */
+    private int rootPlayer;
+
+    /**
+     * number of players of the searched match
+     */
+    private int numPlayers;
+
+    /**
+     * depth searched completely by the last search
+     */
+    private int lastDepth;
+
+    /**
+     * Constructor of the class
+     * @param budgetMillis time budget of a move, in milliseconds
+     */
+    public MoveSearch(long budgetMillis) {
+        this.budgetNanos = budgetMillis * 1_000_000;
+    }
+
+    /**
+     * This method chooses the move of the current player within the time budget
+     * @param model the match (it is searched and left as it was: it must not be the match of a server)
+     * @param legalMoves the legal moves of the current player, encoded by the MoveGenerator (never empty)
+     * @return the chosen move, one of legalMoves
+     */
+    @Override
+    public int chooseMove(GameModel model, int[] legalMoves) {
+        return chooseMove(model, legalMoves, System.nanoTime() + this.budgetNanos);
+    }
+
+    /**
+     * This method chooses the move of the current player before the given deadline: at least the first depth is
+     * always searched completely
+     * @param model the match (it is searched and left as it was: it must not be the match of a server)
+     * @param legalMoves the legal moves of the current player, encoded by the MoveGenerator (never empty)
+     * @param deadline the time when the search must stop (see System.nanoTime)
+     * @return the chosen move, one of legalMoves
+     */
+    public int chooseMove(GameModel model, int[] legalMoves, long deadline) {
+        this.rootPlayer = model.getCurrentPlayer();
+        this.numPlayers = model.getPlayerNicknames().size();
+        this.nodes = 0;
+        this.lastDepth = 0;
+
+        // the moves picking more tiles are searched first, so they win the ties
+        int[] moves = legalMoves.clone();
+        sortByTiles(moves);
+
+        int best = moves[0];
+        for (int depth = 1; depth <= MAX_DEPTH; depth++) {
+            // the first depth is searched without deadline, so there is always a move
+            this.deadline = depth == 1 ? Long.MAX_VALUE : deadline;
+            this.aborted = false;
+
+            int bestAtDepth = moves[0];
+            int alpha = Integer.MIN_VALUE;
+            boolean decided = true;
+            for (int move : moves) {
+                UndoRecord undo = model.apply(move);
+                if (!model.isGameOver()) decided = false;
+                int value = search(model, depth - 1, alpha, Integer.MAX_VALUE);
+                model.undo(undo);
+                if (this.aborted) break;
+                if (value > alpha) {
+                    alpha = value;
+                    bestAtDepth = move;
+                }
+            }
+            if (this.aborted) break;
+
+            best = bestAtDepth;
+            this.lastDepth = depth;
+            // every move ends the match: deeper searches give the same values
+            if (decided || moves.length == 1) break;
+            moveToFront(moves, best);
+            if (System.nanoTime() >= deadline) break;
+        }
+        return best;
+    }
+
+    /**
+     * Getter of the depth searched completely by the last search
+     * @return the number of moves of the last depth searched completely
+     */
+    public int getLastDepth() {
+        return this.lastDepth;
+    }
+
+    /**
+     * Getter of the number of nodes of the last search
+     * @return the number of positions visited by the last search
+     */
+    public long getNodes() {
+        return this.nodes;
+    }
+
+    /**
+     * This method searches a position
+     * @param model the match in the position
+     * @param depth the remaining depth
+     * @param alpha the value the player of the search is already sure to reach
+     * @param beta the value the other players are already sure to limit it to
+     * @return the value of the position for the player of the search
+     */
+    private int search(GameModel model, int depth, int alpha, int beta) {
+        if (++this.nodes % CHECK_INTERVAL == 0 && System.nanoTime() >= this.deadline) this.aborted = true;
+        if (this.aborted) return 0;
+        if (depth == 0 || model.isGameOver()) return evaluate(model);
+
+        boolean maximizing = model.getCurrentPlayer() == this.rootPlayer;
+        int value = maximizing ? Integer.MIN_VALUE : Integer.MAX_VALUE;
+        for (int move : model.getLegalMoves()) {
+            UndoRecord undo = model.apply(move);
+            int child = search(model, depth - 1, alpha, beta);
+            model.undo(undo);
+            if (this.aborted) return 0;
+
+            if (maximizing) {
+                value = Math.max(value, child);
+                alpha = Math.max(alpha, value);
+            } else {
+                value = Math.min(value, child);
+                beta = Math.min(beta, value);
+            }
+            if (alpha >= beta) break;
+        }
+        return value;
+    }
+
+    /**
+     * This method evaluates a position: the points of the player of the search minus the best points of the others
+     * @param model the match in the position
+     * @return the value of the position for the player of the search
+     */
+    private int evaluate(GameModel model) {
+        int others = Integer.MIN_VALUE;
+        for (int player = 0; player < this.numPlayers; player++) {
+            if (player != this.rootPlayer) others = Math.max(others, model.getPlayerPoints(player));
+        }
+        return model.getPlayerPoints(this.rootPlayer) - others;
+    }
+
+    /**
+     * This method sorts the moves by number of tiles, from the most to the fewest, keeping the order of the moves
+     * with the same number of tiles
+     * @param moves the moves
+     */
+    private static void sortByTiles(int[] moves) {
+        for (int i = 1; i < moves.length; i++) {
+            int move = moves[i];
+            int j = i - 1;
+            while (j >= 0 && MoveGenerator.size(moves[j]) < MoveGenerator.size(move)) {
+                moves[j + 1] = moves[j];
+                j--;
+            }
+            moves[j + 1] = move;
+        }
+    }
+
+    /**
+     * This method moves a move to the front of the list, keeping the order of the others
+     * @param moves the moves
+     * @param move the move to search first
+     */
+    private static void moveToFront(int[] moves, int move) {
+        int i = 0;
+        while (moves[i] != move) i++;
+        System.arraycopy(moves, 0, moves, 1, i);
+        moves[0] = move;
+    }
+}
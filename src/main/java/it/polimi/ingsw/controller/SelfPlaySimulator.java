@@ -0,0 +1,151 @@
+package it.polimi.ingsw.controller;
+
+import it.polimi.ingsw.model.MoveGenerator;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * This class plays many headless matches (see HeadlessRunner) in parallel and collects their statistics
+ * (see SimulationStats), to measure the throughput of the model and the balance of the game.
+ * Every worker is a thread of a fixed pool (one for every core by default); the workers take the matches from a
+ * shared counter and fill their own statistics, merged at the end, so they never wait for each other.
+ * Every match has its own random stream, derived from the seed of the simulation and the index of the match, which
+ * gives the seed of the match and the random choices of its players: the statistics depend only on the seed and the
+ * number of matches, not on the number of workers or on which worker plays a match
+ */
+public final class SelfPlaySimulator {
+
+    /**
+     * increment of the state of a SplittableRandom (the golden gamma), used to find the values of the stream of the
+     * seed of the simulation
+     */
+    private static final long GOLDEN_GAMMA = 0x9e3779b97f4a7c15L;
+
+    /**
+     * This enum lists the ways the simulated players choose their moves
+     */
+    public enum Heuristic {
+        /**
+         * a random legal move
+         */
+        RANDOM,
+        /**
+         * a random legal move among the ones picking the most tiles
+         */
+        MOST_TILES;
+
+        /**
+         * This method creates the chooser of the moves of this heuristic
+         * @param random the random stream of the match
+         * @return the chooser
+         */
+        HeadlessRunner.MoveChooser chooser(SplittableRandom random) {
+            if (this == RANDOM) return (model, legalMoves) -> legalMoves[random.nextInt(legalMoves.length)];
+            return (model, legalMoves) -> {
+                int maxTiles = 0, count = 0, chosen = legalMoves[0];
+                for (int move : legalMoves) {
+                    int tiles = MoveGenerator.size(move);
+                    if (tiles > maxTiles) {
+                        maxTiles = tiles;
+                        count = 0;
+                    }
+                    // reservoir sampling among the moves with the most tiles
+                    if (tiles == maxTiles && random.nextInt(++count) == 0) chosen = move;
+                }
+                return chosen;
+            };
+        }
+    }
+
+    /**
+     * number of players of the matches
+     */
+    private final int numPlayers;
+
+    /**
+     * number of workers
+     */
+    private final int workers;
+
+    /**
+     * the way the players choose their moves
+     */
+    private final Heuristic heuristic;
+
+    /**
+     * seed of the simulation: the same seed gives the same matches, whatever the number of workers
+     */
+    private final long seed;
+
+    /**
+     * Constructor of the class
+     * @param numPlayers number of players of the matches
+     * @param workers number of workers (threads)
+     * @param heuristic the way the players choose their moves
+     * @param seed seed of the simulation
+     */
+    public SelfPlaySimulator(int numPlayers, int workers, Heuristic heuristic, long seed) {
+        this.numPlayers = numPlayers;
+        this.workers = workers;
+        this.heuristic = heuristic;
+        this.seed = seed;
+    }
+
+    /**
+     * This method plays the given number of matches and returns their statistics
+     * @param games number of matches
+     * @return the statistics of the matches
+     * @throws InterruptedException if the thread is interrupted while waiting for the workers
+     * @throws IllegalStateException if a match fails
+     */
+    public SimulationStats run(long games) throws InterruptedException {
+        ExecutorService pool = Executors.newFixedThreadPool(this.workers, runnable -> {
+            Thread thread = new Thread(runnable, "SelfPlayWorker");
+            thread.setDaemon(true);
+            return thread;
+        });
+        AtomicLong next = new AtomicLong();
+
+        long start = System.nanoTime();
+        List<Future<SimulationStats>> results = new ArrayList<>(this.workers);
+        for (int i = 0; i < this.workers; i++) {
+            results.add(pool.submit(() -> {
+                SimulationStats stats = new SimulationStats(this.numPlayers);
+                for (long match = next.getAndIncrement(); match < games; match = next.getAndIncrement()) {
+                    SplittableRandom random = matchRandom(this.seed, match);
+                    stats.add(HeadlessRunner.play(this.numPlayers, random.nextLong(), this.heuristic.chooser(random)));
+                }
+                return stats;
+            }));
+        }
+
+        SimulationStats total = new SimulationStats(this.numPlayers);
+        try {
+            for (Future<SimulationStats> result : results) total.merge(result.get());
+        } catch (ExecutionException e) {
+            throw new IllegalStateException("A simulated match failed", e.getCause());
+        } finally {
+            pool.shutdownNow();
+        }
+        total.setElapsedNanos(System.nanoTime() - start);
+        return total;
+    }
+
+    /**
+     * This method creates the random stream of a match, seeded with the value of the given index in the stream of
+     * the seed of the simulation (found without generating the values before it)
+     * @param seed seed of the simulation
+     * @param match index of the match
+     * @return the random stream of the match
+     */
+    private static SplittableRandom matchRandom(long seed, long match) {
+        return new SplittableRandom(new SplittableRandom(seed + match * GOLDEN_GAMMA).nextLong());
+    }
+}
@@ -0,0 +1,287 @@
+package it.polimi.ingsw.controller;
+
+import it.polimi.ingsw.constants.ModelConstants;
+import it.polimi.ingsw.model.GameEndedScore;
+import it.polimi.ingsw.model.GameModel;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * This class collects the statistics of the matches played by the SelfPlaySimulator: the number of moves of the
+ * matches, the refills of the board, the seats of the winners and the final scores for every pair of common goals.
+ * Every worker of the simulator fills its own statistics (the class is not thread safe), which are merged at the end
+ */
+public final class SimulationStats {
+
+    /**
+     * number of players of the matches
+     */
+    private final int numPlayers;
+
+    /**
+     * number of matches played
+     */
+    private long games;
+
+    /**
+     * time spent playing the matches, in nanoseconds
+     */
+    private long elapsedNanos;
+
+    /**
+     * number of matches for every number of moves
+     */
+    private long[] moves;
+
+    /**
+     * number of matches for every number of refills of the board
+     */
+    private long[] refills;
+
+    /**
+     * number of matches won by every seat
+     */
+    private final long[] winsBySeat;
+
+    /**
+     * statistics of every pair of common goals, indexed by pairIndex (null for the pairs never drawn)
+     */
+    private final PairStats[] pairs;
+
+    /**
+     * This class collects the final scores of the matches with a pair of common goals
+     */
+    private static final class PairStats {
+        /**
+         * number of matches with the pair
+         */
+        private long games;
+        /**
+         * number of players for every final score
+         */
+        private long[] scores = new long[64];
+        /**
+         * number of matches for every final score of the winner
+         */
+        private long[] winnerScores = new long[64];
+    }
+
+    /**
+     * Constructor of the class: the statistics are empty
+     * @param numPlayers number of players of the matches
+     */
+    public SimulationStats(int numPlayers) {
+        this.numPlayers = numPlayers;
+        this.moves = new long[128];
+        this.refills = new long[16];
+        this.winsBySeat = new long[ModelConstants.MAX_PLAYERS];
+        this.pairs = new PairStats[ModelConstants.TOTAL_GOALS * ModelConstants.TOTAL_GOALS];
+    }
+
+    /**
+     * This method adds an ended match to the statistics
+     * @param model the ended match
+     */
+    public void add(GameModel model) {
+        this.games++;
+        this.moves = increment(this.moves, model.getMovesPlayed());
+        this.refills = increment(this.refills, model.getBoardRefills());
+
+        List<GameEndedScore> leaderBoard = model.getLeaderBoard();
+        this.winsBySeat[model.getPlayerNicknames().indexOf(leaderBoard.get(0).getNickname())]++;
+
+        List<Integer> commonGoals = model.getCommonGoalsCreatedCopy();
+        int pair = pairIndex(commonGoals.get(0), commonGoals.get(1));
+        if (this.pairs[pair] == null) this.pairs[pair] = new PairStats();
+        PairStats stats = this.pairs[pair];
+        stats.games++;
+        for (GameEndedScore score : leaderBoard) stats.scores = increment(stats.scores, score.getFinalPoints());
+        stats.winnerScores = increment(stats.winnerScores, leaderBoard.get(0).getFinalPoints());
+    }
+
+    /**
+     * This method adds the statistics of another worker to these ones
+     * @param other the statistics to add (with the same number of players)
+     */
+    public void merge(SimulationStats other) {
+        this.games += other.games;
+        this.moves = add(this.moves, other.moves);
+        this.refills = add(this.refills, other.refills);
+        for (int i = 0; i < this.winsBySeat.length; i++) this.winsBySeat[i] += other.winsBySeat[i];
+        for (int i = 0; i < this.pairs.length; i++) {
+            if (other.pairs[i] == null) continue;
+            if (this.pairs[i] == null) this.pairs[i] = new PairStats();
+            this.pairs[i].games += other.pairs[i].games;
+            this.pairs[i].scores = add(this.pairs[i].scores, other.pairs[i].scores);
+            this.pairs[i].winnerScores = add(this.pairs[i].winnerScores, other.pairs[i].winnerScores);
+        }
+    }
+
+    /**
+     * Setter of the time spent playing the matches
+     * @param elapsedNanos the time, in nanoseconds
+     */
+    public void setElapsedNanos(long elapsedNanos) {
+        this.elapsedNanos = elapsedNanos;
+    }
+
+    /**
+     * Getter of the number of matches
+     * @return the number of matches played
+     */
+    public long getGames() {
+        return this.games;
+    }
+
+    /**
+     * This method returns the throughput of the simulation
+     * @return the matches played every second
+     */
+    public double getGamesPerSecond() {
+        return this.elapsedNanos == 0 ? 0 : this.games * 1e9 / this.elapsedNanos;
+    }
+
+    /**
+     * This method returns the mean number of moves of the matches
+     * @return the mean number of moves
+     */
+    public double getMeanMoves() {
+        return mean(this.moves);
+    }
+
+    /**
+     * This method returns the mean number of refills of the board in a match
+     * @return the mean number of refills
+     */
+    public double getMeanRefills() {
+        return mean(this.refills);
+    }
+
+    /**
+     * This method returns the number of matches won by a seat
+     * @param seat the index of the player in the order of the turns
+     * @return the number of matches won
+     */
+    public long getWins(int seat) {
+        return this.winsBySeat[seat];
+    }
+
+    /**
+     * This method returns the number of matches with a pair of common goals
+     * @param first a common goal
+     * @param second the other common goal
+     * @return the number of matches
+     */
+    public long getPairGames(int first, int second) {
+        PairStats stats = this.pairs[pairIndex(first, second)];
+        return stats == null ? 0 : stats.games;
+    }
+
+    /**
+     * This method writes the statistics in a readable form: the throughput, the distributions of the moves and of
+     * the refills, the wins of every seat and, for every pair of common goals, the mean and the percentiles of the
+     * final scores of all the players and of the winners
+     * @return the report
+     */
+    public String report() {
+        StringBuilder report = new StringBuilder();
+        report.append(String.format(Locale.ROOT, "%d matches of %d players in %.2f s: %.0f matches/s%n",
+                this.games, this.numPlayers, this.elapsedNanos / 1e9, getGamesPerSecond()));
+        report.append("moves per match:   ").append(distribution(this.moves)).append(System.lineSeparator());
+        report.append("refills per match: ").append(distribution(this.refills)).append(System.lineSeparator());
+        report.append("wins by seat:");
+        for (int seat = 0; seat < this.numPlayers; seat++)
+            report.append(String.format(Locale.ROOT, " %d: %.1f%%", seat, this.games == 0 ? 0 : 100.0 * this.winsBySeat[seat] / this.games));
+        report.append(System.lineSeparator());
+
+        report.append("scores by common goals (all players | winners):").append(System.lineSeparator());
+        for (int first = 0; first < ModelConstants.TOTAL_GOALS; first++) {
+            for (int second = first + 1; second < ModelConstants.TOTAL_GOALS; second++) {
+                PairStats stats = this.pairs[pairIndex(first, second)];
+                if (stats == null) continue;
+                report.append(String.format(Locale.ROOT, "  %2d-%-2d %8d matches  %s | %s%n", first, second, stats.games,
+                        distribution(stats.scores), distribution(stats.winnerScores)));
+            }
+        }
+        return report.toString();
+    }
+
+    /**
+     * This method returns the index of a pair of common goals, the same in both orders
+     * @param first a common goal
+     * @param second the other common goal
+     * @return the index of the pair
+     */
+    private static int pairIndex(int first, int second) {
+        return Math.min(first, second) * ModelConstants.TOTAL_GOALS + Math.max(first, second);
+    }
+
+    /**
+     * This method counts a value in a histogram, making it longer if needed
+     * @param histogram the histogram
+     * @param value the value (not negative)
+     * @return the histogram (a new one if it was too short)
+     */
+    private static long[] increment(long[] histogram, int value) {
+        if (value >= histogram.length) histogram = Arrays.copyOf(histogram, Math.max(value + 1, 2 * histogram.length));
+        histogram[value]++;
+        return histogram;
+    }
+
+    /**
+     * This method adds a histogram to another
+     * @param histogram the histogram to update
+     * @param other the histogram to add
+     * @return the sum (a new histogram if the first one was too short)
+     */
+    private static long[] add(long[] histogram, long[] other) {
+        if (other.length > histogram.length) histogram = Arrays.copyOf(histogram, other.length);
+        for (int i = 0; i < other.length; i++) histogram[i] += other[i];
+        return histogram;
+    }
+
+    /**
+     * This method computes the mean of a histogram
+     * @param histogram the histogram
+     * @return the mean value (0 if the histogram is empty)
+     */
+    private static double mean(long[] histogram) {
+        long count = 0, sum = 0;
+        for (int i = 0; i < histogram.length; i++) {
+            count += histogram[i];
+            sum += i * histogram[i];
+        }
+        return count == 0 ? 0 : (double) sum / count;
+    }
+
+    /**
+     * This method computes a percentile of a histogram
+     * @param histogram the histogram (not empty)
+     * @param fraction the fraction of the values lower or equal to the percentile, between 0 and 1
+     * @return the percentile
+     */
+    private static int percentile(long[] histogram, double fraction) {
+        long count = Arrays.stream(histogram).sum();
+        long rank = Math.max(1, (long) Math.ceil(fraction * count));
+        long seen = 0;
+        for (int i = 0; i < histogram.length; i++) {
+            seen += histogram[i];
+            if (seen >= rank) return i;
+        }
+        return histogram.length - 1;
+    }
+
+    /**
+     * This method describes a histogram with its mean, minimum, 10th percentile, median, 90th percentile and maximum
+     * @param histogram the histogram
+     * @return the description
+     */
+    private static String distribution(long[] histogram) {
+        if (Arrays.stream(histogram).sum() == 0) return "-";
+        return String.format(Locale.ROOT, "mean %6.2f  min %3d  p10 %3d  p50 %3d  p90 %3d  max %3d", mean(histogram),
+                percentile(histogram, 0), percentile(histogram, 0.1), percentile(histogram, 0.5),
+                percentile(histogram, 0.9), percentile(histogram, 1));
+    }
+}
@@ -44,13 +44,14 @@ public class VirtualView implements Observer{
 
     /**
      * This method is the override of the observer pattern
-     * It updates the gameInfo which has to be sent to the client with copies of what is present in the model
+     * It updates the gameInfo which has to be sent to the client with what is present in the model: the board and
+     * the shelves are immutable snapshots, so only the rows changed by the last move are copied
      * @param model that will be observed
      */
     @Override
     public void update(GameModel model) {
         // Something bad happens when we create a new gameInfo
-        this.gameInfo=new GameInfo(model.getGameBoardCopy(), model.getCommonGoalsCreatedCopy(), model.getCommonGoalsStackCopy(), model.getPlayerListCopy(), model.getLeaderBoard(), model.getCurrentPlayerNickName());
+        this.gameInfo=new GameInfo(model.getGameBoardSnapshot(), model.getCommonGoalsCreatedCopy(), model.getCommonGoalsStackCopy(), model.getPlayerListCopy(), model.getLeaderBoard(), model.getCurrentPlayerNickName());
         if(model.isGameOver()) this.currentState=State.ENDGAME;
         else {
             switch (model.getCurrentPlayer()) {
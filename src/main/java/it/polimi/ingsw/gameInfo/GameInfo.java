@@ -12,7 +12,8 @@ import java.util.List;
  */
 public class GameInfo implements Serializable {
     /**
-     * This attribute stores the current game board in the game
+     * This attribute stores the current game board in the game (a snapshot shared with the other GameInfo, so it
+     * must not be modified)
      */
     @Expose
     private final Tile[][] gameBoard;
@@ -47,7 +48,7 @@ public class GameInfo implements Serializable {
     /**
      * The constructor stores the references to copies of the GameModel attributes
      *
-     * @param myGameBoard           reference to a copy of the game board
+     * @param myGameBoard           reference to a snapshot of the game board
      * @param commonGoalsCreated    reference to a copy of the list of common goals
      * @param commonGoalsStackTop   reference to a copy of the stack of the common goals
      * @param playerInfosList       reference to a copy of all the player states
@@ -65,7 +66,7 @@ public class GameInfo implements Serializable {
 
     /**
      * Getter
-     * @return the reference to the copied game board
+     * @return the reference to the snapshot of the game board (it must not be modified)
      */
     public Tile[][] getGameBoard() {
         return gameBoard;
@@ -43,7 +43,8 @@ public class PlayerInfo implements Serializable {
     private final int groupPoints;
 
     /**
-     * This attribute stores the shelf of the player
+     * This attribute stores the shelf of the player (a snapshot shared with the other PlayerInfo, so it is never
+     * given away)
      */
     @Expose
     private final Tile[][] shelf;
@@ -60,6 +61,12 @@ public class PlayerInfo implements Serializable {
     @Expose
     private final Integer personalGoalNumber;
 
+    /**
+     * This attribute stores the maximum number of tiles that can be inserted in the shelf of the player with a move
+     */
+    @Expose
+    private final int maxInsertableTiles;
+
     /**
      * Constructor
      *
@@ -71,8 +78,9 @@ public class PlayerInfo implements Serializable {
      * @param shelf         of the player
      * @param personalGoal  of the player
      * @param personalGoalNumber of the player
+     * @param maxInsertableTiles of the player's shelf
      */
-    public PlayerInfo(String nickname, int pgPoints, List<Integer> comGoalPoints, int firstPoint, int groupPoints, Tile[][] shelf, List<SingleGoal> personalGoal, int personalGoalNumber) {
+    public PlayerInfo(String nickname, int pgPoints, List<Integer> comGoalPoints, int firstPoint, int groupPoints, Tile[][] shelf, List<SingleGoal> personalGoal, int personalGoalNumber, int maxInsertableTiles) {
         this.nickname = nickname;
         this.pgPoints = pgPoints;
         this.comGoalPoints = comGoalPoints;
@@ -81,6 +89,7 @@ public class PlayerInfo implements Serializable {
         this.shelf = shelf;
         this.personalGoal = personalGoal;
         this.personalGoalNumber = personalGoalNumber;
+        this.maxInsertableTiles = maxInsertableTiles;
     }
 
     /**
@@ -116,12 +125,11 @@ public class PlayerInfo implements Serializable {
      * @return the shelf of the player
      */
     public Tile[][] getShelf() {
-        Tile[][] shelfCopy = new Tile[ModelConstants.ROWS_NUMBER][ModelConstants.COLS_NUMBER];
+        // tiles are immutable, so copying the rows is enough
+        Tile[][] shelfCopy = new Tile[ModelConstants.ROWS_NUMBER][];
 
         for (int i = 0; i < ModelConstants.ROWS_NUMBER; i++) {
-            for (int j = 0; j < ModelConstants.COLS_NUMBER; j++) {
-                shelfCopy[i][j] = new Tile(shelf[i][j]);
-            }
+            shelfCopy[i] = shelf[i].clone();
         }
 
         return shelfCopy;
@@ -143,6 +151,15 @@ public class PlayerInfo implements Serializable {
      */
     public Integer getPersonalGoalNumber() {return personalGoalNumber; }
 
+    /**
+     * Getter
+     *
+     * @return the maximum number of tiles that can be inserted in the shelf of the player with a move
+     */
+    public int getMaxInsertableTiles() {
+        return maxInsertableTiles;
+    }
+
     /**
      * Getter
      * @return the points of the player for the first player
@@ -24,10 +24,14 @@ public class App
 
         startCommands.put("--server", () -> ServerLauncher.main(args));
         startCommands.put("--client", () -> ViewLauncher.main(args));
+        startCommands.put("--convert", () -> SaveConverter.main(args));
+        startCommands.put("--simulate", () -> SimulatorLauncher.main(args));
         startCommands.put("--help", () -> System.out.println("""
                 Usage:\s
                 --server to launch the application as a server\s
-                --client to launch the application as a client"""));
+                --client to launch the application as a client\s
+                --convert to convert the saved matches between JSON and binary\s
+                --simulate to play simulated matches and print their statistics"""));
 
         if(args.length>0){
 
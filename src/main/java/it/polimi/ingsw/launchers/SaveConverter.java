@@ -0,0 +1,83 @@
+package it.polimi.ingsw.launchers;
+
+import it.polimi.ingsw.constants.ModelConstants;
+import it.polimi.ingsw.model.persistence.MatchManifest;
+import it.polimi.ingsw.model.persistence.SaveFormat;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Stream;
+
+/**
+ * This class is used to launch the application in converter mode: it converts the saved matches between the JSON
+ * and the binary format (see SaveFormat). The server reads both formats, so converting is only needed to inspect a
+ * binary match or to shrink the old JSON ones at once
+ */
+public class SaveConverter {
+
+    /**
+     * Main of the converter.
+     * The first argument after the mode is the target format, the second (optional) is a saved match or a directory
+     * of saved matches (ModelConstants.PATH_SAVED_MATCHES by default)
+     * @param args arguments passed via command line
+     */
+    public static void main(String[] args) {
+
+        List<String> argsToList=new ArrayList<>(List.of(args));
+
+        if(!argsToList.isEmpty())argsToList.remove(0);
+        if(argsToList.isEmpty() || argsToList.get(0).equals("--help")){
+            System.out.println("""
+                    Usage:\s
+                    --convert JSON|BINARY [file or directory]""");
+            return;
+        }
+
+        SaveFormat format;
+        try {
+            format = SaveFormat.valueOf(argsToList.get(0).toUpperCase());
+        } catch (IllegalArgumentException e) {
+            System.out.println("Unknown format "+argsToList.get(0));
+            return;
+        }
+        Path source = Paths.get(argsToList.size() > 1 ? argsToList.get(1) : ModelConstants.PATH_SAVED_MATCHES);
+
+        List<Path> files;
+        try {
+            files = Files.isDirectory(source) ? listMatches(source) : List.of(source);
+        } catch (IOException e) {
+            System.out.println("Error in reading "+source+": "+e.getMessage());
+            return;
+        }
+
+        for(Path file: files){
+            try {
+                long before = Files.size(file);
+                Path converted = format.convert(file);
+                System.out.println(file.getFileName()+" ("+before+" bytes) -> "+converted.getFileName()+" ("+Files.size(converted)+" bytes)");
+            } catch (IOException e) {
+                System.out.println("Error in converting "+file.getFileName()+": "+e.getMessage());
+            }
+        }
+    }
+
+    /**
+     * This method lists the saved matches of a directory (the manifest and the temporary files of interrupted writes
+     * are skipped)
+     * @param directory the directory
+     * @return the files of the saved matches
+     * @throws IOException if the directory can't be read
+     */
+    private static List<Path> listMatches(Path directory) throws IOException {
+        try (Stream<Path> files = Files.list(directory)) {
+            return files.filter(Files::isRegularFile)
+                    .filter(file -> MatchManifest.isMatchFile(file.getFileName().toString()))
+                    .sorted()
+                    .toList();
+        }
+    }
+}
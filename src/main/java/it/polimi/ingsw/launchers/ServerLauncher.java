@@ -1,6 +1,8 @@
 package it.polimi.ingsw.launchers;
 
 import it.polimi.ingsw.constants.ServerConstants;
+import it.polimi.ingsw.model.persistence.FlushPolicy;
+import it.polimi.ingsw.model.persistence.SaveFormat;
 import it.polimi.ingsw.network.server.LobbyServer;
 import it.polimi.ingsw.network.server.LobbyServerConfig;
 import it.polimi.ingsw.utilities.JsonWithExposeSingleton;
@@ -40,6 +42,8 @@ public class ServerLauncher {
         serverParameters.put("--rmi-port   ", (index) -> input.setServerPortRMI(Integer.valueOf(argsToList.get(index+1))));
         serverParameters.put("--server-name", (index) -> input.setServerName(argsToList.get(index+1)));
         serverParameters.put("--game-name"  , (index) -> input.setStartingName(argsToList.get(index+1)));
+        serverParameters.put("--flush-policy", (index) -> input.setFlushPolicy(FlushPolicy.valueOf(argsToList.get(index+1))));
+        serverParameters.put("--save-format", (index) -> input.setSaveFormat(SaveFormat.valueOf(argsToList.get(index+1))));
 
 
         if(argsToList.size() > 0 && argsToList.get(0).equals("--help")){
@@ -48,7 +52,9 @@ public class ServerLauncher {
                     --tcp-port
                     --rmi-port
                     --server-name
-                    --game-name""");
+                    --game-name
+                    --flush-policy (SYNCHRONOUS, ASYNCHRONOUS or PERIODIC)
+                    --save-format (JSON or BINARY)""");
             return;
         }
         for(int i=0; i<argsToList.size();i+=2){
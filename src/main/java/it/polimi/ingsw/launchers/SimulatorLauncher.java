@@ -0,0 +1,71 @@
+package it.polimi.ingsw.launchers;
+
+import it.polimi.ingsw.constants.ModelConstants;
+import it.polimi.ingsw.controller.SelfPlaySimulator;
+import it.polimi.ingsw.controller.SimulationStats;
+import it.polimi.ingsw.model.GameConfigRegistry;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * This class is used to launch the application in simulator mode: it plays many matches between simulated players
+ * on all the cores (see SelfPlaySimulator) and prints their statistics
+ */
+public class SimulatorLauncher {
+
+    /**
+     * usage of the simulator, printed on request and when an argument is invalid
+     */
+    private static final String USAGE = """
+            Usage:\s
+            --simulate matches [players] [threads] [RANDOM|MOST_TILES] [seed]""";
+
+    /**
+     * Main of the simulator.
+     * The arguments after the mode are the number of matches, the number of players (2 by default), the number of
+     * threads (the number of cores by default), the heuristic of the players (RANDOM by default) and the seed
+     * @param args arguments passed via command line
+     */
+    public static void main(String[] args) {
+
+        List<String> argsToList=new ArrayList<>(List.of(args));
+
+        if(!argsToList.isEmpty())argsToList.remove(0);
+        if(argsToList.isEmpty() || argsToList.get(0).equals("--help")){
+            System.out.println(USAGE);
+            return;
+        }
+
+        long games;
+        int numPlayers, threads;
+        SelfPlaySimulator.Heuristic heuristic;
+        long seed;
+        try {
+            games = Long.parseLong(argsToList.get(0));
+            numPlayers = argsToList.size() > 1 ? Integer.parseInt(argsToList.get(1)) : 2;
+            threads = argsToList.size() > 2 ? Integer.parseInt(argsToList.get(2)) : Runtime.getRuntime().availableProcessors();
+            heuristic = argsToList.size() > 3 ? SelfPlaySimulator.Heuristic.valueOf(argsToList.get(3).toUpperCase()) : SelfPlaySimulator.Heuristic.RANDOM;
+            seed = argsToList.size() > 4 ? Long.parseLong(argsToList.get(4)) : System.nanoTime();
+            if (games < 0) throw new IllegalArgumentException("the number of matches can't be negative");
+            if (numPlayers < 2 || numPlayers > ModelConstants.MAX_PLAYERS)
+                throw new IllegalArgumentException("the number of players must be between 2 and "+ModelConstants.MAX_PLAYERS);
+            if (threads < 1) throw new IllegalArgumentException("the number of threads must be at least 1");
+        } catch (IllegalArgumentException e) {
+            System.out.println("Invalid argument: "+e.getMessage());
+            System.out.println(USAGE);
+            return;
+        }
+
+        // the configuration is read before the timer starts
+        GameConfigRegistry.getGameConfigRegistry();
+        System.out.println("Simulating "+games+" matches of "+numPlayers+" players on "+threads+" threads ("+heuristic+", seed "+seed+")...");
+        try {
+            SimulationStats stats = new SelfPlaySimulator(numPlayers, threads, heuristic, seed).run(games);
+            System.out.print(stats.report());
+        } catch (InterruptedException e) {
+            System.out.println("Simulation interrupted");
+            Thread.currentThread().interrupt();
+        }
+    }
+}
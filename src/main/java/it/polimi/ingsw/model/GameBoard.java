@@ -4,17 +4,17 @@ import com.google.gson.annotations.Expose;
 import it.polimi.ingsw.model.commonGoals.*;
 import it.polimi.ingsw.constants.ModelConstants;
 import it.polimi.ingsw.constants.BoardConstants;
-import com.google.gson.Gson;
 import it.polimi.ingsw.model.exceptions.NoMoreTilesAtStartFillBoardException;
 import it.polimi.ingsw.model.exceptions.NoMoreTilesToFillBoardException;
-import it.polimi.ingsw.utilities.JsonWithExposeSingleton;
-import it.polimi.ingsw.utilities.RandomSingleton;
-import it.polimi.ingsw.utilities.UtilityFunctions;
 import it.polimi.ingsw.utilities.UtilityFunctionsModel;
 
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
 import java.util.ArrayList;
+import java.util.BitSet;
 import java.util.List;
-import java.util.Random;
+import java.util.SplittableRandom;
 
 /**
  * This is the class used for the simulation of the physical game board.
@@ -36,40 +36,68 @@ public final class GameBoard {
     @Expose
     private final List<MyStack> commonGoalsStacks;
     /**
-     * List of all the 132 tiles that can be found in the game "bucket"
+     * List of all the 132 tiles that can be found in the game "bucket".
+     * The order of the tiles doesn't matter, so a tile is drawn by moving the last one in its place (see drawTile)
      */
     @Expose
     private final List<Tile> allTiles;
 
+    /**
+     * For every cell of the board (indexed by Position.boardIndex), the board indexes of the adjacent valid cells.
+     * It is the table shared by the configuration of the layout of the board.
+     * This attribute, like the following ones, is an index of myGameBoard: it is not saved, and it is rebuilt
+     * (see ensureIndexed) when it is missing, that is after loading from file and in the copy constructor
+     */
+    private transient int[][] neighbourTable;
+
+    /**
+     * For every cell of the board, the number of adjacent cells containing a tile
+     */
+    private transient int[] occupiedNeighbours;
+
+    /**
+     * The cells containing a tile that can be picked, that is with at least one free side
+     */
+    private transient BitSet pickableCells;
+
+    /**
+     * The number of pairs of adjacent cells both containing a tile: when it is zero every tile on the board is
+     * isolated, and the board has to be filled
+     */
+    private transient int adjacentPairs;
+
+    /**
+     * This attribute publishes the snapshots of the board (created on first use, see getGameBoardSnapshot)
+     */
+    private transient TileGridSnapshots snapshots;
+
 
 
     /**
      * This method is the utility used by the GameModel to get the gameBoard based on the number of players
      * @param numPlayers number of players of the current game (between 2 and 4)
      * @param cg list of integers representing the common goals for the current game
+     * @param random random generator of the match, used to create and draw the tiles
      * @return game board configured and filled
      */
-    public static GameBoard createGameBoard(int numPlayers, List<Integer> cg){
-        if(numPlayers==2) return new GameBoard(BoardConstants.FILE_CONFIG_GAMEBOARD2, cg);
-        if(numPlayers==3) return new GameBoard(BoardConstants.FILE_CONFIG_GAMEBOARD3, cg);
-        return new GameBoard(BoardConstants.FILE_CONFIG_GAMEBOARD4, cg);
+    public static GameBoard createGameBoard(int numPlayers, List<Integer> cg, SplittableRandom random){
+        return new GameBoard(GameConfigRegistry.getGameConfigRegistry().getBoardConfiguration(numPlayers == 2 || numPlayers == 3 ? numPlayers : 4), cg, random);
     }
     /**
      * The constructor creates all the data structures and the utility attributes.
-     * Note also that it creates a temporary object GameBoardConfiguration used to store all the loaded data
-     * @param typeOfBoard string chosen in the GameBoardFactory containing the path of the config file
+     * @param g configuration of the board (shared, loaded by the GameConfigRegistry)
+     * @param cg list of integers representing the common goals for the current game
+     * @param random random generator of the match
      */
-    private GameBoard(String typeOfBoard, List<Integer> cg){
+    private GameBoard(GameBoardConfiguration g, List<Integer> cg, SplittableRandom random){
         this.myGameBoard=new Tile[BoardConstants.BOARD_DIMENSION][BoardConstants.BOARD_DIMENSION];
         this.commonGoals =new ArrayList<>(BoardConstants.TOTAL_CG_PER_GAME);
         addAllCommonGoals(cg);
         this.commonGoalsStacks=new ArrayList<>(BoardConstants.TOTAL_CG_PER_GAME);
         for(int i=0; i<BoardConstants.TOTAL_CG_PER_GAME; i++) this.commonGoalsStacks.add(new MyStack());
         this.allTiles =new ArrayList<>(BoardConstants.TOTAL_TILES);
-        Gson jsonParser= JsonWithExposeSingleton.getJsonWithExposeSingleton();
-        GameBoardConfiguration g=jsonParser.fromJson(UtilityFunctions.getReaderFromFileNameRelativePath(typeOfBoard, GameBoard.class), GameBoardConfiguration.class);
-        fillAllTilesList();
-        initialGameBoardFill(g.getValidPositions());
+        fillAllTilesList(random);
+        initialGameBoardFill(g, random);
         fillAllPointStack(g.getPointStack());
     }
 
@@ -86,6 +114,71 @@ public final class GameBoard {
         this.allTiles=gameBoard.allTiles;
     }
 
+    /**
+     * Constructor of an independent copy of the game board: the board, the bag and the stacks are copied, so
+     * changing the copy doesn't change the original (the common goals are stateless and shared)
+     * @param gameBoard gameBoard to be copied
+     */
+    GameBoard(GameBoard gameBoard){
+        this.myGameBoard=gameBoard.getGameBoardCopy();
+        this.commonGoals=gameBoard.commonGoals;
+        this.commonGoalsStacks=new ArrayList<>(BoardConstants.TOTAL_CG_PER_GAME);
+        for(MyStack s: gameBoard.commonGoalsStacks) this.commonGoalsStacks.add(new MyStack(s));
+        this.allTiles=new ArrayList<>(gameBoard.allTiles);
+    }
+
+    /**
+     * Constructor of a game board read from a binary save (its indexes are built on first use)
+     * @param myGameBoard the tiles of the board
+     * @param cg the indexes of the common goals
+     * @param commonGoalsStacks the point stacks of the common goals
+     * @param allTiles the tiles left in the bag
+     */
+    private GameBoard(Tile[][] myGameBoard, List<Integer> cg, List<MyStack> commonGoalsStacks, List<Tile> allTiles){
+        this.myGameBoard=myGameBoard;
+        this.commonGoals=new ArrayList<>(BoardConstants.TOTAL_CG_PER_GAME);
+        addAllCommonGoals(cg);
+        this.commonGoalsStacks=commonGoalsStacks;
+        this.allTiles=allTiles;
+    }
+
+    /**
+     * This method writes the game board in the binary save format: the code of every tile of the board (see
+     * Tile.toCode) row by row, the point stacks and the tiles left in the bag
+     * @param out the output of the save
+     * @throws IOException if the output can't be written
+     */
+    void writeTo(DataOutput out) throws IOException {
+        for(Tile[] row: this.myGameBoard){
+            for(Tile tile: row) out.writeByte(tile.toCode());
+        }
+        out.writeByte(this.commonGoalsStacks.size());
+        for(MyStack s: this.commonGoalsStacks) s.writeTo(out);
+        out.writeShort(this.allTiles.size());
+        for(Tile tile: this.allTiles) out.writeByte(tile.toCode());
+    }
+
+    /**
+     * This method reads a game board written by writeTo
+     * @param in the input of the save
+     * @param cg the indexes of the common goals of the match
+     * @return the game board
+     * @throws IOException if the input can't be read
+     */
+    static GameBoard readFrom(DataInput in, List<Integer> cg) throws IOException {
+        Tile[][] board=new Tile[BoardConstants.BOARD_DIMENSION][BoardConstants.BOARD_DIMENSION];
+        for(int y=0; y<BoardConstants.BOARD_DIMENSION; y++){
+            for(int x=0; x<BoardConstants.BOARD_DIMENSION; x++) board[y][x]=Tile.ofCode(in.readUnsignedByte());
+        }
+        int numStacks=in.readUnsignedByte();
+        List<MyStack> stacks=new ArrayList<>(numStacks);
+        for(int i=0; i<numStacks; i++) stacks.add(MyStack.readFrom(in));
+        int bagSize=in.readUnsignedShort();
+        List<Tile> bag=new ArrayList<>(BoardConstants.TOTAL_TILES);
+        for(int i=0; i<bagSize; i++) bag.add(Tile.ofCode(in.readUnsignedByte()));
+        return new GameBoard(board, cg, stacks, bag);
+    }
+
     /**
      * This method gets a list of integers, and it creates the common goals based on a mapping done by integer -> objective
      * @param list list of integers
@@ -102,8 +195,9 @@ public final class GameBoard {
     /**
      * This method fills the bucket of possible tiles with TOTAL_COLORS x TOTAL_TILES_PER_COLOR =132 tiles
      * and a random sprite from 1 to 3
+     * @param r random generator of the match
      */
-    private void fillAllTilesList(){
+    private void fillAllTilesList(SplittableRandom r){
         TileColor[] allColors=new TileColor[]{
                 TileColor.BLUE,
                 TileColor.GREEN,
@@ -113,10 +207,9 @@ public final class GameBoard {
                 TileColor.VIOLET
         };
 
-        Random r= RandomSingleton.getRandomSingleton();
         for(int j=0; j<BoardConstants.TOTAL_COLORS;j++){
             for(int i = 0; i<BoardConstants.TOTAL_TILES_PER_COLOR; i++){
-                allTiles.add(new Tile(allColors[j],r.nextInt(3)+1));
+                allTiles.add(Tile.of(allColors[j],r.nextInt(BoardConstants.TOTAL_SPRITES)+1));
             }
         }
     }
@@ -124,14 +217,14 @@ public final class GameBoard {
     /**
      * This method is called only in the constructor and its only purpose is to fill the board with the valid and invalid positions
      * The invalid positions are the ones which in the json file are set to 0
-     * @param validPositions integer matrix loaded from the json config file containing the information of a valid position
+     * @param g configuration of the board containing the information of a valid position
+     * @param r random generator of the match
      */
-    private void initialGameBoardFill(Integer[][] validPositions){
-        Random r= RandomSingleton.getRandomSingleton();
+    private void initialGameBoardFill(GameBoardConfiguration g, SplittableRandom r){
         for(int y=0; y<BoardConstants.BOARD_DIMENSION; y++){
             for(int x=0; x<BoardConstants.BOARD_DIMENSION; x++){
-                if(validPositions[y][x]==1) myGameBoard[y][x]=new Tile(allTiles.remove(r.nextInt(allTiles.size())));
-                else myGameBoard[y][x]=new Tile(TileColor.INVALID,1);
+                if(g.isValidPosition(x, y)) myGameBoard[y][x]=drawTile(r);
+                else myGameBoard[y][x]=Tile.INVALID;
             }
         }
     }
@@ -142,23 +235,89 @@ public final class GameBoard {
      * If at the start of the method the bag is empty, then it throws an exception that needs to be checked
      * If at some moment after it started filling it finds out that the bag is empty, then also needs to throw an exception (different)
      * that can be checked maybe to avoid calling the function again
+     * @param r random generator of the match
      * @throws NoMoreTilesAtStartFillBoardException self-explanatory
      * @throws NoMoreTilesToFillBoardException self-explanatory
      */
-    public void fillBoard() throws NoMoreTilesAtStartFillBoardException, NoMoreTilesToFillBoardException {
+    public void fillBoard(SplittableRandom r) throws NoMoreTilesAtStartFillBoardException, NoMoreTilesToFillBoardException {
+        fillBoard(r, null);
+    }
+
+    /**
+     * This method fills the board like fillBoard, recording every draw in the given record so that the refill
+     * can be taken back by undoFill
+     * @param r random generator of the match
+     * @param undo the record of the move causing the refill (null if it can't be taken back)
+     * @throws NoMoreTilesAtStartFillBoardException if the bag is empty
+     * @throws NoMoreTilesToFillBoardException if the bag runs out while filling the board
+     */
+    void fillBoard(SplittableRandom r, UndoRecord undo) throws NoMoreTilesAtStartFillBoardException, NoMoreTilesToFillBoardException {
         if(allTiles.size()==0) throw new NoMoreTilesAtStartFillBoardException();
 
-        Random r= RandomSingleton.getRandomSingleton();
+        ensureIndexed();
         for(int y=0;y<BoardConstants.BOARD_DIMENSION;y++){
             for(int x=0;x<BoardConstants.BOARD_DIMENSION;x++){
                 if(!myGameBoard[y][x].isInvalid() && myGameBoard[y][x].isEmpty()){
-                    myGameBoard[y][x]=new Tile(allTiles.remove(r.nextInt(allTiles.size())));
+                    int cell = x + y * BoardConstants.BOARD_DIMENSION;
+                    int drawn = r.nextInt(allTiles.size());
+                    myGameBoard[y][x]=takeTile(drawn);
+                    if(undo!=null) undo.recordDraw(cell, drawn);
+                    tilePlaced(cell);
+                    if(snapshots!=null) snapshots.rowChanged(y);
                     if(allTiles.size()==0) throw new NoMoreTilesToFillBoardException();
                 }
             }
         }
     }
 
+    /**
+     * This method draws a random tile from the bag in constant time: the last tile of the list takes the place of
+     * the drawn one, so no tile has to be shifted
+     * @param r random generator of the match
+     * @return the drawn tile (the bag must not be empty)
+     */
+    private Tile drawTile(SplittableRandom r){
+        return takeTile(r.nextInt(allTiles.size()));
+    }
+
+    /**
+     * This method takes a tile from the bag, moving the last tile of the list in its place
+     * @param drawn position of the tile in the bag
+     * @return the tile
+     */
+    private Tile takeTile(int drawn){
+        int last = allTiles.size() - 1;
+        Tile tile = allTiles.get(drawn);
+        allTiles.set(drawn, allTiles.get(last));
+        allTiles.remove(last);
+        return tile;
+    }
+
+    /**
+     * This method takes back the refill recorded by fillBoard: the drawn tiles are put back in the bag, in the
+     * reverse order of the draws, each in the position it was drawn from (the tile moved in its place goes back
+     * to the end of the list), so the bag is the same as before the refill
+     * @param undo the record of the refill
+     */
+    void undoFill(UndoRecord undo){
+        ensureIndexed();
+        for(int i=undo.drawnCount-1; i>=0; i--){
+            int cell = undo.drawnCells[i];
+            int drawn = undo.drawnIndexes[i];
+            Tile tile = tileAt(cell);
+            myGameBoard[cell / BoardConstants.BOARD_DIMENSION][cell % BoardConstants.BOARD_DIMENSION]=Tile.EMPTY;
+            tileRemoved(cell);
+            if(snapshots!=null) snapshots.rowChanged(cell / BoardConstants.BOARD_DIMENSION);
+
+            allTiles.add(tile);
+            int last = allTiles.size() - 1;
+            if(drawn != last){
+                allTiles.set(last, allTiles.get(drawn));
+                allTiles.set(drawn, tile);
+            }
+        }
+    }
+
     /**
      * This method is only called in the constructor, and it is used for the creation of the stack for each common shelf
      * @param pointStack integer array loaded from the json config file containing the stack of points(from lowest to highest)
@@ -181,20 +340,14 @@ public final class GameBoard {
     }
 
     /**
-     * This method checks if the board has to be filled.
-     * In detail for each tile in the board(not invalid and not empty) you look if it has any neighbors not empty.
-     * If no tile satisfies the condition then it means there are only lonely "islands" on the board, and it should be filled again by calling fillBoard()
+     * This method checks if the board has to be filled, that is if no tile on the board has an adjacent tile
+     * (there are only lonely "islands" on the board), and it should be filled again by calling fillBoard().
+     * The pairs of adjacent tiles are counted while the board changes, so this is a constant time check
      * @return true if the board has to be filled
      */
     public boolean hasToBeFilled() {
-        for(int y=0;y<BoardConstants.BOARD_DIMENSION;y++){
-            for(int x=0;x<BoardConstants.BOARD_DIMENSION;x++){
-                if (!myGameBoard[y][x].isInvalid() && !myGameBoard[y][x].isEmpty()) {
-                    if (!this.everyAdjacentEmpty(new Position(x,y))) return false;
-                }
-            }
-        }
-        return true;
+        ensureIndexed();
+        return adjacentPairs == 0;
     }
 
     /**
@@ -210,49 +363,120 @@ public final class GameBoard {
 
     /**
      * This method checks if a tile has at least one free adjacent space, useful to the GameModel to check also that it is a valid move
+     * A side is free if it is on the edge of the board or if the adjacent cell is empty or invalid, so for the cells
+     * of the board it is enough to count the adjacent tiles
      * @param p coordinates of the tile
      * @return true if the tile in position p has at least one empty space in one of the final directions
      */
     public boolean hasFreeAdjacent(Position p){
-        return UtilityFunctionsModel.hasFreeAdjacent(this.myGameBoard, p);
+        if (p.x() < 0 || p.y() < 0 || p.x() >= BoardConstants.BOARD_DIMENSION || p.y() >= BoardConstants.BOARD_DIMENSION)
+            return UtilityFunctionsModel.hasFreeAdjacent(this.myGameBoard, p);
+
+        ensureIndexed();
+        return occupiedNeighbours[p.boardIndex()] < 4;
     }
 
+    /**
+     * This method checks if the tile in the given position can be picked: the position contains a tile with at
+     * least one free side
+     * @param p coordinates of the tile
+     * @return true if the tile can be picked
+     */
+    public boolean isPickable(Position p){
+        if (p.x() < 0 || p.y() < 0 || p.x() >= BoardConstants.BOARD_DIMENSION || p.y() >= BoardConstants.BOARD_DIMENSION) return false;
+
+        ensureIndexed();
+        return pickableCells.get(p.boardIndex());
+    }
 
     /**
-     * This method is similar to hasFreeAdjacent, but it checks that every adjacent is empty.
-     * Only called in hasToBeFilled()
-     * @param p position of the tile
-     * @return true if every adjacent position to the tile is free
+     * This method returns the cells of the tiles that can be picked
+     * @return a copy of the set of the board indexes (see Position.boardIndex) of the pickable tiles
      */
-    private boolean everyAdjacentEmpty(Position p){
-        int x=p.x();
-        int y=p.y();
-        Tile c;
-        if(x>0){
-            c=myGameBoard[y][x-1];
-            if(!c.isInvalid()) {
-                if (!c.isEmpty()) return false;
-            }
+    public BitSet getPickableCells(){
+        ensureIndexed();
+        return (BitSet) pickableCells.clone();
+    }
+
+    /**
+     * This method rebuilds the indexes of the board if they are missing (after loading from file and in the copy
+     * constructor). The neighbour table is the one of the configuration with the same layout, or it is built from
+     * the board if no configuration has its layout
+     */
+    private void ensureIndexed(){
+        if (occupiedNeighbours != null) return;
+
+        GameConfigRegistry registry = GameConfigRegistry.getGameConfigRegistry();
+        neighbourTable = null;
+        for (int numPlayers = 2; numPlayers <= 4 && neighbourTable == null; numPlayers++) {
+            GameBoardConfiguration configuration = registry.getBoardConfiguration(numPlayers);
+            if (configuration.hasLayoutOf(myGameBoard)) neighbourTable = configuration.getNeighbourTable();
         }
-        if(x<BoardConstants.BOARD_DIMENSION-1){
-            c=myGameBoard[y][x+1];
-            if(!c.isInvalid()) {
-                if (!c.isEmpty()) return false;
-            }
+        if (neighbourTable == null) {
+            boolean[] valid = new boolean[Position.BOARD_CELLS];
+            for (int cell = 0; cell < Position.BOARD_CELLS; cell++) valid[cell] = !tileAt(cell).isInvalid();
+            neighbourTable = GameBoardConfiguration.buildNeighbourTable(valid);
         }
-        if(y>0){
-            c=myGameBoard[y-1][x];
-            if(!c.isInvalid()) {
-                if (!c.isEmpty()) return false;
-            }
+
+        occupiedNeighbours = new int[Position.BOARD_CELLS];
+        pickableCells = new BitSet(Position.BOARD_CELLS);
+        adjacentPairs = 0;
+        for (int cell = 0; cell < Position.BOARD_CELLS; cell++) {
+            if (isOccupied(cell)) tilePlaced(cell);
         }
-        if(y<BoardConstants.BOARD_DIMENSION-1){
-            c=myGameBoard[y+1][x];
-            if(!c.isInvalid()) {
-                return c.isEmpty();
-            }
+    }
+
+    /**
+     * This method updates the indexes after a tile has been placed in an empty cell
+     * @param cell board index of the cell
+     */
+    private void tilePlaced(int cell){
+        adjacentPairs += occupiedNeighbours[cell];
+        for (int neighbour : neighbourTable[cell]) {
+            occupiedNeighbours[neighbour]++;
+            updatePickable(neighbour);
         }
-        return true;
+        updatePickable(cell);
+    }
+
+    /**
+     * This method updates the indexes after the tile of a cell has been removed
+     * @param cell board index of the cell
+     */
+    private void tileRemoved(int cell){
+        adjacentPairs -= occupiedNeighbours[cell];
+        for (int neighbour : neighbourTable[cell]) {
+            occupiedNeighbours[neighbour]--;
+            updatePickable(neighbour);
+        }
+        updatePickable(cell);
+    }
+
+    /**
+     * This method updates the pickable state of a cell
+     * @param cell board index of the cell
+     */
+    private void updatePickable(int cell){
+        pickableCells.set(cell, isOccupied(cell) && occupiedNeighbours[cell] < 4);
+    }
+
+    /**
+     * This method checks if a cell contains a tile
+     * @param cell board index of the cell
+     * @return true if the cell is valid and not empty
+     */
+    private boolean isOccupied(int cell){
+        Tile tile = tileAt(cell);
+        return !tile.isInvalid() && !tile.isEmpty();
+    }
+
+    /**
+     * This method returns the tile in the given cell
+     * @param cell board index of the cell
+     * @return the tile in the cell
+     */
+    private Tile tileAt(int cell){
+        return myGameBoard[cell / BoardConstants.BOARD_DIMENSION][cell % BoardConstants.BOARD_DIMENSION];
     }
 
     /**
@@ -266,14 +490,29 @@ public final class GameBoard {
 
 
     /**
-     * This method is useful to the GameModel when the player makes a move, it removes a tile from the current board (sets it to empty) and returns it
+     * This method is useful to the GameModel when the player makes a move, it removes a tile from the current board (replaces it with the empty tile) and returns it
      * @param p position of the move that needs to be done (assumed correct, since all the controls are done before)
      * @return the tile contained in position p
      */
     public Tile removeTile(Position p){
-        Tile copy=new Tile(myGameBoard[p.y()][p.x()]);
-        myGameBoard[p.y()][p.x()].setEmpty();
-        return copy;
+        ensureIndexed();
+        Tile removed=myGameBoard[p.y()][p.x()];
+        myGameBoard[p.y()][p.x()]=Tile.EMPTY;
+        if(snapshots!=null) snapshots.rowChanged(p.y());
+        if(!removed.isInvalid() && !removed.isEmpty()) tileRemoved(p.boardIndex());
+        return removed;
+    }
+
+    /**
+     * This method puts back a tile removed by removeTile, when a move is taken back
+     * @param p position of the tile (it must be empty)
+     * @param tile the removed tile
+     */
+    void restoreTile(Position p, Tile tile){
+        ensureIndexed();
+        myGameBoard[p.y()][p.x()]=tile;
+        if(snapshots!=null) snapshots.rowChanged(p.y());
+        if(!tile.isInvalid() && !tile.isEmpty()) tilePlaced(p.boardIndex());
     }
 
     /**
@@ -297,18 +536,27 @@ public final class GameBoard {
 
     /**
      * This method returns a copy of the current game board, useful for passing information to the client
+     * Tiles are immutable, so only the references are copied
      * @return a copy of the game board
      */
     public Tile[][] getGameBoardCopy(){
-        Tile[][] toReturn= new Tile[BoardConstants.BOARD_DIMENSION][BoardConstants.BOARD_DIMENSION];
+        Tile[][] toReturn= new Tile[BoardConstants.BOARD_DIMENSION][];
         for(int i=0;i<BoardConstants.BOARD_DIMENSION; i++){
-            for(int j=0;j<BoardConstants.BOARD_DIMENSION;j++){
-                toReturn[i][j]=new Tile(this.myGameBoard[i][j]);
-            }
+            toReturn[i]=this.myGameBoard[i].clone();
         }
         return toReturn;
     }
 
+    /**
+     * This method returns an immutable snapshot of the current game board, useful for passing information to the
+     * client without copying the whole board: the rows not changed since the previous snapshot are shared with it
+     * @return the snapshot of the game board (it must not be modified)
+     */
+    public Tile[][] getGameBoardSnapshot(){
+        if(snapshots==null) snapshots=new TileGridSnapshots();
+        return snapshots.snapshot(myGameBoard);
+    }
+
     /**
      * This method creates a copy of all the point stacks present in the current game
      * @return a list of all the stacks (represented also by lists)
@@ -329,4 +577,13 @@ public final class GameBoard {
     public Integer pop(Integer idx){
         return this.commonGoalsStacks.get(idx).pop();
     }
+
+    /**
+     * This method pushes back a value popped from the stack at the index in input, when a move is taken back
+     * @param idx index of the stack
+     * @param value the popped value
+     */
+    void push(int idx, int value){
+        this.commonGoalsStacks.get(idx).push(value);
+    }
 }
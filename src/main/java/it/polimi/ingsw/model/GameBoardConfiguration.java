@@ -1,9 +1,13 @@
 package it.polimi.ingsw.model;
 
 import com.google.gson.annotations.Expose;
+import it.polimi.ingsw.constants.BoardConstants;
+
+import java.util.Arrays;
 
 /**
  * This class is just a utility used for storing the loaded data from the config file
+ * Once loaded by the GameConfigRegistry it is shared by all the games, so it never gives away its arrays
  */
 public final class GameBoardConfiguration {
 
@@ -17,20 +21,116 @@ public final class GameBoardConfiguration {
      */
     @Expose
     private Integer[] pointStack;
+    /**
+     * This attribute stores, for every cell of the board (indexed by Position.boardIndex), the board indexes of the
+     * adjacent valid positions. It is built once by the GameConfigRegistry and shared by all the boards with this layout
+     */
+    private transient int[][] neighbourTable;
 
     /**
-     * Getter of the valid positions
-     * @return matrix of valid positions
+     * This method checks if the given position of the board is valid (set to 1 in the config file)
+     * @param x column of the position
+     * @param y row of the position
+     * @return true if the position is valid
      */
-    public Integer[][] getValidPositions(){
-        return this.validPositions;
+    public boolean isValidPosition(int x, int y){
+        return this.validPositions[y][x] == 1;
     }
 
     /**
      * Getter of the point stack
-     * @return array of the point stack
+     * @return a copy of the array of the point stack
      */
     public Integer[] getPointStack(){
-        return this.pointStack;
+        return this.pointStack.clone();
+    }
+
+    /**
+     * This method checks if the given board has this layout, that is if its invalid tiles are exactly in the
+     * positions that are not valid for this configuration
+     * @param board the board to check
+     * @return true if the board has this layout
+     */
+    boolean hasLayoutOf(Tile[][] board){
+        for (int y = 0; y < BoardConstants.BOARD_DIMENSION; y++) {
+            for (int x = 0; x < BoardConstants.BOARD_DIMENSION; x++) {
+                if (isValidPosition(x, y) == board[y][x].isInvalid()) return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Getter of the neighbour table of this layout (shared, it must not be modified)
+     * @return for every board index, the board indexes of the adjacent valid positions
+     */
+    int[][] getNeighbourTable(){
+        return this.neighbourTable;
+    }
+
+    /**
+     * This method builds the neighbour table of this layout, it is called once after the validation
+     */
+    void buildNeighbourTable(){
+        boolean[] valid = new boolean[Position.BOARD_CELLS];
+        for (int cell = 0; cell < Position.BOARD_CELLS; cell++) {
+            valid[cell] = isValidPosition(cell % BoardConstants.BOARD_DIMENSION, cell / BoardConstants.BOARD_DIMENSION);
+        }
+        this.neighbourTable = buildNeighbourTable(valid);
+    }
+
+    /**
+     * This method builds the neighbour table of a board: for every valid cell the board indexes of the adjacent
+     * valid cells (right, bottom, left, top), for every invalid cell an empty array
+     * @param valid for every board index, true if the cell is valid
+     * @return the neighbour table
+     */
+    static int[][] buildNeighbourTable(boolean[] valid){
+        int[][] table = new int[Position.BOARD_CELLS][];
+        int[] found = new int[4];
+
+        for (int cell = 0; cell < Position.BOARD_CELLS; cell++) {
+            int count = 0;
+            if (valid[cell]) {
+                int x = cell % BoardConstants.BOARD_DIMENSION;
+                int y = cell / BoardConstants.BOARD_DIMENSION;
+                if (x < BoardConstants.BOARD_DIMENSION - 1 && valid[cell + 1]) found[count++] = cell + 1;
+                if (y < BoardConstants.BOARD_DIMENSION - 1 && valid[cell + BoardConstants.BOARD_DIMENSION]) found[count++] = cell + BoardConstants.BOARD_DIMENSION;
+                if (x > 0 && valid[cell - 1]) found[count++] = cell - 1;
+                if (y > 0 && valid[cell - BoardConstants.BOARD_DIMENSION]) found[count++] = cell - BoardConstants.BOARD_DIMENSION;
+            }
+            table[cell] = Arrays.copyOf(found, count);
+        }
+
+        return table;
+    }
+
+    /**
+     * This method checks that the loaded data are well-formed: a BOARD_DIMENSION x BOARD_DIMENSION matrix of 0 and 1
+     * with at most TOTAL_TILES valid positions, and a non-empty stack of non-negative points from lowest to highest
+     * @param fileName name of the config file, used in the error message
+     * @throws IllegalStateException if the data are not valid
+     */
+    void validate(String fileName){
+        if (validPositions == null || validPositions.length != BoardConstants.BOARD_DIMENSION)
+            throw new IllegalStateException(fileName + ": the board must have " + BoardConstants.BOARD_DIMENSION + " rows");
+
+        int validCount = 0;
+        for (Integer[] row : validPositions) {
+            if (row == null || row.length != BoardConstants.BOARD_DIMENSION)
+                throw new IllegalStateException(fileName + ": the board must have " + BoardConstants.BOARD_DIMENSION + " columns");
+            for (Integer cell : row) {
+                if (cell == null || (cell != 0 && cell != 1)) throw new IllegalStateException(fileName + ": the valid positions must be 0 or 1");
+                validCount += cell;
+            }
+        }
+        if (validCount == 0 || validCount > BoardConstants.TOTAL_TILES)
+            throw new IllegalStateException(fileName + ": invalid number of valid positions " + validCount);
+
+        if (pointStack == null || pointStack.length == 0) throw new IllegalStateException(fileName + ": the point stack is empty");
+        for (int i = 0; i < pointStack.length; i++) {
+            if (pointStack[i] == null || pointStack[i] < 0 || (i > 0 && pointStack[i] < pointStack[i - 1]))
+                throw new IllegalStateException(fileName + ": the point stack must contain non-negative points from lowest to highest");
+        }
     }
 }
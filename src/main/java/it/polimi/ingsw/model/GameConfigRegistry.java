@@ -0,0 +1,175 @@
+package it.polimi.ingsw.model;
+
+import com.google.gson.Gson;
+import it.polimi.ingsw.constants.BoardConstants;
+import it.polimi.ingsw.constants.ModelConstants;
+import it.polimi.ingsw.model.commonGoals.*;
+import it.polimi.ingsw.utilities.JsonWithExposeSingleton;
+import it.polimi.ingsw.utilities.UtilityFunctions;
+
+import java.io.IOException;
+import java.io.Reader;
+
+/**
+ * Singleton that stores the whole configuration of the game: the layouts and point stacks of the boards, the
+ * personal goals and the common goals.
+ * All the config files are read and validated only once, the first time the registry is used (the server does it at
+ * startup), and the loaded objects are shared by all the games: they are never modified after loading, so creating a
+ * game doesn't need to parse any file
+ */
+public final class GameConfigRegistry {
+    /**
+     * minimum number of players of a game (the board configurations are indexed by number of players)
+     */
+    private static final int MIN_PLAYERS = 2;
+
+    /**
+     * maximum number of players of a game
+     */
+    private static final int MAX_PLAYERS = 4;
+
+    /**
+     * This attribute stores the configuration of the board for each number of players (from MIN_PLAYERS)
+     */
+    private final GameBoardConfiguration[] boardConfigurations;
+
+    /**
+     * This attribute stores all the personal goals
+     */
+    private final PersonalGoalsConfiguration personalGoals;
+
+    /**
+     * This attribute stores all the common goals, indexed as in CommonGoalFactory
+     */
+    private final CommonGoal[] commonGoals;
+
+    /**
+     * This class holds the instance of the registry, so that it is created (thread safely) the first time it is requested
+     */
+    private static final class Holder {
+        /**
+         * the only instance of the registry
+         */
+        private static final GameConfigRegistry INSTANCE = new GameConfigRegistry();
+    }
+
+    /**
+     * Constructor of the singleton: it loads and validates all the config files
+     * @throws IllegalStateException if a config file is not valid
+     */
+    private GameConfigRegistry() {
+        Gson jsonLoader = JsonWithExposeSingleton.getJsonWithExposeSingleton();
+
+        String[] boardFiles = {BoardConstants.FILE_CONFIG_GAMEBOARD2, BoardConstants.FILE_CONFIG_GAMEBOARD3, BoardConstants.FILE_CONFIG_GAMEBOARD4};
+        this.boardConfigurations = new GameBoardConfiguration[boardFiles.length];
+        for (int i = 0; i < boardFiles.length; i++) {
+            this.boardConfigurations[i] = load(jsonLoader, boardFiles[i], GameBoard.class, GameBoardConfiguration.class);
+            this.boardConfigurations[i].validate(boardFiles[i]);
+            this.boardConfigurations[i].buildNeighbourTable();
+        }
+
+        this.personalGoals = load(jsonLoader, ModelConstants.FILE_CONFIG_PERSONALGOAL, GameModel.class, PersonalGoalsConfiguration.class);
+        this.personalGoals.validate(ModelConstants.FILE_CONFIG_PERSONALGOAL);
+
+        this.commonGoals = loadCommonGoals(jsonLoader);
+    }
+
+    /**
+     * Method that gets the instance of the registry and returns it (the first call loads all the config files)
+     * @return the registry
+     */
+    public static GameConfigRegistry getGameConfigRegistry() {
+        return Holder.INSTANCE;
+    }
+
+    /**
+     * This method returns the configuration of the board for the given number of players
+     * @param numPlayers number of players of the game (between 2 and 4)
+     * @return the shared configuration of the board
+     */
+    public GameBoardConfiguration getBoardConfiguration(int numPlayers) {
+        if (numPlayers < MIN_PLAYERS || numPlayers > MAX_PLAYERS) throw new IllegalArgumentException("Invalid number of players: " + numPlayers);
+        return boardConfigurations[numPlayers - MIN_PLAYERS];
+    }
+
+    /**
+     * This method returns the personal goal at the given index
+     * @param index index of the personal goal (between 0 and TOTAL_GOALS - 1)
+     * @return the shared personal goal
+     */
+    public PersonalGoal getPersonalGoal(int index) {
+        return personalGoals.getPersonalGoalAtIndex(index);
+    }
+
+    /**
+     * This method returns the common goal at the given index (see CommonGoalFactory for the mapping)
+     * @param index index of the common goal (between 0 and TOTAL_GOALS - 1)
+     * @return the shared common goal
+     */
+    public CommonGoal getCommonGoal(int index) {
+        return commonGoals[index];
+    }
+
+    /**
+     * This method reads all the common goals from their config files
+     * @param jsonLoader the json parser
+     * @return the common goals, indexed from 0 to TOTAL_GOALS - 1
+     * @throws IllegalStateException if a config file doesn't contain all the needed goals
+     */
+    private static CommonGoal[] loadCommonGoals(Gson jsonLoader) {
+        // creating configuration from json file for common goal 1 and 2
+        NGroupsOfSizeMConfiguration nGroupsOfSizeMConfiguration = load(jsonLoader, ModelConstants.FILE_CONFIG_NGROUPOFSIZEM, CommonGoalFactory.class, NGroupsOfSizeMConfiguration.class);
+
+        // creating configuration from json file for common goal 5, 8, 9 and 10
+        NLinesOfAtMostMDifferentColorsConfiguration nLinesOfAtMostMDifferentColorsConfiguration = load(jsonLoader, ModelConstants.FILE_CONFIG_NLINESOFATMOSTMDIFFERENTCOLORS, CommonGoalFactory.class, NLinesOfAtMostMDifferentColorsConfiguration.class);
+
+        // creating configuration from json file for common goal 3, 7 and 11
+        SingleOccurrenceOfGivenShapeConfiguration singleOccurrenceOfGivenShapeConfiguration = load(jsonLoader, ModelConstants.FILE_CONFIG_SINGLEOCCURRENCEOFGIVENSHAPE, CommonGoalFactory.class, SingleOccurrenceOfGivenShapeConfiguration.class);
+
+        CommonGoal[] goals = new CommonGoal[ModelConstants.TOTAL_GOALS];
+        try {
+            for (int i = 0; i < goals.length; i++) {
+                goals[i] = switch (i) {
+                    case 0 -> nGroupsOfSizeMConfiguration.getGoalAt(0);
+                    case 1 -> nGroupsOfSizeMConfiguration.getGoalAt(1);
+                    case 2 -> singleOccurrenceOfGivenShapeConfiguration.getGoalAt(0);
+                    case 3 -> new TwoSquares();
+                    case 4 -> nLinesOfAtMostMDifferentColorsConfiguration.getGoalAt(0);
+                    case 5 -> new EightTilesOfTheSameColor();
+                    case 6 -> singleOccurrenceOfGivenShapeConfiguration.getGoalAt(1);
+                    case 7 -> nLinesOfAtMostMDifferentColorsConfiguration.getGoalAt(1);
+                    case 8 -> nLinesOfAtMostMDifferentColorsConfiguration.getGoalAt(2);
+                    case 9 -> nLinesOfAtMostMDifferentColorsConfiguration.getGoalAt(3);
+                    case 10 -> singleOccurrenceOfGivenShapeConfiguration.getGoalAt(2);
+                    default -> new Ladder();
+                };
+                if (goals[i] == null) throw new IllegalStateException("Common goal " + i + " is missing");
+            }
+        } catch (RuntimeException e) {
+            throw new IllegalStateException("The common goals config files are not valid: " + e.getMessage(), e);
+        }
+
+        return goals;
+    }
+
+    /**
+     * This method parses a config file
+     * @param jsonLoader the json parser
+     * @param fileName name of the config file
+     * @param c class from which the file is searched
+     * @param configurationClass class of the parsed object
+     * @return the parsed object
+     * @param <T> type of the parsed object
+     * @throws IllegalStateException if the file can't be read or is empty
+     */
+    private static <T> T load(Gson jsonLoader, String fileName, Class<?> c, Class<T> configurationClass) {
+        T configuration;
+        try (Reader reader = UtilityFunctions.getReaderFromFileNameRelativePath(fileName, c)) {
+            configuration = jsonLoader.fromJson(reader, configurationClass);
+        } catch (IOException e) {
+            throw new IllegalStateException(fileName + " can't be read: " + e.getMessage(), e);
+        }
+        if (configuration == null) throw new IllegalStateException(fileName + " is empty");
+        return configuration;
+    }
+}
@@ -1,20 +1,28 @@
 package it.polimi.ingsw.model;
 import com.google.gson.Gson;
+import com.google.gson.JsonObject;
 import com.google.gson.annotations.Expose;
 import it.polimi.ingsw.constants.ModelConstants;
 import it.polimi.ingsw.gameInfo.PlayerInfo;
 import it.polimi.ingsw.model.commonGoals.*;
-import it.polimi.ingsw.constants.BoardConstants;
 import it.polimi.ingsw.model.exceptions.NoMoreTilesAtStartFillBoardException;
 import it.polimi.ingsw.model.exceptions.NoMoreTilesToFillBoardException;
+import it.polimi.ingsw.model.persistence.MatchManifest;
+import it.polimi.ingsw.model.persistence.MatchWriter;
+import it.polimi.ingsw.model.persistence.MoveEvent;
+import it.polimi.ingsw.model.persistence.MoveJournal;
+import it.polimi.ingsw.model.persistence.PersistenceStrategy;
+import it.polimi.ingsw.model.persistence.SaveFormat;
 import it.polimi.ingsw.utilities.JsonWithExposeSingleton;
-import it.polimi.ingsw.utilities.RandomSingleton;
-import it.polimi.ingsw.utilities.UtilityFunctions;
 import it.polimi.ingsw.utilities.UtilityFunctionsModel;
 import it.polimi.ingsw.controller.observers.Observer;
 
 import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.Paths;
 import java.util.*;
+import java.util.concurrent.ThreadLocalRandom;
 
 /**
  * this class is the main class of the model : it contains the methods called by the Controller and in this
@@ -68,7 +76,7 @@ public class GameModel {
     private List<GameEndedScore> leaderBoard;
     /**
      * This attribute stores the information of the file name in the class, so that it does not have to
-     * be constructed each time
+     * be constructed each time. It is null for the matches created with PersistenceStrategy.NONE, which are never saved
      */
     @Expose
     private String fileName;
@@ -80,20 +88,125 @@ public class GameModel {
     private boolean gameOver;
 
     /**
-     * this method is the class constructor : it creates a new GameMode object
+     * this attribute is the seed of the random generator of the match: the same seed (and the same moves) give
+     * the same match
+     */
+    @Expose
+    private final long seed;
+
+    /**
+     * this attribute is the state of the random generator of the match. Every time random numbers are needed a
+     * generator is created from it and it is replaced by a number drawn from that generator, so the state is
+     * always a single long that can be saved with the match
+     */
+    @Expose
+    private long randomState;
+
+    /**
+     * this attribute identifies the match in the MoveJournal
+     */
+    @Expose
+    private long matchId;
+
+    /**
+     * this attribute is the number of moves played in the match
+     */
+    @Expose
+    private int movesPlayed;
+
+    /**
+     * this attribute is the move of the current turn, encoded by the MoveGenerator (INVALID_MOVE before the move)
+     */
+    private transient int currentMove;
+
+    /**
+     * this attribute is the index of the player who made the move of the current turn
+     */
+    private transient int currentMovePlayer;
+
+    /**
+     * this attribute is true while the moves of the journal are replayed: they are not saved again
+     */
+    private transient boolean replaying;
+
+    /**
+     * this attribute is the way the match is saved at the end of the turns (null for the strategy of the server,
+     * see PersistenceStrategy.ofServer)
+     */
+    private transient PersistenceStrategy persistence;
+
+    /**
+     * this attribute counts the refills of the board since the match was created or loaded (not saved, it is a
+     * statistic of the simulations)
+     */
+    private transient int boardRefills;
+
+    /**
+     * this attribute stores the records of the moves played with apply, one for every depth, reused by the
+     * following moves (created on first use)
+     */
+    private transient UndoRecord[] undoRecords;
+
+    /**
+     * this attribute is the number of moves played with apply and not yet undone
+     */
+    private transient int undoDepth;
+
+    /**
+     * this method is the class constructor : it creates a new GameMode object with a random seed
      * @param numPlayers number of players for the game
      * @param nicknames players' nicknames
      */
     public GameModel(int numPlayers, List<String> nicknames){
+        this(numPlayers, nicknames, ThreadLocalRandom.current().nextLong());
+    }
+
+    /**
+     * this method is the class constructor : it creates a new GameMode object whose random choices (common goals,
+     * personal goals, tiles) all come from the given seed
+     * @param numPlayers number of players for the game
+     * @param nicknames players' nicknames
+     * @param seed seed of the random generator of the match
+     */
+    public GameModel(int numPlayers, List<String> nicknames, long seed){
+        this(numPlayers, nicknames, seed, null);
+    }
+
+    /**
+     * this method creates a simulated match: it is like a real match, but it is never saved to file
+     * @param numPlayers number of players for the game
+     * @param nicknames players' nicknames
+     * @param seed seed of the random generator of the match
+     * @return the simulated match
+     */
+    static GameModel simulation(int numPlayers, List<String> nicknames, long seed){
+        return new GameModel(numPlayers, nicknames, seed, PersistenceStrategy.NONE);
+    }
+
+    /**
+     * this method is the constructor used by all the others: the match is saved with the given strategy, so with
+     * PersistenceStrategy.NONE it never touches the disk
+     * @param numPlayers number of players for the game
+     * @param nicknames players' nicknames
+     * @param seed seed of the random generator of the match
+     * @param persistence the way the match is saved (null for the strategy of the server)
+     */
+    public GameModel(int numPlayers, List<String> nicknames, long seed, PersistenceStrategy persistence){
         this.numPlayers = numPlayers;
+        this.seed = seed;
+        this.randomState = seed;
+        this.matchId = ThreadLocalRandom.current().nextLong();
+        this.currentMove = MoveGenerator.INVALID_MOVE;
+        this.persistence = persistence;
+        SplittableRandom random = nextRandom();
         this.playerList = new ArrayList<>(this.numPlayers);
         this.commonGoalsCreated = new ArrayList<>(ModelConstants.TOTAL_CG_PER_GAME);
-        this.gameBoard = GameBoard.createGameBoard(numPlayers, getRandomCommonGoals());
+        this.gameBoard = GameBoard.createGameBoard(numPlayers, getRandomCommonGoals(random), random);
         this.currentPlayer = 0;
         this.isLastTurn = false;
         this.gameOver = false;
-        initializePlayers(nicknames);
-        initializePersistenceFile(nicknames);
+        initializePlayers(nicknames, random);
+        if (persistence != PersistenceStrategy.NONE) initializePersistenceFile(nicknames);
 
     }
 
@@ -114,28 +227,84 @@ public class GameModel {
         this.leaderBoard = gameModel.leaderBoard;
         this.gameOver = gameModel.gameOver;
         this.fileName = gameModel.fileName;
+        this.seed = gameModel.seed;
+        // the matches saved before the seed was recorded have no state, they continue with a random one
+        this.randomState = gameModel.seed == 0 && gameModel.randomState == 0 ? ThreadLocalRandom.current().nextLong() : gameModel.randomState;
+        // the same goes for the matches saved before the journal
+        this.matchId = gameModel.matchId == 0 ? ThreadLocalRandom.current().nextLong() : gameModel.matchId;
+        this.movesPlayed = gameModel.movesPlayed;
+        this.currentMove = MoveGenerator.INVALID_MOVE;
 
 
         // oss: the observers are added from outside
     }
 
     /**
-     * This method reads all the single goals from the file singleGoals.json and gives a random one to every player
+     * this method creates an independent copy of a match which is never saved to file and has no observers:
+     * it is used to simulate the moves from a state of the match without changing it
+     * @return the simulated copy of the match
+     */
+    GameModel simulationCopy(){
+        List<PlayerState> players = new ArrayList<>(this.numPlayers);
+        for(PlayerState player: this.playerList) players.add(player.copy());
+        return new GameModel(this, new GameBoard(this.gameBoard), players);
+    }
+
+    /**
+     * this method creates an independent copy of the match for a search of the moves (see simulationCopy) whose
+     * refills of the board are drawn from the given random state instead of the one of the match, so that the
+     * search can't foresee the tiles the match will draw
+     * @param randomState the state of the random generator of the copy
+     * @return the copy of the match
+     */
+    public GameModel searchCopy(long randomState){
+        GameModel copy = simulationCopy();
+        copy.randomState = randomState;
+        return copy;
+    }
+
+    /**
+     * this method is the constructor of the simulated copies: it takes the state of the given match, with the given
+     * board and players, and no file
+     * @param gameModel the match to copy
+     * @param gameBoard the board of the copy
+     * @param playerList the players of the copy
+     */
+    private GameModel(GameModel gameModel, GameBoard gameBoard, List<PlayerState> playerList){
+        this.numPlayers = gameModel.numPlayers;
+        this.playerList = playerList;
+        this.commonGoalsCreated = new ArrayList<>(gameModel.commonGoalsCreated);
+        this.gameBoard = gameBoard;
+        this.currentPlayer = gameModel.currentPlayer;
+        this.isLastTurn = gameModel.isLastTurn;
+        this.leaderBoard = gameModel.leaderBoard;
+        this.gameOver = gameModel.gameOver;
+        this.fileName = null;
+        this.seed = gameModel.seed;
+        this.randomState = gameModel.randomState;
+        this.matchId = gameModel.matchId;
+        this.movesPlayed = gameModel.movesPlayed;
+        this.currentMove = MoveGenerator.INVALID_MOVE;
+        this.persistence = PersistenceStrategy.NONE;
+        this.boardRefills = gameModel.boardRefills;
+    }
+
+    /**
+     * This method gives a random personal goal (read from the GameConfigRegistry) to every player
      * @param nicknames list of nicknames of all the players
+     * @param r random generator of the match
      */
-    private void initializePlayers(List<String> nicknames){
+    private void initializePlayers(List<String> nicknames, SplittableRandom r){
 
-        Gson jsonLoader= JsonWithExposeSingleton.getJsonWithExposeSingleton();
-        PersonalGoalsConfiguration poc = jsonLoader.fromJson(UtilityFunctions.getReaderFromFileNameRelativePath(ModelConstants.FILE_CONFIG_PERSONALGOAL, this.getClass()), PersonalGoalsConfiguration.class);
+        GameConfigRegistry configRegistry = GameConfigRegistry.getGameConfigRegistry();
 
         Set<Integer> extractedPersonalGoals = new HashSet<>();
-        Random r = RandomSingleton.getRandomSingleton();
         int random = r.nextInt(ModelConstants.TOTAL_GOALS);
         for(String s: nicknames){
             while (extractedPersonalGoals.contains(random)) {
                 random = r.nextInt(ModelConstants.TOTAL_GOALS);
             }
-            playerList.add(new PlayerState(s, poc.getPersonalGoalAtIndex(random), random));
+            playerList.add(new PlayerState(s, configRegistry.getPersonalGoal(random), random));
             extractedPersonalGoals.add(random);
         }
 
@@ -153,28 +322,195 @@ public class GameModel {
     }
 
     /**
-     * This method is called at the end of each turn, and it overwrites the file with the new state of the game
+     * This method overwrites the file with the new state of the game.
+     * The state is serialized here, while the turn holds the model, and handed to the MatchWriter, which writes it
+     * to disk according to its flush policy; once it is written the MatchManifest records it and the MoveJournal can
+     * drop the moves before it
      */
     private void saveCurrentState(){
-        Writer fileWriter;
-        try {
-            fileWriter=new FileWriter(this.fileName);
-            fileWriter.write(JsonWithExposeSingleton.getJsonWithExposeSingleton().toJson(this));
-            fileWriter.close();
+        if (this.fileName == null || getPersistence() == PersistenceStrategy.NONE) return;
+
+        MatchWriter writer = MatchWriter.getMatchWriter();
+        String previousFile = this.fileName;
+        // a match loaded from a file in another format is moved to the file of the current format
+        this.fileName = writer.getSaveFormat().toFileName(previousFile);
+        byte[] content = toBytes(writer.getSaveFormat());
+        String oldFile = previousFile.equals(this.fileName) ? null : previousFile;
+        long id = this.matchId;
+        int checkpoint = this.gameOver ? Integer.MAX_VALUE : this.movesPlayed;
+        boolean over = this.gameOver;
+        int moves = this.movesPlayed;
+        Path file = Paths.get(this.fileName);
+        List<String> players = getPlayerNicknames();
+        writer.save(this.fileName, content, () -> {
+            MatchManifest manifest = MatchManifest.getMatchManifest();
+            manifest.saved(file, id, players, over, moves);
+            if (oldFile != null && writer.delete(oldFile)) manifest.deleted(Paths.get(oldFile));
+            MoveJournal.getMoveJournal().checkpointed(id, checkpoint);
+        });
+    }
+
+    /**
+     * This method encodes the match in the given format, without changing it: the file name encoded is the one of
+     * the format (see SaveFormat.toFileName), so that the match is saved in that format once loaded.
+     * The binary format contains, after the magic number and the version, the numbers, the flags and the file name
+     * of the match, the common goals, the board (see GameBoard.writeTo) and the players (see PlayerState.writeTo)
+     * @param format the format
+     * @return the encoded match
+     */
+    public byte[] toBytes(SaveFormat format){
+        String file = format.toFileName(this.fileName);
+        if (format == SaveFormat.JSON) {
+            Gson json = JsonWithExposeSingleton.getJsonWithExposeSingleton();
+            JsonObject tree = json.toJsonTree(this).getAsJsonObject();
+            if (file != null) tree.addProperty("fileName", file);
+            return json.toJson(tree).getBytes(StandardCharsets.UTF_8);
+        }
+
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream(1024);
+        try (DataOutputStream out = new DataOutputStream(bytes)) {
+            out.writeByte(SaveFormat.BINARY_MAGIC >> 16);
+            out.writeByte(SaveFormat.BINARY_MAGIC >> 8);
+            out.writeByte(SaveFormat.BINARY_MAGIC);
+            out.writeByte(SaveFormat.BINARY_VERSION);
+
+            out.writeByte(this.numPlayers);
+            out.writeLong(this.seed);
+            out.writeLong(this.randomState);
+            out.writeLong(this.matchId);
+            out.writeInt(this.movesPlayed);
+            out.writeByte(this.currentPlayer);
+            out.writeBoolean(this.isLastTurn);
+            out.writeBoolean(this.gameOver);
+            out.writeUTF(file == null ? "" : file);
+
+            out.writeByte(this.commonGoalsCreated.size());
+            for(Integer cg: this.commonGoalsCreated) out.writeByte(cg);
+            this.gameBoard.writeTo(out);
+            for(PlayerState player: this.playerList) player.writeTo(out);
         } catch (IOException e) {
-            System.out.println("Error in opening to the file "+this.fileName+" plz restart application");
-            e.printStackTrace();
+            // a ByteArrayOutputStream never throws
+            throw new UncheckedIOException(e);
         }
+        return bytes.toByteArray();
+    }
 
+    /**
+     * This method decodes a match saved in any format (see SaveFormat.of)
+     * @param content the encoded match
+     * @return the match, ready to be played
+     * @throws IOException if the content is not a match or is in an unknown version of the binary format
+     */
+    public static GameModel fromBytes(byte[] content) throws IOException {
+        try {
+            if (SaveFormat.of(content) == SaveFormat.JSON) {
+                GameModel model = new GameModel(JsonWithExposeSingleton.getJsonWithExposeSingleton().fromJson(new String(content, StandardCharsets.UTF_8), GameModel.class));
+                // the scores of the leaderboard are not exposed, so it is created again
+                if (model.gameOver) model.createLeaderBoard();
+                return model;
+            }
+
+            DataInputStream in = new DataInputStream(new ByteArrayInputStream(content, 3, content.length - 3));
+            int version = in.readUnsignedByte();
+            if (version != SaveFormat.BINARY_VERSION) throw new IOException("Unknown version "+version+" of the binary save format");
+            return new GameModel(in);
+        } catch (RuntimeException e) {
+            throw new IOException("The content is not a saved match", e);
+        }
+    }
+
+    /**
+     * this method is the constructor of the matches read from the binary save format (see toBytes)
+     * @param in the input of the save, after the version
+     * @throws IOException if the input can't be read
+     */
+    private GameModel(DataInput in) throws IOException {
+        this.numPlayers = in.readUnsignedByte();
+        this.seed = in.readLong();
+        this.randomState = in.readLong();
+        this.matchId = in.readLong();
+        this.movesPlayed = in.readInt();
+        this.currentPlayer = in.readUnsignedByte();
+        this.isLastTurn = in.readBoolean();
+        this.gameOver = in.readBoolean();
+        String file = in.readUTF();
+        this.fileName = file.isEmpty() ? null : file;
+        this.currentMove = MoveGenerator.INVALID_MOVE;
+
+        int numCommonGoals = in.readUnsignedByte();
+        this.commonGoalsCreated = new ArrayList<>(numCommonGoals);
+        for(int i=0; i<numCommonGoals; i++) this.commonGoalsCreated.add(in.readUnsignedByte());
+        this.gameBoard = GameBoard.readFrom(in, this.commonGoalsCreated);
+        this.playerList = new ArrayList<>(this.numPlayers);
+        for(int i=0; i<this.numPlayers; i++) this.playerList.add(PlayerState.readFrom(in));
+        // the leaderboard is not saved, it only depends on the points of the players
+        if (this.gameOver) createLeaderBoard();
+    }
+
+    /**
+     * This method is called at the end of each turn to save it according to the persistence strategy: with JOURNAL
+     * (and the MoveJournal open) the move is appended to the journal and the whole state is saved only every
+     * checkpoint interval and at the end of the match, with FILE the whole state is saved every turn
+     */
+    private void saveTurn(){
+        this.movesPlayed++;
+        int move = this.currentMove;
+        this.currentMove = MoveGenerator.INVALID_MOVE;
+        PersistenceStrategy strategy = getPersistence();
+        if (strategy == PersistenceStrategy.NONE || this.fileName == null || this.replaying) return;
+
+        MoveJournal journal = MoveJournal.getMoveJournal();
+        if (strategy == PersistenceStrategy.JOURNAL && journal.isEnabled() && move != MoveGenerator.INVALID_MOVE) {
+            journal.append(new MoveEvent(this.matchId, this.movesPlayed, this.currentMovePlayer, move, this.randomState));
+            if (!this.gameOver && this.movesPlayed % journal.getCheckpointInterval() != 0) return;
+        }
+        saveCurrentState();
+    }
+
+    /**
+     * This method brings a match loaded from its last checkpoint up to date, replaying the moves of the MoveJournal
+     * made after the checkpoint (the older ones are skipped). Every move is checked like a move of a player, and
+     * the state of the random generator after it must be the recorded one. If any move was replayed a new
+     * checkpoint is saved
+     * @param events the events of the match, in order
+     * @return the number of moves replayed
+     * @throws IllegalStateException if a move is missing or doesn't lead to the recorded state: the match is left
+     * at the last move replayed correctly
+     */
+    public int replay(List<MoveEvent> events){
+        int replayed = 0;
+        this.replaying = true;
+        try {
+            for (MoveEvent event : events) {
+                if (event.getSequence() <= this.movesPlayed) continue;
+                if (event.getSequence() != this.movesPlayed + 1 || this.gameOver || event.getPlayer() != this.currentPlayer)
+                    throw new IllegalStateException("Move "+event.getSequence()+" can't be replayed after move "+this.movesPlayed);
+
+                List<Position> positions = MoveGenerator.positions(event.getMove());
+                int column = MoveGenerator.column(event.getMove());
+                if (!checkValidMove(positions) || !checkValidColumn(column, positions.size()))
+                    throw new IllegalStateException("Move "+event.getSequence()+" is not valid");
+
+                makeMove(positions, column);
+                nextTurn();
+                if (this.randomState != event.getRandomState())
+                    throw new IllegalStateException("Move "+event.getSequence()+" leads to a different state");
+                replayed++;
+            }
+        } finally {
+            this.replaying = false;
+            if (replayed > 0) saveCurrentState();
+        }
+        return replayed;
     }
 
     /**
      * This method selects two random numbers between 0 and 12 (total goals, 12 excluded) and assigns a
      * common shelf to it. It is important to note that it checks that which common goals are created
+     * @param r random generator of the match
      * @return the list of 2 random common goals created
      */
-    private List<Integer> getRandomCommonGoals(){
-        Random r = RandomSingleton.getRandomSingleton();
+    private List<Integer> getRandomCommonGoals(SplittableRandom r){
         List<Integer> pool = new ArrayList<>(ModelConstants.TOTAL_GOALS);
         for(int i = 0; i< ModelConstants.TOTAL_GOALS; i++) pool.add(i);
         for(int i=0; i< ModelConstants.TOTAL_CG_PER_GAME;){
@@ -197,46 +533,66 @@ public class GameModel {
      */
 
     public void makeMove(List<Position> pos, int col){
+        PlayerState currP = this.playerList.get(currentPlayer);
+
+        // the tracker must exist before the tiles are added, so that it sees them as the changes of this turn
+        currP.getScoreTracker();
         for(Position p : pos){
-            this.playerList.get(currentPlayer).getShelf().add(this.gameBoard.removeTile(p), col);
+            currP.getShelf().add(this.gameBoard.removeTile(p), col);
         }
+        this.currentMove = MoveGenerator.encode(pos, col);
+        this.currentMovePlayer = this.currentPlayer;
     }
 
     /**
      * this method is used to check if the move done by the current player is correct, according to the rules of
-     * the game
+     * the game: the chosen tiles must be pickable (see GameBoard.isPickable), no more than the free spaces of the
+     * emptiest column of the shelf and on consecutive cells of a single row or column (see MoveGenerator.isLine).
+     * Only the chosen tiles are checked, sorted in local variables, so the check allocates nothing
      * @param pos list of the position of the tiles taken by the player from the gameBoard
      * @return true if the move is valid, false if the move isn't valid
      */
     public boolean checkValidMove(List<Position> pos){
-        if(pos.size() > ModelConstants.MAX_NUM_OF_MOVES || pos.isEmpty()) return false;
-        for(Position p : pos){
-            if(!this.gameBoard.positionOccupied(p)) return false;
-            if(p.x()>= BoardConstants.BOARD_DIMENSION || p.y() >= BoardConstants.BOARD_DIMENSION) return false;
-            if(!this.gameBoard.hasFreeAdjacent(p)) return false;
+        int size = pos.size();
+        if (size == 0 || size > Math.min(getMaxInsertableTiles(), ModelConstants.MAX_NUM_OF_MOVES)) return false;
+        for (int i = 0; i < size; i++) {
+            if (!this.gameBoard.isPickable(pos.get(i))) return false;
         }
 
-        if(pos.stream().distinct().count()!=pos.size()) return false;
-
-        //we have to check that they are in the same line,
-        //so we take a copy of the list, we sort it in the x and y direction (if in a line it is obvious that one of them will not be sorted)
-
-        List<Position> copyPos=new ArrayList<>();
-        copyPos.addAll(pos);
-
-        copyPos.sort((p1, p2) -> p1.x() < p2.x() ? 1 : -1);
-        copyPos.sort((p1, p2) -> p1.y() < p2.y() ? 1 : -1);
+        int a = pos.get(0).boardIndex();
+        int b = size > 1 ? pos.get(1).boardIndex() : a;
+        int c = size > 2 ? pos.get(2).boardIndex() : Integer.MAX_VALUE;
+        int t;
+        if (a > b) { t = a; a = b; b = t; }
+        if (b > c) { t = b; b = c; c = t; }
+        if (a > b) { t = a; a = b; b = t; }
+        return MoveGenerator.isLine(size, a, b, size > 2 ? c : b);
+    }
 
-        //and we have to check the distance between the current and the next. if it is 1 it is ok, if not then it means they are not adjacent
-        for(int i=0;i<pos.size()-1;i++){
-            if(UtilityFunctionsModel.distanceSquared(copyPos.get(i), copyPos.get(i+1))!=1) return false;
-        }
-        //also at the end we have to check that the first and the last are in a line (have a distance of exactly 4)
-        //now 4 is the constant which depends on the length of the total array, for now I will leave it hard coded
+    /**
+     * this method returns all the sets of tiles the current player can take from the game board
+     * @return the legal pick sets (see MoveGenerator), in ascending order
+     */
+    public int[] getLegalPickSets(){
+        return MoveGenerator.legalPickSets(this.gameBoard.getPickableCells(), getMaxInsertableTiles());
+    }
 
-        if(pos.size()> ModelConstants.MAX_NUM_OF_MOVES-1) if(UtilityFunctionsModel.distanceSquared(copyPos.get(0),copyPos.get(copyPos.size()-1)) != 4) return false;
+    /**
+     * this method returns all the moves the current player can do: every legal pick set, in every order of the
+     * tiles and in every column with enough free spaces
+     * @return the legal moves (see MoveGenerator)
+     */
+    public int[] getLegalMoves(){
+        return MoveGenerator.legalMoves(this.gameBoard.getPickableCells(), this.playerList.get(this.currentPlayer).getShelf());
+    }
 
-        return true;
+    /**
+     * this method returns the maximum number of tiles the current player can take from the game board, that is
+     * the number of free spaces of the emptiest column of his shelf (at most MAX_NUM_OF_MOVES)
+     * @return the maximum number of tiles insertable in the shelf of the current player
+     */
+    public int getMaxInsertableTiles(){
+        return this.playerList.get(this.currentPlayer).getShelf().getMaxInsertableTiles();
     }
 
     /**
@@ -261,21 +617,29 @@ public class GameModel {
 
     /**
      * This method updates the score of the current player
-     * and sets lastTurn to true if his personal shelf is filled
+     * and sets lastTurn to true if his personal shelf is filled.
+     * The score is updated incrementally by the ScoreTracker of the player, looking only at the tiles added
+     * during the turn
+     * @param undo the record of the move, receiving the values popped from the point stacks (null if the move
+     *             can't be taken back)
      */
-    private void evaluatePoints(){
+    private void evaluatePoints(UndoRecord undo){
         PlayerState currP = playerList.get(currentPlayer);
         CommonGoal commonGoal;
 
-        currP.evaluatePGPoints();
-        currP.evaluateGroupPoints();
+        currP.evaluatePointsAfterMove();
 
         // Evaluate common goals
         for(int i = 0; i< ModelConstants.TOTAL_CG_PER_GAME; i++) {
             if (!currP.isCGDone(i)) {
                 commonGoal = gameBoard.getCommonGoal(i);
-                if (commonGoal.evaluate(currP.getShelf())) {
-                    currP.addCGPoints(gameBoard.pop(i), i);
+                if (currP.getScoreTracker().isCommonGoalReached(commonGoal)) {
+                    int points = gameBoard.pop(i);
+                    if (undo != null) {
+                        undo.poppedStacks |= 1 << i;
+                        undo.poppedValues[i] = points;
+                    }
+                    currP.addCGPoints(points, i);
                     currP.setCGDone(i);
                 }
             }
@@ -290,6 +654,17 @@ public class GameModel {
         }
     }
 
+    /**
+     * This method enables or disables the verification mode of the score trackers of all the players: when enabled
+     * every incremental evaluation is compared with the evaluation from scratch of the shelf
+     * @param verification true to enable the verification mode
+     */
+    public void setScoreVerification(boolean verification){
+        for(PlayerState player: this.playerList){
+            player.getScoreTracker().setVerification(verification);
+        }
+    }
+
     /**
      * this method creates the final leaderBoard of the match. if two players have the same points, the player
      * who is farther from the first player will be higher in the leaderboard; the leaderBoard will be shown at
@@ -310,43 +685,216 @@ public class GameModel {
      * filled
      */
     public void nextTurn(){
-        this.evaluatePoints();
+        endTurn(null);
+
+        // save the state of the game to be reloaded in case of server crash
+        saveTurn();
+
+        // Notifies all observers at hte end of the turn
+        this.notifyObservers();
+    }
+
+    /**
+     * This method evaluates the points of the current player, passes the turn and fills the board if needed, or
+     * ends the match
+     * @param undo the record of the move, receiving the changes needed to take it back (null if it can't be taken
+     *             back: in that case the end of the match creates the leaderboard and notifies the observers)
+     */
+    private void endTurn(UndoRecord undo){
+        this.evaluatePoints(undo);
         if(!this.isLastTurn){
             this.currentPlayer = (this.currentPlayer + 1) % this.numPlayers;
             if(this.boardToBeFilled()){
                 try{
-                    this.gameBoard.fillBoard();
+                    this.gameBoard.fillBoard(nextRandom(), undo);
+                    this.boardRefills++;
                 }
                 catch (NoMoreTilesAtStartFillBoardException e){
-                    forceEndGame(false);
+                    endGame(undo);
                 }
                 catch (NoMoreTilesToFillBoardException e) {
-                    //do nothing
+                    // the board is filled with the last tiles of the bag
+                    this.boardRefills++;
                 }
             }
         }
         else{
             if(this.currentPlayer == this.numPlayers - 1){
-                forceEndGame(false);
+                endGame(undo);
             }
             else{
                 this.currentPlayer++;
                 if(this.boardToBeFilled()){
                     try{
-                        this.gameBoard.fillBoard();
+                        this.gameBoard.fillBoard(nextRandom(), undo);
+                        this.boardRefills++;
                     } catch (NoMoreTilesAtStartFillBoardException | NoMoreTilesToFillBoardException e) {
-                        forceEndGame(false);
+                        endGame(undo);
                     }
 
                 }
 
             }
         }
-        // save the state of the game to be reloaded in case of server crash
-        saveCurrentState();
+    }
 
-        // Notifies all observers at hte end of the turn
-        this.notifyObservers();
+    /**
+     * This method ends the match at the end of a turn. When the move can be taken back the leaderboard is not
+     * created (see getLeaderBoard) and the observers are not notified
+     * @param undo the record of the move (null if it can't be taken back)
+     */
+    private void endGame(UndoRecord undo){
+        if(undo == null) forceEndGame(false);
+        else this.gameOver = true;
+    }
+
+    /**
+     * This method plays a move of the current player and ends the turn like makeMove and nextTurn, recording what
+     * is needed to take it back with undo. It is meant for the search of the moves on simulated matches: the move
+     * is not checked, it is not saved and the observers are not notified.
+     * The returned record belongs to the match and is reused by the following moves: the moves must be undone in
+     * the reverse order, and no allocation is done except for the first move applied at each depth (the refill of
+     * the board still creates the random generator of the refill, as nextTurn does)
+     * @param move a legal move of the current player (see getLegalMoves)
+     * @return the record of the move, to be passed to undo
+     */
+    public UndoRecord apply(int move){
+        if(this.undoRecords == null) this.undoRecords = new UndoRecord[16];
+        if(this.undoDepth == this.undoRecords.length) this.undoRecords = Arrays.copyOf(this.undoRecords, 2 * this.undoDepth);
+        if(this.undoRecords[this.undoDepth] == null) this.undoRecords[this.undoDepth] = new UndoRecord();
+        UndoRecord undo = this.undoRecords[this.undoDepth++];
+
+        PlayerState currP = this.playerList.get(this.currentPlayer);
+        Shelf shelf = currP.getShelf();
+        undo.move = move;
+        undo.randomState = this.randomState;
+        undo.currentPlayer = this.currentPlayer;
+        undo.isLastTurn = this.isLastTurn;
+        undo.gameOver = this.gameOver;
+        undo.leaderBoard = this.leaderBoard;
+        undo.movesPlayed = this.movesPlayed;
+        undo.boardRefills = this.boardRefills;
+        undo.currentMove = this.currentMove;
+        undo.currentMovePlayer = this.currentMovePlayer;
+        undo.poppedStacks = 0;
+        undo.drawnCount = 0;
+        shelf.saveIndexes(undo.shelfIndexes);
+        currP.getScoreTracker().saveState(undo.trackerState);
+        currP.saveScore(undo.score);
+
+        int column = MoveGenerator.column(move);
+        for(int i = 0; i < MoveGenerator.size(move); i++){
+            Tile tile = this.gameBoard.removeTile(Position.ofBoardIndex(MoveGenerator.cell(move, i)));
+            undo.removedTiles[i] = tile;
+            shelf.add(tile, column);
+        }
+        this.currentMove = move;
+        this.currentMovePlayer = this.currentPlayer;
+
+        endTurn(undo);
+        this.movesPlayed++;
+        this.currentMove = MoveGenerator.INVALID_MOVE;
+        return undo;
+    }
+
+    /**
+     * This method takes back the last move played with apply: the board, the bag, the point stacks, the shelf and
+     * the score of the player and the state of the match are exactly the ones before the move
+     * @param undo the record returned by the last call of apply not yet undone
+     * @throws IllegalStateException if the record is not the one of the last move applied
+     */
+    public void undo(UndoRecord undo){
+        if(this.undoDepth == 0 || this.undoRecords[this.undoDepth - 1] != undo)
+            throw new IllegalStateException("Only the last move applied can be undone");
+        this.undoDepth--;
+
+        this.gameBoard.undoFill(undo);
+        for(int i = 0; i < ModelConstants.TOTAL_CG_PER_GAME; i++){
+            if((undo.poppedStacks & 1 << i) != 0) this.gameBoard.push(i, undo.poppedValues[i]);
+        }
+
+        PlayerState currP = this.playerList.get(undo.currentPlayer);
+        int move = undo.move;
+        currP.getShelf().removeTop(MoveGenerator.column(move), MoveGenerator.size(move), undo.shelfIndexes);
+        for(int i = MoveGenerator.size(move) - 1; i >= 0; i--){
+            this.gameBoard.restoreTile(Position.ofBoardIndex(MoveGenerator.cell(move, i)), undo.removedTiles[i]);
+            undo.removedTiles[i] = null;
+        }
+        currP.getScoreTracker().restoreState(undo.trackerState);
+        currP.restoreScore(undo.score);
+
+        this.randomState = undo.randomState;
+        this.currentPlayer = undo.currentPlayer;
+        this.isLastTurn = undo.isLastTurn;
+        this.gameOver = undo.gameOver;
+        this.leaderBoard = undo.leaderBoard;
+        this.movesPlayed = undo.movesPlayed;
+        this.boardRefills = undo.boardRefills;
+        this.currentMove = undo.currentMove;
+        this.currentMovePlayer = undo.currentMovePlayer;
+        undo.leaderBoard = null;
+    }
+
+    /**
+     * this method creates the random generator for the next random choices of the match and advances the state
+     * saved with the match
+     * @return a random generator depending only on the seed and on the previous calls
+     */
+    private SplittableRandom nextRandom(){
+        SplittableRandom random = new SplittableRandom(this.randomState);
+        this.randomState = random.split().nextLong();
+        return random;
+    }
+
+    /**
+     * this method returns the seed of the random generator of the match
+     * @return the seed of the match
+     */
+    public long getSeed() {
+        return seed;
+    }
+
+    /**
+     * this method returns the number of refills of the board since the match was created or loaded
+     * @return the number of refills of the board
+     */
+    public int getBoardRefills() {
+        return this.boardRefills;
+    }
+
+    /**
+     * this method returns the way the match is saved at the end of the turns
+     * @return the persistence strategy of the match
+     */
+    public PersistenceStrategy getPersistence() {
+        return this.persistence == null ? PersistenceStrategy.ofServer() : this.persistence;
+    }
+
+    /**
+     * this method changes the way the match is saved at the end of the turns. A match that had no file (because
+     * it was created with PersistenceStrategy.NONE) gets the file named after its players
+     * @param persistence the new strategy (null for the strategy of the server)
+     */
+    public void setPersistence(PersistenceStrategy persistence) {
+        this.persistence = persistence;
+        if (persistence != PersistenceStrategy.NONE && this.fileName == null)
+            this.fileName = ModelConstants.PATH_SAVED_MATCHES + UtilityFunctionsModel.getJSONFileName(getPlayerNicknames());
+    }
+
+    /**
+     * this method returns the id of the match in the MoveJournal
+     * @return the id of the match
+     */
+    public long getMatchId() {
+        return matchId;
+    }
+
+    /**
+     * this method returns the number of moves played in the match
+     * @return the number of moves
+     */
+    public int getMovesPlayed() {
+        return movesPlayed;
     }
 
     /**
@@ -357,6 +905,15 @@ public class GameModel {
         return currentPlayer;
     }
 
+    /**
+     * this method returns the current points of a player
+     * @param player the index of the player in the order of the turns
+     * @return the points of the player
+     */
+    public int getPlayerPoints(int player) {
+        return this.playerList.get(player).getPoints();
+    }
+
     /**
      * this method return the number of players of a specific match
      * @return an int, the number of players
@@ -412,6 +969,8 @@ public class GameModel {
      * @return the final leaderboard of the game
      */
     public List<GameEndedScore> getLeaderBoard() {
+        // a match ended by apply creates its leaderboard only when it is asked
+        if (this.leaderBoard == null && this.gameOver) createLeaderBoard();
         return leaderBoard;
     }
 
@@ -471,6 +1030,15 @@ public class GameModel {
         return this.gameBoard.getGameBoardCopy();
     }
 
+    /**
+     * This method calls the method GameBoard.getGameBoardSnapshot() to return an immutable snapshot of the current
+     * game board, which shares the rows not changed since the previous snapshot
+     * @return a snapshot of the current game board (it must not be modified)
+     */
+    public Tile[][] getGameBoardSnapshot(){
+        return this.gameBoard.getGameBoardSnapshot();
+    }
+
     /**
      * This method returns a full copy of the list of common goals created
      * @return a copy of the common goals created
@@ -503,6 +1071,18 @@ public class GameModel {
         return toReturn;
     }
 
+    /**
+     * This method returns the nicknames of the players, in the order of the turns
+     * @return the list of the nicknames
+     */
+    public List<String> getPlayerNicknames(){
+        List<String> toReturn = new ArrayList<>(this.numPlayers);
+        for(PlayerState player: this.playerList){
+            toReturn.add(player.getNickname());
+        }
+        return toReturn;
+    }
+
 
 }
 
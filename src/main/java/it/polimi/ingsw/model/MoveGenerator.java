@@ -0,0 +1,278 @@
+package it.polimi.ingsw.model;
+
+import it.polimi.ingsw.constants.BoardConstants;
+import it.polimi.ingsw.constants.ModelConstants;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.List;
+
+/**
+ * This class enumerates the legal moves of the game and is the only place where the rules of a pick are checked:
+ * from 1 to MAX_NUM_OF_MOVES tiles, each with a free side, on consecutive cells of a single row or column.
+ * A move is encoded in a single int: the board indexes of the picked tiles (see Position.boardIndex) take
+ * CELL_BITS bits each, in the order of insertion in the shelf, followed by the number of tiles and by the column.
+ * A pick set is a move whose cells are sorted in ascending order and whose column is 0: it is the canonical
+ * form of a set of tiles, used to check a move by looking it up among the legal pick sets
+ */
+public final class MoveGenerator {
+    /**
+     * the value returned for a list of positions which can't be encoded (empty, too long, out of the board or
+     * with a repeated position)
+     */
+    public static final int INVALID_MOVE = -1;
+
+    /**
+     * number of bits used for every cell of a move
+     */
+    private static final int CELL_BITS = 7;
+
+    /**
+     * mask of the bits of a single cell
+     */
+    private static final int CELL_MASK = (1 << CELL_BITS) - 1;
+
+    /**
+     * position of the number of tiles in the encoding
+     */
+    private static final int SIZE_SHIFT = CELL_BITS * ModelConstants.MAX_NUM_OF_MOVES;
+
+    /**
+     * position of the column in the encoding
+     */
+    private static final int COLUMN_SHIFT = SIZE_SHIFT + 2;
+
+    /**
+     * mask of the bits of the cells and of the number of tiles (a move without its column)
+     */
+    private static final int PICK_MASK = (1 << COLUMN_SHIFT) - 1;
+
+    /**
+     * Constructor (never called, the class only has static methods)
+     */
+    private MoveGenerator(){}
+
+    /**
+     * This method encodes the given positions, in the given order, and the column in a single int
+     * @param positions the positions of the picked tiles, in the order of insertion in the shelf
+     * @param column the column of the shelf (between 0 and COLS_NUMBER - 1)
+     * @return the encoded move, or INVALID_MOVE if the positions can't be a move
+     */
+    public static int encode(List<Position> positions, int column){
+        int size = positions.size();
+        if (size == 0 || size > ModelConstants.MAX_NUM_OF_MOVES || column < 0 || column >= ModelConstants.COLS_NUMBER) return INVALID_MOVE;
+
+        int move = size << SIZE_SHIFT | column << COLUMN_SHIFT;
+        for (int i = 0; i < size; i++) {
+            Position p = positions.get(i);
+            if (p.x() < 0 || p.y() < 0 || p.x() >= BoardConstants.BOARD_DIMENSION || p.y() >= BoardConstants.BOARD_DIMENSION) return INVALID_MOVE;
+            move |= p.boardIndex() << (i * CELL_BITS);
+        }
+        return move;
+    }
+
+    /**
+     * This method returns the pick set of a move: its cells in ascending order, without the column
+     * @param move the encoded move
+     * @return the pick set, or INVALID_MOVE if the move is invalid or picks the same cell twice
+     */
+    public static int pickSet(int move){
+        if (move == INVALID_MOVE) return INVALID_MOVE;
+
+        int size = size(move);
+        int[] cells = new int[size];
+        for (int i = 0; i < size; i++) cells[i] = cell(move, i);
+        Arrays.sort(cells);
+
+        int pickSet = size << SIZE_SHIFT;
+        for (int i = 0; i < size; i++) {
+            if (i > 0 && cells[i] == cells[i - 1]) return INVALID_MOVE;
+            pickSet |= cells[i] << (i * CELL_BITS);
+        }
+        return pickSet;
+    }
+
+    /**
+     * This method returns the number of tiles picked by a move
+     * @param move the encoded move
+     * @return the number of tiles
+     */
+    public static int size(int move){
+        return (move >>> SIZE_SHIFT) & 3;
+    }
+
+    /**
+     * This method returns the board index of a tile picked by a move
+     * @param move the encoded move
+     * @param i index of the tile, between 0 and size(move) - 1
+     * @return the board index of the i-th tile
+     */
+    public static int cell(int move, int i){
+        return (move >>> (i * CELL_BITS)) & CELL_MASK;
+    }
+
+    /**
+     * This method returns the column of the shelf of a move
+     * @param move the encoded move
+     * @return the column
+     */
+    public static int column(int move){
+        return move >>> COLUMN_SHIFT;
+    }
+
+    /**
+     * This method returns the move with the same tiles, in the same order, inserted in another column
+     * @param move the encoded move (or pick set)
+     * @param column the new column
+     * @return the encoded move
+     */
+    public static int withColumn(int move, int column){
+        return (move & PICK_MASK) | column << COLUMN_SHIFT;
+    }
+
+    /**
+     * This method decodes the positions of the tiles of a move
+     * @param move the encoded move
+     * @return the canonical positions of the tiles, in the order of insertion in the shelf
+     */
+    public static List<Position> positions(int move){
+        int size = size(move);
+        List<Position> positions = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) positions.add(Position.ofBoardIndex(cell(move, i)));
+        return positions;
+    }
+
+    /**
+     * This method finds the cells of the board containing a tile with at least one free side: it is used on the
+     * boards that don't keep them up to date (the server's GameBoard does, see GameBoard.getPickableCells)
+     * @param board the board
+     * @return the set of the board indexes of the pickable tiles
+     */
+    public static BitSet pickableCells(Tile[][] board){
+        BitSet pickable = new BitSet(Position.BOARD_CELLS);
+        for (int y = 0; y < BoardConstants.BOARD_DIMENSION; y++) {
+            for (int x = 0; x < BoardConstants.BOARD_DIMENSION; x++) {
+                if (isOccupied(board, x, y) && (!isOccupied(board, x + 1, y) || !isOccupied(board, x - 1, y)
+                        || !isOccupied(board, x, y + 1) || !isOccupied(board, x, y - 1))) {
+                    pickable.set(x + y * BoardConstants.BOARD_DIMENSION);
+                }
+            }
+        }
+        return pickable;
+    }
+
+    /**
+     * This method enumerates all the legal pick sets: every line of 1 to maxTiles consecutive pickable tiles
+     * @param pickable the board indexes of the pickable tiles
+     * @param maxTiles the maximum number of tiles of a pick (usually the free spaces of the emptiest column, at most
+     *                 MAX_NUM_OF_MOVES)
+     * @return the legal pick sets, in ascending order
+     */
+    public static int[] legalPickSets(BitSet pickable, int maxTiles){
+        maxTiles = Math.min(maxTiles, ModelConstants.MAX_NUM_OF_MOVES);
+        int[] pickSets = new int[pickable.cardinality() * (1 + 2 * (ModelConstants.MAX_NUM_OF_MOVES - 1))];
+        int count = 0;
+
+        for (int cell = pickable.nextSetBit(0); cell >= 0; cell = pickable.nextSetBit(cell + 1)) {
+            int x = cell % BoardConstants.BOARD_DIMENSION;
+            if (maxTiles >= 1) pickSets[count++] = 1 << SIZE_SHIFT | cell;
+
+            // the lines going right and down from the cell (its smallest cell), so that every line is found once
+            int pickSet = cell;
+            for (int size = 2; size <= maxTiles && x + size - 1 < BoardConstants.BOARD_DIMENSION && pickable.get(cell + size - 1); size++) {
+                pickSet |= (cell + size - 1) << ((size - 1) * CELL_BITS);
+                pickSets[count++] = size << SIZE_SHIFT | pickSet;
+            }
+            pickSet = cell;
+            for (int size = 2; size <= maxTiles && pickable.get(cell + (size - 1) * BoardConstants.BOARD_DIMENSION); size++) {
+                pickSet |= (cell + (size - 1) * BoardConstants.BOARD_DIMENSION) << ((size - 1) * CELL_BITS);
+                pickSets[count++] = size << SIZE_SHIFT | pickSet;
+            }
+        }
+
+        int[] legal = Arrays.copyOf(pickSets, count);
+        Arrays.sort(legal);
+        return legal;
+    }
+
+    /**
+     * This method enumerates all the legal moves for the given shelf: every order of the tiles of every legal pick
+     * set, in every column with enough free spaces
+     * @param pickable the board indexes of the pickable tiles
+     * @param shelf the shelf of the player
+     * @return the legal moves
+     */
+    public static int[] legalMoves(BitSet pickable, Shelf shelf){
+        int[] pickSets = legalPickSets(pickable, shelf.getMaxInsertableTiles());
+        int[] moves = new int[pickSets.length * 6 * ModelConstants.COLS_NUMBER];
+        int count = 0;
+
+        for (int pickSet : pickSets) {
+            int size = size(pickSet);
+            int a = cell(pickSet, 0), b = cell(pickSet, 1), c = cell(pickSet, 2);
+            int[] orders = switch (size) {
+                case 1 -> new int[]{pickSet};
+                case 2 -> new int[]{pickSet, order(b, a)};
+                default -> new int[]{pickSet, order(a, c, b), order(b, a, c), order(b, c, a), order(c, a, b), order(c, b, a)};
+            };
+
+            for (int column = 0; column < ModelConstants.COLS_NUMBER; column++) {
+                if (shelf.getFreeSpaces(column) < size) continue;
+                for (int order : orders) moves[count++] = withColumn(order, column);
+            }
+        }
+
+        return Arrays.copyOf(moves, count);
+    }
+
+    /**
+     * This method checks if the given move is legal, looking up its pick set among the legal ones
+     * @param legalPickSets the legal pick sets, in ascending order (see legalPickSets)
+     * @param move the encoded move
+     * @return true if the tiles of the move are a legal pick
+     */
+    public static boolean isLegalPick(int[] legalPickSets, int move){
+        int pickSet = pickSet(move);
+        return pickSet != INVALID_MOVE && Arrays.binarySearch(legalPickSets, pickSet) >= 0;
+    }
+
+    /**
+     * This method checks if the given cells, in ascending order, are consecutive cells of a single row or column
+     * @param size the number of cells (from 1 to MAX_NUM_OF_MOVES)
+     * @param a the smallest board index
+     * @param b the second board index (equal to a if size is 1)
+     * @param c the largest board index (equal to b if size is less than 3)
+     * @return true if the cells are a line that can be picked
+     */
+    public static boolean isLine(int size, int a, int b, int c){
+        if (size == 1) return true;
+        int step = b - a;
+        // two tiles of a row must not be at the two sides of the board
+        boolean line = step == BoardConstants.BOARD_DIMENSION || (step == 1 && a / BoardConstants.BOARD_DIMENSION == c / BoardConstants.BOARD_DIMENSION);
+        return line && (size == 2 || c - b == step);
+    }
+
+    /**
+     * This method encodes the given cells, in the given order, without column
+     * @param cells the board indexes of the cells
+     * @return the encoded move
+     */
+    private static int order(int... cells){
+        int move = cells.length << SIZE_SHIFT;
+        for (int i = 0; i < cells.length; i++) move |= cells[i] << (i * CELL_BITS);
+        return move;
+    }
+
+    /**
+     * This method checks if a cell of the board contains a tile
+     * @param board the board
+     * @param x column of the cell
+     * @param y row of the cell
+     * @return true if the cell is inside the board, valid and not empty
+     */
+    private static boolean isOccupied(Tile[][] board, int x, int y){
+        if (x < 0 || y < 0 || x >= BoardConstants.BOARD_DIMENSION || y >= BoardConstants.BOARD_DIMENSION) return false;
+        return !board[y][x].isInvalid() && !board[y][x].isEmpty();
+    }
+}
@@ -2,6 +2,9 @@ package it.polimi.ingsw.model;
 
 import com.google.gson.annotations.Expose;
 
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
 import java.util.List;
 import java.util.Stack;
 import java.util.stream.Collectors;
@@ -23,6 +26,15 @@ public class MyStack {
         stack=new Stack<>();
     }
 
+    /**
+     * This constructor creates a copy of the given stack
+     * @param myStack the stack to copy
+     */
+    public MyStack(MyStack myStack){
+        stack=new Stack<>();
+        stack.addAll(myStack.stack);
+    }
+
     /**
      * This method is the push function for a usual stack
      * @param i integer to push in the stack
@@ -46,4 +58,26 @@ public class MyStack {
     public Integer peek(){
         return this.stack.peek();
     }
+
+    /**
+     * This method writes the stack in the binary save format: its size followed by its values, from the bottom
+     * @param out the output of the save
+     * @throws IOException if the output can't be written
+     */
+    void writeTo(DataOutput out) throws IOException {
+        out.writeByte(this.stack.size());
+        for (Integer value : this.stack) out.writeByte(value);
+    }
+
+    /**
+     * This method reads a stack written by writeTo
+     * @param in the input of the save
+     * @return the stack
+     * @throws IOException if the input can't be read
+     */
+    static MyStack readFrom(DataInput in) throws IOException {
+        MyStack myStack = new MyStack();
+        for (int size = in.readUnsignedByte(); size > 0; size--) myStack.push(in.readUnsignedByte());
+        return myStack;
+    }
 }
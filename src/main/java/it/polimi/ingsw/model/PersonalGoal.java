@@ -53,6 +53,16 @@ public class PersonalGoal {
         return this.pointsForCompletion.get(objCompleted);
     }
 
+    /**
+     * This method returns the points assigned when the given number of single goals has been reached
+     * @param completedGoals number of single goals reached
+     * @return points assigned (0 if none)
+     */
+    public int getPointsForCompletedGoals(int completedGoals){
+        if(completedGoals<=0) return 0;
+        return this.pointsForCompletion.get(completedGoals-1);
+    }
+
     /**
      * Override of equality operator
      * @param obj: the object to check
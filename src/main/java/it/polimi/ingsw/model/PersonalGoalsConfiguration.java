@@ -1,6 +1,9 @@
 package it.polimi.ingsw.model;
 
 import com.google.gson.annotations.Expose;
+import it.polimi.ingsw.constants.ModelConstants;
+
+import java.util.List;
 
 /**
  * This class is just a utility used for storing the loaded data from the config file
@@ -20,4 +23,36 @@ public class PersonalGoalsConfiguration {
     public PersonalGoal getPersonalGoalAtIndex(int i) {
         return personalGoals[i];
     }
+
+    /**
+     * This method checks that the loaded data are well-formed: TOTAL_GOALS personal goals, each of them made of
+     * SINGLE_GOALS_NUMBER single goals inside the shelf with a real color, and a score for every number of completed goals
+     * @param fileName name of the config file, used in the error message
+     * @throws IllegalStateException if the data are not valid
+     */
+    void validate(String fileName) {
+        if (personalGoals == null || personalGoals.length != ModelConstants.TOTAL_GOALS)
+            throw new IllegalStateException(fileName + ": there must be " + ModelConstants.TOTAL_GOALS + " personal goals");
+
+        for (int i = 0; i < personalGoals.length; i++) {
+            PersonalGoal personalGoal = personalGoals[i];
+            if (personalGoal == null) throw new IllegalStateException(fileName + ": personal goal " + i + " is missing");
+
+            List<SingleGoal> singleGoals;
+            try {
+                singleGoals = personalGoal.getCopy();
+                personalGoal.getPointsForCompletedGoals(ModelConstants.SINGLE_GOALS_NUMBER);
+            } catch (RuntimeException e) {
+                throw new IllegalStateException(fileName + ": personal goal " + i + " must have " + ModelConstants.SINGLE_GOALS_NUMBER + " single goals and a score for each of them");
+            }
+
+            for (SingleGoal singleGoal : singleGoals) {
+                Position p = singleGoal.getPosition();
+                if (p == null || p.x() < 0 || p.y() < 0 || p.x() >= ModelConstants.COLS_NUMBER || p.y() >= ModelConstants.ROWS_NUMBER)
+                    throw new IllegalStateException(fileName + ": personal goal " + i + " has a position outside the shelf");
+                if (singleGoal.getColor() == null || singleGoal.getColor().ordinal() >= ModelConstants.TOTAL_COLORS)
+                    throw new IllegalStateException(fileName + ": personal goal " + i + " has an invalid color");
+            }
+        }
+    }
 }
@@ -4,6 +4,9 @@ import com.google.gson.annotations.Expose;
 import it.polimi.ingsw.constants.ModelConstants;
 import it.polimi.ingsw.gameInfo.PlayerInfo;
 
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
 import java.util.ArrayList;
 import java.util.List;
 
@@ -67,6 +70,16 @@ public class PlayerState {
     @Expose
     private boolean[] comGoalDone;
 
+    /**
+     * This attribute keeps the score of the player up to date after each move.
+     * It is not saved, it is created again from the shelf when needed
+     */
+    private ScoreTracker scoreTracker;
+
+    /**
+     * This attribute is the number of values written by saveScore
+     */
+    static final int SCORE_SIZE = 3 + 2 * ModelConstants.TOTAL_CG_PER_GAME;
 
 
     /**
@@ -108,6 +121,58 @@ public class PlayerState {
         this.comGoalDone = playerState.comGoalDone;
     }
 
+    /**
+     * This method creates an independent copy of the player: the shelf and the points are copied, so changing the
+     * copy doesn't change the original (the score tracker of the copy is created again from its shelf)
+     * @return the copy of the player
+     */
+    PlayerState copy() {
+        PlayerState copy = new PlayerState(this);
+        copy.myShelf = new Shelf(this.myShelf);
+        copy.CGPoints = this.CGPoints.clone();
+        copy.comGoalDone = this.comGoalDone.clone();
+        return copy;
+    }
+
+    /**
+     * This method writes the player in the binary save format: the nickname, the number of the personal goal (the
+     * goal is taken again from the GameConfigRegistry when reading), the points, the common goals done and the shelf
+     * @param out the output of the save
+     * @throws IOException if the output can't be written
+     */
+    void writeTo(DataOutput out) throws IOException {
+        out.writeUTF(this.nickname);
+        out.writeByte(this.personalGoalNumber);
+        out.writeShort(this.PGPoints);
+        for (int points : this.CGPoints) out.writeShort(points);
+        out.writeShort(this.groupPoints);
+        out.writeByte(this.firstPoint);
+        int done = 0;
+        for (int i = 0; i < this.comGoalDone.length; i++) if (this.comGoalDone[i]) done |= 1 << i;
+        out.writeByte(done);
+        this.myShelf.writeTo(out);
+    }
+
+    /**
+     * This method reads a player written by writeTo
+     * @param in the input of the save
+     * @return the player
+     * @throws IOException if the input can't be read
+     */
+    static PlayerState readFrom(DataInput in) throws IOException {
+        String nickname = in.readUTF();
+        int personalGoalNumber = in.readUnsignedByte();
+        PlayerState player = new PlayerState(nickname, GameConfigRegistry.getGameConfigRegistry().getPersonalGoal(personalGoalNumber), personalGoalNumber);
+        player.PGPoints = in.readShort();
+        for (int i = 0; i < player.CGPoints.length; i++) player.CGPoints[i] = in.readShort();
+        player.groupPoints = in.readShort();
+        player.firstPoint = in.readUnsignedByte();
+        int done = in.readUnsignedByte();
+        for (int i = 0; i < player.comGoalDone.length; i++) player.comGoalDone[i] = (done & 1 << i) != 0;
+        player.myShelf = Shelf.readFrom(in);
+        return player;
+    }
+
     /**
      * This method returns the nickname of the player
      * @return nickname
@@ -189,6 +254,57 @@ public class PlayerState {
     }
 
 
+    /**
+     * This method copies the score of the player (points and common goals reached) in the given array, so that it
+     * can be restored by restoreScore when the move is taken back
+     * @param score the array receiving the score, of length SCORE_SIZE
+     */
+    void saveScore(int[] score){
+        score[0] = this.PGPoints;
+        score[1] = this.groupPoints;
+        score[2] = this.firstPoint;
+        for (int i = 0; i < ModelConstants.TOTAL_CG_PER_GAME; i++) {
+            score[3 + 2 * i] = this.CGPoints[i];
+            score[4 + 2 * i] = this.comGoalDone[i] ? 1 : 0;
+        }
+    }
+
+    /**
+     * This method restores a score saved by saveScore
+     * @param score the saved score
+     */
+    void restoreScore(int[] score){
+        this.PGPoints = score[0];
+        this.groupPoints = score[1];
+        this.firstPoint = score[2];
+        for (int i = 0; i < ModelConstants.TOTAL_CG_PER_GAME; i++) {
+            this.CGPoints[i] = score[3 + 2 * i];
+            this.comGoalDone[i] = score[4 + 2 * i] != 0;
+        }
+    }
+
+    /**
+     * This method returns the score tracker of the player, creating it from the current shelf if needed
+     * @return the score tracker
+     */
+    public ScoreTracker getScoreTracker(){
+        if (this.scoreTracker == null) this.scoreTracker = new ScoreTracker(this.myShelf, this.personalGoal);
+        return this.scoreTracker;
+    }
+
+
+    /**
+     * This method updates the PGPoints and the groupPoints looking only at the tiles added to the shelf
+     * since the previous evaluation
+     */
+    public void evaluatePointsAfterMove(){
+        ScoreTracker tracker = getScoreTracker();
+        tracker.update();
+        setPGPoints(tracker.getPersonalGoalPoints());
+        setGroupPoints(tracker.getGroupPoints());
+    }
+
+
     /**
      * This method evaluates and sets the groupPoints
      */
@@ -252,9 +368,10 @@ public class PlayerState {
                 cg,
                 this.firstPoint,
                 this.groupPoints,
-                this.myShelf.getCopy(),
+                this.myShelf.getSnapshot(),
                 this.personalGoal.getCopy(),
-                this.personalGoalNumber);
+                this.personalGoalNumber,
+                this.myShelf.getMaxInsertableTiles());
     }
 
 }
@@ -1,25 +1,45 @@
 package it.polimi.ingsw.model;
 
 import com.google.gson.annotations.Expose;
+import it.polimi.ingsw.constants.BoardConstants;
+import it.polimi.ingsw.constants.ModelConstants;
 
+import java.io.Serial;
 import java.io.Serializable;
 
 /**
  * this class represent the position of a specific tile in the game board
+ * Positions are immutable: the positions inside the board (which contains every cell of the shelf too) are kept in a
+ * table of canonical instances returned by the method of, so that the hot paths never allocate them.
+ * Every position of the board can also be packed in a single int (see boardIndex), which is used in the wire form
+ * of the moves
  */
 public class Position implements Serializable {
+    /**
+     * number of cells of the board, the packed board indexes go from 0 to BOARD_CELLS - 1
+     */
+    public static final int BOARD_CELLS = BoardConstants.BOARD_DIMENSION * BoardConstants.BOARD_DIMENSION;
+
+    /**
+     * table of the canonical instances, indexed by the packed board index
+     */
+    private static final Position[] CANONICAL = new Position[BOARD_CELLS];
+
+    static {
+        for (int i = 0; i < BOARD_CELLS; i++) CANONICAL[i] = new Position(i % BoardConstants.BOARD_DIMENSION, i / BoardConstants.BOARD_DIMENSION);
+    }
 
     /**
      * this attribute represents the row of the position
      */
     @Expose
-    private int x;
+    private final int x;
 
     /**
      * this attribute represents the column of the position
      */
     @Expose
-    private int y;
+    private final int y;
 
     /**
      * This is the constructor of the class; it receives two int : the row and the column of the position
@@ -40,6 +60,53 @@ public class Position implements Serializable {
         this.y=p.y;
     }
 
+    /**
+     * This method returns the canonical instance of the given position. Positions outside the board have no
+     * canonical instance, so a new one is created
+     * @param x the row of the position
+     * @param y the column of the position
+     * @return the position
+     */
+    public static Position of(int x, int y) {
+        if (x < 0 || y < 0 || x >= BoardConstants.BOARD_DIMENSION || y >= BoardConstants.BOARD_DIMENSION) return new Position(x, y);
+        return CANONICAL[x + y * BoardConstants.BOARD_DIMENSION];
+    }
+
+    /**
+     * This method returns the canonical instance of the position with the given packed board index
+     * @param boardIndex the packed index, between 0 and BOARD_CELLS - 1
+     * @return the position
+     */
+    public static Position ofBoardIndex(int boardIndex) {
+        return CANONICAL[boardIndex];
+    }
+
+    /**
+     * This method returns the canonical instance of the position with the given packed shelf index
+     * (the same index used by the bitboards of the shelf, see UtilityFunctionsBitboard)
+     * @param shelfIndex the packed index, between 0 and ROWS_NUMBER * COLS_NUMBER - 1
+     * @return the position
+     */
+    public static Position ofShelfIndex(int shelfIndex) {
+        return of(shelfIndex % ModelConstants.COLS_NUMBER, shelfIndex / ModelConstants.COLS_NUMBER);
+    }
+
+    /**
+     * This method returns the position packed in a single int, as a cell of the board
+     * @return the packed board index
+     */
+    public int boardIndex() {
+        return x + y * BoardConstants.BOARD_DIMENSION;
+    }
+
+    /**
+     * This method returns the position packed in a single int, as a cell of the shelf
+     * @return the packed shelf index
+     */
+    public int shelfIndex() {
+        return x + y * ModelConstants.COLS_NUMBER;
+    }
+
     /**
      * this method return the value of the attribute x;
      *
@@ -69,4 +136,22 @@ public class Position implements Serializable {
         if(!(obj instanceof Position position)) return false;
         return this.x == position.x && this.y == position.y;
     }
+
+    /**
+     * this method overrides the method hashCode, consistently with equals
+     * @return the hash code of the position
+     */
+    @Override
+    public int hashCode() {
+        return x * 31 + y;
+    }
+
+    /**
+     * This method replaces the positions received from the network with their canonical instance
+     * @return the canonical instance of the position
+     */
+    @Serial
+    private Object readResolve() {
+        return of(x, y);
+    }
 }
@@ -0,0 +1,241 @@
+package it.polimi.ingsw.model;
+
+import it.polimi.ingsw.constants.ModelConstants;
+import it.polimi.ingsw.model.commonGoals.CommonGoal;
+import it.polimi.ingsw.utilities.UtilityFunctionsBitboard;
+import it.polimi.ingsw.utilities.UtilityFunctionsModel;
+
+/**
+ * This class keeps the score of a player up to date incrementally.
+ * After every move it looks only at the cells added to the shelf since the previous update (a move adds at most
+ * three cells in a single column): the personal goal hits are updated looking at those cells, the group points are
+ * read from the union-find of the shelf and the common goals are checked only where something changed (see
+ * CommonGoal.evaluateAfterInsert).
+ * In verification mode every incremental result is compared with the evaluation done from scratch on a snapshot
+ * of the shelf (the group points with the BFS of UtilityFunctionsModel, independent of the union-find), and an
+ * IllegalStateException is thrown at the first difference
+ */
+public class ScoreTracker {
+    /**
+     * This attribute is the shelf of the player
+     */
+    private final Shelf shelf;
+
+    /**
+     * This attribute is the personal goal of the player (it can be null when the player has none)
+     */
+    private final PersonalGoal personalGoal;
+
+    /**
+     * This attribute stores, for each cell of the shelf, the color required by the personal goal (null if none)
+     */
+    private final TileColor[] personalGoalColors = new TileColor[UtilityFunctionsBitboard.SHELF_CELLS];
+
+    /**
+     * This attribute stores the number of cells of the personal goal already matched
+     */
+    private int personalGoalHits;
+
+    /**
+     * This attribute stores the occupancy mask of the shelf at the last update
+     */
+    private int trackedOccupancy;
+
+    /**
+     * This attribute stores the cells added to the shelf by the last update
+     */
+    private int lastChangedCells;
+
+    /**
+     * This attribute is true if the cells changed by the last update are not only the tiles inserted by a move, so
+     * the common goals must be evaluated on the whole shelf
+     */
+    private boolean lastUpdateFull;
+
+    /**
+     * This attribute is true until the first update: the tiles already in the shelf when the tracker was created
+     * may have been added during the current turn, so the first update considers all of them as changed
+     */
+    private boolean firstUpdate;
+
+    /**
+     * This attribute is true if the incremental results must be compared with the evaluation from scratch
+     */
+    private boolean verification;
+
+    /**
+     * This attribute is the number of values written by saveState
+     */
+    static final int STATE_SIZE = 5;
+
+    /**
+     * Constructor: it takes the current content of the shelf as starting point
+     * @param shelf the shelf of the player
+     * @param personalGoal the personal goal of the player (can be null)
+     */
+    public ScoreTracker(Shelf shelf, PersonalGoal personalGoal) {
+        this.shelf = shelf;
+        this.personalGoal = personalGoal;
+
+        if (personalGoal != null) {
+            for (SingleGoal singleGoal : personalGoal.getCopy()) {
+                Position p = singleGoal.getPosition();
+                personalGoalColors[UtilityFunctionsBitboard.cellIndex(p.y(), p.x())] = singleGoal.getColor();
+            }
+        }
+
+        this.personalGoalHits = 0;
+        this.trackedOccupancy = 0;
+        countPersonalGoalHits(shelf.getOccupancyMask());
+        this.trackedOccupancy = shelf.getOccupancyMask();
+        this.lastChangedCells = trackedOccupancy;
+        this.firstUpdate = true;
+    }
+
+    /**
+     * This method enables or disables the verification mode
+     * @param verification true to compare every incremental result with the evaluation from scratch
+     */
+    public void setVerification(boolean verification) {
+        this.verification = verification;
+    }
+
+    /**
+     * This method returns true if the verification mode is enabled
+     * @return true if the verification mode is enabled
+     */
+    public boolean isVerification() {
+        return verification;
+    }
+
+    /**
+     * This method looks for the cells added to the shelf since the previous update and updates the personal goal hits
+     */
+    public void update() {
+        int occupancy = shelf.getOccupancyMask();
+        int changedCells = occupancy & ~trackedOccupancy;
+        countPersonalGoalHits(changedCells);
+        trackedOccupancy = occupancy;
+
+        lastChangedCells = firstUpdate ? occupancy : changedCells;
+        lastUpdateFull = firstUpdate;
+        firstUpdate = false;
+
+        if (verification) {
+            int expectedPersonalGoalPoints = personalGoal == null ? 0 : personalGoal.evaluate(shelf);
+            if (expectedPersonalGoalPoints != getPersonalGoalPoints())
+                throw new IllegalStateException("Personal goal points mismatch: " + getPersonalGoalPoints() + " instead of " + expectedPersonalGoalPoints);
+
+            int expectedGroupPoints = evaluateGroupPointsFromScratch();
+            if (expectedGroupPoints != getGroupPoints())
+                throw new IllegalStateException("Group points mismatch: " + getGroupPoints() + " instead of " + expectedGroupPoints);
+        }
+    }
+
+    /**
+     * This method evaluates the group points with the BFS of UtilityFunctionsModel on a snapshot of the shelf, so
+     * that the union-find of the shelf is checked against an independent algorithm
+     * @return the group points
+     */
+    private int evaluateGroupPointsFromScratch() {
+        Shelf snapshot = new Shelf(shelf);
+        boolean[][] visited = new boolean[ModelConstants.ROWS_NUMBER][ModelConstants.COLS_NUMBER];
+        int points = 0;
+
+        for (int i = 0; i < ModelConstants.ROWS_NUMBER; i++) {
+            for (int j = 0; j < ModelConstants.COLS_NUMBER; j++) {
+                points += UtilityFunctionsBitboard.groupPoints(UtilityFunctionsModel.findGroupSize(snapshot, new Position(j, i), visited));
+            }
+        }
+
+        return points;
+    }
+
+    /**
+     * This method copies the state of the tracker in the given array, so that it can be restored by restoreState
+     * when the move is taken back
+     * @param state the array receiving the state, of length STATE_SIZE
+     */
+    void saveState(int[] state) {
+        state[0] = personalGoalHits;
+        state[1] = trackedOccupancy;
+        state[2] = lastChangedCells;
+        state[3] = lastUpdateFull ? 1 : 0;
+        state[4] = firstUpdate ? 1 : 0;
+    }
+
+    /**
+     * This method restores a state saved by saveState
+     * @param state the saved state
+     */
+    void restoreState(int[] state) {
+        personalGoalHits = state[0];
+        trackedOccupancy = state[1];
+        lastChangedCells = state[2];
+        lastUpdateFull = state[3] != 0;
+        firstUpdate = state[4] != 0;
+    }
+
+    /**
+     * This method returns the cells added to the shelf by the last update
+     * @return the mask of the changed cells
+     */
+    public int getLastChangedCells() {
+        return lastChangedCells;
+    }
+
+    /**
+     * This method returns the points given by the personal goal
+     * @return the personal goal points
+     */
+    public int getPersonalGoalPoints() {
+        if (personalGoal == null) return 0;
+        return personalGoal.getPointsForCompletedGoals(personalGoalHits);
+    }
+
+    /**
+     * This method returns the points given by the groups of adjacent tiles of the same color
+     * @return the group points
+     */
+    public int getGroupPoints() {
+        return shelf.evaluateGroupPoints();
+    }
+
+    /**
+     * This method checks if the given common goal, not yet reached by the player, has been reached with the last
+     * update. If no cell has been added the goal cannot have been reached, so it is not evaluated at all; if the
+     * added cells are the tiles of a move (all in the same column) only what intersects them is evaluated
+     * @param commonGoal the common goal to check
+     * @return true if the goal is reached
+     */
+    public boolean isCommonGoalReached(CommonGoal commonGoal) {
+        if (lastChangedCells == 0) return false;
+
+        int lowestCell = Integer.numberOfTrailingZeros(lastChangedCells);
+        int highestCell = Integer.SIZE - 1 - Integer.numberOfLeadingZeros(lastChangedCells);
+        int column = lowestCell % ModelConstants.COLS_NUMBER;
+
+        boolean reached;
+        if (lastUpdateFull || (lastChangedCells & ~UtilityFunctionsBitboard.columnMask(column)) != 0) reached = commonGoal.evaluate(shelf);
+        else reached = commonGoal.evaluateAfterInsert(shelf, column, lowestCell / ModelConstants.COLS_NUMBER, highestCell / ModelConstants.COLS_NUMBER);
+
+        if (verification && reached != commonGoal.evaluate(shelf))
+            throw new IllegalStateException("Common goal mismatch: " + reached + " instead of " + !reached);
+
+        return reached;
+    }
+
+    /**
+     * This method adds to the personal goal hits the given cells whose tile has the color required by the personal goal
+     * @param cells mask of the cells to check
+     */
+    private void countPersonalGoalHits(int cells) {
+        while (cells != 0) {
+            int cell = Integer.numberOfTrailingZeros(cells);
+            cells &= cells - 1;
+
+            TileColor required = personalGoalColors[cell];
+            if (required != null && (shelf.getColorMask(required) & (1 << cell)) != 0) personalGoalHits++;
+        }
+    }
+}
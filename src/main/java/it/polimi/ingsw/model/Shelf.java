@@ -2,14 +2,24 @@ package it.polimi.ingsw.model;
 
 import com.google.gson.annotations.Expose;
 import it.polimi.ingsw.constants.ModelConstants;
-import it.polimi.ingsw.utilities.UtilityFunctionsModel;
+import it.polimi.ingsw.utilities.UtilityFunctionsBitboard;
 
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
 import java.io.Serializable;
-import java.util.ArrayDeque;
-import java.util.ArrayList;
 
 /**
  * This class represent the shelf of one of the player
+ * Beside the matrix of tiles (needed to keep the sprites) the shelf keeps a bitboard index: one mask of
+ * ROWS_NUMBER * COLS_NUMBER bits for each color plus the mask of the occupied cells (see UtilityFunctionsBitboard
+ * for the mapping between cells and bits), so that the scoring can be done with bit operations.
+ * The groups of adjacent tiles of the same color are kept in a union-find over the cells, updated every time a
+ * tile is added, so that the group points are always available without exploring the shelf.
+ * The height of every column and the number of tiles in the shelf are kept too, so that finding the insertion row,
+ * the free spaces of a column and whether the shelf is full never require a scan.
+ * Finally, for every row and every column the shelf keeps the mask of the colors it contains (one bit for each color,
+ * see TileColor): an add changes only the masks of its row and its column, so the goals on lines can read them directly
  */
 public class Shelf implements Serializable {
     /**
@@ -18,6 +28,67 @@ public class Shelf implements Serializable {
     @Expose
     private final Tile[][] myShelf;
 
+    /**
+     * This attribute stores, for each color, the mask of the cells containing a tile of that color
+     */
+    private int[] colorMasks = new int[ModelConstants.TOTAL_COLORS];
+
+    /**
+     * This attribute stores the mask of the cells containing a tile
+     */
+    private int occupancyMask;
+
+    /**
+     * This attribute stores, for each column, the number of cells from the bottom up to the highest tile
+     */
+    private int[] columnHeights = new int[ModelConstants.COLS_NUMBER];
+
+    /**
+     * This attribute stores the number of tiles in the shelf
+     */
+    private int filledCells;
+
+    /**
+     * This attribute stores, for each row, the mask of the colors of its tiles (bit i set if a tile has the color of ordinal i)
+     */
+    private int[] rowColors = new int[ModelConstants.ROWS_NUMBER];
+
+    /**
+     * This attribute stores, for each column, the mask of the colors of its tiles (bit i set if a tile has the color of ordinal i)
+     */
+    private int[] columnColors = new int[ModelConstants.COLS_NUMBER];
+
+    /**
+     * This attribute stores the matrix from which the masks were built. When the shelf is loaded from file the
+     * matrix is replaced without calling the constructor, so a different reference means the masks must be rebuilt
+     */
+    private Tile[][] indexedShelf;
+
+    /**
+     * This attribute stores the union-find parent of each cell (a cell is the root of its group if it is its own parent)
+     */
+    private int[] groupParent = new int[UtilityFunctionsBitboard.SHELF_CELLS];
+
+    /**
+     * This attribute stores the size of each group, it is meaningful only at the index of the root of the group
+     */
+    private int[] groupSize = new int[UtilityFunctionsBitboard.SHELF_CELLS];
+
+    /**
+     * This attribute stores the sum of the points given by all the groups currently in the shelf
+     */
+    private int groupPoints;
+
+    /**
+     * This attribute publishes the snapshots of the shelf (created on first use, see getSnapshot)
+     */
+    private transient TileGridSnapshots snapshots;
+
+    /**
+     * This attribute is the number of values written by saveIndexes
+     */
+    static final int INDEXES_SIZE = ModelConstants.TOTAL_COLORS + ModelConstants.ROWS_NUMBER + 2 * ModelConstants.COLS_NUMBER
+            + 2 * UtilityFunctionsBitboard.SHELF_CELLS + 3;
 
     /**
      * This method is the class constructor, it doesn't receive parameters and simply fill the shelf with empty
@@ -28,9 +99,11 @@ public class Shelf implements Serializable {
 
         for (int i = 0; i < ModelConstants.ROWS_NUMBER; i++) {
             for (int j = 0; j < ModelConstants.COLS_NUMBER; j++) {
-                myShelf[i][j] = new Tile(TileColor.EMPTY, 0);
+                myShelf[i][j] = Tile.EMPTY;
             }
         }
+
+        this.indexedShelf = myShelf;
     }
 
 
@@ -42,24 +115,59 @@ public class Shelf implements Serializable {
         this.myShelf = myShelf.getCopy();
     }
 
+    /**
+     * This method writes the shelf in the binary save format: the code of every tile (see Tile.toCode), row by row
+     * @param out the output of the save
+     * @throws IOException if the output can't be written
+     */
+    void writeTo(DataOutput out) throws IOException {
+        for (Tile[] row : this.myShelf) {
+            for (Tile tile : row) out.writeByte(tile.toCode());
+        }
+    }
+
+    /**
+     * This method reads a shelf written by writeTo (its indexes are built on first use, as for a copy)
+     * @param in the input of the save
+     * @return the shelf
+     * @throws IOException if the input can't be read
+     */
+    static Shelf readFrom(DataInput in) throws IOException {
+        Shelf shelf = new Shelf();
+        for (int i = 0; i < ModelConstants.ROWS_NUMBER; i++) {
+            for (int j = 0; j < ModelConstants.COLS_NUMBER; j++) shelf.myShelf[i][j] = Tile.ofCode(in.readUnsignedByte());
+        }
+        shelf.indexedShelf = null;
+        return shelf;
+    }
+
 
     /**
      * This method return a copy of the array of tile of the shelf
+     * Tiles are immutable, so only the references are copied
      *
      * @return a copy of myShelf
      */
     public Tile[][] getCopy() {
-        Tile[][] myShelfCopy = new Tile[ModelConstants.ROWS_NUMBER][ModelConstants.COLS_NUMBER];
+        Tile[][] myShelfCopy = new Tile[ModelConstants.ROWS_NUMBER][];
 
         for (int i = 0; i < ModelConstants.ROWS_NUMBER; i++) {
-            for (int j = 0; j < ModelConstants.COLS_NUMBER; j++) {
-                myShelfCopy[i][j] = new Tile(this.myShelf[i][j]);
-            }
+            myShelfCopy[i] = this.myShelf[i].clone();
         }
 
         return myShelfCopy;
     }
 
+    /**
+     * This method returns an immutable snapshot of the shelf: the rows not changed since the previous snapshot are
+     * shared with it, so only the rows changed by the last move are copied
+     * @return the snapshot of the shelf (it must not be modified)
+     */
+    public Tile[][] getSnapshot() {
+        if (snapshots == null) snapshots = new TileGridSnapshots();
+        return snapshots.snapshot(myShelf);
+    }
+
     /**
      * This method receive a tile object and an int representing the column in which the tile
      * must be added
@@ -71,14 +179,76 @@ public class Shelf implements Serializable {
      * @param column = column in which you must insert the tile
      */
     public void add(Tile tile, Integer column) {
-        // rowToInsertInIdx set to the bottom row
-        int rowToInsertInIdx = ModelConstants.ROWS_NUMBER - 1;
+        ensureIndexed();
+
+        // the tile goes in the first empty cell above the highest tile of the column
+        int rowToInsertInIdx = ModelConstants.ROWS_NUMBER - 1 - columnHeights[column];
+
+        // add the canonical instance of the given tile in the empty cell
+        myShelf[rowToInsertInIdx][column] = Tile.of(tile);
+
+        // update the masks and the groups of the shelf with the new tile
+        indexCell(rowToInsertInIdx, column, tile);
+        if (snapshots != null) snapshots.rowChanged(rowToInsertInIdx);
+    }
+
 
-        // decrement the row idx till it reach an empty cell
-        while(!myShelf[rowToInsertInIdx][column].isEmpty()) rowToInsertInIdx--;
+    /**
+     * This method copies all the indexes of the shelf (masks, heights and union-find) in the given array, so that
+     * they can be restored by removeTop after some tiles have been added
+     * @param indexes the array receiving the indexes, of length INDEXES_SIZE
+     */
+    void saveIndexes(int[] indexes) {
+        ensureIndexed();
+        int i = 0;
+        System.arraycopy(colorMasks, 0, indexes, i, colorMasks.length);
+        i += colorMasks.length;
+        System.arraycopy(columnHeights, 0, indexes, i, columnHeights.length);
+        i += columnHeights.length;
+        System.arraycopy(rowColors, 0, indexes, i, rowColors.length);
+        i += rowColors.length;
+        System.arraycopy(columnColors, 0, indexes, i, columnColors.length);
+        i += columnColors.length;
+        System.arraycopy(groupParent, 0, indexes, i, groupParent.length);
+        i += groupParent.length;
+        System.arraycopy(groupSize, 0, indexes, i, groupSize.length);
+        i += groupSize.length;
+        indexes[i++] = occupancyMask;
+        indexes[i++] = filledCells;
+        indexes[i] = groupPoints;
+    }
+
+    /**
+     * This method takes back the last tiles added to a column: their cells are emptied and the indexes saved by
+     * saveIndexes before they were added are restored (the union-find can't remove a cell from a group)
+     * @param column the column of the tiles
+     * @param tiles the number of tiles to remove
+     * @param indexes the indexes saved before the tiles were added
+     */
+    void removeTop(int column, int tiles, int[] indexes) {
+        ensureIndexed();
+        int top = ModelConstants.ROWS_NUMBER - columnHeights[column];
+        for (int row = top; row < top + tiles; row++) {
+            myShelf[row][column] = Tile.EMPTY;
+            if (snapshots != null) snapshots.rowChanged(row);
+        }
 
-        // add the given tile in the empty cell
-        myShelf[rowToInsertInIdx][column] = new Tile(tile);
+        int i = 0;
+        System.arraycopy(indexes, i, colorMasks, 0, colorMasks.length);
+        i += colorMasks.length;
+        System.arraycopy(indexes, i, columnHeights, 0, columnHeights.length);
+        i += columnHeights.length;
+        System.arraycopy(indexes, i, rowColors, 0, rowColors.length);
+        i += rowColors.length;
+        System.arraycopy(indexes, i, columnColors, 0, columnColors.length);
+        i += columnColors.length;
+        System.arraycopy(indexes, i, groupParent, 0, groupParent.length);
+        i += groupParent.length;
+        System.arraycopy(indexes, i, groupSize, 0, groupSize.length);
+        i += groupSize.length;
+        occupancyMask = indexes[i++];
+        filledCells = indexes[i++];
+        groupPoints = indexes[i];
     }
 
 
@@ -87,13 +257,8 @@ public class Shelf implements Serializable {
      * @return boolean
      */
     public boolean isFull() {
-        for (int i = 0; i < ModelConstants.ROWS_NUMBER; i++) {
-            for (int j = 0; j < ModelConstants.COLS_NUMBER; j++) {
-                if (myShelf[i][j].isEmpty()) return false;
-            }
-        }
-
-        return true;
+        ensureIndexed();
+        return filledCells == UtilityFunctionsBitboard.SHELF_CELLS;
     }
 
 
@@ -116,61 +281,235 @@ public class Shelf implements Serializable {
      * @return the number of free spaces in the column
      */
     public Integer getFreeSpaces(Integer col) {
-        return UtilityFunctionsModel.getFreeSpaces(this.myShelf, col);
+        ensureIndexed();
+        return ModelConstants.ROWS_NUMBER - columnHeights[col];
     }
 
 
+    /**
+     * This method returns the maximum number of tiles that can be inserted in the shelf with a single move,
+     * that is the number of free spaces of the emptiest column, limited to MAX_NUM_OF_MOVES
+     *
+     * @return the maximum number of tiles insertable in a move (0 if the shelf is full)
+     */
+    public int getMaxInsertableTiles() {
+        ensureIndexed();
+        int maxFreeSpaces = 0;
+        for (int col = 0; col < ModelConstants.COLS_NUMBER; col++) {
+            maxFreeSpaces = Math.max(maxFreeSpaces, ModelConstants.ROWS_NUMBER - columnHeights[col]);
+        }
+        return Math.min(maxFreeSpaces, ModelConstants.MAX_NUM_OF_MOVES);
+    }
+
+
+
+    /**
+     * This method returns the mask of the cells containing a tile of the given color
+     * @param color the color (empty and invalid colors have no mask and always return 0)
+     * @return the mask of the cells of the given color
+     */
+    public int getColorMask(TileColor color) {
+        if (color.ordinal() >= ModelConstants.TOTAL_COLORS) return 0;
+        ensureIndexed();
+        return colorMasks[color.ordinal()];
+    }
 
 
     /**
-     * This method finds the group of cells in the player shelf and return the sum of the points
-     * given by each group
-     * It requires that the shelf is always full (with empty or normal tiles)
+     * This method returns the mask of the cells containing a tile
+     * @return the mask of the occupied cells
+     */
+    public int getOccupancyMask() {
+        ensureIndexed();
+        return occupancyMask;
+    }
+
+
+    /**
+     * This method returns the mask of the colors of the tiles in the given row
+     * @param row the row
+     * @return the mask with the bit of the ordinal of each color in the row
+     */
+    public int getRowColors(int row) {
+        ensureIndexed();
+        return rowColors[row];
+    }
+
+
+    /**
+     * This method returns the mask of the colors of the tiles in the given column
+     * @param col the column
+     * @return the mask with the bit of the ordinal of each color in the column
+     */
+    public int getColumnColors(int col) {
+        ensureIndexed();
+        return columnColors[col];
+    }
+
+
+    /**
+     * This method checks if the given row has no empty cells
+     * @param row the row
+     * @return true if the row is full
+     */
+    public boolean isRowFull(int row) {
+        ensureIndexed();
+        int rowMask = UtilityFunctionsBitboard.rowMask(row);
+        return (occupancyMask & rowMask) == rowMask;
+    }
+
+
+    /**
+     * This method checks if the given column has no empty cells
+     * @param col the column
+     * @return true if the column is full
+     */
+    public boolean isColumnFull(int col) {
+        ensureIndexed();
+        return columnHeights[col] == ModelConstants.ROWS_NUMBER;
+    }
+
+
+    /**
+     * This method returns the sum of the points given by each group of adjacent tiles of the same color
+     * The groups are kept up to date by add, so this method only reads the stored total
      * @return total points for groups
      */
     public Integer evaluateGroupPoints() {
+        ensureIndexed();
+        return groupPoints;
+    }
+
+
+    /**
+     * This method returns the size of the group of adjacent tiles of the same color containing the given position
+     * @param position position in the shelf
+     * @return the size of the group (0 if the position is empty)
+     */
+    public int getGroupSize(Position position) {
+        ensureIndexed();
+        int cell = UtilityFunctionsBitboard.cellIndex(position.y(), position.x());
+        if ((occupancyMask & (1 << cell)) == 0 || !isColored(myShelf[position.y()][position.x()])) return 0;
+        return groupSize[findRoot(cell)];
+    }
 
-        int points = 0;
-        ArrayList<Integer> comp = evaluateGroupComponents();
 
-        for(int x: comp) {
-            if (x<3) points +=0;
-            else if (x==3) points += 2;
-            else if (x==4) points += 3;
-            else if (x==5) points += 5;
-            else points += 8;
+    /**
+     * This method adds the given tile, already placed in the matrix, to the masks and to the groups of the shelf.
+     * The new cell starts as a group of its own and is merged with every adjacent group of the same color
+     * @param row row of the new tile
+     * @param col column of the new tile
+     * @param tile the new tile
+     */
+    private void indexCell(int row, int col, Tile tile) {
+        int cellIdx = UtilityFunctionsBitboard.cellIndex(row, col);
+        int cell = 1 << cellIdx;
+        occupancyMask |= cell;
+        filledCells++;
+        columnHeights[col] = Math.max(columnHeights[col], ModelConstants.ROWS_NUMBER - row);
+
+        if (!isColored(tile)) return;
+
+        int color = tile.getColor().ordinal();
+        colorMasks[color] |= cell;
+        rowColors[row] |= 1 << color;
+        columnColors[col] |= 1 << color;
+        groupParent[cellIdx] = cellIdx;
+        groupSize[cellIdx] = 1;
+
+        // merge the new cell with each adjacent tile of the same color
+        int neighbours = UtilityFunctionsBitboard.adjacentCells(cell) & colorMasks[color];
+        while (neighbours != 0) {
+            int neighbourIdx = Integer.numberOfTrailingZeros(neighbours);
+            neighbours &= neighbours - 1;
+            union(cellIdx, neighbourIdx);
+        }
+    }
+
 
+    /**
+     * This method merges the groups of the two given cells (if they are not already the same group)
+     * updating the total of the group points
+     * @param a first cell index
+     * @param b second cell index
+     */
+    private void union(int a, int b) {
+        int rootA = findRoot(a);
+        int rootB = findRoot(b);
+        if (rootA == rootB) return;
+
+        // the smaller group is attached to the bigger one
+        if (groupSize[rootA] < groupSize[rootB]) {
+            int tmp = rootA;
+            rootA = rootB;
+            rootB = tmp;
         }
 
-        return points;
+        groupPoints -= UtilityFunctionsBitboard.groupPoints(groupSize[rootA]) + UtilityFunctionsBitboard.groupPoints(groupSize[rootB]);
+        groupParent[rootB] = rootA;
+        groupSize[rootA] += groupSize[rootB];
+        groupPoints += UtilityFunctionsBitboard.groupPoints(groupSize[rootA]);
     }
 
 
     /**
-     * This method calculates the number of components of all the groups present
-     * @return an arrayList that contains the number of components for each group
+     * This method returns the root of the group containing the given cell, halving the path on the way
+     * @param cell cell index
+     * @return index of the root cell
      */
-    private ArrayList<Integer> evaluateGroupComponents() {
+    private int findRoot(int cell) {
+        while (groupParent[cell] != cell) {
+            groupParent[cell] = groupParent[groupParent[cell]];
+            cell = groupParent[cell];
+        }
+        return cell;
+    }
+
 
-        Shelf tempLib = new Shelf(this);
-        ArrayDeque<Position> posToExplore = new ArrayDeque<>();
-        ArrayList<Integer> components = new ArrayList<>();
+    /**
+     * This method builds the masks and the groups of the shelf again if the matrix of tiles has been replaced
+     * (it happens when the shelf is copied or loaded from file)
+     */
+    private void ensureIndexed() {
+        if (indexedShelf == myShelf) return;
+
+        if (colorMasks == null) {
+            colorMasks = new int[ModelConstants.TOTAL_COLORS];
+            groupParent = new int[UtilityFunctionsBitboard.SHELF_CELLS];
+            groupSize = new int[UtilityFunctionsBitboard.SHELF_CELLS];
+            columnHeights = new int[ModelConstants.COLS_NUMBER];
+            rowColors = new int[ModelConstants.ROWS_NUMBER];
+            columnColors = new int[ModelConstants.COLS_NUMBER];
+        }
+        occupancyMask = 0;
+        groupPoints = 0;
+        filledCells = 0;
+        for (int color = 0; color < ModelConstants.TOTAL_COLORS; color++) colorMasks[color] = 0;
+        for (int col = 0; col < ModelConstants.COLS_NUMBER; col++) {
+            columnHeights[col] = 0;
+            columnColors[col] = 0;
+        }
+        for (int row = 0; row < ModelConstants.ROWS_NUMBER; row++) rowColors[row] = 0;
 
-        // Adds all the positions that don't have an empty tile to the list
         for (int i = 0; i < ModelConstants.ROWS_NUMBER; i++) {
             for (int j = 0; j < ModelConstants.COLS_NUMBER; j++) {
-                posToExplore.addLast(new Position(j, i));
+                // tiles loaded from file are replaced by their canonical instance
+                myShelf[i][j] = Tile.of(myShelf[i][j]);
+                if (!myShelf[i][j].isEmpty()) indexCell(i, j, myShelf[i][j]);
             }
         }
 
-        // Main logic of the method
-        while(!posToExplore.isEmpty()){
-            Position p = posToExplore.pop();
-            components.add(UtilityFunctionsModel.findGroupSize(tempLib, p));
+        indexedShelf = myShelf;
+    }
 
-        }
 
-        return components;
+    /**
+     * This method checks if the given tile has one of the TOTAL_COLORS real colors
+     * @param tile the tile to check
+     * @return true if the tile is neither empty nor invalid
+     */
+    private static boolean isColored(Tile tile) {
+        return tile.getColor().ordinal() < ModelConstants.TOTAL_COLORS;
     }
 
     /**
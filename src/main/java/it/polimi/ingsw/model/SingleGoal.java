@@ -28,7 +28,7 @@ public class SingleGoal implements Serializable {
      */
 
     public SingleGoal(Position position, TileColor color) {
-        this.position = new Position(position);
+        this.position = Position.of(position.x(), position.y());
         this.color = color;
     }
 
@@ -1,19 +1,53 @@
 package it.polimi.ingsw.model;
 
 import com.google.gson.annotations.Expose;
+import it.polimi.ingsw.constants.BoardConstants;
+import it.polimi.ingsw.constants.ModelConstants;
 
 import java.io.Serializable;
 
 /**
  * this class represents the single tile of the game
+ * Tiles are immutable: the same instance can be shared by the bag, the board, the shelves and their copies.
+ * The containers use the canonical instances returned by of(), one for each (color, sprite) pair plus one empty
+ * and one invalid tile, and they "empty" a cell by replacing its tile with EMPTY
  */
 
 public class Tile implements Serializable {
+    /**
+     * canonical empty tile
+     */
+    public static final Tile EMPTY = new Tile(TileColor.EMPTY, 0);
+
+    /**
+     * canonical invalid tile
+     */
+    public static final Tile INVALID = new Tile(TileColor.INVALID, 1);
+
+    /**
+     * canonical colored tiles, indexed by color ordinal and sprite
+     */
+    private static final Tile[][] CANONICAL = new Tile[ModelConstants.TOTAL_COLORS][BoardConstants.TOTAL_SPRITES + 1];
+
+    /**
+     * all the colors, indexed by ordinal (used to decode the tiles)
+     */
+    private static final TileColor[] COLORS = TileColor.values();
+
+    static {
+        for (TileColor color : TileColor.values()) {
+            if (color.ordinal() >= ModelConstants.TOTAL_COLORS) continue;
+            for (int sprite = 0; sprite <= BoardConstants.TOTAL_SPRITES; sprite++) {
+                CANONICAL[color.ordinal()][sprite] = new Tile(color, sprite);
+            }
+        }
+    }
+
     /**
      * this attribute is the color of the tile;
      */
     @Expose
-    private TileColor color;
+    private final TileColor color;
     /**
      * this attribute is used to show the correct image of the tile in the Gui
      */
@@ -32,13 +66,46 @@ public class Tile implements Serializable {
     }
 
     /**
-     *  this method is an alternative class constructor that returns a new tile, copy of the tile passed
-     *  as parameter
-     * @param copy tile we want the copy
+     * this method returns the canonical tile with the given color and sprite
+     * @param color the color of the tile
+     * @param sprite the sprite of the tile (ignored for empty and invalid tiles)
+     * @return the shared instance of the tile
+     */
+    public static Tile of(TileColor color, int sprite) {
+        if (color == TileColor.EMPTY) return EMPTY;
+        if (color == TileColor.INVALID) return INVALID;
+        if (sprite < 0 || sprite > BoardConstants.TOTAL_SPRITES) return new Tile(color, sprite);
+        return CANONICAL[color.ordinal()][sprite];
+    }
+
+    /**
+     * this method returns the canonical instance equivalent to the given tile (for example a tile loaded from file)
+     * @param tile the tile
+     * @return the shared instance of the tile
      */
-    public Tile(Tile copy){
-        this.color = copy.color;
-        this.sprite = copy.sprite;
+    public static Tile of(Tile tile) {
+        return of(tile.color, tile.sprite);
+    }
+
+    /**
+     * this method returns the canonical tile encoded by the given byte (see toCode)
+     * @param code the code of the tile
+     * @return the shared instance of the tile
+     * @throws IllegalArgumentException if the code is not the code of a tile
+     */
+    static Tile ofCode(int code) {
+        int color = (code >> 4) & 0xF;
+        if (color >= COLORS.length) throw new IllegalArgumentException("Invalid tile code " + code);
+        return of(COLORS[color], code & 0xF);
+    }
+
+    /**
+     * this method encodes the tile in a single byte, with the ordinal of the color in the high half and the sprite
+     * in the low half: it is the representation of the tile in the binary save format
+     * @return the code of the tile
+     */
+    int toCode() {
+        return this.color.ordinal() << 4 | (this.sprite & 0xF);
     }
 
     /**
@@ -69,16 +136,6 @@ public class Tile implements Serializable {
         return this.color == TileColor.INVALID;
     }
 
-    /**
-     * this method set the tile color to empty
-     */
-    public void setEmpty(){this.color = TileColor.EMPTY;}
-
-    /**
-     * this method set the tile color to invalid
-     */
-    public void setInvalid(){this.color = TileColor.INVALID;}
-
     /**
      * this method overrides the method equals. it assumes that two tiles are equals if they have the same color;
      * if the parameter isn't a tile, the method return false
@@ -90,4 +147,21 @@ public class Tile implements Serializable {
         if(!(obj instanceof Tile c)) return false;
         return this.color == c.color;
     }
+
+    /**
+     * this method overrides the method hashCode, consistently with equals
+     * @return the hash code of the color
+     */
+    @Override
+    public int hashCode() {
+        return this.color.hashCode();
+    }
+
+    /**
+     * this method replaces a tile received through java serialization with its canonical instance
+     * @return the canonical tile
+     */
+    private Object readResolve() {
+        return of(this);
+    }
 }
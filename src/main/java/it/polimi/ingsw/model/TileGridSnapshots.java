@@ -0,0 +1,62 @@
+package it.polimi.ingsw.model;
+
+/**
+ * This class publishes immutable, versioned snapshots of a grid of tiles (the game board or a shelf) with
+ * structural sharing. The rows of a snapshot are never modified after it has been published, so a new snapshot
+ * copies only the rows changed since the previous one and shares all the others with it: publishing costs the
+ * number of changed rows, and a snapshot can be read from any thread without copying it.
+ * The owner of the grid must call rowChanged every time it changes a row
+ */
+final class TileGridSnapshots {
+    /**
+     * This attribute is the last published snapshot (null before the first one)
+     */
+    private Tile[][] published;
+
+    /**
+     * This attribute stores the rows changed since the last snapshot, one bit for each row
+     */
+    private long changedRows;
+
+    /**
+     * This attribute is the number of snapshots published with some change
+     */
+    private int version;
+
+    /**
+     * This method records that a row of the grid has been changed
+     * @param row index of the row
+     */
+    void rowChanged(int row) {
+        changedRows |= 1L << row;
+    }
+
+    /**
+     * This method returns the snapshot of the current grid: the last one if nothing has changed, otherwise a new
+     * one sharing the unchanged rows with the last one
+     * @param grid the current grid
+     * @return the snapshot (it must not be modified)
+     */
+    Tile[][] snapshot(Tile[][] grid) {
+        if (published != null && changedRows == 0) return published;
+
+        Tile[][] next = published == null ? new Tile[grid.length][] : published.clone();
+        for (int row = 0; row < grid.length; row++) {
+            if (published == null || (changedRows & (1L << row)) != 0) next[row] = grid[row].clone();
+        }
+
+        published = next;
+        changedRows = 0;
+        version++;
+        return next;
+    }
+
+    /**
+     * This method returns the version of the last snapshot: it changes every time a snapshot with some change is
+     * published
+     * @return the version of the last snapshot
+     */
+    int getVersion() {
+        return version;
+    }
+}
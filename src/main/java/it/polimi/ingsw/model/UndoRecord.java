@@ -0,0 +1,134 @@
+package it.polimi.ingsw.model;
+
+import it.polimi.ingsw.constants.ModelConstants;
+
+import java.util.List;
+
+/**
+ * This class stores what is needed to take back a move played with GameModel.apply: the tiles removed from the
+ * board, the indexes of the shelf, of the score tracker and the score of the player before the move, the values
+ * popped from the point stacks, the tiles drawn by the refill of the board and the state of the match (random
+ * generator, turn, last turn and end of the match).
+ * The records are owned by the match, which keeps one for every depth of the moves applied and not yet undone and
+ * reuses it, so applying and undoing a move never allocates anything
+ */
+public final class UndoRecord {
+    /**
+     * the applied move, encoded by the MoveGenerator
+     */
+    int move;
+
+    /**
+     * the tiles removed from the board, in the order of the move
+     */
+    final Tile[] removedTiles = new Tile[ModelConstants.MAX_NUM_OF_MOVES];
+
+    /**
+     * the indexes of the shelf of the player before the move (see Shelf.saveIndexes)
+     */
+    final int[] shelfIndexes = new int[Shelf.INDEXES_SIZE];
+
+    /**
+     * the state of the score tracker of the player before the move (see ScoreTracker.saveState)
+     */
+    final int[] trackerState = new int[ScoreTracker.STATE_SIZE];
+
+    /**
+     * the score of the player before the move (see PlayerState.saveScore)
+     */
+    final int[] score = new int[PlayerState.SCORE_SIZE];
+
+    /**
+     * the point stacks popped by the move, one bit for each common goal
+     */
+    int poppedStacks;
+
+    /**
+     * the values popped from the point stacks, indexed by common goal
+     */
+    final int[] poppedValues = new int[ModelConstants.TOTAL_CG_PER_GAME];
+
+    /**
+     * the board indexes of the cells filled by the refill of the board, in the order of the draws
+     */
+    final int[] drawnCells = new int[Position.BOARD_CELLS];
+
+    /**
+     * the positions in the bag of the drawn tiles, in the order of the draws
+     */
+    final int[] drawnIndexes = new int[Position.BOARD_CELLS];
+
+    /**
+     * the number of tiles drawn by the refill of the board
+     */
+    int drawnCount;
+
+    /**
+     * the state of the random generator of the match before the move
+     */
+    long randomState;
+
+    /**
+     * the current player before the move
+     */
+    int currentPlayer;
+
+    /**
+     * the last turn flag before the move
+     */
+    boolean isLastTurn;
+
+    /**
+     * the end of the match flag before the move
+     */
+    boolean gameOver;
+
+    /**
+     * the leaderboard before the move
+     */
+    List<GameEndedScore> leaderBoard;
+
+    /**
+     * the number of moves played before the move
+     */
+    int movesPlayed;
+
+    /**
+     * the number of refills of the board before the move
+     */
+    int boardRefills;
+
+    /**
+     * the move of the current turn before the move
+     */
+    int currentMove;
+
+    /**
+     * the player of the move of the current turn before the move
+     */
+    int currentMovePlayer;
+
+    /**
+     * Constructor: the record is filled by GameModel.apply
+     */
+    UndoRecord() {}
+
+    /**
+     * This method records a tile drawn from the bag by the refill of the board
+     * @param cell board index of the filled cell
+     * @param index position of the tile in the bag when it was drawn
+     */
+    void recordDraw(int cell, int index) {
+        this.drawnCells[this.drawnCount] = cell;
+        this.drawnIndexes[this.drawnCount] = index;
+        this.drawnCount++;
+    }
+
+    /**
+     * Getter of the applied move
+     * @return the move, encoded by the MoveGenerator
+     */
+    public int getMove() {
+        return this.move;
+    }
+}
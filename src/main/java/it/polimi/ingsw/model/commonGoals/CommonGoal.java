@@ -2,6 +2,8 @@ package it.polimi.ingsw.model.commonGoals;
 
 import com.google.gson.annotations.Expose;
 import it.polimi.ingsw.model.Shelf;
+import it.polimi.ingsw.model.TileColor;
+import it.polimi.ingsw.utilities.UtilityFunctionsBitboard;
 
 import java.util.ArrayList;
 import java.util.List;
@@ -14,6 +16,11 @@ import java.util.stream.Collectors;
  */
 public abstract class CommonGoal {
 
+    /**
+     * all the colors (TileColor.values() creates a new array at every call, and the goals are evaluated after every move)
+     */
+    protected static final TileColor[] COLORS = TileColor.values();
+
     /**
      * This method has to be overridden in its subclasses, with each implementation being a different algorithm to calculate the goal
      * @param shelf Shelf of the current player
@@ -21,4 +28,32 @@ public abstract class CommonGoal {
      */
     public abstract boolean evaluate(Shelf shelf);
 
+    /**
+     * This method evaluates the goal after some tiles have been inserted in a single column of the shelf, knowing that
+     * the goal was not satisfied before the insertion: a goal can become satisfied only thanks to the new tiles, so
+     * the goals overriding this method check only what intersects the changed cells.
+     * The default implementation evaluates the whole shelf
+     * @param shelf Shelf of the current player, already containing the new tiles
+     * @param column column in which the tiles have been inserted
+     * @param fromRow highest row (smallest index) of the inserted tiles
+     * @param toRow lowest row (biggest index) of the inserted tiles
+     * @return true if the goal has been satisfied
+     */
+    public boolean evaluateAfterInsert(Shelf shelf, int column, int fromRow, int toRow) {
+        return evaluate(shelf);
+    }
+
+    /**
+     * This method returns the mask (see UtilityFunctionsBitboard) of the cells changed by an insertion
+     * @param column column in which the tiles have been inserted
+     * @param fromRow highest row (smallest index) of the inserted tiles
+     * @param toRow lowest row (biggest index) of the inserted tiles
+     * @return the mask of the changed cells
+     */
+    protected static int changedCells(int column, int fromRow, int toRow) {
+        int mask = 0;
+        for (int row = fromRow; row <= toRow; row++) mask |= UtilityFunctionsBitboard.cellMask(row, column);
+        return mask;
+    }
+
 }
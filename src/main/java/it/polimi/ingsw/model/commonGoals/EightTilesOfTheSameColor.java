@@ -1,14 +1,18 @@
 package it.polimi.ingsw.model.commonGoals;
 
-import it.polimi.ingsw.constants.ModelConstants;
-import it.polimi.ingsw.model.Tile;
 import it.polimi.ingsw.model.Shelf;
 import it.polimi.ingsw.model.Position;
+import it.polimi.ingsw.model.TileColor;
 
 /**
  * This class implements the sixth common goal: 8 cards of the same color anywhere in the library
  */
 public class EightTilesOfTheSameColor extends CommonGoal {
+    /**
+     * number of tiles of the same color needed to reach the goal
+     */
+    private static final int TILES_NEEDED = 8;
+
     /**
      * This method evaluate if the current player's library satisfies the common goal
      *
@@ -17,23 +21,28 @@ public class EightTilesOfTheSameColor extends CommonGoal {
      */
     @Override
     public boolean evaluate(Shelf library) {
-        // store the number of card of each color in the board
-        int[] colorCounters = new int[ModelConstants.TOTAL_COLORS];
-
-        // for each card check if it's empty and if not add 1 to the corresponding color counter
-        for (int i = 0; i < ModelConstants.ROWS_NUMBER; i++) {
-            for (int j = 0; j < ModelConstants.COLS_NUMBER; j++) {
-                Tile card = library.getTile(new Position(j, i));
-
-                if (!card.isEmpty() && !card.isInvalid()) {
-                    colorCounters[card.getColor().ordinal()]++;
-                }
-            }
+        // return true only if there is at least one color with at least 8 tiles in the library
+        for (TileColor color : COLORS) {
+            if (Integer.bitCount(library.getColorMask(color)) >= TILES_NEEDED) return true;
         }
 
-        // return true only if there is at least one color with counter >= 8
-        for (int colorCounter : colorCounters) {
-            if (colorCounter >= 8) return true;
+        return false;
+    }
+
+    /**
+     * This method evaluate the goal after an insertion: only the colors of the inserted tiles can have reached 8 tiles
+     *
+     * @param library Shelf of the current player
+     * @param column column in which the tiles have been inserted
+     * @param fromRow highest row of the inserted tiles
+     * @param toRow lowest row of the inserted tiles
+     * @return true if the goal has been satisfied
+     */
+    @Override
+    public boolean evaluateAfterInsert(Shelf library, int column, int fromRow, int toRow) {
+        for (int row = fromRow; row <= toRow; row++) {
+            TileColor color = library.getTile(Position.of(column, row)).getColor();
+            if (Integer.bitCount(library.getColorMask(color)) >= TILES_NEEDED) return true;
         }
 
         return false;
@@ -2,7 +2,6 @@ package it.polimi.ingsw.model.commonGoals;
 
 import it.polimi.ingsw.constants.ModelConstants;
 import it.polimi.ingsw.model.Shelf;
-import it.polimi.ingsw.model.Position;
 
 /**
  * This class implements the twelve common goal: ladder in the tile
@@ -10,56 +9,67 @@ import it.polimi.ingsw.model.Position;
 public class Ladder extends CommonGoal {
     /**
      * This method needs to find the ladder in the shelf.
-     * It starts with the search of the starting point, which has to be in the first two rows, because if not the ladder will not be full
-     * Then it goes in one direction or the other (depending on the starting column) and it checks if there is effectively a ladder
-     * The ladder is when I have one tile and the other (left/right depending on the moving direction) is empty
+     * The ladder starts from the first or the last column, in the first or the second row, and goes down by one row
+     * in each following column. Since the tiles always fall to the bottom of a column, the ladder is made only by the
+     * heights of the columns: the starting column must have a height of ROWS_NUMBER or ROWS_NUMBER - 1, and every
+     * following column must be exactly one tile lower
      * @param x shelf of the player
      * @return true if the ladder is found
      */
     @Override
     public boolean evaluate(Shelf x) {
-        int startingRow=0;
-        int startingCol=0;
-
-        if(x.getTile(new Position(startingCol,startingRow)).isEmpty()){
-            //next row, if empty too then change starting position
-            startingRow++;
-            if(x.getTile(new Position(startingCol,startingRow)).isEmpty()){
-                //change column position
-                startingRow--;
-                startingCol= ModelConstants.COLS_NUMBER-1;
-                if(x.getTile(new Position(startingCol,startingRow)).isEmpty()){
-                    //if empty too then go next row
-                    startingRow++;
-                    if(x.getTile(new Position(startingCol,startingRow)).isEmpty()){
-                        //if arrived here then it is impossible to do the ladder
-                        return false;
-                    }
-                }
-            }
+        for (int top = ModelConstants.ROWS_NUMBER; top >= ModelConstants.ROWS_NUMBER - 1; top--) {
+            if (isLadder(x, top, true) || isLadder(x, top, false)) return true;
         }
-        //now we have our starting row and column, we need to check if the ladder is done
-        int j=startingRow;
-        if(startingCol==0){
-            //save the starting row
-            //move to the right
-            for(int i = startingCol; i< ModelConstants.COLS_NUMBER-1; i++,j++){
-                //for every column if the one to the right of i is not empty then the column is not done
-                if(!x.getTile(new Position(i+1,j)).isEmpty()) return false;
-                //and we also need to check that the current position is not empty
-                if(x.getTile(new Position(i,j)).isEmpty()) return false;
-            }
-            //if everything passed correctly then it means that only the last row has to be checked, so we need to control the last bit on the bottom right
-            return !x.getTile(new Position(ModelConstants.COLS_NUMBER - 1, j)).isEmpty();
+
+        return false;
+    }
+
+    /**
+     * This method evaluate the goal after an insertion: the column of the inserted tiles must have the height required
+     * by one of the four possible ladders, and only that ladder is checked
+     * @param x shelf of the player
+     * @param column column in which the tiles have been inserted
+     * @param fromRow highest row of the inserted tiles
+     * @param toRow lowest row of the inserted tiles
+     * @return true if the ladder is found
+     */
+    @Override
+    public boolean evaluateAfterInsert(Shelf x, int column, int fromRow, int toRow) {
+        int height = ModelConstants.ROWS_NUMBER - x.getFreeSpaces(column);
+
+        for (int top = ModelConstants.ROWS_NUMBER; top >= ModelConstants.ROWS_NUMBER - 1; top--) {
+            if (height == ladderHeight(top, true, column) && isLadder(x, top, true)) return true;
+            if (height == ladderHeight(top, false, column) && isLadder(x, top, false)) return true;
         }
-        //do the same but mirrored
-        for(int i=startingCol;i>0;i--,j++){
-            if(!x.getTile(new Position(i-1,j)).isEmpty()) return false;
-            if(x.getTile(new Position(i,j)).isEmpty()) return false;
+
+        return false;
+    }
+
+    /**
+     * This method checks if the heights of the columns of the shelf form the given ladder
+     * @param x shelf of the player
+     * @param top height of the starting column
+     * @param fromLeft true if the ladder starts from the first column, false if it starts from the last one
+     * @return true if every column has the height required by the ladder
+     */
+    private boolean isLadder(Shelf x, int top, boolean fromLeft) {
+        for (int col = 0; col < ModelConstants.COLS_NUMBER; col++) {
+            if (ModelConstants.ROWS_NUMBER - x.getFreeSpaces(col) != ladderHeight(top, fromLeft, col)) return false;
         }
 
-        return !x.getTile(new Position(0, j)).isEmpty();
+        return true;
+    }
 
+    /**
+     * This method returns the height of the given column in the given ladder
+     * @param top height of the starting column
+     * @param fromLeft true if the ladder starts from the first column, false if it starts from the last one
+     * @param col the column
+     * @return the height required for the column
+     */
+    private static int ladderHeight(int top, boolean fromLeft, int col) {
+        return top - (fromLeft ? col : ModelConstants.COLS_NUMBER - 1 - col);
     }
 
     /**
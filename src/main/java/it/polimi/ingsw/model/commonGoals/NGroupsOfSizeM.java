@@ -1,11 +1,10 @@
 package it.polimi.ingsw.model.commonGoals;
 
 import com.google.gson.annotations.Expose;
-import it.polimi.ingsw.constants.ModelConstants;
 import it.polimi.ingsw.model.Position;
 import it.polimi.ingsw.model.Shelf;
-import it.polimi.ingsw.model.Tile;
-import it.polimi.ingsw.utilities.UtilityFunctionsModel;
+import it.polimi.ingsw.model.TileColor;
+import it.polimi.ingsw.utilities.UtilityFunctionsBitboard;
 
 /**
  * This class implements the first and second common goal: N group of M tiles of the same color (different groups can have different colors)
@@ -29,32 +28,49 @@ public class NGroupsOfSizeM extends CommonGoal{
 
     /**
      * This method evaluate if the current player's shelf satisfies the common goal
+     * The groups of each color are found with a flood fill on the color mask of the shelf
      *
      * @param shelf Shelf of the current player
      * @return true if the goal has been satisfied
      */
     @Override
     public boolean evaluate(Shelf shelf) {
-        Shelf copy = new Shelf(shelf);
-
         // counter for group of m tiles
         int groupNum = 0;
 
-        // foreach tile in shelf look if its part of a group and return the group dimension
-        for (int i = 0; i < ModelConstants.ROWS_NUMBER; i++) {
-            for (int j = 0; j < ModelConstants.COLS_NUMBER; j++) {
-                // select the current tile
-                Tile c = copy.getTile(new Position(j, i));
+        for (TileColor color : COLORS) {
+            int remaining = shelf.getColorMask(color);
+
+            // a group of m tiles needs at least m tiles of the color
+            while (Integer.bitCount(remaining) >= m) {
+                int group = UtilityFunctionsBitboard.floodFill(remaining & -remaining, remaining);
+                remaining &= ~group;
 
-                // execute the algorithm only if the current tile is not empty
-                if (!c.isEmpty()) {
-                    // find the dimension of the group of which c is part and add 1 if the group is made of m or more tiles
-                    groupNum += UtilityFunctionsModel.findGroupSize(copy, new Position(j, i)) >= m ? 1 : 0;
-                }
+                if (Integer.bitCount(group) >= m && ++groupNum >= n) return true;
             }
         }
 
-        return groupNum >= n;
+        return false;
+    }
+
+    /**
+     * This method evaluate the goal after an insertion: the number of groups of m tiles can grow only if one of the
+     * inserted tiles is part of a group of at least m tiles (the groups are read from the shelf, which keeps them
+     * updated), otherwise the goal is still not satisfied
+     *
+     * @param shelf Shelf of the current player
+     * @param column column in which the tiles have been inserted
+     * @param fromRow highest row of the inserted tiles
+     * @param toRow lowest row of the inserted tiles
+     * @return true if the goal has been satisfied
+     */
+    @Override
+    public boolean evaluateAfterInsert(Shelf shelf, int column, int fromRow, int toRow) {
+        for (int row = fromRow; row <= toRow; row++) {
+            if (shelf.getGroupSize(Position.of(column, row)) >= m) return evaluate(shelf);
+        }
+
+        return false;
     }
 
     /**
@@ -2,13 +2,7 @@ package it.polimi.ingsw.model.commonGoals;
 
 import com.google.gson.annotations.Expose;
 import it.polimi.ingsw.constants.ModelConstants;
-import it.polimi.ingsw.model.Position;
 import it.polimi.ingsw.model.Shelf;
-import it.polimi.ingsw.model.Tile;
-import it.polimi.ingsw.model.TileColor;
-
-import java.util.HashSet;
-import java.util.Set;
 
 /**
  * This class implements the fifth, eighth, ninth and tenth common goal: N lines of tiles of at most M different colors
@@ -36,6 +30,8 @@ public class NLinesOfAtMostMDifferentColors extends CommonGoal{
 
     /**
      * This method evaluate if the current player's shelf satisfies the common goal
+     * The shelf keeps the mask of the colors of every line, updated only in the row and the column of each added
+     * tile, so the number of different colors of a line is just the bit count of its mask
      *
      * @param shelf Shelf of the current player
      * @return true if the goal has been satisfied
@@ -43,54 +39,53 @@ public class NLinesOfAtMostMDifferentColors extends CommonGoal{
     @Override
     public boolean evaluate(Shelf shelf) {
         int result = 0;
-        int jMax = isColumn ? ModelConstants.COLS_NUMBER : ModelConstants.ROWS_NUMBER;
-        int iMax = !isColumn ? ModelConstants.COLS_NUMBER : ModelConstants.ROWS_NUMBER;
-
-        // used to store the colors found in a line so far
-        Set<TileColor> differentColors;
+        int lines = isColumn ? ModelConstants.COLS_NUMBER : ModelConstants.ROWS_NUMBER;
 
         // looping in each line
-        for (int j = 0; j < jMax; j++) {
-            differentColors = new HashSet<>();
+        for (int line = 0; line < lines && result < n; line++) {
+            if (isValidLine(shelf, line)) result++;
+        }
 
-            // execute only if the line is full (if not it's not a valid line for sure)
-            if (isLineFull(shelf, j, isColumn)) {
-                for (int i = 0; i < iMax; i++) {
-                    // add each color in the line (if not empty) to the set (if already present it will not be added)
-                    Tile card = shelf.getTile(new Position(isColumn ? j : i, isColumn ? i : j));
-                    differentColors.add(card.getColor());
-                }
+        // return true only if there are more or equals than n valid lines
+        return result >= n;
+    }
 
+    /**
+     * This method evaluate the goal after an insertion: a new valid line must contain one of the inserted tiles, so
+     * if the column (or none of the rows) of the inserted tiles is a valid line the goal is still not satisfied
+     *
+     * @param shelf Shelf of the current player
+     * @param column column in which the tiles have been inserted
+     * @param fromRow highest row of the inserted tiles
+     * @param toRow lowest row of the inserted tiles
+     * @return true if the goal has been satisfied
+     */
+    @Override
+    public boolean evaluateAfterInsert(Shelf shelf, int column, int fromRow, int toRow) {
+        if (isColumn) return isValidLine(shelf, column) && evaluate(shelf);
 
-                if (m > 3) {
-                    // if there are exactly m colors add 1 to the valid lines
-                    if (differentColors.size() == m) result++;
-                }
-                else
-                    // if there are less or equals than m colors add 1 to the valid lines
-                    if (differentColors.size() <= m) result++;
-            }
+        for (int row = fromRow; row <= toRow; row++) {
+            if (isValidLine(shelf, row)) return evaluate(shelf);
         }
 
-        // return true only if there are more or equals than 3 valid column
-        return result >= n;
+        return false;
     }
 
     /**
-     * This method is used by the evaluate method to check if a given line is full
+     * This method checks if the given line is full and has the right number of colors
      *
-     * @param shelf the shelf to which the column belong
-     * @param line the line to check
-     * @param isColumn if true loop in the column if false in the row
-     * @return true if the given line is full
+     * @param shelf Shelf of the current player
+     * @param line the line to check (a column if isColumn, a row otherwise)
+     * @return true if the line counts for the goal
      */
-    private boolean isLineFull(Shelf shelf, int line, boolean isColumn) {
-        int iMax = isColumn ? ModelConstants.ROWS_NUMBER : ModelConstants.COLS_NUMBER;
-        for (int i = 0; i < iMax; i++) {
-            if (shelf.getTile(new Position(isColumn ? line : i, !isColumn ? line : i)).isEmpty()) return false;
-        }
+    private boolean isValidLine(Shelf shelf, int line) {
+        // execute only if the line is full (if not it's not a valid line for sure)
+        if (isColumn ? !shelf.isColumnFull(line) : !shelf.isRowFull(line)) return false;
+
+        int differentColors = Integer.bitCount(isColumn ? shelf.getColumnColors(line) : shelf.getRowColors(line));
 
-        return true;
+        // if m is greater than 3 there must be exactly m colors, otherwise at most m
+        return m > 3 ? differentColors == m : differentColors <= m;
     }
 
     /**
@@ -5,6 +5,7 @@ import it.polimi.ingsw.constants.ModelConstants;
 import it.polimi.ingsw.model.Position;
 import it.polimi.ingsw.model.Shelf;
 import it.polimi.ingsw.model.TileColor;
+import it.polimi.ingsw.utilities.UtilityFunctionsBitboard;
 
 import java.util.ArrayList;
 import java.util.List;
@@ -22,6 +23,13 @@ public class SingleOccurrenceOfGivenShape extends CommonGoal{
     @Expose
     private final boolean isSymmetric;
 
+    /**
+     * This attribute stores the bitmask (see UtilityFunctionsBitboard) of every placement of the shape in the shelf,
+     * translated and, if the shape is not symmetric, mirrored. It is not saved: it is built by the constructor, so the
+     * goals read from file are copied with the copy constructor (see SingleOccurrenceOfGivenShapeConfiguration)
+     */
+    private final transient int[] placementMasks;
+
     /**
      * Constructor
      *
@@ -35,32 +43,64 @@ public class SingleOccurrenceOfGivenShape extends CommonGoal{
         this.shapeXSize = shapeXSize;
         this.shapeYSize = shapeYSize;
         this.isSymmetric = isSymmetric;
+        this.placementMasks = buildPlacementMasks();
+    }
+
+    /**
+     * Copy constructor: it builds the placement masks of a goal read from file, which Gson creates without calling
+     * the constructor
+     *
+     * @param goal the goal to copy
+     */
+    public SingleOccurrenceOfGivenShape(SingleOccurrenceOfGivenShape goal) {
+        this(goal.shape, goal.shapeXSize, goal.shapeYSize, goal.isSymmetric);
     }
 
     /**
      * This method evaluate if the current player's shelf satisfies the common goal
+     * The goal is satisfied if one of the placements of the shape is contained in the cells of a single color
      *
      * @param shelf Shelf of the current player
      * @return true if the goal has been satisfied
      */
     @Override
     public boolean evaluate(Shelf shelf) {
-        List<Position> shiftingShape;
-        List<Position> shiftingShapeSymmetric;
-
-        for (int i = 0; i <= ModelConstants.ROWS_NUMBER - shapeYSize; i++) {
-            for (int j = 0; j <= ModelConstants.COLS_NUMBER - shapeXSize; j++) {
-                shiftingShape = new ArrayList<>();
-                shiftingShapeSymmetric = new ArrayList<>();
+        return findPlacement(shelf, UtilityFunctionsBitboard.FULL_SHELF_MASK);
+    }
 
+    /**
+     * This method evaluate the goal after an insertion: only the placements containing one of the inserted tiles
+     * can have been completed
+     *
+     * @param shelf Shelf of the current player
+     * @param column column in which the tiles have been inserted
+     * @param fromRow highest row of the inserted tiles
+     * @param toRow lowest row of the inserted tiles
+     * @return true if the goal has been satisfied
+     */
+    @Override
+    public boolean evaluateAfterInsert(Shelf shelf, int column, int fromRow, int toRow) {
+        return findPlacement(shelf, changedCells(column, fromRow, toRow));
+    }
 
-                for (Position position : shape) {
-                    shiftingShape.add(new Position(position.x() + j, position.y() + i));
+    /**
+     * This method looks for a placement of the shape, among the ones intersecting the given cells, whose cells
+     * are all of the same color
+     *
+     * @param shelf Shelf of the current player
+     * @param cells mask of the cells a placement must intersect to be checked
+     * @return true if a placement of a single color is found
+     */
+    private boolean findPlacement(Shelf shelf, int cells) {
+        int[] masks = placementMasks;
 
-                    if (!isSymmetric) shiftingShapeSymmetric.add(new Position(ModelConstants.COLS_NUMBER - 1 - position.x() - j, position.y() + i));
-                }
+        for (TileColor color : COLORS) {
+            int colorMask = shelf.getColorMask(color);
+            // a placement needs at least one tile of the color for each cell of the shape
+            if (Integer.bitCount(colorMask) < shape.size()) continue;
 
-                if (sameColor(shiftingShape, shelf) || sameColor(shiftingShapeSymmetric, shelf)) return true;
+            for (int mask : masks) {
+                if ((mask & cells) != 0 && (mask & colorMask) == mask) return true;
             }
         }
 
@@ -68,23 +108,31 @@ public class SingleOccurrenceOfGivenShape extends CommonGoal{
     }
 
     /**
-     * This method is used by the evaluate function to check if the given shape of tiles is made by only one color
-     *
-     * @param shape list of position to check in the shelf
-     * @param shelf shelf of the player to look at
-     * @return true if the color of all the tiles in shape are of the same color
+     * This method builds the mask of every placement of the shape: for each translation that keeps the shape inside
+     * the shelf, the translated shape and (if the shape is not symmetric) its mirror image
+     * An empty shape has no placement
+     * @return the placement masks
      */
-    private boolean sameColor(List<Position> shape, Shelf shelf) {
-        if (shape.isEmpty()) return false;
+    private int[] buildPlacementMasks() {
+        List<Integer> masks = new ArrayList<>();
+        if (shape.isEmpty()) return new int[0];
+
+        for (int i = 0; i <= ModelConstants.ROWS_NUMBER - shapeYSize; i++) {
+            for (int j = 0; j <= ModelConstants.COLS_NUMBER - shapeXSize; j++) {
+                int mask = 0;
+                int mirroredMask = 0;
 
-        if (shelf.getTile(shape.get(0)).isEmpty()) return false;
-        TileColor color = shelf.getTile(shape.get(0)).getColor();
+                for (Position position : shape) {
+                    mask |= UtilityFunctionsBitboard.cellMask(position.y() + i, position.x() + j);
+                    mirroredMask |= UtilityFunctionsBitboard.cellMask(position.y() + i, ModelConstants.COLS_NUMBER - 1 - position.x() - j);
+                }
 
-        for (Position position : shape) {
-            if (!shelf.getTile(position).getColor().equals(color)) return false;
+                if (!masks.contains(mask)) masks.add(mask);
+                if (!isSymmetric && !masks.contains(mirroredMask)) masks.add(mirroredMask);
+            }
         }
 
-        return true;
+        return masks.stream().mapToInt(Integer::intValue).toArray();
     }
 
     /**
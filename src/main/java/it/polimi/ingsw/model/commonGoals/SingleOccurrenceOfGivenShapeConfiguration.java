@@ -15,11 +15,12 @@ public class SingleOccurrenceOfGivenShapeConfiguration {
     private List<SingleOccurrenceOfGivenShape> goalList;
 
     /**
-     * This method return the goal at the given index
+     * This method return the goal at the given index, copied with its constructor so that its placement masks are
+     * built (the goals read from file are created without calling it)
      * @param index index of the goal you want to retrieve
      * @return the requested goal
      */
     public SingleOccurrenceOfGivenShape getGoalAt(int index) {
-        return goalList.get(index);
+        return new SingleOccurrenceOfGivenShape(goalList.get(index));
     }
 }
@@ -2,59 +2,69 @@ package it.polimi.ingsw.model.commonGoals;
 
 import it.polimi.ingsw.constants.ModelConstants;
 import it.polimi.ingsw.model.Shelf;
-import it.polimi.ingsw.model.Position;
-
-import java.util.ArrayList;
-import java.util.List;
-
-import static it.polimi.ingsw.utilities.UtilityFunctionsModel.findGroupContainingGivenPosition;
+import it.polimi.ingsw.model.TileColor;
+import it.polimi.ingsw.utilities.UtilityFunctionsBitboard;
 
 /**
  * This class implements the fourth common goal: two squares 2x2 of the same color
+ * The two squares must be separate: squares of the same color which are part of the same group of adjacent tiles
+ * count as one
  */
 public class TwoSquares extends CommonGoal {
+    /**
+     * number of separate squares needed to reach the goal
+     */
+    private static final int SQUARES_NEEDED = 2;
+
     /**
      * This method evaluate if the current player's shelf satisfies the common goal
+     * For each color the top left corners of its squares are found with the color mask of the shelf; then every group
+     * of the color containing a corner is counted once, removing all its corners
      *
      * @param x Shelf of the current player
      * @return true if the goal has been satisfied
      */
     @Override
     public boolean evaluate(Shelf x) {
-        Shelf copy = new Shelf(x);
-
-        // counter for group of four tiles
+        // counter for groups containing a square
         int groupNum = 0;
 
-        List<Position> group;
+        for (TileColor color : COLORS) {
+            int colorMask = x.getColorMask(color);
+            int anchors = UtilityFunctionsBitboard.squareAnchors(colorMask);
 
-        // foreach tile in shelf look if its part of a group and return the group dimension
-        for (int i = 0; i < ModelConstants.ROWS_NUMBER - 1; i++) {
-            for (int j = 0; j < ModelConstants.COLS_NUMBER - 1; j++) {
-                group = findGroupContainingGivenPosition(copy, new Position(j, i));
+            while (anchors != 0) {
+                int group = UtilityFunctionsBitboard.floodFill(anchors & -anchors, colorMask);
+                anchors &= ~group;
 
-                groupNum += group.size() >= 4 ? (containSquare(group) ? 1 : 0) : 0;
+                if (++groupNum >= SQUARES_NEEDED) return true;
             }
         }
 
-        return groupNum >= 2;
+        return false;
     }
 
     /**
-     * This method check if a larger group contains a square
+     * This method evaluate the goal after an insertion: groups of tiles never split, so the number of groups containing
+     * a square can grow only if one of the inserted tiles completes a new square; if no square contains an inserted
+     * tile the goal is still not satisfied
      *
-     * @param group group to analyze
-     * @return  true if a square is contained, false elsewhere
+     * @param x Shelf of the current player
+     * @param column column in which the tiles have been inserted
+     * @param fromRow highest row of the inserted tiles
+     * @param toRow lowest row of the inserted tiles
+     * @return true if the goal has been satisfied
      */
-    private boolean containSquare(List<Position> group) {
-        List<Position> square;
-        for (Position position : group) {
-            square = new ArrayList<>();
-            square.add(new Position(position.x() + 1, position.y()));
-            square.add(new Position(position.x(), position.y() + 1));
-            square.add(new Position(position.x() + 1, position.y() + 1));
+    @Override
+    public boolean evaluateAfterInsert(Shelf x, int column, int fromRow, int toRow) {
+        int changed = changedCells(column, fromRow, toRow);
 
-            if (group.containsAll(square)) return true;
+        // the top left corners of the squares containing a changed cell: the changed cells moved up and to the left
+        int left = (changed & ~UtilityFunctionsBitboard.FIRST_COLUMN_MASK) >>> 1;
+        int corners = changed | left | ((changed | left) >>> ModelConstants.COLS_NUMBER);
+
+        for (TileColor color : COLORS) {
+            if ((UtilityFunctionsBitboard.squareAnchors(x.getColorMask(color)) & corners) != 0) return evaluate(x);
         }
 
         return false;
@@ -71,5 +81,3 @@ public class TwoSquares extends CommonGoal {
         return true;
     }
 }
-
-
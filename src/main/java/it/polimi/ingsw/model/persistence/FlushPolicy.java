@@ -0,0 +1,22 @@
+package it.polimi.ingsw.model.persistence;
+
+/**
+ * This enum lists the policies used by the MatchWriter to write the saved matches to disk
+ */
+public enum FlushPolicy {
+    /**
+     * every state is written by the thread that saves it, before the end of the turn (the file can be read right
+     * after the move: it is the default, used by the tests and by the tools)
+     */
+    SYNCHRONOUS,
+    /**
+     * the states are written by a background thread as soon as possible: if several turns of a match are queued
+     * only the latest state is written
+     */
+    ASYNCHRONOUS,
+    /**
+     * the states are written by a background thread at most once every flush interval, so more turns of each match
+     * are coalesced in a single write
+     */
+    PERIODIC
+}
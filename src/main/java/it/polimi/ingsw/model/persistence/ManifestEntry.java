@@ -0,0 +1,156 @@
+package it.polimi.ingsw.model.persistence;
+
+import com.google.gson.annotations.Expose;
+
+import java.util.List;
+
+/**
+ * This class represents a record of the MatchManifest: the summary of a saved match (its players, whether it is
+ * over and the number of moves in its file) together with the size and the modification time of the file, used
+ * to check that the file was not changed since the record was written.
+ * A record with the flag deleted tells that the file was deleted
+ */
+public final class ManifestEntry {
+    /**
+     * name of the file of the match, in the directory of the manifest
+     */
+    @Expose
+    private String fileName;
+
+    /**
+     * id of the match
+     */
+    @Expose
+    private long matchId;
+
+    /**
+     * nicknames of the players of the match
+     */
+    @Expose
+    private List<String> players;
+
+    /**
+     * true if the match is over
+     */
+    @Expose
+    private boolean gameOver;
+
+    /**
+     * number of moves of the match in its file
+     */
+    @Expose
+    private int movesPlayed;
+
+    /**
+     * size of the file
+     */
+    @Expose
+    private long size;
+
+    /**
+     * last modification time of the file, in milliseconds
+     */
+    @Expose
+    private long lastModified;
+
+    /**
+     * true if the record tells that the file was deleted
+     */
+    @Expose
+    private boolean deleted;
+
+    /**
+     * Constructor of the class
+     * @param fileName name of the file of the match
+     * @param matchId id of the match
+     * @param players nicknames of the players of the match
+     * @param gameOver true if the match is over
+     * @param movesPlayed number of moves of the match in its file
+     * @param size size of the file
+     * @param lastModified last modification time of the file, in milliseconds
+     */
+    public ManifestEntry(String fileName, long matchId, List<String> players, boolean gameOver, int movesPlayed, long size, long lastModified) {
+        this.fileName = fileName;
+        this.matchId = matchId;
+        this.players = List.copyOf(players);
+        this.gameOver = gameOver;
+        this.movesPlayed = movesPlayed;
+        this.size = size;
+        this.lastModified = lastModified;
+    }
+
+    /**
+     * This method creates the record of a deleted file
+     * @param fileName name of the file
+     * @return the record
+     */
+    static ManifestEntry deletion(String fileName) {
+        ManifestEntry entry = new ManifestEntry(fileName, 0, List.of(), false, 0, 0, 0);
+        entry.deleted = true;
+        return entry;
+    }
+
+    /**
+     * Getter of the name of the file
+     * @return the name of the file of the match
+     */
+    public String getFileName() {
+        return this.fileName;
+    }
+
+    /**
+     * Getter of the id of the match
+     * @return the id of the match
+     */
+    public long getMatchId() {
+        return this.matchId;
+    }
+
+    /**
+     * Getter of the players
+     * @return the nicknames of the players of the match
+     */
+    public List<String> getPlayers() {
+        return this.players;
+    }
+
+    /**
+     * Getter of gameOver
+     * @return true if the match is over
+     */
+    public boolean isGameOver() {
+        return this.gameOver;
+    }
+
+    /**
+     * Getter of the moves played
+     * @return the number of moves of the match in its file
+     */
+    public int getMovesPlayed() {
+        return this.movesPlayed;
+    }
+
+    /**
+     * Getter of the size
+     * @return the size of the file
+     */
+    public long getSize() {
+        return this.size;
+    }
+
+    /**
+     * Getter of the last modification time
+     * @return the last modification time of the file, in milliseconds
+     */
+    public long getLastModified() {
+        return this.lastModified;
+    }
+
+    /**
+     * Getter of deleted
+     * @return true if the record tells that the file was deleted
+     */
+    public boolean isDeleted() {
+        return this.deleted;
+    }
+}
@@ -0,0 +1,345 @@
+package it.polimi.ingsw.model.persistence;
+
+import com.google.gson.Gson;
+import com.google.gson.GsonBuilder;
+import com.google.gson.JsonParseException;
+import it.polimi.ingsw.model.GameModel;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Stream;
+
+/**
+ * Singleton that keeps the manifest of the saved matches: a file, in the directory of the matches, with a record
+ * (see ManifestEntry) for every saved match, so that the server knows the players and the state of the matches
+ * without reading them.
+ * The manifest is append-only: every time a match is written (or deleted) a line with its record is appended, and
+ * the last record of a file wins. When it is opened the records are checked against the files of the directory:
+ * only the files without a record, or changed since their record, are read (in parallel), so a missing manifest is
+ * rebuilt with a parallel scan of the directory and a manifest not up to date (e.g. after a crash) is repaired.
+ * The manifest is then rewritten with one record for every match, and again whenever the records appended grow
+ * too many.
+ * The records are also indexed by the nicknames of the players, so that the match of a player is found without
+ * listing the directory
+ */
+public final class MatchManifest {
+    /**
+     * name of the manifest in the directory of the matches
+     */
+    public static final String MANIFEST_FILE_NAME = "matchManifest.log";
+
+    /**
+     * minimum number of records appended before the manifest is rewritten
+     */
+    private static final int MIN_RECORDS_BEFORE_COMPACTION = 1000;
+
+    /**
+     * parser of the records, one per line
+     */
+    private static final Gson RECORDS = new GsonBuilder().excludeFieldsWithoutExposeAnnotation().create();
+
+    /**
+     * This attribute maps the name of the file of every saved match to its record
+     */
+    private final Map<String, ManifestEntry> entries;
+
+    /**
+     * This attribute maps the nickname of every player of a saved match to the name of the file of the match
+     */
+    private final Map<String, String> playerMatches;
+
+    /**
+     * This attribute counts the files read to build the records
+     */
+    private final AtomicLong scannedFiles;
+
+    /**
+     * This attribute is the directory of the matches (null while the manifest is closed)
+     */
+    private volatile Path directory;
+
+    /**
+     * This attribute is the writer of the manifest
+     */
+    private BufferedWriter writer;
+
+    /**
+     * This attribute counts the records in the manifest
+     */
+    private int records;
+
+    /**
+     * This class holds the instance of the manifest, so that it is created (thread safely) the first time it is requested
+     */
+    private static final class Holder {
+        /**
+         * the only instance of the manifest
+         */
+        private static final MatchManifest INSTANCE = new MatchManifest();
+    }
+
+    /**
+     * Constructor of the singleton: the manifest is closed
+     */
+    private MatchManifest() {
+        this.entries = new ConcurrentHashMap<>();
+        this.playerMatches = new ConcurrentHashMap<>();
+        this.scannedFiles = new AtomicLong();
+    }
+
+    /**
+     * Method that gets the instance of the manifest and returns it
+     * @return the manifest
+     */
+    public static MatchManifest getMatchManifest() {
+        return Holder.INSTANCE;
+    }
+
+    /**
+     * This method tells if a file of the directory of the matches is a saved match (and not the manifest or a
+     * temporary file)
+     * @param fileName name of the file
+     * @return true if the file is a saved match
+     */
+    public static boolean isMatchFile(String fileName) {
+        return !fileName.equals(MANIFEST_FILE_NAME) && !fileName.endsWith(MatchWriter.TEMP_EXTENSION);
+    }
+
+    /**
+     * This method opens the manifest of a directory of matches: the records are read and checked against the
+     * files, the files without a valid record are read, and the manifest is rewritten. If the manifest is already
+     * open it is closed first
+     * @param directory the directory of the matches
+     * @throws IOException if the directory or the manifest can't be read or written
+     */
+    public synchronized void open(Path directory) throws IOException {
+        close();
+        this.entries.clear();
+        this.playerMatches.clear();
+
+        Path manifest = directory.resolve(MANIFEST_FILE_NAME);
+        Map<String, ManifestEntry> recorded = Files.exists(manifest) ? readRecords(manifest) : new HashMap<>();
+
+        List<Path> toScan = new ArrayList<>();
+        try (Stream<Path> files = Files.list(directory)) {
+            for (Path file : files.filter(file -> isMatchFile(file.getFileName().toString())).toList()) {
+                ManifestEntry entry = recorded.get(file.getFileName().toString());
+                BasicFileAttributes attributes = Files.readAttributes(file, BasicFileAttributes.class);
+                if (entry != null && entry.getSize() == attributes.size() && entry.getLastModified() == attributes.lastModifiedTime().toMillis())
+                    this.entries.put(entry.getFileName(), entry);
+                else
+                    toScan.add(file);
+            }
+        }
+
+        // the files are read in parallel, a file that is not a valid match is left out of the manifest
+        toScan.parallelStream()
+                .map(this::scan)
+                .filter(Objects::nonNull)
+                .forEach(entry -> this.entries.put(entry.getFileName(), entry));
+        this.entries.values().forEach(entry -> index(null, entry));
+
+        this.directory = directory;
+        compact();
+    }
+
+    /**
+     * This method closes the manifest: the records are no more updated
+     */
+    public synchronized void close() {
+        this.directory = null;
+        if (this.writer == null) return;
+        try {
+            this.writer.close();
+        } catch (IOException e) {
+            System.out.println("Error in closing the manifest");
+            e.printStackTrace();
+        }
+        this.writer = null;
+    }
+
+    /**
+     * This method tells if the manifest is open
+     * @return true if the manifest is open
+     */
+    public boolean isEnabled() {
+        return this.directory != null;
+    }
+
+    /**
+     * This method records a match just written to its file. Nothing is recorded if the manifest is closed or the
+     * file is not in its directory
+     * @param file the file of the match
+     * @param matchId id of the match
+     * @param players nicknames of the players of the match
+     * @param gameOver true if the match written is over
+     * @param movesPlayed number of moves of the match written
+     */
+    public void saved(Path file, long matchId, List<String> players, boolean gameOver, int movesPlayed) {
+        Path directory = this.directory;
+        if (directory == null || !isInDirectory(file, directory)) return;
+        try {
+            BasicFileAttributes attributes = Files.readAttributes(file, BasicFileAttributes.class);
+            append(new ManifestEntry(file.getFileName().toString(), matchId, players, gameOver, movesPlayed,
+                    attributes.size(), attributes.lastModifiedTime().toMillis()));
+        } catch (IOException e) {
+            System.out.println("Error in recording "+file.getFileName()+" in the manifest");
+            e.printStackTrace();
+        }
+    }
+
+    /**
+     * This method records the deletion of the file of a match. Nothing is recorded if the manifest is closed or
+     * the file is not in its directory
+     * @param file the file of the match
+     */
+    public void deleted(Path file) {
+        Path directory = this.directory;
+        if (directory == null || !isInDirectory(file, directory)) return;
+        append(ManifestEntry.deletion(file.getFileName().toString()));
+    }
+
+    /**
+     * This method returns the records of the saved matches
+     * @return a copy of the records, one for every saved match
+     */
+    public List<ManifestEntry> getEntries() {
+        return new ArrayList<>(this.entries.values());
+    }
+
+    /**
+     * This method finds the saved match of a player
+     * @param nickname nickname of the player
+     * @return the record of the last match of the player saved, or null if the player has no saved match
+     */
+    public ManifestEntry getMatchOf(String nickname) {
+        String fileName = this.playerMatches.get(nickname);
+        return fileName == null ? null : this.entries.get(fileName);
+    }
+
+    /**
+     * This method returns the number of files read to build the records since the start of the application
+     * @return the number of files read
+     */
+    public long getScannedFiles() {
+        return this.scannedFiles.get();
+    }
+
+    /**
+     * This method appends a record to the manifest and updates the records in memory; the manifest is rewritten
+     * when it has more than four records for every match
+     * @param entry the record
+     */
+    private synchronized void append(ManifestEntry entry) {
+        if (this.writer == null) return;
+        ManifestEntry old = entry.isDeleted() ? this.entries.remove(entry.getFileName()) : this.entries.put(entry.getFileName(), entry);
+        index(old, entry);
+
+        try {
+            if (++this.records > Math.max(MIN_RECORDS_BEFORE_COMPACTION, 4 * this.entries.size())) {
+                compact();
+            } else {
+                this.writer.write(RECORDS.toJson(entry));
+                this.writer.newLine();
+                this.writer.flush();
+            }
+        } catch (IOException e) {
+            System.out.println("Error in writing the manifest");
+            e.printStackTrace();
+        }
+    }
+
+    /**
+     * This method updates the index of the players after a record replaced another one
+     * @param old the record replaced (null if there is none)
+     * @param entry the new record (the record of a deletion removes the players of the old one)
+     */
+    private void index(ManifestEntry old, ManifestEntry entry) {
+        if (old != null) old.getPlayers().forEach(player -> this.playerMatches.remove(player, old.getFileName()));
+        if (!entry.isDeleted()) entry.getPlayers().forEach(player -> this.playerMatches.put(player, entry.getFileName()));
+    }
+
+    /**
+     * This method rewrites the manifest with one record for every match and opens it again for the appends
+     * @throws IOException if the manifest can't be written
+     */
+    private synchronized void compact() throws IOException {
+        if (this.writer != null) this.writer.close();
+
+        StringBuilder content = new StringBuilder();
+        for (ManifestEntry entry : this.entries.values()) content.append(RECORDS.toJson(entry)).append(System.lineSeparator());
+        Path manifest = this.directory.resolve(MANIFEST_FILE_NAME);
+        MatchWriter.writeAtomically(manifest, content.toString().getBytes(StandardCharsets.UTF_8));
+
+        this.records = this.entries.size();
+        this.writer = Files.newBufferedWriter(manifest, StandardCharsets.UTF_8, StandardOpenOption.APPEND);
+    }
+
+    /**
+     * This method reads the records of a manifest: the last record of every file wins, and the reading stops at
+     * the first invalid line (a line written partially before a crash)
+     * @param manifest the manifest
+     * @return the map from the name of the file of every match to its record
+     * @throws IOException if the manifest can't be read
+     */
+    private static Map<String, ManifestEntry> readRecords(Path manifest) throws IOException {
+        Map<String, ManifestEntry> recorded = new HashMap<>();
+        try (BufferedReader reader = Files.newBufferedReader(manifest, StandardCharsets.UTF_8)) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                ManifestEntry entry;
+                try {
+                    entry = RECORDS.fromJson(line, ManifestEntry.class);
+                } catch (JsonParseException e) {
+                    break;
+                }
+                if (entry == null || entry.getFileName() == null) break;
+                if (entry.isDeleted()) recorded.remove(entry.getFileName());
+                else recorded.put(entry.getFileName(), entry);
+            }
+        }
+        return recorded;
+    }
+
+    /**
+     * This method reads a saved match to build its record
+     * @param file the file of the match
+     * @return the record, or null if the file is not a valid match
+     */
+    private ManifestEntry scan(Path file) {
+        try {
+            BasicFileAttributes attributes = Files.readAttributes(file, BasicFileAttributes.class);
+            GameModel model = SaveFormat.read(file);
+            this.scannedFiles.incrementAndGet();
+            return new ManifestEntry(file.getFileName().toString(), model.getMatchId(), model.getPlayerNicknames(),
+                    model.isGameOver(), model.getMovesPlayed(), attributes.size(), attributes.lastModifiedTime().toMillis());
+        } catch (IOException e) {
+            System.out.println("Error in reading "+file.getFileName()+": "+e.getMessage());
+            return null;
+        }
+    }
+
+    /**
+     * This method tells if a file is in the given directory
+     * @param file the file
+     * @param directory the directory
+     * @return true if the file is in the directory
+     */
+    private static boolean isInDirectory(Path file, Path directory) {
+        Path parent = file.toAbsolutePath().normalize().getParent();
+        return parent != null && parent.equals(directory.toAbsolutePath().normalize());
+    }
+}
@@ -0,0 +1,383 @@
+package it.polimi.ingsw.model.persistence;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Singleton that writes the saved matches to disk.
+ * With the SYNCHRONOUS policy (the default) every state is written by the caller; with the other policies the
+ * caller only stores the state as the pending one of its file and a single background thread writes it, so the
+ * turns never wait for the disk and a slow disk only delays the files. If more states of a match are saved
+ * before its file is written only the latest one is written.
+ * Every file is written to a temporary file in the same directory, forced to disk and then renamed over the old
+ * one, so after a crash a saved match is either the old state or the new one, never a partial file.
+ * The files are deleted through the writer too (see delete), so that a pending state never brings a deleted file back
+ */
+public final class MatchWriter {
+    /**
+     * extension added to the name of a saved match for its temporary file
+     */
+    public static final String TEMP_EXTENSION = ".tmp";
+
+    /**
+     * This attribute maps the name of every file with a state not yet written to that state
+     */
+    private final Map<String, PendingState> pending;
+
+    /**
+     * This attribute is the queue of the files that the background thread has to write
+     */
+    private final BlockingQueue<String> toWrite;
+
+    /**
+     * This attribute maps the name of every file saved and not deleted to the lock held while it is written, so
+     * that the states of a file are written in order (the lock of a file is created by save and removed by delete)
+     */
+    private final Map<String, Object> fileLocks;
+
+    /**
+     * This attribute counts the states saved
+     */
+    private final AtomicLong savedStates;
+
+    /**
+     * This attribute counts the files written
+     */
+    private final AtomicLong writtenFiles;
+
+    /**
+     * This attribute is the current flush policy
+     */
+    private volatile FlushPolicy flushPolicy;
+
+    /**
+     * This attribute is the minimum time between two writes of the background thread with the PERIODIC policy
+     */
+    private volatile long flushIntervalMillis;
+
+    /**
+     * This attribute is the format of the saved matches
+     */
+    private volatile SaveFormat saveFormat;
+
+    /**
+     * This attribute is the background thread (null until a policy other than SYNCHRONOUS is set)
+     */
+    private Thread writerThread;
+
+    /**
+     * This class represents a state waiting to be written
+     */
+    private static final class PendingState {
+        /**
+         * the state of the match
+         */
+        private final byte[] content;
+        /**
+         * the action to run once the state is on disk (null if there is none)
+         */
+        private final Runnable onWritten;
+
+        /**
+         * Constructor of the class
+         * @param content the state of the match
+         * @param onWritten the action to run once the state is on disk (null if there is none)
+         */
+        private PendingState(byte[] content, Runnable onWritten) {
+            this.content = content;
+            this.onWritten = onWritten;
+        }
+    }
+
+    /**
+     * This class holds the instance of the writer, so that it is created (thread safely) the first time it is requested
+     */
+    private static final class Holder {
+        /**
+         * the only instance of the writer
+         */
+        private static final MatchWriter INSTANCE = new MatchWriter();
+    }
+
+    /**
+     * Constructor of the singleton: the policy is SYNCHRONOUS and the format JSON
+     */
+    private MatchWriter() {
+        this.pending = new ConcurrentHashMap<>();
+        this.toWrite = new LinkedBlockingQueue<>();
+        this.fileLocks = new ConcurrentHashMap<>();
+        this.savedStates = new AtomicLong();
+        this.writtenFiles = new AtomicLong();
+        this.flushPolicy = FlushPolicy.SYNCHRONOUS;
+        this.saveFormat = SaveFormat.JSON;
+    }
+
+    /**
+     * Method that gets the instance of the writer and returns it
+     * @return the writer
+     */
+    public static MatchWriter getMatchWriter() {
+        return Holder.INSTANCE;
+    }
+
+    /**
+     * This method changes the flush policy; when it becomes SYNCHRONOUS all the pending states are written first
+     * @param flushPolicy the new policy
+     * @param flushIntervalMillis minimum time between two writes with the PERIODIC policy (ignored by the others)
+     */
+    public synchronized void setFlushPolicy(FlushPolicy flushPolicy, long flushIntervalMillis) {
+        this.flushIntervalMillis = Math.max(0, flushIntervalMillis);
+        this.flushPolicy = flushPolicy;
+
+        if (flushPolicy == FlushPolicy.SYNCHRONOUS) {
+            this.flush();
+        } else if (this.writerThread == null) {
+            this.writerThread = new Thread(this::writeLoop, "MatchWriter");
+            this.writerThread.setDaemon(true);
+            this.writerThread.start();
+            // the states still pending when the server stops are written before exiting
+            Runtime.getRuntime().addShutdownHook(new Thread(this::flush));
+        }
+    }
+
+    /**
+     * Getter of the flush policy
+     * @return the current policy
+     */
+    public FlushPolicy getFlushPolicy() {
+        return this.flushPolicy;
+    }
+
+    /**
+     * Getter of the format of the saved matches
+     * @return the format used by the matches when they are saved
+     */
+    public SaveFormat getSaveFormat() {
+        return this.saveFormat;
+    }
+
+    /**
+     * Setter of the format of the saved matches: the matches saved in another format are converted the next time
+     * they are saved
+     * @param saveFormat the format
+     */
+    public void setSaveFormat(SaveFormat saveFormat) {
+        this.saveFormat = saveFormat;
+    }
+
+    /**
+     * This method saves a new state of a match: it is written now with the SYNCHRONOUS policy, otherwise by the
+     * background thread (replacing the pending state of the same file, if any)
+     * @param fileName name of the file of the match
+     * @param content the state of the match
+     */
+    public void save(String fileName, String content) {
+        this.save(fileName, content.getBytes(StandardCharsets.UTF_8), null);
+    }
+
+    /**
+     * This method saves a new state of a match like save(fileName, content), and runs the given action once the
+     * state is on disk. If the state is replaced by a newer one before being written the action is not run (the
+     * action of the newer state is)
+     * @param fileName name of the file of the match
+     * @param content the state of the match, encoded in its format
+     * @param onWritten the action to run once the state is on disk (null if there is none)
+     */
+    public void save(String fileName, byte[] content, Runnable onWritten) {
+        this.savedStates.incrementAndGet();
+        Object lock = this.fileLocks.computeIfAbsent(fileName, name -> new Object());
+
+        boolean queued = this.pending.put(fileName, new PendingState(content, onWritten)) != null;
+        if (this.fileLocks.get(fileName) != lock) {
+            // the file has been deleted meanwhile: its lock is created again, in case the state was added after it
+            this.fileLocks.computeIfAbsent(fileName, name -> new Object());
+            queued = false;
+        }
+        if (this.flushPolicy == FlushPolicy.SYNCHRONOUS) this.writePending(fileName);
+        else if (!queued) this.toWrite.add(fileName);
+    }
+
+    /**
+     * This method writes all the pending states and waits for the writes in progress, so that every file contains
+     * the latest state saved before the call (it is called before reading the saved matches)
+     */
+    public void flush() {
+        for (String fileName : this.fileLocks.keySet()) this.writePending(fileName);
+    }
+
+    /**
+     * This method writes the pending state of a single file and waits for its write in progress, so that the file
+     * contains the latest state saved before the call (it is called before reading a saved match)
+     * @param fileName name of the file of the match
+     */
+    public void flush(String fileName) {
+        if (this.fileLocks.containsKey(fileName)) this.writePending(fileName);
+    }
+
+    /**
+     * This method deletes the file of a match: its pending state is dropped and the file is deleted while holding
+     * the lock of the file, so that a state saved before the call can't be written after the file is deleted. All
+     * the files of the saved matches must be deleted with this method
+     * @param fileName name of the file of the match
+     * @return true if the file existed and has been deleted
+     */
+    public boolean delete(String fileName) {
+        while (true) {
+            Object lock = this.fileLocks.get(fileName);
+            // a file without lock has no pending state and no write in progress
+            if (lock == null) return deleteFile(fileName);
+
+            synchronized (lock) {
+                if (this.fileLocks.get(fileName) != lock) continue;
+                // the lock is removed before the state, so a state saved meanwhile is either dropped here or finds
+                // its lock removed and creates it again
+                this.fileLocks.remove(fileName);
+                this.pending.remove(fileName);
+                return deleteFile(fileName);
+            }
+        }
+    }
+
+    /**
+     * This method deletes a file
+     * @param fileName name of the file
+     * @return true if the file existed and has been deleted
+     */
+    private static boolean deleteFile(String fileName) {
+        try {
+            return Files.deleteIfExists(Paths.get(fileName));
+        } catch (IOException e) {
+            System.out.println("Error in deleting the file "+fileName);
+            e.printStackTrace();
+            return false;
+        }
+    }
+
+    /**
+     * Getter of the number of states saved
+     * @return the number of states saved since the start of the application
+     */
+    public long getSavedStates() {
+        return this.savedStates.get();
+    }
+
+    /**
+     * Getter of the number of files written: the difference with getSavedStates is the number of states coalesced
+     * (or still pending)
+     * @return the number of files written since the start of the application
+     */
+    public long getWrittenFiles() {
+        return this.writtenFiles.get();
+    }
+
+    /**
+     * Getter of the number of files tracked by the writer
+     * @return the number of files saved and not deleted
+     */
+    public int getTrackedFiles() {
+        return this.fileLocks.size();
+    }
+
+    /**
+     * This method is the body of the background thread: it waits for a file to write and then writes all the
+     * queued ones (with the PERIODIC policy after waiting the flush interval, collecting more states meanwhile)
+     */
+    private void writeLoop() {
+        List<String> queued = new ArrayList<>();
+        while (true) {
+            try {
+                queued.add(this.toWrite.take());
+                if (this.flushPolicy == FlushPolicy.PERIODIC) Thread.sleep(this.flushIntervalMillis);
+            } catch (InterruptedException e) {
+                return;
+            }
+
+            this.toWrite.drainTo(queued);
+            for (String fileName : queued) {
+                // an unexpected error of a file must not stop the writes of the others
+                try {
+                    this.writePending(fileName);
+                } catch (RuntimeException e) {
+                    System.out.println("Error in writing the file "+fileName);
+                    e.printStackTrace();
+                }
+            }
+            queued.clear();
+        }
+    }
+
+    /**
+     * This method writes the pending state of a file, if there is one, and then runs its action (an error of the
+     * action doesn't stop the writer)
+     * @param fileName name of the file
+     */
+    private void writePending(String fileName) {
+        Object lock = this.fileLocks.get(fileName);
+        // the file has been deleted
+        if (lock == null) return;
+
+        synchronized (lock) {
+            // the file has been deleted while waiting for the lock, and maybe saved again with a new lock
+            if (this.fileLocks.get(fileName) != lock) {
+                this.writePending(fileName);
+                return;
+            }
+            PendingState state = this.pending.remove(fileName);
+            if (state == null) return;
+
+            try {
+                writeAtomically(Paths.get(fileName), state.content);
+            } catch (IOException | RuntimeException e) {
+                System.out.println("Error in writing the file "+fileName+" plz restart application");
+                e.printStackTrace();
+                return;
+            }
+            this.writtenFiles.incrementAndGet();
+
+            if (state.onWritten == null) return;
+            try {
+                state.onWritten.run();
+            } catch (RuntimeException e) {
+                System.out.println("Error after writing the file "+fileName);
+                e.printStackTrace();
+            }
+        }
+    }
+
+    /**
+     * This method replaces the content of a file: the new content is written to a temporary file, forced to disk
+     * and then renamed over the file (atomically, if the file system allows it)
+     * @param file the file
+     * @param content the new content
+     * @throws IOException if the file can't be written
+     */
+    public static void writeAtomically(Path file, byte[] content) throws IOException {
+        Path temp = file.resolveSibling(file.getFileName() + TEMP_EXTENSION);
+        try (FileChannel channel = FileChannel.open(temp, StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+            ByteBuffer buffer = ByteBuffer.wrap(content);
+            while (buffer.hasRemaining()) channel.write(buffer);
+            channel.force(true);
+        }
+
+        try {
+            Files.move(temp, file, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+        } catch (AtomicMoveNotSupportedException e) {
+            Files.move(temp, file, StandardCopyOption.REPLACE_EXISTING);
+        }
+    }
+}
@@ -0,0 +1,139 @@
+package it.polimi.ingsw.model.persistence;
+
+import java.nio.ByteBuffer;
+import java.util.zip.CRC32;
+
+/**
+ * This class represents a move recorded in the MoveJournal: the match, the number of the move in the match, the
+ * player who made it, the move encoded by the MoveGenerator (positions and column) and the state of the random
+ * generator of the match at the end of the turn, used to check the replay.
+ * On disk an event takes BYTES bytes, the last four being the CRC of the others, so that a partially written event
+ * is recognized
+ */
+public final class MoveEvent {
+    /**
+     * number of bytes of an event on disk
+     */
+    public static final int BYTES = Long.BYTES + Integer.BYTES + Byte.BYTES + Integer.BYTES + Long.BYTES + Integer.BYTES;
+
+    /**
+     * id of the match
+     */
+    private final long matchId;
+
+    /**
+     * number of the move in the match, starting from 1
+     */
+    private final int sequence;
+
+    /**
+     * index of the player who made the move
+     */
+    private final int player;
+
+    /**
+     * the move, encoded by the MoveGenerator
+     */
+    private final int move;
+
+    /**
+     * state of the random generator of the match at the end of the turn
+     */
+    private final long randomState;
+
+    /**
+     * Constructor of the class
+     * @param matchId id of the match
+     * @param sequence number of the move in the match
+     * @param player index of the player who made the move
+     * @param move the move, encoded by the MoveGenerator
+     * @param randomState state of the random generator of the match at the end of the turn
+     */
+    public MoveEvent(long matchId, int sequence, int player, int move, long randomState) {
+        this.matchId = matchId;
+        this.sequence = sequence;
+        this.player = player;
+        this.move = move;
+        this.randomState = randomState;
+    }
+
+    /**
+     * This method writes the event in the given buffer
+     * @param buffer the buffer, with at least BYTES bytes remaining
+     */
+    void writeTo(ByteBuffer buffer) {
+        int start = buffer.position();
+        buffer.putLong(this.matchId)
+                .putInt(this.sequence)
+                .put((byte) this.player)
+                .putInt(this.move)
+                .putLong(this.randomState);
+        buffer.putInt(checksum(buffer, start));
+    }
+
+    /**
+     * This method reads an event from the given buffer
+     * @param buffer the buffer
+     * @return the event, or null if the buffer ends before the event or the event is corrupted (in both cases the
+     * position of the buffer is undefined)
+     */
+    static MoveEvent readFrom(ByteBuffer buffer) {
+        if (buffer.remaining() < BYTES) return null;
+
+        int start = buffer.position();
+        MoveEvent event = new MoveEvent(buffer.getLong(), buffer.getInt(), buffer.get(), buffer.getInt(), buffer.getLong());
+        return buffer.getInt() == checksum(buffer, start) ? event : null;
+    }
+
+    /**
+     * This method computes the checksum of the bytes of an event
+     * @param buffer the buffer containing the event
+     * @param start position of the event in the buffer
+     * @return the checksum
+     */
+    private static int checksum(ByteBuffer buffer, int start) {
+        CRC32 crc = new CRC32();
+        crc.update(buffer.slice(start, BYTES - Integer.BYTES));
+        return (int) crc.getValue();
+    }
+
+    /**
+     * Getter of the id of the match
+     * @return the id of the match
+     */
+    public long getMatchId() {
+        return this.matchId;
+    }
+
+    /**
+     * Getter of the number of the move in the match
+     * @return the number of the move, starting from 1
+     */
+    public int getSequence() {
+        return this.sequence;
+    }
+
+    /**
+     * Getter of the player who made the move
+     * @return the index of the player
+     */
+    public int getPlayer() {
+        return this.player;
+    }
+
+    /**
+     * Getter of the move
+     * @return the move, encoded by the MoveGenerator
+     */
+    public int getMove() {
+        return this.move;
+    }
+
+    /**
+     * Getter of the state of the random generator at the end of the turn
+     * @return the state of the random generator
+     */
+    public long getRandomState() {
+        return this.randomState;
+    }
+}
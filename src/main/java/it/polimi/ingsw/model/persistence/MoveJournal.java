@@ -0,0 +1,588 @@
+package it.polimi.ingsw.model.persistence;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.stream.Stream;
+
+/**
+ * Singleton that records the moves of all the matches in a single append-only journal, so that a turn doesn't
+ * rewrite the whole saved match: the saved match becomes a checkpoint, written every few moves, and a match is
+ * recovered by loading its checkpoint and replaying the moves recorded after it.
+ * The events appended by all the matches are collected in memory and a background thread writes them with group
+ * commit: every commit window a single write and a single force to disk store all the events appended meanwhile,
+ * so the disk operations grow with the commit windows and not with the moves.
+ * The journal is split in segments of at most SEGMENT_SIZE bytes; a segment is deleted when all the matches with
+ * events in it have a checkpoint written after those events.
+ * A commit that fails is taken back from the segment and its events are kept in memory and committed again after
+ * RETRY_DELAY_MILLIS: they are never counted as committed until they are on disk
+ */
+public final class MoveJournal {
+    /**
+     * prefix of the names of the segments
+     */
+    public static final String SEGMENT_PREFIX = "journal-";
+
+    /**
+     * extension of the names of the segments
+     */
+    public static final String SEGMENT_EXTENSION = ".log";
+
+    /**
+     * maximum size of a segment in bytes (a commit is never split between two segments, so it can be exceeded by
+     * the last commit of a segment)
+     */
+    public static final long SEGMENT_SIZE = 4L << 20;
+
+    /**
+     * time waited before committing again the events of a failed commit, in milliseconds
+     */
+    public static final long RETRY_DELAY_MILLIS = 1000;
+
+    /**
+     * This attribute is the lock of the events appended and not yet committed (the appends never wait for the disk)
+     */
+    private final Object appendLock;
+
+    /**
+     * This attribute is the buffer of the events appended since the last commit
+     */
+    private ByteBuffer appended;
+
+    /**
+     * This attribute maps every match with events in the buffer to the sequence of its last one
+     */
+    private Map<Long, Integer> appendedSequences;
+
+    /**
+     * This attribute counts the events appended
+     */
+    private long appendedEvents;
+
+    /**
+     * This attribute counts the events committed to disk
+     */
+    private long committedEvents;
+
+    /**
+     * This attribute counts the commits (one write and one force each)
+     */
+    private long commits;
+
+    /**
+     * This attribute counts the failed commits
+     */
+    private long failedCommits;
+
+    /**
+     * This attribute counts the threads waiting in flush, which make the commit start without waiting the window
+     */
+    private int flushWaiters;
+
+    /**
+     * This attribute is the directory of the segments (null while the journal is closed)
+     */
+    private volatile Path directory;
+
+    /**
+     * This attribute is the duration of a commit window in milliseconds
+     */
+    private volatile long commitWindowMillis;
+
+    /**
+     * This attribute is the number of moves between two checkpoints of a match
+     */
+    private volatile int checkpointInterval;
+
+    /**
+     * This attribute is the segment events are written to
+     */
+    private FileChannel segment;
+
+    /**
+     * This attribute is the index of the segment events are written to
+     */
+    private int segmentIndex;
+
+    /**
+     * This attribute is true if a failed commit couldn't be taken back from the current segment, so the next commit
+     * has to move to a new segment
+     */
+    private boolean segmentBroken;
+
+    /**
+     * This attribute maps the index of every segment to the sequence of the last event of every match in it
+     */
+    private final TreeMap<Integer, Map<Long, Integer>> segmentSequences;
+
+    /**
+     * This attribute maps every match to the sequence of the last move included in its last written checkpoint
+     */
+    private final Map<Long, Integer> checkpoints;
+
+    /**
+     * This attribute is the background thread doing the commits (null until the journal is opened)
+     */
+    private volatile Thread committerThread;
+
+    /**
+     * This class holds the instance of the journal, so that it is created (thread safely) the first time it is requested
+     */
+    private static final class Holder {
+        /**
+         * the only instance of the journal
+         */
+        private static final MoveJournal INSTANCE = new MoveJournal();
+    }
+
+    /**
+     * Constructor of the singleton: the journal is closed
+     */
+    private MoveJournal() {
+        this.appendLock = new Object();
+        this.appended = ByteBuffer.allocate(MoveEvent.BYTES * 64);
+        this.appendedSequences = new HashMap<>();
+        this.segmentSequences = new TreeMap<>();
+        this.checkpoints = new HashMap<>();
+    }
+
+    /**
+     * Method that gets the instance of the journal and returns it
+     * @return the journal
+     */
+    public static MoveJournal getMoveJournal() {
+        return Holder.INSTANCE;
+    }
+
+    /**
+     * This method opens the journal in the given directory: the existing segments are kept for the recovery of the
+     * matches and the new events are written to a new segment
+     * @param directory directory of the segments (it is created if it doesn't exist)
+     * @param commitWindowMillis duration of a commit window in milliseconds
+     * @param checkpointInterval number of moves between two checkpoints of a match
+     * @throws IOException if the directory or the new segment can't be created
+     */
+    public void open(Path directory, long commitWindowMillis, int checkpointInterval) throws IOException {
+        this.close();
+        synchronized (this) {
+            this.openSegments(directory, commitWindowMillis, checkpointInterval);
+        }
+    }
+
+    /**
+     * This method does the work of open, once the previous directory (if any) has been closed
+     * @param directory directory of the segments (it is created if it doesn't exist)
+     * @param commitWindowMillis duration of a commit window in milliseconds
+     * @param checkpointInterval number of moves between two checkpoints of a match
+     * @throws IOException if the directory or the new segment can't be created
+     */
+    private void openSegments(Path directory, long commitWindowMillis, int checkpointInterval) throws IOException {
+        Files.createDirectories(directory);
+        this.segmentSequences.clear();
+        this.checkpoints.clear();
+        for (int index : segmentIndexes(directory)) {
+            Map<Long, Integer> sequences = new HashMap<>();
+            for (MoveEvent event : readSegment(directory, index)) sequences.put(event.getMatchId(), event.getSequence());
+            this.segmentSequences.put(index, sequences);
+        }
+
+        this.segmentIndex = this.segmentSequences.isEmpty() ? 0 : this.segmentSequences.lastKey() + 1;
+        this.segment = openSegment(directory, this.segmentIndex);
+        this.segmentBroken = false;
+        this.segmentSequences.put(this.segmentIndex, new HashMap<>());
+        this.commitWindowMillis = Math.max(0, commitWindowMillis);
+        this.checkpointInterval = Math.max(1, checkpointInterval);
+        this.directory = directory;
+
+        if (this.committerThread == null) {
+            this.committerThread = new Thread(this::commitLoop, "MoveJournal");
+            this.committerThread.setDaemon(true);
+            this.committerThread.start();
+            // the events still in memory when the server stops are committed before exiting
+            Runtime.getRuntime().addShutdownHook(new Thread(this::flush));
+        }
+    }
+
+    /**
+     * This method commits all the appended events and closes the journal: the matches are saved again after every
+     * move
+     */
+    public void close() {
+        // the commits take the lock of the journal, so the flush must be done without holding it
+        this.flush();
+        synchronized (this) {
+            if (this.directory == null) return;
+
+            try {
+                this.segment.close();
+            } catch (IOException e) {
+                System.out.println("Error in closing the journal: "+e.getMessage());
+            }
+            this.directory = null;
+        }
+    }
+
+    /**
+     * This method tells if the journal is open
+     * @return true if the moves have to be appended to the journal
+     */
+    public boolean isEnabled() {
+        return this.directory != null;
+    }
+
+    /**
+     * Getter of the checkpoint interval
+     * @return the number of moves between two checkpoints of a match
+     */
+    public int getCheckpointInterval() {
+        return this.checkpointInterval;
+    }
+
+    /**
+     * This method appends an event to the journal: it is written to disk by the next commit
+     * @param event the event
+     */
+    public void append(MoveEvent event) {
+        synchronized (this.appendLock) {
+            if (this.appended.remaining() < MoveEvent.BYTES) {
+                ByteBuffer larger = ByteBuffer.allocate(this.appended.capacity() * 2);
+                this.appended.flip();
+                larger.put(this.appended);
+                this.appended = larger;
+            }
+            event.writeTo(this.appended);
+            this.appendedSequences.put(event.getMatchId(), event.getSequence());
+            this.appendedEvents++;
+            this.appendLock.notifyAll();
+        }
+    }
+
+    /**
+     * This method waits until all the events appended before the call are committed to disk, or until a commit fails
+     * (the events of a failed commit stay in memory and are committed again later)
+     * @return true if all the events appended before the call are on disk, false if a commit failed meanwhile
+     */
+    public boolean flush() {
+        synchronized (this.appendLock) {
+            long target = this.appendedEvents;
+            long failures = this.failedCommits;
+            this.flushWaiters++;
+            this.appendLock.notifyAll();
+            try {
+                while (this.committedEvents < target && this.failedCommits == failures && this.committerThread != null)
+                    this.appendLock.wait();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            } finally {
+                this.flushWaiters--;
+            }
+            return this.committedEvents >= target;
+        }
+    }
+
+    /**
+     * This method records that a checkpoint of a match has been written to disk, so that the segments containing
+     * only older events of the match can be deleted
+     * @param matchId id of the match
+     * @param sequence sequence of the last move included in the checkpoint (Integer.MAX_VALUE if the match is over)
+     */
+    public synchronized void checkpointed(long matchId, int sequence) {
+        this.checkpoints.merge(matchId, sequence, Math::max);
+        this.deleteObsoleteSegments();
+    }
+
+    /**
+     * This method records that the matches of the reopened segments without a saved match can't be recovered, so
+     * all their events are treated as included in a checkpoint and their segments can be deleted (a match whose file
+     * has been deleted, e.g. because it ended, never writes a checkpoint again). It is called once the checkpoints of
+     * the saved matches have been recorded, before any match is played
+     * @param savedMatches the ids of all the saved matches
+     */
+    public synchronized void retainSavedMatches(Collection<Long> savedMatches) {
+        Set<Long> saved = new HashSet<>(savedMatches);
+        for (Map.Entry<Integer, Map<Long, Integer>> entry : this.segmentSequences.entrySet()) {
+            if (entry.getKey() == this.segmentIndex) continue;
+            for (Long matchId : entry.getValue().keySet()) {
+                if (!saved.contains(matchId)) this.checkpoints.put(matchId, Integer.MAX_VALUE);
+            }
+        }
+        this.deleteObsoleteSegments();
+    }
+
+    /**
+     * This method reads all the events of a match still in the journal, committing the appended ones first (if
+     * the commit fails only the events already on disk are read)
+     * @param matchId id of the match
+     * @return the events of the match, in the order they have been appended
+     */
+    public List<MoveEvent> readEvents(long matchId) {
+        if (!this.flush()) System.out.println("Error: the last moves of the match "+matchId+" are not yet in the journal");
+
+        synchronized (this) {
+            List<MoveEvent> events = new ArrayList<>();
+            if (this.directory == null) return events;
+
+            for (int index : this.segmentSequences.keySet()) {
+                if (!this.segmentSequences.get(index).containsKey(matchId)) continue;
+                for (MoveEvent event : readSegment(this.directory, index)) {
+                    if (event.getMatchId() == matchId) events.add(event);
+                }
+            }
+            return events;
+        }
+    }
+
+    /**
+     * Getter of the number of events appended
+     * @return the number of events appended since the start of the application
+     */
+    public long getAppendedEvents() {
+        synchronized (this.appendLock) {
+            return this.appendedEvents;
+        }
+    }
+
+    /**
+     * Getter of the number of commits
+     * @return the number of commits (each one a write and a force to disk) since the start of the application
+     */
+    public long getCommits() {
+        synchronized (this.appendLock) {
+            return this.commits;
+        }
+    }
+
+    /**
+     * Getter of the number of failed commits
+     * @return the number of commits failed since the start of the application
+     */
+    public long getFailedCommits() {
+        synchronized (this.appendLock) {
+            return this.failedCommits;
+        }
+    }
+
+    /**
+     * This method is the body of the background thread: it waits for some events, lets the commit window collect
+     * more of them (unless someone is waiting in flush) and commits all of them together. If the commit fails its
+     * events are put back before the ones appended meanwhile and committed again after RETRY_DELAY_MILLIS
+     */
+    private void commitLoop() {
+        ByteBuffer spare = ByteBuffer.allocate(this.appended.capacity());
+        while (true) {
+            ByteBuffer batch;
+            Map<Long, Integer> sequences;
+            long batchEnd;
+
+            synchronized (this.appendLock) {
+                try {
+                    while (this.appended.position() == 0) this.appendLock.wait();
+                    long deadline = System.currentTimeMillis() + this.commitWindowMillis;
+                    for (long left = this.commitWindowMillis; this.flushWaiters == 0 && left > 0; left = deadline - System.currentTimeMillis()) {
+                        this.appendLock.wait(left);
+                    }
+                } catch (InterruptedException e) {
+                    return;
+                }
+
+                batch = this.appended;
+                sequences = this.appendedSequences;
+                batchEnd = this.appendedEvents;
+                spare.clear();
+                this.appended = spare.capacity() >= batch.capacity() ? spare : ByteBuffer.allocate(batch.capacity());
+                this.appendedSequences = new HashMap<>();
+            }
+
+            batch.flip();
+            boolean committed = this.commit(batch, sequences);
+
+            synchronized (this.appendLock) {
+                if (committed) {
+                    this.committedEvents = batchEnd;
+                    this.commits++;
+                } else {
+                    this.requeue(batch, sequences);
+                    this.failedCommits++;
+                }
+                this.appendLock.notifyAll();
+                if (!committed) {
+                    try {
+                        long deadline = System.currentTimeMillis() + RETRY_DELAY_MILLIS;
+                        for (long left = RETRY_DELAY_MILLIS; left > 0; left = deadline - System.currentTimeMillis()) {
+                            this.appendLock.wait(left);
+                        }
+                    } catch (InterruptedException e) {
+                        return;
+                    }
+                }
+            }
+            spare = batch;
+        }
+    }
+
+    /**
+     * This method puts the events of a failed commit back in the buffer, before the events appended meanwhile
+     * (the caller holds the append lock)
+     * @param batch the events of the failed commit
+     * @param sequences the sequence of the last event of every match in the batch
+     */
+    private void requeue(ByteBuffer batch, Map<Long, Integer> sequences) {
+        batch.rewind();
+        ByteBuffer merged = ByteBuffer.allocate(Math.max(this.appended.capacity(), batch.remaining() + this.appended.position()));
+        merged.put(batch);
+        this.appended.flip();
+        merged.put(this.appended);
+        this.appended = merged;
+
+        // the events appended meanwhile are the last ones of their matches
+        sequences.putAll(this.appendedSequences);
+        this.appendedSequences = sequences;
+    }
+
+    /**
+     * This method writes a batch of events to the current segment with a single write and forces it to disk,
+     * moving to a new segment first if the current one is full (or a failed commit couldn't be taken back from it).
+     * If the commit fails the segment is truncated to its size before the commit, so that the events can be written
+     * again after it
+     * @param batch the events
+     * @param sequences the sequence of the last event of every match in the batch
+     * @return true if the events are on disk, false if the commit failed
+     */
+    private synchronized boolean commit(ByteBuffer batch, Map<Long, Integer> sequences) {
+        if (this.directory == null) {
+            System.out.println("Error: "+sequences.size()+" matches moved while the journal was closed");
+            return false;
+        }
+
+        long start = -1;
+        try {
+            if (this.segmentBroken || (this.segment.size() > 0 && this.segment.size() + batch.remaining() > SEGMENT_SIZE))
+                this.nextSegment();
+
+            start = this.segment.size();
+            while (batch.hasRemaining()) this.segment.write(batch);
+            this.segment.force(false);
+            this.segmentSequences.get(this.segmentIndex).putAll(sequences);
+            return true;
+        } catch (IOException e) {
+            System.out.println("Error in writing the journal, the commit will be retried");
+            e.printStackTrace();
+            try {
+                if (start < 0) this.segmentBroken = true;
+                else this.segment.truncate(start);
+            } catch (IOException t) {
+                this.segmentBroken = true;
+            }
+            return false;
+        }
+    }
+
+    /**
+     * This method moves to a new segment: the new segment is opened before closing the current one, so if it can't
+     * be opened the current segment is kept
+     * @throws IOException if the new segment can't be created
+     */
+    private void nextSegment() throws IOException {
+        FileChannel next = openSegment(this.directory, this.segmentIndex + 1);
+        FileChannel previous = this.segment;
+        this.segment = next;
+        this.segmentIndex++;
+        this.segmentBroken = false;
+        this.segmentSequences.put(this.segmentIndex, new HashMap<>());
+        try {
+            previous.close();
+        } catch (IOException e) {
+            System.out.println("Error in closing the journal segment "+(this.segmentIndex - 1)+": "+e.getMessage());
+        }
+        this.deleteObsoleteSegments();
+    }
+
+    /**
+     * This method deletes the segments (except the current one) whose events are all included in a checkpoint
+     */
+    private void deleteObsoleteSegments() {
+        Iterator<Map.Entry<Integer, Map<Long, Integer>>> segments = this.segmentSequences.entrySet().iterator();
+        while (segments.hasNext()) {
+            Map.Entry<Integer, Map<Long, Integer>> entry = segments.next();
+            if (entry.getKey() == this.segmentIndex || this.directory == null) continue;
+
+            boolean obsolete = entry.getValue().entrySet().stream()
+                    .allMatch(last -> this.checkpoints.getOrDefault(last.getKey(), 0) >= last.getValue());
+            if (obsolete) {
+                try {
+                    Files.deleteIfExists(segmentPath(this.directory, entry.getKey()));
+                    segments.remove();
+                } catch (IOException e) {
+                    System.out.println("Error in deleting the journal segment "+entry.getKey()+": "+e.getMessage());
+                }
+            }
+        }
+    }
+
+    /**
+     * This method reads the events of a segment, stopping at the first incomplete or corrupted one (the end of a
+     * commit interrupted by a crash)
+     * @param directory directory of the segments
+     * @param index index of the segment
+     * @return the events of the segment
+     */
+    private static List<MoveEvent> readSegment(Path directory, int index) {
+        List<MoveEvent> events = new ArrayList<>();
+        try {
+            ByteBuffer buffer = ByteBuffer.wrap(Files.readAllBytes(segmentPath(directory, index)));
+            for (MoveEvent event = MoveEvent.readFrom(buffer); event != null; event = MoveEvent.readFrom(buffer)) events.add(event);
+        } catch (IOException e) {
+            System.out.println("Error in reading the journal segment "+index+": "+e.getMessage());
+        }
+        return events;
+    }
+
+    /**
+     * This method finds the indexes of the segments in a directory
+     * @param directory the directory
+     * @return the indexes, in ascending order
+     * @throws IOException if the directory can't be read
+     */
+    private static List<Integer> segmentIndexes(Path directory) throws IOException {
+        try (Stream<Path> files = Files.list(directory)) {
+            return files.map(file -> file.getFileName().toString())
+                    .filter(name -> name.startsWith(SEGMENT_PREFIX) && name.endsWith(SEGMENT_EXTENSION))
+                    .map(name -> Integer.valueOf(name.substring(SEGMENT_PREFIX.length(), name.length() - SEGMENT_EXTENSION.length())))
+                    .sorted()
+                    .toList();
+        }
+    }
+
+    /**
+     * This method opens a new segment for appending
+     * @param directory directory of the segments
+     * @param index index of the segment
+     * @return the channel of the segment
+     * @throws IOException if the segment can't be created
+     */
+    private static FileChannel openSegment(Path directory, int index) throws IOException {
+        return FileChannel.open(segmentPath(directory, index), StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.APPEND);
+    }
+
+    /**
+     * This method builds the path of a segment
+     * @param directory directory of the segments
+     * @param index index of the segment
+     * @return the path of the segment
+     */
+    private static Path segmentPath(Path directory, int index) {
+        return directory.resolve(String.format("%s%06d%s", SEGMENT_PREFIX, index, SEGMENT_EXTENSION));
+    }
+}
@@ -0,0 +1,29 @@
+package it.polimi.ingsw.model.persistence;
+
+/**
+ * This enum lists the ways a match can be saved at the end of its turns
+ */
+public enum PersistenceStrategy {
+    /**
+     * the match is never saved: it lives only in memory (simulations, bots, tests and benchmarks)
+     */
+    NONE,
+    /**
+     * the whole match is saved after every turn through the MatchWriter, which writes it in the background unless
+     * its flush policy is SYNCHRONOUS
+     */
+    FILE,
+    /**
+     * every move is appended to the MoveJournal and the whole match is saved only every checkpoint interval and at
+     * the end of the match (like FILE while the journal is closed)
+     */
+    JOURNAL;
+
+    /**
+     * This method returns the strategy of the matches of the server: JOURNAL if the MoveJournal is open, FILE otherwise
+     * @return the strategy of the server
+     */
+    public static PersistenceStrategy ofServer() {
+        return MoveJournal.getMoveJournal().isEnabled() ? JOURNAL : FILE;
+    }
+}
@@ -0,0 +1,116 @@
+package it.polimi.ingsw.model.persistence;
+
+import it.polimi.ingsw.constants.ServerConstants;
+import it.polimi.ingsw.model.GameModel;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+/**
+ * This enum lists the formats of the saved matches. The format of a file is recognized from its content (the
+ * binary files start with BINARY_MAGIC), so the matches saved in any format can always be loaded; the extension of
+ * the file name only tells the format to the users
+ */
+public enum SaveFormat {
+    /**
+     * the readable format: the exposed attributes of the GameModel in JSON
+     */
+    JSON(ServerConstants.JSON_EXTENSION),
+    /**
+     * the compact format: a versioned binary snapshot of the GameModel, with one byte for every tile
+     */
+    BINARY(ServerConstants.BINARY_EXTENSION);
+
+    /**
+     * first bytes of every binary file ("MSv" followed by the version)
+     */
+    public static final int BINARY_MAGIC = 0x4D5376;
+
+    /**
+     * version of the binary format written by this application
+     */
+    public static final int BINARY_VERSION = 1;
+
+    /**
+     * This attribute is the end of the name of the files in this format
+     */
+    private final String extension;
+
+    /**
+     * Constructor of the enum
+     * @param extension the end of the name of the files in this format
+     */
+    SaveFormat(String extension) {
+        this.extension = extension;
+    }
+
+    /**
+     * Getter of the extension
+     * @return the end of the name of the files in this format
+     */
+    public String getExtension() {
+        return this.extension;
+    }
+
+    /**
+     * This method changes the name of a saved match to the one of this format. The names without the extension of
+     * a format are kept, since the format is recognized from the content anyway
+     * @param fileName name of the file of the match, in any format (null for the matches never saved)
+     * @return the name of the file in this format (null if fileName is null)
+     */
+    public String toFileName(String fileName) {
+        if (fileName == null) return null;
+        String matchName = matchName(fileName);
+        return matchName.equals(fileName) ? fileName : matchName + this.extension;
+    }
+
+    /**
+     * This method removes the extension of any format from the name of a saved match
+     * @param fileName name of the file of the match
+     * @return the name without extension: the nicknames of the players followed by ServerConstants.REGEX
+     */
+    public static String matchName(String fileName) {
+        for (SaveFormat format : values()) {
+            if (fileName.endsWith(format.extension)) return fileName.substring(0, fileName.length() - format.extension.length());
+        }
+        return fileName;
+    }
+
+    /**
+     * This method recognizes the format of a saved match from its content
+     * @param content the content of the file
+     * @return the format of the content
+     */
+    public static SaveFormat of(byte[] content) {
+        boolean binary = content.length >= 3 && ((content[0] & 0xFF) << 16 | (content[1] & 0xFF) << 8 | (content[2] & 0xFF)) == BINARY_MAGIC;
+        return binary ? BINARY : JSON;
+    }
+
+    /**
+     * This method loads a saved match, in any format
+     * @param file the file of the match
+     * @return the match
+     * @throws IOException if the file can't be read or is not a valid match
+     */
+    public static GameModel read(Path file) throws IOException {
+        return GameModel.fromBytes(Files.readAllBytes(file));
+    }
+
+    /**
+     * This method converts a saved match to this format: the new file is written (with the name of this format)
+     * before deleting the old one
+     * @param file the file of the match
+     * @return the file in this format
+     * @throws IOException if a file can't be read or written
+     */
+    public Path convert(Path file) throws IOException {
+        GameModel model = read(file);
+        byte[] content = model.toBytes(this);
+        Path converted = file.resolveSibling(this.toFileName(file.getFileName().toString()));
+
+        MatchWriter.writeAtomically(converted, content);
+        if (!converted.equals(file)) MatchWriter.getMatchWriter().delete(file.toString());
+        return converted;
+    }
+}
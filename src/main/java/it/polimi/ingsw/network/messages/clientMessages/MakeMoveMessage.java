@@ -1,18 +1,27 @@
 package it.polimi.ingsw.network.messages.clientMessages;
 
+import it.polimi.ingsw.constants.BoardConstants;
 import it.polimi.ingsw.model.Position;
 import it.polimi.ingsw.network.messages.Message;
 
+import java.util.ArrayList;
 import java.util.List;
 
 /**
  * This class represents a message to make a move
+ * The positions are sent packed, one byte for each position (see Position.boardIndex), and they are decoded to
+ * their canonical instances when they are read
  */
 public class MakeMoveMessage extends Message {
     /**
-     * the list of tile positions
+     * the value sent in place of a position which is not in the board (the move will be refused)
      */
-    private List<Position> pos;
+    private static final byte OUT_OF_BOARD = -1;
+
+    /**
+     * the packed board indexes of the tile positions
+     */
+    private final byte[] pos;
     /**
      * the column
      */
@@ -26,7 +35,8 @@ public class MakeMoveMessage extends Message {
      */
     public MakeMoveMessage(String sender, List<Position> pos, int col) {
         super(sender);
-        this.pos = pos;
+        this.pos = new byte[pos.size()];
+        for (int i = 0; i < this.pos.length; i++) this.pos[i] = pack(pos.get(i));
         this.col = col;
         setMessageType("MakeMoveMessage");
     }
@@ -36,7 +46,11 @@ public class MakeMoveMessage extends Message {
      * @return the positions
      */
     public List<Position> getPositions(){
-        return this.pos;
+        List<Position> positions = new ArrayList<>(this.pos.length);
+        for (byte packed : this.pos) {
+            positions.add(packed == OUT_OF_BOARD ? new Position(-1, -1) : Position.ofBoardIndex(packed));
+        }
+        return positions;
     }
 
     /**
@@ -46,4 +60,14 @@ public class MakeMoveMessage extends Message {
     public int getColumn(){
         return this.col;
     }
+
+    /**
+     * method to pack a position in a single byte
+     * @param p: the position
+     * @return the packed board index, or OUT_OF_BOARD if the position is not in the board
+     */
+    private static byte pack(Position p) {
+        if (p.x() < 0 || p.y() < 0 || p.x() >= BoardConstants.BOARD_DIMENSION || p.y() >= BoardConstants.BOARD_DIMENSION) return OUT_OF_BOARD;
+        return (byte) p.boardIndex();
+    }
 }
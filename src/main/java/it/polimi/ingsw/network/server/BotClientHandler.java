@@ -0,0 +1,236 @@
+package it.polimi.ingsw.network.server;
+
+import it.polimi.ingsw.constants.ServerConstants;
+import it.polimi.ingsw.controller.MoveSearch;
+import it.polimi.ingsw.controller.exceptions.InvalidMoveException;
+import it.polimi.ingsw.controller.exceptions.InvalidNicknameException;
+import it.polimi.ingsw.gameInfo.GameInfo;
+import it.polimi.ingsw.gameInfo.State;
+import it.polimi.ingsw.model.GameModel;
+import it.polimi.ingsw.model.MoveGenerator;
+import it.polimi.ingsw.network.client.exceptions.GameEndedException;
+
+import java.rmi.RemoteException;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * This is the class that handles a bot: a player of the server without client, used to fill the empty seats of a
+ * match. When it is the turn of the bot, its move is queued on the BotExecutor, whose thread takes a copy of the
+ * match, chooses the move with a MoveSearch within the time budget of the executor and plays it on the match
+ * server like the move of a client.
+ * The copy draws its refills from a random state of its own, so the bot can't foresee the tiles of the match.
+ * If the search fails or the move is refused the bot plays the first legal move instead.
+ * The bot keeps the statistics of its think time, which are printed when its match is over
+ */
+public class BotClientHandler extends ClientHandler {
+    /**
+     * This attribute is the nickname of the bot
+     */
+    private final String nickname;
+
+    /**
+     * This attribute is the match server of the bot
+     */
+    private MatchServer matchServer;
+
+    /**
+     * This attribute is true once the match is over for the bot
+     */
+    private volatile boolean stopped;
+
+    /**
+     * This attribute is the number of moves played by the bot
+     */
+    private long moves;
+
+    /**
+     * This attribute is the think time of all the moves of the bot, in nanoseconds
+     */
+    private long thinkNanos;
+
+    /**
+     * This attribute is the longest think time of a move of the bot, in nanoseconds
+     */
+    private long maxThinkNanos;
+
+    /**
+     * This attribute is the depth searched by the last move of the bot
+     */
+    private int lastDepth;
+
+    /**
+     * This is the constructor
+     * @param nickname: the nickname of the bot
+     * @param matchServer: the match server of the bot (the match may start as soon as the bot is added to it)
+     */
+    public BotClientHandler(String nickname, MatchServer matchServer){
+        this.nickname = nickname;
+        this.matchServer = matchServer;
+    }
+
+    /**
+     * This method is called by the matchServer with the new state of the match: if it is the turn of the bot its
+     * move is queued on the BotExecutor
+     * @param newState: the new state
+     * @param newInfo: the new game info
+     */
+    @Override
+    public void update(State newState, GameInfo newInfo) {
+        switch (newState) {
+            case TURN0, TURN1, TURN2, TURN3 -> {
+                if (!this.stopped && newInfo != null && this.nickname.equals(newInfo.getCurrentPlayerNickname()))
+                    BotExecutor.getBotExecutor().submit(this::playMove);
+            }
+            case ENDGAME, GRACEFULDISCONNECTION, GAMEABORTED -> {
+                if (!this.stopped) System.out.println("BC: "+this.nickname+" stopped after "+getMoves()+" moves, thinking "
+                        +String.format("%.1f", getMeanThinkMillis())+" ms on average and "+getMaxThinkNanos()/1_000_000+" ms at most");
+                this.stopped = true;
+            }
+            default -> {}
+        }
+    }
+
+    /**
+     * This method is called by the matchServer and returns the nickname of the bot
+     * @return the nickname of the bot
+     */
+    @Override
+    public String name() {
+        return this.nickname;
+    }
+
+    /**
+     * This method sets the match server
+     * @param matchServer: the match server
+     */
+    @Override
+    public void setMatchServer(MatchServer matchServer){
+        this.matchServer = matchServer;
+    }
+
+    /**
+     * This method thinks and plays the move of the bot, on a thread of the BotExecutor.
+     * If the search fails or its move is refused the first legal move of the match is played instead, up to
+     * ServerConstants.BOT_MOVE_ATTEMPTS attempts, so that the match doesn't wait for the bot
+     */
+    private void playMove() {
+        for (int attempt = 0; attempt < ServerConstants.BOT_MOVE_ATTEMPTS && !this.stopped; attempt++) {
+            try {
+                GameModel match = this.myTurnCopy();
+                if (match == null) return;
+                int move = attempt == 0 ? this.think(match) : match.getLegalMoves()[0];
+                if (this.play(move)) return;
+            } catch (RuntimeException e) {
+                System.out.println("BC: The move of "+this.nickname+" failed");
+                e.printStackTrace();
+            }
+        }
+        if (!this.stopped) System.out.println("BC: "+this.nickname+" can't play its turn");
+    }
+
+    /**
+     * This method chooses the move of the bot with a MoveSearch, within the time budget of the BotExecutor
+     * @param match the copy of the match
+     * @return the chosen move, encoded by the MoveGenerator
+     */
+    private int think(GameModel match) {
+        BotExecutor executor = BotExecutor.getBotExecutor();
+        long start = System.nanoTime();
+
+        MoveSearch search = new MoveSearch(executor.getMoveBudgetMillis());
+        int move = search.chooseMove(match, match.getLegalMoves());
+        long think = System.nanoTime() - start;
+        thought(think, search.getLastDepth());
+        executor.moveThought(think);
+        return move;
+    }
+
+    /**
+     * This method returns a copy of the match, for the search, if it is the turn of the bot
+     * @return the copy of the match, or null if the match is not started, is over or it is not the turn of the bot
+     */
+    private GameModel myTurnCopy() {
+        GameModel match = this.matchServer.getSearchCopy(ThreadLocalRandom.current().nextLong());
+        if (match == null || match.isGameOver() || !this.nickname.equals(match.getCurrentPlayerNickName())) return null;
+        return match;
+    }
+
+    /**
+     * This method plays a move on the match server
+     * @param move the move, encoded by the MoveGenerator
+     * @return true if the move has been played (or the match is over), false if it has been refused
+     */
+    private boolean play(int move) {
+        try {
+            this.matchServer.makeMove(MoveGenerator.positions(move), MoveGenerator.column(move), this.nickname);
+            return true;
+        } catch (GameEndedException e) {
+            // the bot is stopped by the update of the end of the match
+            return true;
+        } catch (RemoteException | InvalidNicknameException | InvalidMoveException | RuntimeException e) {
+            System.out.println("BC: The move of "+this.nickname+" has been refused");
+            e.printStackTrace();
+            return false;
+        }
+    }
+
+    /**
+     * This method adds a move to the statistics of the bot
+     * @param nanos the think time of the move, in nanoseconds
+     * @param depth the depth searched
+     */
+    private synchronized void thought(long nanos, int depth) {
+        this.moves++;
+        this.thinkNanos += nanos;
+        this.maxThinkNanos = Math.max(this.maxThinkNanos, nanos);
+        this.lastDepth = depth;
+    }
+
+    /**
+     * Getter of the number of moves played by the bot
+     * @return the number of moves
+     */
+    public synchronized long getMoves() {
+        return this.moves;
+    }
+
+    /**
+     * Getter of the think time of the bot
+     * @return the think time of all the moves, in nanoseconds
+     */
+    public synchronized long getThinkNanos() {
+        return this.thinkNanos;
+    }
+
+    /**
+     * Getter of the longest think time of a move of the bot
+     * @return the longest think time, in nanoseconds
+     */
+    public synchronized long getMaxThinkNanos() {
+        return this.maxThinkNanos;
+    }
+
+    /**
+     * This method returns the mean think time of a move of the bot
+     * @return the mean think time in milliseconds (0 before the first move)
+     */
+    public synchronized double getMeanThinkMillis() {
+        return this.moves == 0 ? 0 : this.thinkNanos / 1e6 / this.moves;
+    }
+
+    /**
+     * Getter of the depth searched by the last move of the bot
+     * @return the number of moves searched
+     */
+    public synchronized int getLastDepth() {
+        return this.lastDepth;
+    }
+
+    /**
+     * This method returns true once the match of the bot is over
+     * @return true if the bot doesn't play anymore
+     */
+    public boolean isStopped() {
+        return this.stopped;
+    }
+}
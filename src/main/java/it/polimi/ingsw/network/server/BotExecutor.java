@@ -0,0 +1,183 @@
+package it.polimi.ingsw.network.server;
+
+import it.polimi.ingsw.constants.ServerConstants;
+
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Singleton that runs the moves of all the bots of the server (see BotClientHandler) on a fixed number of low
+ * priority threads, so that however many bots are playing they never take more than those cores from the matches
+ * of the human players: when all the threads are busy the moves of the other bots wait in the queue.
+ * Every move has the same time budget, counted from when a thread starts thinking it.
+ * The executor also keeps the totals of the think time of the bots, which are printed every
+ * ServerConstants.BOT_REPORT_INTERVAL moves
+ */
+public final class BotExecutor {
+    /**
+     * This attribute is the pool of the threads of the bots
+     */
+    private final ThreadPoolExecutor workers;
+
+    /**
+     * This attribute is the thread running the delayed tasks (the filling of the lobbies with bots)
+     */
+    private final ScheduledExecutorService timer;
+
+    /**
+     * This attribute is the time budget of a move, in milliseconds
+     */
+    private volatile long moveBudgetMillis;
+
+    /**
+     * This attribute counts the moves played by the bots
+     */
+    private final AtomicLong moves;
+
+    /**
+     * This attribute sums the think time of the moves played by the bots, in nanoseconds
+     */
+    private final LongAdder thinkNanos;
+
+    /**
+     * This class holds the instance of the executor, so that it is created (thread safely) the first time it is requested
+     */
+    private static final class Holder {
+        /**
+         * the only instance of the executor
+         */
+        private static final BotExecutor INSTANCE = new BotExecutor();
+    }
+
+    /**
+     * Constructor of the singleton: it uses ServerConstants.BOT_THREADS threads and the budget ServerConstants.BOT_MOVE_BUDGET
+     */
+    private BotExecutor() {
+        this.workers = new ThreadPoolExecutor(ServerConstants.BOT_THREADS, ServerConstants.BOT_THREADS, 0, TimeUnit.MILLISECONDS,
+                new LinkedBlockingQueue<>(), runnable -> {
+            Thread thread = new Thread(runnable, "BotWorker");
+            thread.setDaemon(true);
+            thread.setPriority(Thread.MIN_PRIORITY);
+            return thread;
+        });
+        this.timer = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "BotTimer");
+            thread.setDaemon(true);
+            return thread;
+        });
+        this.moveBudgetMillis = ServerConstants.BOT_MOVE_BUDGET;
+        this.moves = new AtomicLong();
+        this.thinkNanos = new LongAdder();
+    }
+
+    /**
+     * Method that gets the instance of the executor and returns it
+     * @return the executor
+     */
+    public static BotExecutor getBotExecutor() {
+        return Holder.INSTANCE;
+    }
+
+    /**
+     * This method sets the number of threads of the bots and the time budget of their moves
+     * @param threads the number of threads (at least 1)
+     * @param moveBudgetMillis the time budget of a move, in milliseconds
+     */
+    public void configure(int threads, long moveBudgetMillis) {
+        int size = Math.max(1, threads);
+        // the maximum size can't be lower than the core size, so they are changed in the right order
+        if (size > this.workers.getMaximumPoolSize()) {
+            this.workers.setMaximumPoolSize(size);
+            this.workers.setCorePoolSize(size);
+        } else {
+            this.workers.setCorePoolSize(size);
+            this.workers.setMaximumPoolSize(size);
+        }
+        this.moveBudgetMillis = moveBudgetMillis;
+    }
+
+    /**
+     * This method queues a move of a bot
+     * @param move the task thinking and playing the move
+     */
+    void submit(Runnable move) {
+        this.workers.execute(move);
+    }
+
+    /**
+     * This method runs a task after a delay
+     * @param task the task
+     * @param delayMillis the delay, in milliseconds
+     */
+    void schedule(Runnable task, long delayMillis) {
+        this.timer.schedule(task, delayMillis, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * This method adds a move to the totals of the bots, and prints the totals every
+     * ServerConstants.BOT_REPORT_INTERVAL moves
+     * @param nanos the think time of the move, in nanoseconds
+     */
+    void moveThought(long nanos) {
+        this.thinkNanos.add(nanos);
+        long played = this.moves.incrementAndGet();
+        if (played % ServerConstants.BOT_REPORT_INTERVAL == 0) {
+            System.out.println("BE: "+played+" bot moves, thinking "+String.format("%.1f", getMeanThinkMillis())+" ms on average, "
+                    +getQueuedMoves()+" moves waiting for "+getThreads()+" threads");
+        }
+    }
+
+    /**
+     * Getter of the time budget of a move
+     * @return the budget, in milliseconds
+     */
+    public long getMoveBudgetMillis() {
+        return this.moveBudgetMillis;
+    }
+
+    /**
+     * Getter of the number of threads of the bots
+     * @return the number of threads
+     */
+    public int getThreads() {
+        return this.workers.getMaximumPoolSize();
+    }
+
+    /**
+     * Getter of the number of moves waiting for a thread
+     * @return the number of queued moves
+     */
+    public int getQueuedMoves() {
+        return this.workers.getQueue().size();
+    }
+
+    /**
+     * Getter of the number of moves played by all the bots
+     * @return the number of moves
+     */
+    public long getMoves() {
+        return this.moves.get();
+    }
+
+    /**
+     * Getter of the think time of all the bots
+     * @return the total think time, in nanoseconds
+     */
+    public long getThinkNanos() {
+        return this.thinkNanos.sum();
+    }
+
+    /**
+     * This method returns the mean think time of a move of the bots
+     * @return the mean think time in milliseconds (0 before the first move)
+     */
+    public double getMeanThinkMillis() {
+        long played = getMoves();
+        return played == 0 ? 0 : getThinkNanos() / 1e6 / played;
+    }
+}
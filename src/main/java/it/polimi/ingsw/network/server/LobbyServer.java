@@ -3,20 +3,25 @@ package it.polimi.ingsw.network.server;
 import it.polimi.ingsw.constants.ModelConstants;
 import it.polimi.ingsw.constants.ServerConstants;
 import it.polimi.ingsw.constants.ViewConstants;
+import it.polimi.ingsw.model.GameConfigRegistry;
 import it.polimi.ingsw.model.GameModel;
+import it.polimi.ingsw.model.persistence.ManifestEntry;
+import it.polimi.ingsw.model.persistence.MatchManifest;
+import it.polimi.ingsw.model.persistence.MatchWriter;
+import it.polimi.ingsw.model.persistence.MoveJournal;
+import it.polimi.ingsw.model.persistence.SaveFormat;
 import it.polimi.ingsw.network.client.RmiClientInterface;
 import it.polimi.ingsw.network.server.exceptions.*;
 import it.polimi.ingsw.utilities.JsonWithExposeSingleton;
 import it.polimi.ingsw.utilities.UtilityFunctions;
 
 import java.io.File;
-import java.io.FileNotFoundException;
-import java.io.FileReader;
 import java.io.IOException;
 import java.net.InetAddress;
 import java.net.ServerSocket;
 import java.net.Socket;
 import java.nio.file.Files;
+import java.nio.file.Path;
 import java.nio.file.Paths;
 import java.rmi.AlreadyBoundException;
 import java.rmi.RemoteException;
@@ -69,6 +74,10 @@ public class LobbyServer extends UnicastRemoteObject implements RMILobbyServerIn
      * Object used as a lock for the creation and joining of a game
      */
     private final Object lockCreateGame;
+    /**
+     * Number of bots created, used to give them different nicknames
+     */
+    private int botsCreated;
     /**
      * Registry containing the main part of LobbyServer
      */
@@ -94,6 +103,8 @@ public class LobbyServer extends UnicastRemoteObject implements RMILobbyServerIn
         this.serverInformation = new ArrayList<>();
         this.banList = new ArrayList<>();
         this.banList.addAll(loadBanList());
+        // the nicknames of the bots are reserved, so that their seats are recognized in the saved matches
+        this.banList.add(ServerConstants.BOT_NICKNAME_REGEX);
         lockChooseNickName=new Object();
         lockCreateGame=new Object();
 
@@ -120,6 +131,18 @@ public class LobbyServer extends UnicastRemoteObject implements RMILobbyServerIn
         try {
 
             if(!mute) System.out.println("LS: Initializing server...");
+            // all the config files are read and validated once, before any game is created
+            GameConfigRegistry.getGameConfigRegistry();
+            if(!mute) System.out.println("LS: Game configuration loaded...");
+            MatchWriter.getMatchWriter().setFlushPolicy(this.config.getFlushPolicy(), this.config.getFlushIntervalMillis());
+            MatchWriter.getMatchWriter().setSaveFormat(this.config.getSaveFormat());
+            if(!mute) System.out.println("LS: Saving matches in "+this.config.getSaveFormat()+" with policy "+this.config.getFlushPolicy()+"...");
+            if (this.config.isMoveJournal()) {
+                MoveJournal.getMoveJournal().open(Paths.get(ModelConstants.PATH_JOURNAL), this.config.getCommitWindowMillis(), this.config.getCheckpointInterval());
+                if(!mute) System.out.println("LS: Move journal opened in "+ModelConstants.PATH_JOURNAL+"...");
+            }
+            BotExecutor.getBotExecutor().configure(this.config.getBotThreads(), this.config.getBotMoveBudgetMillis());
+            if(!mute) System.out.println("LS: Bots running on "+this.config.getBotThreads()+" threads with "+this.config.getBotMoveBudgetMillis()+" ms per move...");
             if(!mute) System.out.println("LS: Cleaning the directory "+ ModelConstants.PATH_SAVED_MATCHES+" ...");
             this.cleanMatchDirectory();
             if(!mute) System.out.println("LS: Cleaning done...");
@@ -133,7 +156,7 @@ public class LobbyServer extends UnicastRemoteObject implements RMILobbyServerIn
             this.registry.bind(this.config.getServerName(), this);
 
             if(!mute) System.out.println("LS: RMI Server online...");
-        }catch (RemoteException | AlreadyBoundException e){
+        }catch (IOException | AlreadyBoundException e){
             System.out.println(e.getMessage());
         }
 
@@ -173,7 +196,8 @@ public class LobbyServer extends UnicastRemoteObject implements RMILobbyServerIn
     }
 
     /**
-     * This method loads all games currently saved in the directory "savedMatches" and removes the ones which are ended already
+     * This method loads the manifest of the games currently saved in the directory "savedMatches" (see MatchManifest)
+     * and removes the ones which are ended already
      */
     private void cleanMatchDirectory(){
 
@@ -183,28 +207,44 @@ public class LobbyServer extends UnicastRemoteObject implements RMILobbyServerIn
             System.out.println("LS: Directory "+ModelConstants.PATH_SAVED_MATCHES+" already created...");
         }
 
+        // the temporary files left by a crash during a write are not valid matches
         Arrays.stream(Objects.requireNonNull(new File(ModelConstants.PATH_SAVED_MATCHES).list()))
-                .filter(match -> {
-                    try (FileReader fr = new FileReader(ModelConstants.PATH_SAVED_MATCHES+match)){
-                        return JsonWithExposeSingleton.getJsonWithExposeSingleton()
-                                .fromJson(fr, GameModel.class)
-                                .isGameOver();
-                    } catch (IOException e) {
-                        System.out.println(e.getMessage());
-                        return false;
-                    }
-                })
+                .filter(match -> match.endsWith(MatchWriter.TEMP_EXTENSION))
                 .forEach((match) -> new File(ModelConstants.PATH_SAVED_MATCHES+match).delete());
+
+        MatchManifest manifest = MatchManifest.getMatchManifest();
+        try {
+            manifest.open(Paths.get(ModelConstants.PATH_SAVED_MATCHES));
+            if(!mute) System.out.println("LS: Manifest loaded, "+manifest.getScannedFiles()+" matches read...");
+        } catch (IOException e) {
+            System.out.println("LS: Error in loading the manifest: "+e.getMessage());
+        }
+
+        List<Long> savedMatches = new ArrayList<>();
+        for(ManifestEntry entry: manifest.getEntries()){
+            // the moves of the journal already in the checkpoint (all of them if the match is over) are not needed
+            MoveJournal.getMoveJournal().checkpointed(entry.getMatchId(), entry.isGameOver() ? Integer.MAX_VALUE : entry.getMovesPlayed());
+            if (entry.isGameOver()) {
+                Path file = Paths.get(ModelConstants.PATH_SAVED_MATCHES + entry.getFileName());
+                if (MatchWriter.getMatchWriter().delete(file.toString())) manifest.deleted(file);
+            }
+            else savedMatches.add(entry.getMatchId());
+        }
+        // the moves of the matches deleted in the previous runs are not needed either
+        MoveJournal.getMoveJournal().retainSavedMatches(savedMatches);
     }
 
     /**
-     * This method loads pre-existing games
+     * This method loads pre-existing games: their players can recover them, while the seats of their bots are
+     * taken by new bots when they are recovered (see recoverGame). The new bots are numbered after the saved ones
      */
     private void loadPreviousGames(){
-        Arrays.stream(Objects.requireNonNull(new File(ModelConstants.PATH_SAVED_MATCHES).list()))
-                .map(fileName-> fileName.substring(0,fileName.length()-ServerConstants.JSON_EXTENSION.length()))
-                .flatMap(fileName -> Arrays.stream(fileName.split(ServerConstants.REGEX)))
-                .forEach(playerName -> this.potentialPlayers.put(playerName, Optional.empty()));
+        MatchManifest.getMatchManifest().getEntries().stream()
+                .flatMap(entry -> entry.getPlayers().stream())
+                .forEach(playerName -> {
+                    if (!isBot(playerName)) this.potentialPlayers.put(playerName, Optional.empty());
+                    else this.botsCreated = Math.max(this.botsCreated, Integer.parseInt(playerName.substring(ServerConstants.BOT_NICKNAME.length())));
+                });
     }
 
     /**
@@ -248,6 +288,7 @@ public class LobbyServer extends UnicastRemoteObject implements RMILobbyServerIn
      * @throws NonExistentNicknameException if the player's nickname is not in the server's list
      */
     private String createGameTcpRmi(Integer numPlayers, String nickname, ClientHandler client) throws RemoteException, AlreadyInGameException, NonExistentNicknameException {
+        this.flushSavedMatchOf(nickname);
         synchronized (lockCreateGame) {
             // This code kills pre-existing games
             if (this.potentialPlayers.containsKey(nickname)){
@@ -270,10 +311,71 @@ public class LobbyServer extends UnicastRemoteObject implements RMILobbyServerIn
             this.serverInformation.add(gameName);
 
             this.startGame(rs, gameName);
+            // if the match is still waiting for players after the delay its free seats are taken by bots
+            this.config.getBotFillDelayMillis().ifPresent(delay -> BotExecutor.getBotExecutor().schedule(() -> this.fillWithBots(rs), delay));
             return gameName;
         }
     }
 
+    /**
+     * This method gives the free seats of a match to bots (see BotClientHandler), which start it.
+     * The free seats of the matches recovered from persistence are the ones of their players (their bots are added
+     * when they are recovered)
+     * @param matchServer the match server
+     */
+    public void fillWithBots(MatchServer matchServer){
+        synchronized (lockCreateGame) {
+            if (matchServer.isRecovered() || matchServer.isOffline() || matchServer.getFreeSpaces() <= 0) return;
+
+            if(!mute) System.out.println("LS: Adding "+matchServer.getFreeSpaces()+" bots to a game...");
+            while (matchServer.getFreeSpaces() > 0) {
+                String nickname = this.newBotNickname();
+                this.nicknamesInGame.add(nickname);
+                matchServer.addPlayer(nickname, new BotClientHandler(nickname, matchServer));
+            }
+        }
+    }
+
+    /**
+     * This method gives the seats of the bots of a recovered match to new bots with the same nicknames
+     * @param matchServer the match server of the recovered match
+     * @param players the nicknames of the players of the match
+     */
+    private void addSavedBots(MatchServer matchServer, List<String> players){
+        for (String nickname : players) {
+            if (!isBot(nickname)) continue;
+            synchronized (lockChooseNickName) {
+                this.nicknamesPool.add(nickname);
+            }
+            this.nicknamesInGame.add(nickname);
+            matchServer.addPlayer(nickname, new BotClientHandler(nickname, matchServer));
+        }
+    }
+
+    /**
+     * This method checks if a nickname is the one of a bot (the clients can't choose them)
+     * @param nickname the nickname
+     * @return true if the nickname is the one of a bot
+     */
+    private static boolean isBot(String nickname){
+        return nickname.matches(ServerConstants.BOT_NICKNAME_REGEX);
+    }
+
+    /**
+     * This method reserves a nickname for a new bot
+     * @return a nickname not used by any client
+     */
+    private String newBotNickname(){
+        synchronized (lockChooseNickName) {
+            String nickname;
+            do {
+                this.botsCreated++;
+                nickname = ServerConstants.BOT_NICKNAME + this.botsCreated;
+            } while (!this.nicknamesPool.add(nickname));
+            return nickname;
+        }
+    }
+
     /**
      * This method lets you recover a game from persistence, and it automatically puts it in the RMI registries
      * @param nickname   nickname of the player that calls the method
@@ -282,6 +384,7 @@ public class LobbyServer extends UnicastRemoteObject implements RMILobbyServerIn
      * @throws NoGameToRecoverException if there are no games that can be recovered from persistence
      */
     private String recoverGameTcpRmi(String nickname, ClientHandler client) throws NoGameToRecoverException{
+        this.flushSavedMatchOf(nickname);
         synchronized (lockCreateGame) {
             if (this.potentialPlayers.containsKey(nickname)) {
                 if (!mute) System.out.println("LS: Joining game recovered from persistence...");
@@ -341,10 +444,26 @@ public class LobbyServer extends UnicastRemoteObject implements RMILobbyServerIn
     }
 
 
+    /**
+     * This method writes the saved match of a player, if the player has one, with the moves of the journal: the
+     * match may have been saved by this server and not yet written. It is called before taking the lock of the
+     * games, so that the other players don't wait for the disk
+     * @param nickname nickname of the player
+     */
+    private void flushSavedMatchOf(String nickname) {
+        ManifestEntry match = MatchManifest.getMatchManifest().getMatchOf(nickname);
+        if (match == null) return;
+
+        // the pending state may be the one of the match converted to another format
+        for (SaveFormat format : SaveFormat.values())
+            MatchWriter.getMatchWriter().flush(format.toFileName(ModelConstants.PATH_SAVED_MATCHES + match.getFileName()));
+        MoveJournal.getMoveJournal().flush();
+    }
+
     /**
      * This method lets you recover a game from where it has been stopped
-     * It takes the information from the file inferring it by your name
-     * Also adds the players to the potential players list (inferred from the file name)
+     * It finds the file of the game in the MatchManifest from your name (written by flushSavedMatchOf)
+     * Also adds the players to the potential players list
      * @param nickname nickname of the player who asks to recover a game
      * @return the information useful for the connection to the game
      */
@@ -353,24 +472,33 @@ public class LobbyServer extends UnicastRemoteObject implements RMILobbyServerIn
             if(!mute) System.out.println("LS: Recovering game...");
             this.nicknamesInGame.add(nickname);
 
-            //load filename
-            String fileName = Arrays.stream(Objects.requireNonNull(new File(ModelConstants.PATH_SAVED_MATCHES).list()))
-                    .filter(file -> file.contains(nickname+ServerConstants.REGEX))
-                    .findFirst()
-                    .orElse("LS: shouldneverenterhere");
+            ManifestEntry match = MatchManifest.getMatchManifest().getMatchOf(nickname);
+            if (match == null) {
+                //Should never arrive here
+                System.out.println("LS: No saved game of "+nickname);
+                return null;
+            }
 
             try {
                 //create a game with the GameModel as parameter
-                GameModel gm = new GameModel(JsonWithExposeSingleton.getJsonWithExposeSingleton().fromJson(new FileReader(ModelConstants.PATH_SAVED_MATCHES + fileName), GameModel.class));
+                GameModel gm = SaveFormat.read(Paths.get(ModelConstants.PATH_SAVED_MATCHES + match.getFileName()));
+                //replay the moves made after the checkpoint
+                try {
+                    int replayed = gm.replay(MoveJournal.getMoveJournal().readEvents(gm.getMatchId()));
+                    if(!mute) System.out.println("LS: Replayed "+replayed+" moves from the journal...");
+                } catch (IllegalStateException e) {
+                    System.out.println("LS: "+e.getMessage()+", the game is recovered from its last valid move");
+                }
                 MatchServer rs = new MatchServer(gm, this);
                 this.serverList.add(rs);
                 String gameName = this.config.getStartingName() + (this.serverList.size());
                 this.serverInformation.add(gameName);
                 //add the potential players to the list
-                this.addPotentialPlayers(fileName, gameName, nickname);
+                this.addPotentialPlayers(match.getPlayers(), gameName, nickname);
                 this.startGame(rs, gameName);
+                this.addSavedBots(rs, match.getPlayers());
                 return gameName;
-            } catch (FileNotFoundException | RemoteException e) {
+            } catch (IOException e) {
                 System.out.println(e.getMessage());
             }
             //Should never arrive here
@@ -380,15 +508,13 @@ public class LobbyServer extends UnicastRemoteObject implements RMILobbyServerIn
 
     /**
      * This method is used to add potential players to a game
-     * @param fileName: name of the file
+     * @param players: nicknames of the players of the game
      * @param gameName: name of the game
      * @param firstPlayer: first player of the game
      */
-    private void addPotentialPlayers(String fileName, String gameName, String firstPlayer){
-        Arrays.stream(fileName
-                .substring(0,fileName.length()-ServerConstants.JSON_EXTENSION.length())
-                .split(ServerConstants.REGEX))
-                .filter(name -> !name.equals(firstPlayer))
+    private void addPotentialPlayers(List<String> players, String gameName, String firstPlayer){
+        players.stream()
+                .filter(name -> !name.equals(firstPlayer) && !isBot(name))
                 .forEach(match -> this.potentialPlayers.put(match,Optional.of(gameName)));
     }
 
@@ -1,6 +1,9 @@
 package it.polimi.ingsw.network.server;
 
 import com.google.gson.annotations.Expose;
+import it.polimi.ingsw.constants.ServerConstants;
+import it.polimi.ingsw.model.persistence.FlushPolicy;
+import it.polimi.ingsw.model.persistence.SaveFormat;
 
 import java.util.Optional;
 
@@ -30,6 +33,54 @@ public class LobbyServerConfig {
      */
     @Expose
     private String startingName;
+    /**
+     * Policy used to write the saved matches to disk (ASYNCHRONOUS if missing from the file)
+     */
+    @Expose
+    private FlushPolicy flushPolicy;
+    /**
+     * Minimum time in milliseconds between two writes of the saved matches with the PERIODIC policy
+     */
+    @Expose
+    private Long flushIntervalMillis;
+    /**
+     * Format of the saved matches (JSON if it is not set)
+     */
+    @Expose
+    private SaveFormat saveFormat;
+    /**
+     * True if the moves are recorded in the MoveJournal and the matches are saved only every checkpoint interval
+     */
+    @Expose
+    private Boolean moveJournal;
+    /**
+     * Duration in milliseconds of a commit window of the MoveJournal
+     */
+    @Expose
+    private Long commitWindowMillis;
+    /**
+     * Number of moves between two checkpoints of a match when the MoveJournal is used
+     */
+    @Expose
+    private Integer checkpointInterval;
+
+    /**
+     * Time in milliseconds after which the free seats of a new match are taken by bots (never if it is not set)
+     */
+    @Expose
+    private Long botFillDelayMillis;
+
+    /**
+     * Number of threads shared by all the bots of the server
+     */
+    @Expose
+    private Integer botThreads;
+
+    /**
+     * Time budget in milliseconds of a move of a bot
+     */
+    @Expose
+    private Long botMoveBudgetMillis;
 
     /**
      * Empty constructor of the class
@@ -80,6 +131,78 @@ public class LobbyServerConfig {
      */
     public String getStartingName(){ return this.startingName; }
 
+    /**
+     * Getter of the flush policy of the saved matches
+     * @return the policy, ASYNCHRONOUS if it is not set
+     */
+    public FlushPolicy getFlushPolicy() {
+        return this.flushPolicy == null ? FlushPolicy.ASYNCHRONOUS : this.flushPolicy;
+    }
+
+    /**
+     * Getter of the flush interval of the saved matches
+     * @return the interval in milliseconds, ServerConstants.FLUSH_INTERVAL if it is not set
+     */
+    public long getFlushIntervalMillis() {
+        return this.flushIntervalMillis == null ? ServerConstants.FLUSH_INTERVAL : this.flushIntervalMillis;
+    }
+
+    /**
+     * Getter of the format of the saved matches
+     * @return the format, JSON if it is not set
+     */
+    public SaveFormat getSaveFormat() {
+        return this.saveFormat == null ? SaveFormat.JSON : this.saveFormat;
+    }
+
+    /**
+     * Getter of the use of the MoveJournal
+     * @return true if the moves are recorded in the MoveJournal (false if it is not set)
+     */
+    public boolean isMoveJournal() {
+        return this.moveJournal != null && this.moveJournal;
+    }
+
+    /**
+     * Getter of the commit window of the MoveJournal
+     * @return the window in milliseconds, ServerConstants.COMMIT_WINDOW if it is not set
+     */
+    public long getCommitWindowMillis() {
+        return this.commitWindowMillis == null ? ServerConstants.COMMIT_WINDOW : this.commitWindowMillis;
+    }
+
+    /**
+     * Getter of the checkpoint interval of the matches
+     * @return the number of moves, ServerConstants.CHECKPOINT_INTERVAL if it is not set
+     */
+    public int getCheckpointInterval() {
+        return this.checkpointInterval == null ? ServerConstants.CHECKPOINT_INTERVAL : this.checkpointInterval;
+    }
+
+    /**
+     * Getter of the delay after which the free seats of a new match are taken by bots
+     * @return the delay in milliseconds, or an empty optional if the seats are never taken by bots (it is not set)
+     */
+    public Optional<Long> getBotFillDelayMillis() {
+        return Optional.ofNullable(this.botFillDelayMillis);
+    }
+
+    /**
+     * Getter of the number of threads of the bots
+     * @return the number of threads, ServerConstants.BOT_THREADS if it is not set
+     */
+    public int getBotThreads() {
+        return this.botThreads == null ? ServerConstants.BOT_THREADS : this.botThreads;
+    }
+
+    /**
+     * Getter of the time budget of a move of a bot
+     * @return the budget in milliseconds, ServerConstants.BOT_MOVE_BUDGET if it is not set
+     */
+    public long getBotMoveBudgetMillis() {
+        return this.botMoveBudgetMillis == null ? ServerConstants.BOT_MOVE_BUDGET : this.botMoveBudgetMillis;
+    }
+
     /**
      * Setter of the RMI server port
      * @param serverPortRMI an integer
@@ -109,4 +232,44 @@ public class LobbyServerConfig {
     public void setStartingName(String startingName) {
         this.startingName = startingName;
     }
+
+    /**
+     * Setter of the flush policy of the saved matches
+     * @param flushPolicy the policy
+     */
+    public void setFlushPolicy(FlushPolicy flushPolicy) {
+        this.flushPolicy = flushPolicy;
+    }
+
+    /**
+     * Setter of the flush interval of the saved matches
+     * @param flushIntervalMillis the interval in milliseconds
+     */
+    public void setFlushIntervalMillis(Long flushIntervalMillis) {
+        this.flushIntervalMillis = flushIntervalMillis;
+    }
+
+    /**
+     * Setter of the format of the saved matches
+     * @param saveFormat the format
+     */
+    public void setSaveFormat(SaveFormat saveFormat) {
+        this.saveFormat = saveFormat;
+    }
+
+    /**
+     * Setter of the use of the MoveJournal
+     * @param moveJournal true to record the moves in the MoveJournal
+     */
+    public void setMoveJournal(Boolean moveJournal) {
+        this.moveJournal = moveJournal;
+    }
+
+    /**
+     * Setter of the delay after which the free seats of a new match are taken by bots
+     * @param botFillDelayMillis the delay in milliseconds (null to never add bots)
+     */
+    public void setBotFillDelayMillis(Long botFillDelayMillis) {
+        this.botFillDelayMillis = botFillDelayMillis;
+    }
 }
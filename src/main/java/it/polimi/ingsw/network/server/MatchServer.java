@@ -188,9 +188,10 @@ public class MatchServer extends UnicastRemoteObject implements RmiServerInterfa
 
     /**
      * This method creates a new controller and launches a new thread that pings the clients
-     * oss: note that the first update to the server is called when the model is created
+     * oss: note that the first update to the server is called when the model is created, so the bots may ask for
+     * the match (see getSearchCopy) before the controller is assigned: the method is synchronized to make them wait
      */
-    public void startGame(){
+    public synchronized void startGame(){
         if (!this.toLoadGame) {
             if(!mute) System.out.println("MS: Starting new game");
             // Shuffling the players order
@@ -438,6 +439,29 @@ public class MatchServer extends UnicastRemoteObject implements RmiServerInterfa
         return true;
     }
 
+    /**
+     * This method returns an independent copy of the match for the search of the move of a bot
+     * @param randomState the state of the random generator of the copy (see GameModel.searchCopy)
+     * @return the copy, or null if the match hasn't started
+     */
+    public synchronized GameModel getSearchCopy(long randomState){
+        if (this.gameController == null) return null;
+        return this.gameController.getModel().searchCopy(randomState);
+    }
+
+    /**
+     * This method returns the bots playing in the match
+     * @return the handlers of the bots (empty once the match is over)
+     */
+    public List<BotClientHandler> getBots(){
+        List<BotClientHandler> bots = new ArrayList<>();
+        synchronized (clientsList) {
+            for (ClientHandler client : clientsList)
+                if (client instanceof BotClientHandler bot) bots.add(bot);
+        }
+        return bots;
+    }
+
     /**
      * Getter for nicknamesList
      * @return the nicknamesList
@@ -454,6 +478,12 @@ public class MatchServer extends UnicastRemoteObject implements RmiServerInterfa
         return numPlayers;
     }
 
+    /**
+     * This method returns true once the clients have been disconnected (see gracefulDisconnection and killMatchServer)
+     * @return true if the server is offline
+     */
+    public boolean isOffline(){return this.serverOffline;}
+
     /**
      * Getter of the to load game attribute
      * @return true if the game is loaded from file
@@ -0,0 +1,135 @@
+package it.polimi.ingsw.utilities;
+
+import it.polimi.ingsw.constants.ModelConstants;
+
+/**
+ * This class contains the utility functions used to work on the bitboard representation of the shelf.
+ * Every cell of the shelf is mapped to a single bit of an int: the bit index is row * COLS_NUMBER + column,
+ * so the top left cell is the bit 0 and the bottom right cell is the bit ROWS_NUMBER * COLS_NUMBER - 1
+ */
+public final class UtilityFunctionsBitboard {
+    /**
+     * number of cells of the shelf
+     */
+    public static final int SHELF_CELLS = ModelConstants.ROWS_NUMBER * ModelConstants.COLS_NUMBER;
+
+    /**
+     * mask with one bit set for every cell of the shelf
+     */
+    public static final int FULL_SHELF_MASK = (int) ((1L << SHELF_CELLS) - 1);
+
+    /**
+     * mask with the bits of the first column of the shelf
+     */
+    public static final int FIRST_COLUMN_MASK = columnMask(0);
+
+    /**
+     * mask with the bits of the last column of the shelf
+     */
+    public static final int LAST_COLUMN_MASK = columnMask(ModelConstants.COLS_NUMBER - 1);
+
+    /**
+     * Constructor (never called, the class only has static methods)
+     */
+    private UtilityFunctionsBitboard(){}
+
+    /**
+     * This method returns the bit index of the given cell of the shelf
+     * @param row row of the cell
+     * @param col column of the cell
+     * @return the bit index of the cell
+     */
+    public static int cellIndex(int row, int col){
+        return row * ModelConstants.COLS_NUMBER + col;
+    }
+
+    /**
+     * This method returns the mask with only the bit of the given cell set
+     * @param row row of the cell
+     * @param col column of the cell
+     * @return the mask of the cell
+     */
+    public static int cellMask(int row, int col){
+        return 1 << cellIndex(row, col);
+    }
+
+    /**
+     * This method returns the mask with the bits of all the cells of the given column
+     * @param col the column
+     * @return the mask of the column
+     */
+    public static int columnMask(int col){
+        int mask = 0;
+        for (int row = 0; row < ModelConstants.ROWS_NUMBER; row++) mask |= cellMask(row, col);
+        return mask;
+    }
+
+    /**
+     * This method returns the mask with the bits of all the cells of the given row
+     * @param row the row
+     * @return the mask of the row
+     */
+    public static int rowMask(int row){
+        return ((1 << ModelConstants.COLS_NUMBER) - 1) << cellIndex(row, 0);
+    }
+
+    /**
+     * This method returns the cells that are orthogonally adjacent to at least one of the given cells
+     * (the given cells themselves are not included unless they are adjacent to another given cell)
+     * @param mask the cells
+     * @return the mask of the adjacent cells
+     */
+    public static int adjacentCells(int mask){
+        return ((mask << ModelConstants.COLS_NUMBER)
+                | (mask >>> ModelConstants.COLS_NUMBER)
+                | ((mask & ~LAST_COLUMN_MASK) << 1)
+                | ((mask & ~FIRST_COLUMN_MASK) >>> 1))
+                & FULL_SHELF_MASK;
+    }
+
+    /**
+     * This method finds the group of cells in the given mask which are connected to the seed cells.
+     * It is a flood fill done with bit operations, so it does not allocate anything
+     * @param seed cells from which the group starts (must be contained in the mask)
+     * @param mask cells that can be part of the group (usually the cells of a single color)
+     * @return the mask of the group containing the seed
+     */
+    public static int floodFill(int seed, int mask){
+        int group = seed & mask;
+        int grown = group;
+
+        do {
+            group = grown;
+            grown = (group | adjacentCells(group)) & mask;
+        } while (grown != group);
+
+        return group;
+    }
+
+    /**
+     * This method finds the 2x2 squares contained in the given cells: a cell is returned if it is the top left
+     * corner of a square whose four cells are all in the mask
+     * @param mask the cells (usually the cells of a single color)
+     * @return the mask of the top left corners of the squares
+     */
+    public static int squareAnchors(int mask){
+        // moving the cells one column to the left (the first column would wrap to the previous row)
+        int right = (mask & ~FIRST_COLUMN_MASK) >>> 1;
+        // a cell and the one on its right, in this row and in the row below
+        int pairs = mask & right;
+        return pairs & (pairs >>> ModelConstants.COLS_NUMBER);
+    }
+
+    /**
+     * This method returns the points assigned for a group of adjacent tiles of the same color of the given size
+     * @param size number of tiles of the group
+     * @return points of the group
+     */
+    public static int groupPoints(int size){
+        if (size < 3) return 0;
+        if (size == 3) return 2;
+        if (size == 4) return 3;
+        if (size == 5) return 5;
+        return 8;
+    }
+}
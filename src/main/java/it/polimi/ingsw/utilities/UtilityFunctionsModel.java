@@ -14,11 +14,20 @@ import java.util.List;
  * This class is used to contain utility functions that will be used in different part of the program
  */
 public class UtilityFunctionsModel {
+    /**
+     * adjacent positions of every cell of the board, indexed by the packed board index (see Position)
+     */
+    private static final List<Position>[] BOARD_ADJACENT_POSITIONS = buildAdjacencyTable(ModelConstants.BOARD_DIMENSION, ModelConstants.BOARD_DIMENSION);
+
+    /**
+     * adjacent positions of every cell of the shelf, indexed by the packed shelf index (see Position)
+     */
+    private static final List<Position>[] SHELF_ADJACENT_POSITIONS = buildAdjacencyTable(ModelConstants.COLS_NUMBER, ModelConstants.ROWS_NUMBER);
+
     /**
      * This method is a private method used by the evaluate method to find the size of a group
      * containing the given card
-     * This method use BFS to search for groups and mark the visited cards as empty to avoid
-     * double-checking
+     * This method use BFS to search for groups
      *
      * @param shelf  shelf to find groups in
      * @param position position of the given card
@@ -28,6 +37,19 @@ public class UtilityFunctionsModel {
         return findGroupContainingGivenPosition(shelf, position).size();
     }
 
+    /**
+     * This method finds the size of the group containing the given card, skipping the cards already visited
+     * and marking as visited the cards of the group found
+     *
+     * @param shelf  shelf to find groups in
+     * @param position position of the given card
+     * @param visited matrix of the cards already visited (shared between consecutive calls on the same shelf)
+     * @return size of the group found (0 if the card was already visited)
+     */
+    public static Integer findGroupSize(Shelf shelf, Position position, boolean[][] visited) {
+        return findGroupContainingGivenPosition(shelf, position, visited).size();
+    }
+
     /**
      * This method return the list of position that are part of the group containing the given position
      *
@@ -36,6 +58,20 @@ public class UtilityFunctionsModel {
      * @return list of position in the shelf that are part of the group
      */
     public static List<Position> findGroupContainingGivenPosition(Shelf shelf, Position position) {
+        return findGroupContainingGivenPosition(shelf, position, new boolean[ModelConstants.ROWS_NUMBER][ModelConstants.COLS_NUMBER]);
+    }
+
+    /**
+     * This method return the list of position that are part of the group containing the given position.
+     * Tiles are immutable, so the cards already explored are marked in the given visited matrix: the cards of the
+     * group found are marked, and the cards already marked are never part of the result
+     *
+     * @param shelf  shelf of the player in which search for group
+     * @param position starting position of the group
+     * @param visited matrix of the cards already visited (shared between consecutive calls on the same shelf)
+     * @return list of position in the shelf that are part of the group
+     */
+    public static List<Position> findGroupContainingGivenPosition(Shelf shelf, Position position, boolean[][] visited) {
         List<Position> result = new ArrayList<>();
 
         // frontier to store the position to be examined
@@ -48,19 +84,19 @@ public class UtilityFunctionsModel {
         frontier.add(position);
 
         // while the frontier is not empty extract the first element, if the card in that
-        // position has the same color of the group add one to group size,
-        // set the corresponding card to empty and add the right, bottom, top and left position
-        // to the queue if not already presents
+        // position has the same color of the group and has not been visited add one to group size,
+        // mark the corresponding card as visited and add the right, bottom, top and left position
+        // to the queue
         while (!frontier.isEmpty()) {
             Position extractedPosition = frontier.removeFirst();
             Tile card = shelf.getTile(extractedPosition);
 
             // if the card in the position extracted from the frontier has the same color of the group
-            if (card.getColor().equals(color) && !card.isEmpty()) {
+            if (card.getColor().equals(color) && !card.isEmpty() && !visited[extractedPosition.y()][extractedPosition.x()]) {
                 result.add(extractedPosition);
 
-                // set the card in the extracted position to empty to avoid double-checking
-                card.setEmpty();
+                // mark the card in the extracted position as visited to avoid double-checking
+                visited[extractedPosition.y()][extractedPosition.x()] = true;
 
                 frontier.addAll(getAdjacentPositions(extractedPosition, false));
             }
@@ -75,32 +111,62 @@ public class UtilityFunctionsModel {
      * @param position starting position, the method finds the adjacent to this one
      * @param selectBoardOrShelf this boolean select the current constant for the if conditions, if true it takes the BoardDimension constant and if false it
      * takes the Shelf dimensions constants
-     * @return a list of 2 to 4 positions
+     * @return an immutable list of 2 to 4 positions (the lists of the cells inside the board or the shelf are precomputed)
      */
     public static List<Position> getAdjacentPositions(Position position, boolean selectBoardOrShelf) {
+        int cols = selectBoardOrShelf ? ModelConstants.BOARD_DIMENSION : ModelConstants.COLS_NUMBER;
+        int rows = selectBoardOrShelf ? ModelConstants.BOARD_DIMENSION : ModelConstants.ROWS_NUMBER;
+
+        // positions outside the board or the shelf have no precomputed list
+        if (position.x() < 0 || position.y() < 0 || position.x() >= cols || position.y() >= rows)
+            return buildAdjacentPositions(position.x(), position.y(), cols, rows);
+
+        return selectBoardOrShelf ? BOARD_ADJACENT_POSITIONS[position.boardIndex()] : SHELF_ADJACENT_POSITIONS[position.shelfIndex()];
+    }
+
+    /**
+     * This method builds the list of the adjacent positions of the given cell, in a grid with the given dimensions
+     * The order of the list is: right, bottom, left, top
+     *
+     * @param x row of the cell
+     * @param y column of the cell
+     * @param cols number of columns of the grid
+     * @param rows number of rows of the grid
+     * @return an immutable list of the adjacent positions
+     */
+    private static List<Position> buildAdjacentPositions(int x, int y, int cols, int rows) {
         List<Position> adjacentPositions = new ArrayList<>();
 
         // if the extracted position is in the last column do not execute this part
-        if (position.x() < (selectBoardOrShelf ? (ModelConstants.BOARD_DIMENSION - 1) : (ModelConstants.COLS_NUMBER - 1))) {
-            adjacentPositions.add(new Position(position.x() + 1, position.y()));
-        }
+        if (x < cols - 1) adjacentPositions.add(Position.of(x + 1, y));
 
         // if the extracted position is in the last row do not execute this part
-        if (position.y() < (selectBoardOrShelf ? (ModelConstants.BOARD_DIMENSION - 1) : (ModelConstants.ROWS_NUMBER - 1))) {
-            adjacentPositions.add(new Position(position.x(), position.y() + 1));
-        }
+        if (y < rows - 1) adjacentPositions.add(Position.of(x, y + 1));
 
         // if the extracted position is in the first column do not execute this part
-        if (position.x() > 0) {
-            adjacentPositions.add(new Position(position.x() - 1, position.y()));
-        }
+        if (x > 0) adjacentPositions.add(Position.of(x - 1, y));
 
         // if the extracted position is in the first row do not execute this part
-        if (position.y() >0) {
-            adjacentPositions.add(new Position(position.x(), position.y() - 1));
-        }
+        if (y > 0) adjacentPositions.add(Position.of(x, y - 1));
+
+        return List.copyOf(adjacentPositions);
+    }
 
-        return adjacentPositions;
+    /**
+     * This method builds the table of the adjacent positions of every cell of a grid, indexed by the packed index
+     * of the cell (x + y * cols)
+     *
+     * @param cols number of columns of the grid
+     * @param rows number of rows of the grid
+     * @return the table of the adjacent positions
+     */
+    private static List<Position>[] buildAdjacencyTable(int cols, int rows) {
+        @SuppressWarnings("unchecked")
+        List<Position>[] table = new List[cols * rows];
+        for (int y = 0; y < rows; y++) {
+            for (int x = 0; x < cols; x++) table[x + y * cols] = buildAdjacentPositions(x, y, cols, rows);
+        }
+        return table;
     }
 
 
@@ -146,7 +212,8 @@ public class UtilityFunctionsModel {
         if (adjacents.size() < 4) return true;
 
         // for each adjacent it is considered free if the corresponding tile is empty or invalid
-        for (Position position : adjacents) {
+        for (int i = 0; i < adjacents.size(); i++) {
+            Position position = adjacents.get(i);
             if (myGameBoard[position.y()][position.x()].isEmpty() || myGameBoard[position.y()][position.x()].isInvalid()) return true;
         }
 
@@ -251,7 +251,7 @@ public class CLI extends View{
     private String checkIfIsPersonalGoal(List<SingleGoal> personalGoal, int i, int j, Tile[][] boardOrShelf) {
         if (personalGoal != null) {
             for (SingleGoal singleGoal : personalGoal) {
-                if (singleGoal.getPosition().equals(new Position(j, i))) {
+                if (singleGoal.getPosition().equals(Position.of(j, i))) {
                     return tileColorToAnsiCode(singleGoal.getColor(), false, i, j, true)
                             + (boardOrShelf[i][j].isEmpty() ? " ● " : boardOrShelf[i][j].getColor().equals(singleGoal.getColor()) ? " ● " : " X ")
                             + AnsiEscapeCodes.ENDING_CODE.getCode();
@@ -537,8 +537,9 @@ public class CLI extends View{
     private void askForTiles(List<Position> positions) {
         String input;
         String answer = "y";
+        int maxTiles = getMaxInsertableTiles();
 
-        while (positions.size() < 3 && answer.equalsIgnoreCase("y")) {
+        while (positions.size() < maxTiles && answer.equalsIgnoreCase("y")) {
             printMessage("Select the tile you want to pick (x,y)", AnsiEscapeCodes.INFO_MESSAGE);
             input = this.retryInput(ViewConstants.REGEX_INPUT_SINGLE_MOVE);
             Position pos = new Position(Integer.parseInt(input.substring(0, 1)), Integer.parseInt(input.substring(2, 3)));
@@ -551,7 +552,7 @@ public class CLI extends View{
             }
             else positions.add(pos);
 
-            if (positions.size() < 3) {
+            if (positions.size() < maxTiles) {
                 if(!getAdj(positions).isEmpty()){
                     printMessage("Do you want to select another tile? (y/n)", AnsiEscapeCodes.INFO_MESSAGE);
                     answer = this.retryInput(ViewConstants.REGEX_INPUT_YES_OR_NO);
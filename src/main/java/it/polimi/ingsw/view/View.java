@@ -6,12 +6,12 @@ import it.polimi.ingsw.network.client.Client;
 import it.polimi.ingsw.gameInfo.GameInfo;
 import it.polimi.ingsw.gameInfo.PlayerInfo;
 import it.polimi.ingsw.gameInfo.State;
+import it.polimi.ingsw.model.MoveGenerator;
 import it.polimi.ingsw.model.Position;
 import it.polimi.ingsw.utilities.UtilityFunctionsModel;
 
 import java.util.ArrayList;
 import java.util.List;
-import java.util.stream.Collectors;
 
 /**
  * This abstract class is used to represent the view of the game; it will be extended in class Cli and Gui, the real
@@ -136,79 +136,38 @@ public abstract class View {
     }
 
     /**
-     * This method is used to check the single position: the client choose a tile and this method check if the
-     * position is in the board, if the tile isn't invalid or empty and if the tile has free adjacent(calling a
-     * method from utility class)
-     */
-    private boolean checkSinglePosition(Position pos){
-        if(pos.x() < 0 || pos.x() >= ModelConstants.BOARD_DIMENSION) return false;
-        if(pos.y() < 0 || pos.y() >= ModelConstants.BOARD_DIMENSION) return false;
-        if(this.gameInfo.getGameBoard()[pos.y()] [pos.x()].isEmpty() || this.gameInfo.getGameBoard()[pos.y()] [pos.x()].isInvalid()){
-            return false;
-        }
-        return UtilityFunctionsModel.hasFreeAdjacent(this.gameInfo.getGameBoard(), pos);
-    }
-
-    /**
-     * this method is used to check if the position is valid : it calls method checkSinglePosition and getAdj on list
-     * positions : if checkSinglePosition returns true and getAdj(positions) contains pos, return true
+     * this method is used to check if the position is valid : the position must be one of the positions returned
+     * by getAdj for the positions already chosen
      *
      * @param positions list of positions already chosen by the player
      * @param pos new position chosen by the player
-     * @return true if checkSinglePosition returns true and getAdj called on list positions contains pos
+     * @return true if getAdj called on list positions contains pos
      */
 
     protected boolean checkValidPosition(List<Position> positions, Position pos)  {
-        return checkSinglePosition(pos) && getAdj(positions).contains(pos);
+        return getAdj(positions).contains(pos);
     }
 
     /**
-     * this method return the list of the Position the player can choose after the previous moves
+     * this method return the list of the Position the player can choose after the previous moves: the positions
+     * that together with the already chosen ones are a legal pick set (see MoveGenerator)
      * @param pos list of positions already chosen by the player
      * @return the list of the Position the player can choose after the previous moves
      */
 
     protected List<Position> getAdj(List<Position> pos){
         List<Position> result = new ArrayList<>();
-        if(pos.isEmpty()){
-            for (int i = 0; i < ModelConstants.BOARD_DIMENSION; i++) {
-                for (int j = 0; j < ModelConstants.BOARD_DIMENSION; j++) {
-                    result.add(new Position(i, j));
-                }
-            }
-        }
-        else if(pos.size() == 1){
-            for(Position p : pos){
-                result.add(new Position(p.x(), p.y()+1));
-                result.add(new Position(p.x(), p.y()-1));
-                result.add(new Position(p.x()+1, p.y()));
-                result.add(new Position(p.x()-1, p.y()));
-            }
-        }
-        else{
-            if(pos.get(0).x() == pos.get(1).x()){
-                result.add(new Position(pos.get(0).x(), Math.min(pos.get(0).y() - 1, pos.get(1).y() - 1)));
-                result.add(new Position(pos.get(0).x(), Math.max(pos.get(0).y() + 1, pos.get(1).y() + 1)));
-            }
-            else{
-                result.add(new Position(Math.min(pos.get(0).x() - 1, pos.get(1).x() - 1), pos.get(0).y()));
-                result.add(new Position(Math.max(pos.get(0).x() + 1, pos.get(1).x() + 1), pos.get(0).y()));
-            }
+        if(pos.size() >= getMaxInsertableTiles()) return result;
+
+        int[] legalPickSets = MoveGenerator.legalPickSets(MoveGenerator.pickableCells(this.gameInfo.getGameBoard()), getMaxInsertableTiles());
+        List<Position> candidate = new ArrayList<>(pos);
+        candidate.add(null);
+        for(int cell = 0; cell < Position.BOARD_CELLS; cell++){
+            candidate.set(pos.size(), Position.ofBoardIndex(cell));
+            if(MoveGenerator.isLegalPick(legalPickSets, MoveGenerator.encode(candidate, 0))) result.add(Position.ofBoardIndex(cell));
         }
 
-        return reduceAdjacent(result);
-    }
-
-
-
-    /**
-     * this method receive the List of the next position the player can choose after the previous moves and return
-     * the List of the next positions that are not empty or invalid (valid positions)
-     * @param adj list of the next position the player can choose after the previous moves
-     * @return the list the next position the player can choose after the previous moves that are not empty or invalid
-     */
-    private List<Position> reduceAdjacent(List<Position> adj){
-       return adj.stream().filter(pos -> checkSinglePosition(pos)).collect(Collectors.toList());
+        return result;
     }
 
     /**
@@ -230,6 +189,17 @@ public abstract class View {
         return false;
     }
 
+    /**
+     * this method returns the maximum number of tiles the current player can take from the game board
+     * @return the maximum number of tiles insertable in the shelf of the current player
+     */
+    protected int getMaxInsertableTiles(){
+        for(PlayerInfo player : this.gameInfo.getPlayerInfosList()){
+            if(player.getNickname().equals(gameInfo.getCurrentPlayerNickname())) return player.getMaxInsertableTiles();
+        }
+        return ModelConstants.MAX_NUM_OF_MOVES;
+    }
+
 
 
 
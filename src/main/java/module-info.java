@@ -6,6 +6,7 @@ module AM08 {
 
     opens it.polimi.ingsw.model.commonGoals to com.google.gson;
     opens it.polimi.ingsw.model to com.google.gson;
+    opens it.polimi.ingsw.model.persistence to com.google.gson;
     opens it.polimi.ingsw.controller to com.google.gson;
     opens it.polimi.ingsw.network.server to java.rmi, com.google.gson;
     opens it.polimi.ingsw.network.client to java.rmi;
@@ -20,6 +21,7 @@ module AM08 {
     exports it.polimi.ingsw.gameInfo;
     exports it.polimi.ingsw.launchers;
     exports it.polimi.ingsw.model;
+    exports it.polimi.ingsw.model.persistence;
     exports it.polimi.ingsw.network.client;
     exports it.polimi.ingsw.network.server;
     exports it.polimi.ingsw.network.messages;
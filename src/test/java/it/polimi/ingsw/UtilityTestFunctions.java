@@ -1,8 +1,14 @@
 package it.polimi.ingsw;
 
+import it.polimi.ingsw.constants.ModelConstants;
+import it.polimi.ingsw.model.Shelf;
+import it.polimi.ingsw.model.Tile;
+import it.polimi.ingsw.model.TileColor;
+
 import java.io.BufferedReader;
 import java.io.InputStreamReader;
 import java.util.Objects;
+import java.util.Random;
 
 /**
  * This class represents a collection of functions used for all tests
@@ -29,4 +35,20 @@ public class UtilityTestFunctions {
         return new BufferedReader(new InputStreamReader(Objects.requireNonNull(c.getClassLoader().getResourceAsStream(fileName))));
     }
 
+    /**
+     * This method adds a random tile in a random not full column of the given shelf
+     * Using few colors makes bigger groups of the same color (and so reached goals) more likely
+     * @param shelf the shelf to fill (must not be full)
+     * @param r the random generator
+     * @param usedColors number of colors used, between 1 and TOTAL_COLORS
+     */
+    public static void addRandomTile(Shelf shelf, Random r, int usedColors){
+        int col;
+        do {
+            col = r.nextInt(ModelConstants.COLS_NUMBER);
+        } while (shelf.getFreeSpaces(col) == 0);
+
+        shelf.add(new Tile(TileColor.values()[r.nextInt(usedColors)], 1 + r.nextInt(3)), col);
+    }
+
 }
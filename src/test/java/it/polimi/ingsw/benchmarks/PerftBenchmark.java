@@ -0,0 +1,73 @@
+package it.polimi.ingsw.benchmarks;
+
+import it.polimi.ingsw.model.GameModel;
+import it.polimi.ingsw.model.Perft;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmark of the move generation and of the rules of the turns: it counts with Perft the move sequences of
+ * length 2 from the opening and from the middle of a match, for every number of players, both on copies of the
+ * match and with make/unmake (GameModel.apply and GameModel.undo).
+ * Run it with the main method, using the test classpath
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class PerftBenchmark {
+    /**
+     * number of players of the match
+     */
+    @Param({"2", "3", "4"})
+    public int numPlayers;
+
+    /**
+     * number of random moves played before counting
+     */
+    @Param({"0", "20"})
+    public int randomMoves;
+
+    private GameModel model;
+
+    /**
+     * This method creates the start position
+     */
+    @Setup
+    public void setup() {
+        model = Perft.startPosition(numPlayers, numPlayers, randomMoves);
+    }
+
+    /**
+     * This method counts the move sequences of length 2
+     * @return the count
+     */
+    @Benchmark
+    public long perft2() {
+        return Perft.perft(model, 2);
+    }
+
+    /**
+     * This method counts the move sequences of length 2 playing and taking back the moves on the match
+     * @return the count
+     */
+    @Benchmark
+    public long perft2MakeUnmake() {
+        return Perft.perftMakeUnmake(model, 2);
+    }
+
+    /**
+     * This method runs the benchmark
+     * @param args not used
+     * @throws RunnerException if the benchmark fails
+     */
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder().include(PerftBenchmark.class.getSimpleName()).build()).run();
+    }
+}
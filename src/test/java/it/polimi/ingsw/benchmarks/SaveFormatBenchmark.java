@@ -0,0 +1,71 @@
+package it.polimi.ingsw.benchmarks;
+
+import it.polimi.ingsw.model.GameModel;
+import it.polimi.ingsw.model.Perft;
+import it.polimi.ingsw.model.persistence.SaveFormat;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmark of the save formats: it encodes and decodes a 4 players match in the middle of the game.
+ * Run it with the main method, using the test classpath
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class SaveFormatBenchmark {
+    /**
+     * format of the save
+     */
+    @Param({"JSON", "BINARY"})
+    public SaveFormat format;
+
+    private GameModel model;
+
+    private byte[] content;
+
+    /**
+     * This method creates the match and its encoding
+     */
+    @Setup
+    public void setup() {
+        model = Perft.startPosition(4, 4, 30);
+        content = model.toBytes(format);
+    }
+
+    /**
+     * This method encodes the match
+     * @return the encoded match
+     */
+    @Benchmark
+    public byte[] encode() {
+        return model.toBytes(format);
+    }
+
+    /**
+     * This method decodes the match
+     * @return the decoded match
+     * @throws IOException if the match can't be decoded
+     */
+    @Benchmark
+    public GameModel decode() throws IOException {
+        return GameModel.fromBytes(content);
+    }
+
+    /**
+     * This method runs the benchmark
+     * @param args not used
+     * @throws RunnerException if the benchmark fails
+     */
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder().include(SaveFormatBenchmark.class.getSimpleName()).build()).run();
+    }
+}
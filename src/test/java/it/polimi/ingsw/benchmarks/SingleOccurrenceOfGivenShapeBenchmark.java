@@ -0,0 +1,92 @@
+package it.polimi.ingsw.benchmarks;
+
+import it.polimi.ingsw.UtilityTestFunctions;
+import it.polimi.ingsw.model.Shelf;
+import it.polimi.ingsw.model.commonGoals.CommonGoal;
+import it.polimi.ingsw.model.commonGoals.CommonGoalFactory;
+import it.polimi.ingsw.model.commonGoals.ReferenceShapeGoal;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmark of SingleOccurrenceOfGivenShape: the evaluation with the placement masks against the original
+ * tile by tile evaluation (ReferenceShapeGoal), on the same random shelves.
+ * Run it with the main method, using the test classpath
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class SingleOccurrenceOfGivenShapeBenchmark {
+    /**
+     * indexes in the common goals factory of the three shape goals
+     */
+    private static final int[] SHAPE_GOALS = {2, 6, 10};
+
+    /**
+     * number of random shelves evaluated by each invocation
+     */
+    private static final int SHELVES = 256;
+
+    private Shelf[] shelves;
+    private CommonGoal[] goals;
+    private List<ReferenceShapeGoal> referenceGoals;
+
+    /**
+     * This method creates the goals and the random shelves, with a random number of tiles
+     */
+    @Setup
+    public void setup() {
+        Random r = new Random(1);
+        shelves = new Shelf[SHELVES];
+        for (int i = 0; i < SHELVES; i++) {
+            shelves[i] = new Shelf();
+            int tiles = r.nextInt(31);
+            for (int t = 0; t < tiles; t++) UtilityTestFunctions.addRandomTile(shelves[i], r, 1 + r.nextInt(3));
+        }
+
+        goals = new CommonGoal[SHAPE_GOALS.length];
+        for (int i = 0; i < SHAPE_GOALS.length; i++) goals[i] = CommonGoalFactory.createCommonGoal(SHAPE_GOALS[i]);
+        referenceGoals = ReferenceShapeGoal.load();
+    }
+
+    /**
+     * This method evaluates every goal on every shelf with the placement masks
+     * @param blackhole consumes the results
+     */
+    @Benchmark
+    public void placementMasks(Blackhole blackhole) {
+        for (Shelf shelf : shelves) {
+            for (CommonGoal goal : goals) blackhole.consume(goal.evaluate(shelf));
+        }
+    }
+
+    /**
+     * This method evaluates every goal on every shelf tile by tile
+     * @param blackhole consumes the results
+     */
+    @Benchmark
+    public void tileByTile(Blackhole blackhole) {
+        for (Shelf shelf : shelves) {
+            for (ReferenceShapeGoal goal : referenceGoals) blackhole.consume(goal.evaluate(shelf));
+        }
+    }
+
+    /**
+     * This method runs the benchmark
+     * @param args not used
+     * @throws RunnerException if the benchmark fails
+     */
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder().include(SingleOccurrenceOfGivenShapeBenchmark.class.getSimpleName()).build()).run();
+    }
+}
@@ -0,0 +1,80 @@
+package it.polimi.ingsw.benchmarks;
+
+import it.polimi.ingsw.UtilityTestFunctions;
+import it.polimi.ingsw.model.Shelf;
+import it.polimi.ingsw.model.commonGoals.ReferenceTwoSquares;
+import it.polimi.ingsw.model.commonGoals.TwoSquares;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmark of TwoSquares: the evaluation with the square anchors of the color masks against the original evaluation
+ * with the BFS (ReferenceTwoSquares), on the same random shelves.
+ * Run it with the main method, using the test classpath
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class TwoSquaresBenchmark {
+    /**
+     * number of random shelves evaluated by each invocation
+     */
+    private static final int SHELVES = 256;
+
+    private Shelf[] shelves;
+    private TwoSquares goal;
+    private ReferenceTwoSquares referenceGoal;
+
+    /**
+     * This method creates the goals and the random shelves, with a random number of tiles
+     */
+    @Setup
+    public void setup() {
+        Random r = new Random(1);
+        shelves = new Shelf[SHELVES];
+        for (int i = 0; i < SHELVES; i++) {
+            shelves[i] = new Shelf();
+            int tiles = r.nextInt(31);
+            for (int t = 0; t < tiles; t++) UtilityTestFunctions.addRandomTile(shelves[i], r, 1 + r.nextInt(4));
+        }
+
+        goal = new TwoSquares();
+        referenceGoal = new ReferenceTwoSquares();
+    }
+
+    /**
+     * This method evaluates the goal on every shelf with the bitboards
+     * @param blackhole consumes the results
+     */
+    @Benchmark
+    public void squareAnchors(Blackhole blackhole) {
+        for (Shelf shelf : shelves) blackhole.consume(goal.evaluate(shelf));
+    }
+
+    /**
+     * This method evaluates the goal on every shelf with the BFS
+     * @param blackhole consumes the results
+     */
+    @Benchmark
+    public void bfs(Blackhole blackhole) {
+        for (Shelf shelf : shelves) blackhole.consume(referenceGoal.evaluate(shelf));
+    }
+
+    /**
+     * This method runs the benchmark
+     * @param args not used
+     * @throws RunnerException if the benchmark fails
+     */
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder().include(TwoSquaresBenchmark.class.getSimpleName()).build()).run();
+    }
+}
@@ -0,0 +1,88 @@
+package it.polimi.ingsw.controller;
+
+import it.polimi.ingsw.constants.ModelConstants;
+import it.polimi.ingsw.model.GameModel;
+import it.polimi.ingsw.model.MoveGenerator;
+import it.polimi.ingsw.model.persistence.MatchWriter;
+import it.polimi.ingsw.model.persistence.PersistenceStrategy;
+import it.polimi.ingsw.utilities.UtilityFunctionsModel;
+import org.junit.jupiter.api.Test;
+
+import java.io.File;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit test for the HeadlessRunner and the persistence strategies
+ */
+class HeadlessRunnerTest {
+
+    /**
+     * This method plays complete matches with 2, 3 and 4 players and checks that they end without saving anything
+     */
+    @Test
+    void completeMatchesInMemory() {
+        MatchWriter writer = MatchWriter.getMatchWriter();
+        long savedStates = writer.getSavedStates();
+
+        for (int numPlayers = 2; numPlayers <= 4; numPlayers++) {
+            for (long seed = 0; seed < 5; seed++) {
+                GameModel model = HeadlessRunner.play(numPlayers, seed, HeadlessRunner.randomMoves(seed));
+                assertTrue(model.isGameOver());
+                assertEquals(numPlayers, model.getLeaderBoard().size());
+                assertTrue(model.getMovesPlayed() > 0);
+                assertEquals(PersistenceStrategy.NONE, model.getPersistence());
+            }
+        }
+        assertEquals(savedStates, writer.getSavedStates());
+        assertFalse(new File(ModelConstants.PATH_SAVED_MATCHES + UtilityFunctionsModel.getJSONFileName(HeadlessRunner.nicknames(2))).exists());
+    }
+
+    /**
+     * This method checks that the same seeds give the same match
+     */
+    @Test
+    void sameSeedSameMatch() {
+        GameModel first = HeadlessRunner.play(3, 42, HeadlessRunner.randomMoves(7));
+        GameModel second = HeadlessRunner.play(3, 42, HeadlessRunner.randomMoves(7));
+        assertEquals(first, second);
+        assertEquals(first.getMovesPlayed(), second.getMovesPlayed());
+        assertEquals(first.getLeaderBoard().get(0).getNickname(), second.getLeaderBoard().get(0).getNickname());
+    }
+
+    /**
+     * This method checks that a match is saved with the FILE strategy and no more once it is changed to NONE
+     */
+    @Test
+    void changeStrategy() {
+        List<String> nicknames = List.of("Headless1", "Headless2");
+        File file = new File(ModelConstants.PATH_SAVED_MATCHES + UtilityFunctionsModel.getJSONFileName(nicknames));
+        MatchWriter writer = MatchWriter.getMatchWriter();
+
+        try {
+            GameModel model = new GameModel(2, nicknames, 3, PersistenceStrategy.FILE);
+            writer.flush(file.getPath());
+            assertTrue(file.exists());
+            long savedStates = writer.getSavedStates();
+            play(model);
+            assertEquals(savedStates + 1, writer.getSavedStates());
+
+            model.setPersistence(PersistenceStrategy.NONE);
+            play(model);
+            assertEquals(savedStates + 1, writer.getSavedStates());
+        } finally {
+            assertTrue(writer.delete(file.getPath()));
+        }
+    }
+
+    /**
+     * This method plays the first legal move of the current player
+     * @param model the match
+     */
+    private void play(GameModel model) {
+        int move = model.getLegalMoves()[0];
+        model.makeMove(MoveGenerator.positions(move), MoveGenerator.column(move));
+        model.nextTurn();
+    }
+}
@@ -0,0 +1,78 @@
+package it.polimi.ingsw.controller;
+
+import it.polimi.ingsw.model.GameModel;
+import it.polimi.ingsw.model.persistence.SaveFormat;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit test for the MoveSearch of the bots
+ */
+class MoveSearchTest {
+
+    /**
+     * This method checks that the search chooses a legal move, stays within its budget and leaves the match as it was
+     */
+    @Test
+    void searchWithinBudget() {
+        GameModel model = HeadlessRunner.play(3, 8, (match, legalMoves) -> {
+            byte[] before = match.toBytes(SaveFormat.BINARY);
+            MoveSearch search = new MoveSearch(20);
+
+            long start = System.nanoTime();
+            int move = search.chooseMove(match, legalMoves);
+            long elapsedMillis = (System.nanoTime() - start) / 1_000_000;
+
+            assertTrue(contains(legalMoves, move));
+            assertTrue(search.getLastDepth() >= 1);
+            assertTrue(elapsedMillis < 20 + 200, "search took " + elapsedMillis + " ms");
+            assertArrayEquals(before, match.toBytes(SaveFormat.BINARY));
+            return move;
+        });
+        assertTrue(model.isGameOver());
+    }
+
+    /**
+     * This method checks that the player using the search wins most matches against a player choosing random moves
+     */
+    @Test
+    void searchBeatsRandomMoves() {
+        int searchWins = 0;
+        int matches = 6;
+        for (long seed = 0; seed < matches; seed++) {
+            MoveSearch search = new MoveSearch(5);
+            HeadlessRunner.MoveChooser random = HeadlessRunner.randomMoves(seed);
+            GameModel model = HeadlessRunner.play(2, seed, (match, legalMoves) -> match.getCurrentPlayer() == 0
+                    ? search.chooseMove(match, legalMoves) : random.chooseMove(match, legalMoves));
+            if (model.getPlayerPoints(0) > model.getPlayerPoints(1)) searchWins++;
+        }
+        assertTrue(searchWins >= matches - 1, "the search won " + searchWins + " matches of " + matches);
+    }
+
+    /**
+     * This method checks that a search with no time left still chooses a move with the first depth
+     */
+    @Test
+    void moveWithoutTime() {
+        GameModel model = HeadlessRunner.play(2, 4, (match, legalMoves) -> {
+            MoveSearch search = new MoveSearch(0);
+            int move = search.chooseMove(match, legalMoves, System.nanoTime());
+            assertTrue(contains(legalMoves, move));
+            assertEquals(1, search.getLastDepth());
+            return move;
+        });
+        assertTrue(model.isGameOver());
+    }
+
+    /**
+     * This method checks if a move is among the legal ones
+     * @param legalMoves the legal moves
+     * @param move the move
+     * @return true if the move is legal
+     */
+    private static boolean contains(int[] legalMoves, int move) {
+        for (int legalMove : legalMoves) if (legalMove == move) return true;
+        return false;
+    }
+}
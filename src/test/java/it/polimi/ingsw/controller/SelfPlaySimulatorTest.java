@@ -0,0 +1,65 @@
+package it.polimi.ingsw.controller;
+
+import it.polimi.ingsw.constants.ModelConstants;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit test for the SelfPlaySimulator and its statistics
+ */
+class SelfPlaySimulatorTest {
+
+    /**
+     * This method simulates matches on more workers and checks that every match is counted exactly once
+     * @throws InterruptedException if the test is interrupted
+     */
+    @Test
+    void everyMatchCounted() throws InterruptedException {
+        for (SelfPlaySimulator.Heuristic heuristic : SelfPlaySimulator.Heuristic.values()) {
+            SimulationStats stats = new SelfPlaySimulator(3, 4, heuristic, 11).run(300);
+            assertEquals(300, stats.getGames());
+            assertEquals(300, stats.getWins(0) + stats.getWins(1) + stats.getWins(2));
+
+            long pairGames = 0;
+            for (int first = 0; first < ModelConstants.TOTAL_GOALS; first++) {
+                for (int second = first + 1; second < ModelConstants.TOTAL_GOALS; second++) pairGames += stats.getPairGames(first, second);
+            }
+            assertEquals(300, pairGames);
+            assertTrue(stats.getMeanMoves() > 0);
+            assertTrue(stats.getMeanRefills() > 0);
+            assertTrue(stats.getGamesPerSecond() > 0);
+            assertFalse(stats.report().isEmpty());
+        }
+    }
+
+    /**
+     * This method checks that a simulation depends only on its seed
+     * @throws InterruptedException if the test is interrupted
+     */
+    @Test
+    void sameSeedSameStats() throws InterruptedException {
+        SimulationStats first = new SelfPlaySimulator(2, 1, SelfPlaySimulator.Heuristic.RANDOM, 5).run(100);
+        SimulationStats second = new SelfPlaySimulator(2, 1, SelfPlaySimulator.Heuristic.RANDOM, 5).run(100);
+        assertEquals(first.getMeanMoves(), second.getMeanMoves());
+        assertEquals(first.getMeanRefills(), second.getMeanRefills());
+        assertEquals(first.getWins(0), second.getWins(0));
+    }
+
+    /**
+     * This method checks that the statistics of a simulation don't depend on the number of workers
+     * @throws InterruptedException if the test is interrupted
+     */
+    @Test
+    void sameStatsOnMoreWorkers() throws InterruptedException {
+        for (SelfPlaySimulator.Heuristic heuristic : SelfPlaySimulator.Heuristic.values()) {
+            SimulationStats single = new SelfPlaySimulator(3, 1, heuristic, 7).run(200);
+            SimulationStats parallel = new SelfPlaySimulator(3, 4, heuristic, 7).run(200);
+            assertEquals(single.getMeanMoves(), parallel.getMeanMoves());
+            assertEquals(single.getMeanRefills(), parallel.getMeanRefills());
+            for (int player = 0; player < 3; player++) assertEquals(single.getWins(player), parallel.getWins(player));
+            // the first line of the report has the elapsed time
+            assertEquals(single.report().lines().skip(1).toList(), parallel.report().lines().skip(1).toList());
+        }
+    }
+}
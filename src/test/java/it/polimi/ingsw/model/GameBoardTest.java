@@ -9,6 +9,7 @@ import org.junit.jupiter.api.Test;
 import java.util.List;
 
 import java.util.ArrayList;
+import java.util.SplittableRandom;
 
 /**
  * This class tests all the methods for the correct creation of the game board
@@ -24,7 +25,7 @@ import java.util.ArrayList;
         List<Integer> co=new ArrayList<>(2);
         co.add(10);
         co.add(11);
-        GameBoard gb= GameBoard.createGameBoard(2, co);
+        GameBoard gb= GameBoard.createGameBoard(2, co, new SplittableRandom(2));
         assertTrue(gb.positionOccupied(new Position(4,5)));
         //check 4 extremes of the board, should be invalid
         assertFalse(gb.positionOccupied(new Position(0, 0)));
@@ -42,7 +43,7 @@ import java.util.ArrayList;
         List<Integer> co=new ArrayList<>(2);
         co.add(10);
         co.add(11);
-        GameBoard gb= GameBoard.createGameBoard(3, co);
+        GameBoard gb= GameBoard.createGameBoard(3, co, new SplittableRandom(3));
         assertTrue(gb.positionOccupied(new Position(4,5)));
         assertTrue(gb.positionOccupied(new Position(5,BoardConstants.BOARD_DIMENSION-1)));
         assertTrue(gb.positionOccupied(new Position(3,0)));
@@ -62,7 +63,7 @@ import java.util.ArrayList;
         List<Integer> co=new ArrayList<>(2);
         co.add(10);
         co.add(11);
-        GameBoard gb= GameBoard.createGameBoard(4, co);
+        GameBoard gb= GameBoard.createGameBoard(4, co, new SplittableRandom(4));
         assertTrue(gb.positionOccupied(new Position(4,5)));
         assertTrue(gb.positionOccupied(new Position(5,BoardConstants.BOARD_DIMENSION-1)));
         assertTrue(gb.positionOccupied(new Position(3,0)));
@@ -84,7 +85,7 @@ import java.util.ArrayList;
         List<Integer> co=new ArrayList<>(2);
         co.add(10);
         co.add(11);
-        GameBoard gb= GameBoard.createGameBoard(4, co);
+        GameBoard gb= GameBoard.createGameBoard(4, co, new SplittableRandom(4));
         //check position in the middle of the board, should not have free adjacent
         assertFalse(gb.hasFreeAdjacent(new Position(5,5)));
         //one at the edge which is limited by invalid cells should result free
@@ -112,7 +113,7 @@ import java.util.ArrayList;
         List<Integer> co=new ArrayList<>(2);
         co.add(10);
         co.add(11);
-        GameBoard gb= GameBoard.createGameBoard(4, co);
+        GameBoard gb= GameBoard.createGameBoard(4, co, new SplittableRandom(4));
         //at the start should not be filled
         assertFalse(gb.hasToBeFilled());
         //remove one tile and check again
@@ -190,11 +191,12 @@ import java.util.ArrayList;
         List<Integer> co=new ArrayList<>(2);
         co.add(10);
         co.add(11);
-        GameBoard gb= GameBoard.createGameBoard(4, co);
+        SplittableRandom random = new SplittableRandom(4);
+        GameBoard gb= GameBoard.createGameBoard(4, co, random);
 
         prepareBoard4PlayersToBeFilled(gb);
         //the first time it should not throw the exception since there are 87=132-45 tiles remaining
-        gb.fillBoard();
+        gb.fillBoard(random);
 
         //check some positions so it is indeed filled
         //duplicate of the test above
@@ -206,7 +208,7 @@ import java.util.ArrayList;
 
         prepareBoard4PlayersToBeFilled(gb);
         // still no problems
-        gb.fillBoard();
+        gb.fillBoard(random);
 
         //check some positions so it is indeed filled
         //duplicate of the test above
@@ -219,10 +221,67 @@ import java.util.ArrayList;
         prepareBoard4PlayersToBeFilled(gb);
 
         //now it should throw the exception
-        assertThrows(NoMoreTilesToFillBoardException.class, gb::fillBoard);
+        assertThrows(NoMoreTilesToFillBoardException.class, () -> gb.fillBoard(random));
 
         //if i call it again now it should throw the other exception
-        assertThrows(NoMoreTilesAtStartFillBoardException.class, gb::fillBoard);
+        assertThrows(NoMoreTilesAtStartFillBoardException.class, () -> gb.fillBoard(random));
+    }
+
+    /**
+     * This method removes random pickable tiles from the boards of every layout, filling them when needed, and
+     * checks that the incremental indexes (pickable tiles, free sides, refill) always match the board, also on a
+     * copy of the board which rebuilds them
+     * @throws NoMoreTilesToFillBoardException never, the bag is not emptied
+     * @throws NoMoreTilesAtStartFillBoardException never, the bag is not emptied
+     */
+    @Test
+    void incrementalIndexesMatchBoard() throws NoMoreTilesAtStartFillBoardException, NoMoreTilesToFillBoardException {
+        for (int numPlayers = 2; numPlayers <= 4; numPlayers++) {
+            List<Integer> co = List.of(0, 1);
+            SplittableRandom random = new SplittableRandom(numPlayers);
+            GameBoard gb = GameBoard.createGameBoard(numPlayers, co, random);
+
+            for (int refill = 0; refill < 2; refill++) {
+                while (!gb.hasToBeFilled()) {
+                    List<Integer> pickable = gb.getPickableCells().stream().boxed().toList();
+                    gb.removeTile(Position.ofBoardIndex(pickable.get(random.nextInt(pickable.size()))));
+                    assertIndexesMatchBoard(gb);
+                }
+                gb.fillBoard(random);
+                assertIndexesMatchBoard(gb);
+                assertIndexesMatchBoard(new GameBoard(gb, co));
+            }
+        }
+    }
+
+    /**
+     * This method checks the indexes of the given board against a scan of the whole board
+     * @param gb the board to check
+     */
+    private static void assertIndexesMatchBoard(GameBoard gb) {
+        Tile[][] board = gb.getGameBoardCopy();
+        boolean adjacentTiles = false;
+
+        for (int y = 0; y < BoardConstants.BOARD_DIMENSION; y++) {
+            for (int x = 0; x < BoardConstants.BOARD_DIMENSION; x++) {
+                boolean occupied = !board[y][x].isInvalid() && !board[y][x].isEmpty();
+                int occupiedSides = 0;
+                int sides = 0;
+                int[][] directions = {{1, 0}, {0, 1}, {-1, 0}, {0, -1}};
+                for (int[] d : directions) {
+                    int nx = x + d[0], ny = y + d[1];
+                    if (nx < 0 || ny < 0 || nx >= BoardConstants.BOARD_DIMENSION || ny >= BoardConstants.BOARD_DIMENSION) continue;
+                    sides++;
+                    if (!board[ny][nx].isInvalid() && !board[ny][nx].isEmpty()) occupiedSides++;
+                }
+
+                boolean freeSide = sides < 4 || occupiedSides < 4;
+                if (occupied && occupiedSides > 0) adjacentTiles = true;
+                assertEquals(freeSide, gb.hasFreeAdjacent(Position.of(x, y)));
+                assertEquals(occupied && freeSide, gb.isPickable(Position.of(x, y)));
+            }
+        }
+        assertEquals(!adjacentTiles, gb.hasToBeFilled());
     }
 
     /**
@@ -0,0 +1,63 @@
+package it.polimi.ingsw.model;
+
+import it.polimi.ingsw.constants.BoardConstants;
+import it.polimi.ingsw.constants.ModelConstants;
+import it.polimi.ingsw.model.commonGoals.CommonGoalFactory;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.SplittableRandom;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit test for GameConfigRegistry class
+ */
+class GameConfigRegistryTest {
+    GameConfigRegistry registry = GameConfigRegistry.getGameConfigRegistry();
+
+    /**
+     * This method tests that the registry loads every configuration and always hands out the same instances
+     */
+    @Test
+    void sharedInstances() {
+        for (int numPlayers = 2; numPlayers <= 4; numPlayers++) {
+            assertSame(registry.getBoardConfiguration(numPlayers), registry.getBoardConfiguration(numPlayers));
+        }
+        assertThrows(IllegalArgumentException.class, () -> registry.getBoardConfiguration(5));
+
+        for (int i = 0; i < ModelConstants.TOTAL_GOALS; i++) {
+            assertNotNull(registry.getPersonalGoal(i));
+            assertSame(registry.getCommonGoal(i), CommonGoalFactory.createCommonGoal(i));
+        }
+    }
+
+    /**
+     * This method tests that the shared board configuration can't be modified through its getters
+     */
+    @Test
+    void boardConfigurationNotModifiable() {
+        GameBoardConfiguration configuration = registry.getBoardConfiguration(2);
+        Integer[] pointStack = configuration.getPointStack();
+        pointStack[0] = 100;
+        assertNotEquals(100, configuration.getPointStack()[0]);
+    }
+
+    /**
+     * This method tests that the boards created from the registry have the valid positions of the configuration
+     */
+    @Test
+    void boardsFollowConfiguration() {
+        for (int numPlayers = 2; numPlayers <= 4; numPlayers++) {
+            GameBoard gameBoard = GameBoard.createGameBoard(numPlayers, List.of(0, 1), new SplittableRandom(numPlayers));
+            GameBoardConfiguration configuration = registry.getBoardConfiguration(numPlayers);
+            Tile[][] tiles = gameBoard.getGameBoardCopy();
+
+            for (int y = 0; y < BoardConstants.BOARD_DIMENSION; y++) {
+                for (int x = 0; x < BoardConstants.BOARD_DIMENSION; x++) {
+                    assertEquals(!configuration.isValidPosition(x, y), tiles[y][x].isInvalid());
+                }
+            }
+        }
+    }
+}
@@ -6,20 +6,40 @@ import com.google.gson.Gson;
 import com.google.gson.GsonBuilder;
 import it.polimi.ingsw.UtilityTestFunctions;
 import it.polimi.ingsw.constants.ModelConstants;
+import it.polimi.ingsw.model.persistence.MatchWriter;
+import it.polimi.ingsw.model.persistence.MoveJournal;
+import it.polimi.ingsw.utilities.JsonWithExposeSingleton;
 import it.polimi.ingsw.utilities.UtilityFunctionsModel;
+import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Disabled;
 import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
 
+import java.io.File;
 import java.io.FileNotFoundException;
 import java.io.FileReader;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Random;
 
 /**
  * This is a set of tests for the class GameModel
  */
 class GameModelTest {
 
+    /**
+     * This method creates the directory of the saved matches, where the matches of the tests are saved (it is not
+     * part of the repository, so it may not exist yet)
+     * @throws IOException if the directory can't be created
+     */
+    @BeforeEach
+    public void createSavedMatchesDirectory() throws IOException {
+        Files.createDirectories(Path.of(ModelConstants.PATH_SAVED_MATCHES));
+    }
+
     /**
      * This method tests the persistence
      */
@@ -183,5 +203,68 @@ class GameModelTest {
         assertFalse(p.isCGDone(1));
     }
 
+    /**
+     * this method tests that two matches created with the same seed are the same, and that the seed is saved
+     * with the match
+     * @throws FileNotFoundException if the file of the saved match didn't find
+     */
+    @Test
+    public void sameSeedSameMatch() throws FileNotFoundException {
+        List<String> players=new ArrayList<>(2);
+        players.add("MatteCenz"); players.add("GabriCarr");
+
+        GameModel gm1=new GameModel(2, players, 43);
+        GameModel gm2=new GameModel(2, players, 42);
+        assertNotEquals(gm1, gm2);
+        gm1=new GameModel(2, players, 42);
+        assertEquals(gm1, gm2);
+
+        File file= new File(ModelConstants.PATH_SAVED_MATCHES + UtilityFunctionsModel.getJSONFileName(players));
+        MatchWriter.getMatchWriter().flush(file.getPath());
+        Gson json=new GsonBuilder().setPrettyPrinting().create();
+        GameModel saved=new GameModel(json.fromJson(new FileReader(file), GameModel.class));
+        assertEquals(42, saved.getSeed());
+        assertTrue(MatchWriter.getMatchWriter().delete(file.getPath()));
+    }
+
+    /**
+     * this method tests that a match saved with the move journal is recovered by loading its last checkpoint and
+     * replaying the moves made after it
+     * @param journalDirectory directory of the journal
+     * @throws IOException if the journal or the saved match can't be read
+     */
+    @Test
+    public void journalReplay(@TempDir Path journalDirectory) throws IOException {
+        List<String> players=new ArrayList<>(3);
+        players.add("MatteCenz"); players.add("GabriCarr"); players.add("AleCappe");
+        MoveJournal journal = MoveJournal.getMoveJournal();
+        journal.open(journalDirectory, 5, 4);
+        File file= new File(ModelConstants.PATH_SAVED_MATCHES + UtilityFunctionsModel.getJSONFileName(players));
+
+        try {
+            GameModel gm=new GameModel(3, players, 7);
+            Random r=new Random(7);
+            for(int i=0; i<23; i++){
+                int[] moves=gm.getLegalMoves();
+                int move=moves[r.nextInt(moves.length)];
+                gm.makeMove(MoveGenerator.positions(move), MoveGenerator.column(move));
+                gm.nextTurn();
+            }
 
-}
\ No newline at end of file
+            // the last checkpoint is the one of the 20th move
+            MatchWriter.getMatchWriter().flush(file.getPath());
+            GameModel saved=new GameModel(JsonWithExposeSingleton.getJsonWithExposeSingleton().fromJson(new FileReader(file), GameModel.class));
+            assertEquals(20, saved.getMovesPlayed());
+            assertNotEquals(gm, saved);
+
+            assertEquals(3, saved.replay(journal.readEvents(gm.getMatchId())));
+            assertEquals(gm, saved);
+            assertEquals(23, saved.getMovesPlayed());
+            // the replay doesn't append the moves again
+            assertEquals(23, journal.readEvents(gm.getMatchId()).size());
+        } finally {
+            journal.close();
+            assertTrue(MatchWriter.getMatchWriter().delete(file.getPath()));
+        }
+    }
+}
@@ -0,0 +1,171 @@
+package it.polimi.ingsw.model;
+
+import it.polimi.ingsw.constants.ModelConstants;
+import org.junit.jupiter.api.Test;
+
+import java.util.*;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit test for MoveGenerator
+ */
+class MoveGeneratorTest {
+
+    /**
+     * This method checks that a move is decoded to the same positions and column, and that its pick set doesn't
+     * depend on the order of the tiles
+     */
+    @Test
+    void encodeAndDecode() {
+        List<Position> positions = List.of(Position.of(4, 5), Position.of(4, 3), Position.of(4, 4));
+        int move = MoveGenerator.encode(positions, 2);
+
+        assertEquals(positions, MoveGenerator.positions(move));
+        assertEquals(3, MoveGenerator.size(move));
+        assertEquals(2, MoveGenerator.column(move));
+        assertEquals(4, MoveGenerator.column(MoveGenerator.withColumn(move, 4)));
+        assertEquals(List.of(Position.of(4, 3), Position.of(4, 4), Position.of(4, 5)), MoveGenerator.positions(MoveGenerator.pickSet(move)));
+        assertEquals(MoveGenerator.pickSet(move), MoveGenerator.pickSet(MoveGenerator.encode(List.of(Position.of(4, 4), Position.of(4, 5), Position.of(4, 3)), 0)));
+
+        assertEquals(MoveGenerator.INVALID_MOVE, MoveGenerator.encode(List.of(), 0));
+        assertEquals(MoveGenerator.INVALID_MOVE, MoveGenerator.encode(List.of(new Position(-1, -1)), 0));
+        assertEquals(MoveGenerator.INVALID_MOVE, MoveGenerator.encode(List.of(Position.of(1, 1)), ModelConstants.COLS_NUMBER));
+        assertEquals(MoveGenerator.INVALID_MOVE, MoveGenerator.pickSet(MoveGenerator.encode(List.of(Position.of(1, 1), Position.of(1, 1)), 0)));
+    }
+
+    /**
+     * This method removes random tiles from the boards of every layout and checks that the legal pick sets are
+     * exactly the sets of 1 to 3 pickable tiles on consecutive cells of a line, found by trying all of them
+     */
+    @Test
+    void legalPickSetsMatchBruteForce() {
+        Random r = new Random(21);
+
+        for (int numPlayers = 2; numPlayers <= 4; numPlayers++) {
+            GameBoard gb = GameBoard.createGameBoard(numPlayers, List.of(0, 1), new SplittableRandom(numPlayers));
+
+            while (!gb.hasToBeFilled()) {
+                BitSet pickable = gb.getPickableCells();
+                assertEquals(pickable, MoveGenerator.pickableCells(gb.getGameBoardCopy()));
+
+                for (int maxTiles = 1; maxTiles <= ModelConstants.MAX_NUM_OF_MOVES; maxTiles++) {
+                    assertEquals(bruteForcePickSets(pickable, maxTiles), toSet(MoveGenerator.legalPickSets(pickable, maxTiles)));
+                }
+
+                int[] cells = pickable.stream().toArray();
+                gb.removeTile(Position.ofBoardIndex(cells[r.nextInt(cells.length)]));
+            }
+        }
+    }
+
+    /**
+     * This method checks that the legal moves are all the orders of the legal pick sets in the columns with
+     * enough free spaces, and that GameModel.checkValidMove agrees with them
+     */
+    @Test
+    void legalMoves() {
+        GameBoard gb = GameBoard.createGameBoard(4, List.of(0, 1), new SplittableRandom(5));
+        BitSet pickable = gb.getPickableCells();
+        Shelf shelf = new Shelf();
+        for (int i = 0; i < ModelConstants.ROWS_NUMBER - 2; i++) shelf.add(Tile.of(TileColor.BLUE, 1), 0);
+
+        int[] pickSets = MoveGenerator.legalPickSets(pickable, shelf.getMaxInsertableTiles());
+        Set<Integer> moves = toSet(MoveGenerator.legalMoves(pickable, shelf));
+
+        int expected = 0;
+        int[] orders = {0, 1, 2, 6};
+        for (int pickSet : pickSets) {
+            int size = MoveGenerator.size(pickSet);
+            for (int col = 0; col < ModelConstants.COLS_NUMBER; col++) {
+                if (shelf.getFreeSpaces(col) >= size) {
+                    expected += orders[size];
+                    assertTrue(moves.contains(MoveGenerator.withColumn(pickSet, col)));
+                }
+                else assertFalse(moves.contains(MoveGenerator.withColumn(pickSet, col)));
+            }
+        }
+        assertEquals(expected, moves.size());
+
+        for (int move : moves) {
+            assertEquals(MoveGenerator.size(move), new HashSet<>(MoveGenerator.positions(move)).size());
+            assertTrue(MoveGenerator.isLegalPick(pickSets, move));
+        }
+    }
+
+    /**
+     * This method checks that GameModel.checkValidMove accepts exactly the tiles of the legal pick sets, in any order,
+     * trying every list of 1 to 3 cells of the board during a match
+     */
+    @Test
+    void checkValidMove() {
+        for (int randomMoves : new int[]{0, 20, 45}) {
+            GameModel model = Perft.startPosition(3, 9, randomMoves);
+            int[] pickSets = model.getLegalPickSets();
+
+            for (int a = 0; a < Position.BOARD_CELLS; a++) {
+                Position pa = Position.ofBoardIndex(a);
+                assertEquals(MoveGenerator.isLegalPick(pickSets, MoveGenerator.encode(List.of(pa), 0)), model.checkValidMove(List.of(pa)));
+                for (int b = 0; b < Position.BOARD_CELLS; b++) {
+                    Position pb = Position.ofBoardIndex(b);
+                    assertEquals(MoveGenerator.isLegalPick(pickSets, MoveGenerator.encode(List.of(pa, pb), 0)), model.checkValidMove(List.of(pa, pb)));
+                    for (int c = 0; c < Position.BOARD_CELLS; c++) {
+                        List<Position> positions = List.of(pa, pb, Position.ofBoardIndex(c));
+                        assertEquals(MoveGenerator.isLegalPick(pickSets, MoveGenerator.encode(positions, 0)), model.checkValidMove(positions));
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * This method finds the legal pick sets trying every set of 1 to maxTiles pickable tiles
+     * @param pickable the pickable tiles
+     * @param maxTiles the maximum number of tiles
+     * @return the pick sets of the legal sets
+     */
+    private static Set<Integer> bruteForcePickSets(BitSet pickable, int maxTiles) {
+        int[] cells = pickable.stream().toArray();
+        Set<Integer> result = new HashSet<>();
+
+        for (int a = 0; a < cells.length; a++) {
+            addIfLegal(result, List.of(cells[a]), maxTiles);
+            for (int b = a + 1; b < cells.length; b++) {
+                addIfLegal(result, List.of(cells[a], cells[b]), maxTiles);
+                for (int c = b + 1; c < cells.length; c++) addIfLegal(result, List.of(cells[a], cells[b], cells[c]), maxTiles);
+            }
+        }
+        return result;
+    }
+
+    /**
+     * This method adds the pick set of the given cells if they are on consecutive cells of a row or a column
+     * @param result the set of pick sets
+     * @param cells the board indexes of the cells
+     * @param maxTiles the maximum number of tiles
+     */
+    private static void addIfLegal(Set<Integer> result, List<Integer> cells, int maxTiles) {
+        if (cells.size() > maxTiles) return;
+
+        List<Position> positions = cells.stream().map(Position::ofBoardIndex).toList();
+        Set<Integer> xs = new TreeSet<>(), ys = new TreeSet<>();
+        for (Position p : positions) {
+            xs.add(p.x());
+            ys.add(p.y());
+        }
+        boolean sameColumn = xs.size() == 1 && ((TreeSet<Integer>) ys).last() - ((TreeSet<Integer>) ys).first() == cells.size() - 1;
+        boolean sameRow = ys.size() == 1 && ((TreeSet<Integer>) xs).last() - ((TreeSet<Integer>) xs).first() == cells.size() - 1;
+        if (sameColumn || sameRow) result.add(MoveGenerator.pickSet(MoveGenerator.encode(positions, 0)));
+    }
+
+    /**
+     * This method converts an array to a set, checking that it has no duplicates
+     * @param values the array
+     * @return the set of the values
+     */
+    private static Set<Integer> toSet(int[] values) {
+        Set<Integer> set = new HashSet<>();
+        for (int value : values) assertTrue(set.add(value));
+        return set;
+    }
+}
@@ -0,0 +1,106 @@
+package it.polimi.ingsw.model;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * This class counts the legal move sequences of a match up to a given depth, like "perft" does for chess.
+ * Every legal move of the current player (every legal pick set, in every order of the tiles and in every column with
+ * enough space) is played on a simulated copy of the match with GameModel.makeMove and GameModel.nextTurn, so the
+ * count also goes through the end of the turns, the refills of the board and the end of the match.
+ * The moves of the last ply are only counted, after checking each of them with checkValidMove and
+ * checkValidColumn: a different count means that the move generation or the rules have changed.
+ * The same counts are done by perftMakeUnmake playing and taking back the moves on a single match
+ */
+public final class Perft {
+
+    /**
+     * Constructor (never called, the class only has static methods)
+     */
+    private Perft(){}
+
+    /**
+     * This method creates a simulated match and plays some random legal moves on it, so that the counts can start
+     * from the opening or from the middle of a match
+     * @param numPlayers number of players of the match
+     * @param seed seed of the match (the random moves depend on it too)
+     * @param randomMoves number of random moves to play before the count
+     * @return the simulated match
+     */
+    public static GameModel startPosition(int numPlayers, long seed, int randomMoves) {
+        List<String> nicknames = new ArrayList<>(numPlayers);
+        for (int i = 0; i < numPlayers; i++) nicknames.add("player" + i);
+
+        GameModel model = GameModel.simulation(numPlayers, nicknames, seed);
+        Random r = new Random(seed);
+        for (int i = 0; i < randomMoves && !model.isGameOver(); i++) {
+            int[] moves = model.getLegalMoves();
+            play(model, moves[r.nextInt(moves.length)]);
+        }
+        return model;
+    }
+
+    /**
+     * This method counts the legal move sequences of the given length from the given match, which is not changed
+     * @param model the match
+     * @param depth the number of moves of the sequences
+     * @return the number of sequences
+     * @throws IllegalStateException if a generated move is refused by checkValidMove or checkValidColumn
+     */
+    public static long perft(GameModel model, int depth) {
+        if (depth == 0) return 1;
+        if (model.isGameOver()) return 0;
+
+        int[] moves = model.getLegalMoves();
+        if (depth == 1) {
+            for (int move : moves) {
+                List<Position> positions = MoveGenerator.positions(move);
+                if (!model.checkValidMove(positions) || !model.checkValidColumn(MoveGenerator.column(move), positions.size()))
+                    throw new IllegalStateException("Generated move refused: " + positions + " in column " + MoveGenerator.column(move));
+            }
+            return moves.length;
+        }
+
+        long nodes = 0;
+        for (int move : moves) {
+            GameModel next = model.simulationCopy();
+            play(next, move);
+            nodes += perft(next, depth - 1);
+        }
+        return nodes;
+    }
+
+    /**
+     * This method counts the legal move sequences like perft, playing the moves on the match itself with
+     * GameModel.apply and taking them back with GameModel.undo instead of playing them on copies
+     * @param model the match (it is left as it was)
+     * @param depth the number of moves of the sequences
+     * @return the number of sequences
+     */
+    public static long perftMakeUnmake(GameModel model, int depth) {
+        if (depth == 0) return 1;
+        if (model.isGameOver()) return 0;
+
+        int[] moves = model.getLegalMoves();
+        if (depth == 1) return moves.length;
+
+        long nodes = 0;
+        for (int move : moves) {
+            UndoRecord undo = model.apply(move);
+            nodes += perftMakeUnmake(model, depth - 1);
+            model.undo(undo);
+        }
+        return nodes;
+    }
+
+    /**
+     * This method plays a move for the current player and ends the turn
+     * @param model the match
+     * @param move the encoded move (see MoveGenerator)
+     */
+    private static void play(GameModel model, int move) {
+        model.makeMove(MoveGenerator.positions(move), MoveGenerator.column(move));
+        model.nextTurn();
+    }
+}
@@ -0,0 +1,100 @@
+package it.polimi.ingsw.model;
+
+import it.polimi.ingsw.model.persistence.SaveFormat;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Regression test of the move generation and of the rules of the turns, based on the known counts of Perft.
+ * The start positions are simulated matches whose seed is the number of players. If the rules are changed on
+ * purpose the counts can be printed again with the main method
+ */
+class PerftTest {
+
+    /**
+     * This method checks the counts from the opening of the matches
+     */
+    @Test
+    void opening() {
+        assertPerft(2, 0, 160, 29100);
+        assertPerft(3, 0, 220, 56000);
+        assertPerft(4, 0, 180, 36400);
+    }
+
+    /**
+     * This method checks the counts from the middle of the matches
+     */
+    @Test
+    void middleGame() {
+        assertPerft(3, 30, 195, 28330);
+        assertPerft(4, 20, 55, 4070);
+        assertPerft(4, 60, 65, 7094);
+    }
+
+    /**
+     * This method checks the counts at the end of the matches: in the 3 players match every move ends it
+     */
+    @Test
+    void endGame() {
+        assertPerft(2, 30, 22, 310);
+        assertPerft(3, 50, 32, 0);
+        assertPerft(2, 40, 0, 0);
+    }
+
+    /**
+     * This method checks that counting does not change the match
+     */
+    @Test
+    void perftDoesNotChangeTheMatch() {
+        GameModel model = Perft.startPosition(4, 4, 20);
+        GameModel copy = model.simulationCopy();
+
+        Perft.perft(model, 2);
+        assertEquals(copy, model);
+    }
+
+    /**
+     * This method checks that counting with apply and undo gives the same count as the copies and leaves the
+     * match as it was, down to its binary save
+     */
+    @Test
+    void makeUnmakeDoesNotChangeTheMatch() {
+        for (int randomMoves = 50; randomMoves <= 60; randomMoves += 10) {
+            GameModel model = Perft.startPosition(4, 4, randomMoves);
+            byte[] before = model.toBytes(SaveFormat.BINARY);
+
+            assertEquals(Perft.perft(model, 3), Perft.perftMakeUnmake(model, 3));
+            assertArrayEquals(before, model.toBytes(SaveFormat.BINARY));
+            assertArrayEquals(model.simulationCopy().getLegalMoves(), model.getLegalMoves());
+        }
+    }
+
+    /**
+     * This method checks the counts at depth 1 and 2 from the given start position
+     * @param numPlayers number of players (and seed) of the match
+     * @param randomMoves number of random moves played before counting
+     * @param depth1 expected count at depth 1
+     * @param depth2 expected count at depth 2
+     */
+    private static void assertPerft(int numPlayers, int randomMoves, long depth1, long depth2) {
+        GameModel model = Perft.startPosition(numPlayers, numPlayers, randomMoves);
+        assertEquals(depth1, Perft.perft(model, 1));
+        assertEquals(depth2, Perft.perft(model, 2));
+        assertEquals(depth2, Perft.perftMakeUnmake(model, 2));
+    }
+
+    /**
+     * This method prints the counts of the start positions used by the tests
+     * @param args not used
+     */
+    public static void main(String[] args) {
+        for (int numPlayers = 2; numPlayers <= 4; numPlayers++) {
+            for (int randomMoves = 0; randomMoves <= 60; randomMoves += 10) {
+                GameModel model = Perft.startPosition(numPlayers, numPlayers, randomMoves);
+                System.out.println(numPlayers + " players, " + randomMoves + " random moves: "
+                        + Perft.perft(model, 1) + " " + Perft.perft(model, 2));
+            }
+        }
+    }
+}
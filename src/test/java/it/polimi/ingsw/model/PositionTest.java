@@ -2,6 +2,10 @@ package it.polimi.ingsw.model;
 
 import org.junit.jupiter.api.Test;
 
+import java.util.HashSet;
+import java.util.List;
+import java.util.stream.Stream;
+
 import static org.junit.jupiter.api.Assertions.*;
 
 /**
@@ -43,4 +47,32 @@ public class PositionTest {
         Position p2 = new Position(4,5);
         assertNotEquals(p, p2);
     }
-}
\ No newline at end of file
+
+    /**
+     * this method tests that equal positions have the same hash code, so that they can be used as keys
+     */
+    @Test
+    void hashCodeConsistentWithEquals(){
+        assertEquals(new Position(3,4).hashCode(), new Position(3,4).hashCode());
+        assertEquals(1, Stream.of(new Position(3,4), new Position(3,4)).distinct().count());
+        assertTrue(new HashSet<>(List.of(new Position(3,4))).contains(new Position(3,4)));
+    }
+
+    /**
+     * this method tests the canonical instances and the packed indexes of the positions
+     */
+    @Test
+    void canonicalAndPacked(){
+        assertSame(Position.of(2,7), Position.of(2,7));
+        assertEquals(new Position(2,7), Position.of(2,7));
+        assertEquals(2 + 7 * 9, Position.of(2,7).boardIndex());
+        assertEquals(2 + 4 * 5, Position.of(2,4).shelfIndex());
+
+        for (int i = 0; i < Position.BOARD_CELLS; i++) assertEquals(i, Position.ofBoardIndex(i).boardIndex());
+        for (int i = 0; i < 30; i++) assertEquals(i, Position.ofShelfIndex(i).shelfIndex());
+
+        // positions outside the board are not cached
+        assertEquals(new Position(-1,3), Position.of(-1,3));
+        assertNotSame(Position.of(9,0), Position.of(9,0));
+    }
+}
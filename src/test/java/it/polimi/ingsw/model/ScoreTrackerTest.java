@@ -0,0 +1,61 @@
+package it.polimi.ingsw.model;
+
+import it.polimi.ingsw.constants.ModelConstants;
+import it.polimi.ingsw.utilities.JsonWithExposeSingleton;
+import it.polimi.ingsw.utilities.UtilityFunctions;
+import org.junit.jupiter.api.Test;
+
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit test for ScoreTracker
+ */
+class ScoreTrackerTest {
+
+    /**
+     * This method fills random shelves for every personal goal and checks, with the verification mode enabled,
+     * that the incremental points are always the same of the evaluation from scratch
+     */
+    @Test
+    void incrementalPointsMatchSnapshot() {
+        PersonalGoalsConfiguration configuration = JsonWithExposeSingleton.getJsonWithExposeSingleton().fromJson(
+                UtilityFunctions.getReaderFromFileNameRelativePath(ModelConstants.FILE_CONFIG_PERSONALGOAL, GameModel.class), PersonalGoalsConfiguration.class);
+        Random r = new Random(7);
+        TileColor[] colors = TileColor.values();
+
+        for (int goal = 0; goal < ModelConstants.TOTAL_GOALS; goal++) {
+            PlayerState player = new PlayerState("player", configuration.getPersonalGoalAtIndex(goal), goal);
+            player.getScoreTracker().setVerification(true);
+            Shelf shelf = player.getShelf();
+
+            while (!shelf.isFull()) {
+                int col = r.nextInt(ModelConstants.COLS_NUMBER);
+                int tiles = Math.min(1 + r.nextInt(ModelConstants.MAX_NUM_OF_MOVES), shelf.getFreeSpaces(col));
+                for (int i = 0; i < tiles; i++) shelf.add(new Tile(colors[r.nextInt(ModelConstants.TOTAL_COLORS)], 1), col);
+
+                player.evaluatePointsAfterMove();
+                assertEquals(tiles, Integer.bitCount(player.getScoreTracker().getLastChangedCells()));
+                assertEquals(configuration.getPersonalGoalAtIndex(goal).evaluate(shelf) + shelf.evaluateGroupPoints(), player.getPoints());
+            }
+        }
+    }
+
+    /**
+     * This method checks that the tiles already in the shelf when the tracker is created are all considered
+     * as changed by the first update
+     */
+    @Test
+    void firstUpdateSeesExistingTiles() {
+        PlayerState player = new PlayerState("player", null, -1);
+        player.getShelf().add(new Tile(TileColor.BLUE, 1), 0);
+        player.getShelf().add(new Tile(TileColor.BLUE, 1), 1);
+
+        player.evaluatePointsAfterMove();
+        assertEquals(player.getShelf().getOccupancyMask(), player.getScoreTracker().getLastChangedCells());
+
+        player.evaluatePointsAfterMove();
+        assertEquals(0, player.getScoreTracker().getLastChangedCells());
+    }
+}
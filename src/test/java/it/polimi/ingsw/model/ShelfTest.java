@@ -1,7 +1,11 @@
 package it.polimi.ingsw.model;
 
 import it.polimi.ingsw.constants.ModelConstants;
+import it.polimi.ingsw.utilities.UtilityFunctionsBitboard;
+import it.polimi.ingsw.utilities.UtilityFunctionsModel;
 import org.junit.jupiter.api.BeforeEach;
+import java.util.Random;
+
 import static org.junit.jupiter.api.Assertions.*;
 
 /**
@@ -57,6 +61,65 @@ public class ShelfTest {
         assertEquals(lib.getFreeSpaces(0), 0);
     }
 
+    /**
+     * This method tests the getMaxInsertableTiles method of the library class, also on a shelf loaded through
+     * the copy constructor (which must rebuild the column heights)
+     */
+    @org.junit.jupiter.api.Test
+    void getMaxInsertableTiles() {
+        Tile c = new Tile(TileColor.CYAN, 0);
+        assertEquals(ModelConstants.MAX_NUM_OF_MOVES, lib.getMaxInsertableTiles());
+
+        for (int col = 0; col < ModelConstants.COLS_NUMBER; col++) {
+            for (int i = 0; i < ModelConstants.ROWS_NUMBER - 2; i++) lib.add(c, col);
+        }
+        assertEquals(2, lib.getMaxInsertableTiles());
+
+        lib.add(c, 0);
+        lib.add(c, 0);
+        assertEquals(2, lib.getMaxInsertableTiles());
+        for (int col = 1; col < ModelConstants.COLS_NUMBER; col++) lib.add(c, col);
+        assertEquals(1, lib.getMaxInsertableTiles());
+
+        Shelf copy = new Shelf(lib);
+        assertEquals(1, copy.getMaxInsertableTiles());
+        assertEquals(0, copy.getFreeSpaces(0));
+        assertEquals(1, copy.getFreeSpaces(1));
+
+        for (int col = 1; col < ModelConstants.COLS_NUMBER; col++) lib.add(c, col);
+        assertEquals(0, lib.getMaxInsertableTiles());
+        assertTrue(lib.isFull());
+    }
+
+    /**
+     * This method tests the color masks of the lines and the full lines checks of the library class
+     */
+    @org.junit.jupiter.api.Test
+    void lineColors() {
+        lib.add(new Tile(TileColor.BLUE, 1), 0);
+        lib.add(new Tile(TileColor.GREEN, 1), 0);
+        lib.add(new Tile(TileColor.GREEN, 1), 1);
+
+        int bottom = ModelConstants.ROWS_NUMBER - 1;
+        assertEquals((1 << TileColor.BLUE.ordinal()) | (1 << TileColor.GREEN.ordinal()), lib.getColumnColors(0));
+        assertEquals(1 << TileColor.GREEN.ordinal(), lib.getColumnColors(1));
+        assertEquals(0, lib.getColumnColors(2));
+        assertEquals((1 << TileColor.BLUE.ordinal()) | (1 << TileColor.GREEN.ordinal()), lib.getRowColors(bottom));
+        assertEquals(1 << TileColor.GREEN.ordinal(), lib.getRowColors(bottom - 1));
+        assertFalse(lib.isRowFull(bottom));
+
+        for (int col = 2; col < ModelConstants.COLS_NUMBER; col++) lib.add(new Tile(TileColor.BLUE, 1), col);
+        assertTrue(lib.isRowFull(bottom));
+        assertFalse(lib.isColumnFull(0));
+        for (int i = 2; i < ModelConstants.ROWS_NUMBER; i++) lib.add(new Tile(TileColor.WHITE, 1), 0);
+        assertTrue(lib.isColumnFull(0));
+
+        // the copy must rebuild the same masks
+        Shelf copy = new Shelf(lib);
+        for (int row = 0; row < ModelConstants.ROWS_NUMBER; row++) assertEquals(lib.getRowColors(row), copy.getRowColors(row));
+        for (int col = 0; col < ModelConstants.COLS_NUMBER; col++) assertEquals(lib.getColumnColors(col), copy.getColumnColors(col));
+    }
+
     /**
      * This method tests the evaluateGroupPoints method of the library class
      */
@@ -92,4 +155,71 @@ public class ShelfTest {
 
 
     }
-}
\ No newline at end of file
+
+    /**
+     * This method tests that the color and occupancy masks follow the tiles added to the shelf
+     */
+    @org.junit.jupiter.api.Test
+    void colorMasks() {
+        lib.add(new Tile(TileColor.GREEN, 0), 0);
+        lib.add(new Tile(TileColor.BLUE, 0), 0);
+        lib.add(new Tile(TileColor.GREEN, 0), 4);
+
+        int bottomRow = ModelConstants.ROWS_NUMBER - 1;
+        int greenMask = UtilityFunctionsBitboard.cellMask(bottomRow, 0) | UtilityFunctionsBitboard.cellMask(bottomRow, 4);
+        int blueMask = UtilityFunctionsBitboard.cellMask(bottomRow - 1, 0);
+
+        assertEquals(greenMask, lib.getColorMask(TileColor.GREEN));
+        assertEquals(blueMask, lib.getColorMask(TileColor.BLUE));
+        assertEquals(0, lib.getColorMask(TileColor.WHITE));
+        assertEquals(0, lib.getColorMask(TileColor.EMPTY));
+        assertEquals(greenMask | blueMask, lib.getOccupancyMask());
+
+        // the copy must rebuild the same masks from the copied tiles
+        Shelf copy = new Shelf(lib);
+        assertEquals(greenMask, copy.getColorMask(TileColor.GREEN));
+        assertEquals(greenMask | blueMask, copy.getOccupancyMask());
+    }
+
+    /**
+     * This method tests that the group points kept by the union-find after each add are the same
+     * computed by the BFS of UtilityFunctionsModel on random shelves
+     */
+    @org.junit.jupiter.api.Test
+    void groupPointsMatchBfs() {
+        Random r = new Random(42);
+        TileColor[] colors = TileColor.values();
+
+        for (int game = 0; game < 200; game++) {
+            Shelf shelf = new Shelf();
+            // few colors make bigger groups more likely
+            int usedColors = 2 + r.nextInt(ModelConstants.TOTAL_COLORS - 1);
+
+            while (!shelf.isFull()) {
+                int col = r.nextInt(ModelConstants.COLS_NUMBER);
+                if (shelf.getFreeSpaces(col) == 0) continue;
+
+                shelf.add(new Tile(colors[r.nextInt(usedColors)], 1), col);
+                assertEquals(bfsGroupPoints(shelf), shelf.evaluateGroupPoints());
+            }
+        }
+    }
+
+    /**
+     * This method computes the group points of the shelf with the BFS of UtilityFunctionsModel
+     * @param shelf the shelf to evaluate
+     * @return the group points
+     */
+    private int bfsGroupPoints(Shelf shelf) {
+        boolean[][] visited = new boolean[ModelConstants.ROWS_NUMBER][ModelConstants.COLS_NUMBER];
+        int points = 0;
+
+        for (int i = 0; i < ModelConstants.ROWS_NUMBER; i++) {
+            for (int j = 0; j < ModelConstants.COLS_NUMBER; j++) {
+                points += UtilityFunctionsBitboard.groupPoints(UtilityFunctionsModel.findGroupSize(shelf, new Position(j, i), visited));
+            }
+        }
+
+        return points;
+    }
+}
@@ -0,0 +1,108 @@
+package it.polimi.ingsw.model;
+
+import it.polimi.ingsw.constants.BoardConstants;
+import it.polimi.ingsw.constants.ModelConstants;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.util.List;
+import java.util.SplittableRandom;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit test for the snapshots of the game board and of the shelves
+ */
+class TileGridSnapshotsTest {
+
+    /**
+     * This method checks that a snapshot of the board doesn't change when the board changes, and that the next
+     * snapshot copies only the changed rows
+     */
+    @Test
+    void boardSnapshotsShareUnchangedRows() {
+        GameBoard gb = GameBoard.createGameBoard(4, List.of(0, 1), new SplittableRandom(1));
+
+        Tile[][] first = gb.getGameBoardSnapshot();
+        assertSame(first, gb.getGameBoardSnapshot());
+        assertArrayEquals(gb.getGameBoardCopy(), first);
+
+        Tile removed = gb.removeTile(Position.of(4, 0));
+        gb.removeTile(Position.of(4, 1));
+        Tile[][] second = gb.getGameBoardSnapshot();
+
+        assertNotSame(first, second);
+        assertSame(removed, first[0][4]);
+        assertTrue(second[0][4].isEmpty());
+        assertArrayEquals(gb.getGameBoardCopy(), second);
+        for (int row = 0; row < BoardConstants.BOARD_DIMENSION; row++) {
+            if (row <= 1) assertNotSame(first[row], second[row]);
+            else assertSame(first[row], second[row]);
+        }
+    }
+
+    /**
+     * This method checks that the snapshots of a shelf follow the inserted tiles, copying only their rows
+     */
+    @Test
+    void shelfSnapshotsShareUnchangedRows() {
+        Shelf shelf = new Shelf();
+        Tile[][] empty = shelf.getSnapshot();
+
+        shelf.add(Tile.of(TileColor.BLUE, 1), 2);
+        shelf.add(Tile.of(TileColor.GREEN, 1), 2);
+        Tile[][] snapshot = shelf.getSnapshot();
+
+        assertTrue(empty[ModelConstants.ROWS_NUMBER - 1][2].isEmpty());
+        assertArrayEquals(shelf.getCopy(), snapshot);
+        for (int row = 0; row < ModelConstants.ROWS_NUMBER; row++) {
+            if (row >= ModelConstants.ROWS_NUMBER - 2) assertNotSame(empty[row], snapshot[row]);
+            else assertSame(empty[row], snapshot[row]);
+        }
+    }
+
+    /**
+     * This method checks that a shelf with snapshots can be serialized, and that the copy publishes its own snapshots
+     * @throws IOException if the shelf can't be serialized
+     * @throws ClassNotFoundException if the shelf can't be deserialized
+     */
+    @Test
+    void shelfWithSnapshotsSerializable() throws IOException, ClassNotFoundException {
+        Shelf shelf = new Shelf();
+        shelf.add(Tile.of(TileColor.BLUE, 1), 0);
+        shelf.getSnapshot();
+
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (ObjectOutputStream out = new ObjectOutputStream(bytes)) {
+            out.writeObject(shelf);
+        }
+        Shelf copy;
+        try (ObjectInputStream in = new ObjectInputStream(new ByteArrayInputStream(bytes.toByteArray()))) {
+            copy = (Shelf) in.readObject();
+        }
+        assertArrayEquals(shelf.getCopy(), copy.getSnapshot());
+    }
+
+    /**
+     * This method checks that the version changes only when a snapshot with some change is published
+     */
+    @Test
+    void version() {
+        TileGridSnapshots snapshots = new TileGridSnapshots();
+        Tile[][] grid = {{Tile.EMPTY, Tile.EMPTY}, {Tile.EMPTY, Tile.EMPTY}};
+
+        snapshots.snapshot(grid);
+        assertEquals(1, snapshots.getVersion());
+        snapshots.snapshot(grid);
+        assertEquals(1, snapshots.getVersion());
+
+        grid[1][0] = Tile.of(TileColor.CYAN, 2);
+        snapshots.rowChanged(1);
+        assertEquals(TileColor.CYAN, snapshots.snapshot(grid)[1][0].getColor());
+        assertEquals(2, snapshots.getVersion());
+    }
+}
@@ -36,8 +36,8 @@ public class TileTest {
     void isEmpty(){
         Tile c = new Tile(TileColor.EMPTY, 2);
         assertTrue(c.isEmpty());
-        c.setInvalid();
-        assertFalse(c.isEmpty());
+        assertTrue(Tile.EMPTY.isEmpty());
+        assertFalse(Tile.INVALID.isEmpty());
     }
 
     /**
@@ -48,26 +48,21 @@ public class TileTest {
     void isInvalid(){
         Tile c = new Tile(TileColor.INVALID, 2);
         assertTrue(c.isInvalid());
-        c.setEmpty();
-        assertFalse(c.isInvalid());
-    }
-
-
-    @Test
-    void setEmpty(){
-        Tile c = new Tile(TileColor.INVALID, 2);
-        c.setEmpty();
-        assertTrue(c.isEmpty());
+        assertTrue(Tile.INVALID.isInvalid());
+        assertFalse(Tile.EMPTY.isInvalid());
     }
 
     /**
-     * this method tests setInvalid method of Tile class
+     * this method tests that of returns the same canonical instance for the same color and sprite
      */
     @Test
-    void setInvalid(){
-        Tile c = new Tile(TileColor.INVALID, 2);
-        c.setInvalid();
-        assertTrue(c.isInvalid());
+    void canonicalInstances(){
+        assertSame(Tile.of(TileColor.GREEN, 2), Tile.of(TileColor.GREEN, 2));
+        assertSame(Tile.of(TileColor.GREEN, 2), Tile.of(new Tile(TileColor.GREEN, 2)));
+        assertNotSame(Tile.of(TileColor.GREEN, 2), Tile.of(TileColor.GREEN, 3));
+        assertEquals(3, Tile.of(TileColor.GREEN, 3).getSprite());
+        assertSame(Tile.EMPTY, Tile.of(TileColor.EMPTY, 3));
+        assertSame(Tile.INVALID, Tile.of(TileColor.INVALID, 0));
     }
 
     /**
@@ -80,9 +75,9 @@ public class TileTest {
         assertNotEquals(c, s);
         Tile c1 = new Tile(TileColor.INVALID, 2);
         assertEquals(c, c1);
-        c1.setEmpty();
-        assertNotEquals(c, c1);
+        assertEquals(c.hashCode(), c1.hashCode());
+        assertNotEquals(c, Tile.EMPTY);
     }
 
 
-}
\ No newline at end of file
+}
@@ -0,0 +1,152 @@
+package it.polimi.ingsw.model;
+
+import it.polimi.ingsw.constants.ModelConstants;
+import it.polimi.ingsw.model.persistence.SaveFormat;
+import com.sun.management.ThreadMXBean;
+import org.junit.jupiter.api.Test;
+
+import java.lang.management.ManagementFactory;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.SplittableRandom;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
+
+/**
+ * Unit test for GameModel.apply and GameModel.undo
+ */
+class UndoRecordTest {
+
+    /**
+     * This method plays complete matches with apply, checking every move against makeMove and nextTurn played on a
+     * copy and checking that undo brings back exactly the state before the move
+     */
+    @Test
+    void applyAndUndoEveryMove() {
+        for (int numPlayers = 2; numPlayers <= 4; numPlayers++) {
+            for (long seed = 0; seed < 4; seed++) {
+                GameModel model = Perft.startPosition(numPlayers, seed, 0);
+                SplittableRandom random = new SplittableRandom(seed);
+
+                while (!model.isGameOver()) {
+                    byte[] before = model.toBytes(SaveFormat.BINARY);
+                    int[] legalMoves = model.getLegalMoves();
+                    int move = legalMoves[random.nextInt(legalMoves.length)];
+
+                    GameModel expected = model.simulationCopy();
+                    expected.makeMove(MoveGenerator.positions(move), MoveGenerator.column(move));
+                    expected.nextTurn();
+
+                    UndoRecord undo = model.apply(move);
+                    assertEquals(move, undo.getMove());
+                    assertArrayEquals(expected.toBytes(SaveFormat.BINARY), model.toBytes(SaveFormat.BINARY));
+                    assertEquals(expected, model);
+                    assertEquals(expected.isGameOver(), model.isGameOver());
+                    assertEquals(expected.getBoardRefills(), model.getBoardRefills());
+                    if (model.isGameOver())
+                        assertEquals(expected.getLeaderBoard().get(0).getNickname(), model.getLeaderBoard().get(0).getNickname());
+                    else assertArrayEquals(expected.getLegalMoves(), model.getLegalMoves());
+
+                    model.undo(undo);
+                    assertArrayEquals(before, model.toBytes(SaveFormat.BINARY));
+                    assertArrayEquals(legalMoves, model.getLegalMoves());
+                    assertFalse(model.isGameOver());
+                    assertNull(model.getLeaderBoard());
+
+                    model.apply(move);
+                }
+            }
+        }
+    }
+
+    /**
+     * This method plays a whole match with apply and takes back all its moves, checking the state after each undo
+     * against the state saved before the move
+     */
+    @Test
+    void undoWholeMatch() {
+        GameModel model = Perft.startPosition(4, 11, 0);
+        GameModel start = model.simulationCopy();
+        SplittableRandom random = new SplittableRandom(11);
+        Deque<UndoRecord> records = new ArrayDeque<>();
+        Deque<byte[]> states = new ArrayDeque<>();
+
+        while (!model.isGameOver()) {
+            int[] legalMoves = model.getLegalMoves();
+            states.push(model.toBytes(SaveFormat.BINARY));
+            records.push(model.apply(legalMoves[random.nextInt(legalMoves.length)]));
+        }
+        assertTrue(model.getBoardRefills() > 0);
+
+        while (!records.isEmpty()) {
+            model.undo(records.pop());
+            assertArrayEquals(states.pop(), model.toBytes(SaveFormat.BINARY));
+        }
+        assertEquals(start, model);
+        assertEquals(start.getMovesPlayed(), model.getMovesPlayed());
+        assertArrayEquals(start.getLegalMoves(), model.getLegalMoves());
+    }
+
+    /**
+     * This method checks that once the records of all the depths have been created applying and undoing a move
+     * allocates nothing, except for the moves refilling the board (which create the random generator of the refill)
+     */
+    @Test
+    void applyAndUndoDontAllocate() {
+        ThreadMXBean threads = (ThreadMXBean) ManagementFactory.getThreadMXBean();
+        assumeTrue(threads.isThreadAllocatedMemorySupported() && threads.isThreadAllocatedMemoryEnabled());
+
+        int checked = 0, played = 0;
+        for (int numPlayers = 2; numPlayers <= 4; numPlayers++) {
+            for (long seed = 0; seed < 4; seed++) {
+                GameModel model = Perft.startPosition(numPlayers, seed, 0);
+                SplittableRandom random = new SplittableRandom(seed);
+
+                // a whole match (a move fills at least a cell of a shelf) is played and taken back, so that the
+                // records of all its depths exist
+                int[] moves = new int[ModelConstants.ROWS_NUMBER * ModelConstants.COLS_NUMBER * numPlayers];
+                Deque<UndoRecord> records = new ArrayDeque<>();
+                int length = 0;
+                while (!model.isGameOver()) {
+                    int[] legalMoves = model.getLegalMoves();
+                    moves[length] = legalMoves[random.nextInt(legalMoves.length)];
+                    records.push(model.apply(moves[length++]));
+                }
+                while (!records.isEmpty()) model.undo(records.pop());
+
+                for (int i = 0; i < length; i++) {
+                    int refills = model.getBoardRefills();
+                    long before = threads.getCurrentThreadAllocatedBytes();
+                    UndoRecord undo = model.apply(moves[i]);
+                    boolean refilled = model.getBoardRefills() != refills;
+                    model.undo(undo);
+                    long allocated = threads.getCurrentThreadAllocatedBytes() - before;
+
+                    if (!refilled) {
+                        assertEquals(0, allocated, "move "+i+" of the match "+seed+" of "+numPlayers+" players");
+                        checked++;
+                    }
+                    model.apply(moves[i]);
+                }
+                played += length;
+            }
+        }
+        assertTrue(checked > played / 2);
+    }
+
+    /**
+     * This method checks that only the last move applied can be undone
+     */
+    @Test
+    void undoInReverseOrder() {
+        GameModel model = Perft.startPosition(2, 5, 0);
+        UndoRecord first = model.apply(model.getLegalMoves()[0]);
+        UndoRecord second = model.apply(model.getLegalMoves()[0]);
+
+        assertThrows(IllegalStateException.class, () -> model.undo(first));
+        model.undo(second);
+        model.undo(first);
+        assertThrows(IllegalStateException.class, () -> model.undo(first));
+    }
+}
@@ -0,0 +1,94 @@
+package it.polimi.ingsw.model.commonGoals;
+
+import it.polimi.ingsw.constants.ModelConstants;
+import it.polimi.ingsw.model.Shelf;
+import it.polimi.ingsw.model.Tile;
+import it.polimi.ingsw.model.TileColor;
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit test for the evaluateAfterInsert method of all the common goals
+ */
+class CommonGoalTest {
+
+    /**
+     * This method plays random moves (one to three tiles in a single column) on random shelves and checks, for every
+     * common goal not yet satisfied before the move, that evaluateAfterInsert gives the same result of evaluate
+     */
+    @Test
+    void evaluateAfterInsertMatchesEvaluate() {
+        Random r = new Random(13);
+        TileColor[] colors = TileColor.values();
+        int[] reached = new int[ModelConstants.TOTAL_GOALS];
+
+        for (int game = 0; game < 200; game++) {
+            Shelf shelf = new Shelf();
+            // few colors make the goals reached more often
+            int usedColors = 2 + r.nextInt(ModelConstants.TOTAL_COLORS - 1);
+            boolean[] satisfied = new boolean[ModelConstants.TOTAL_GOALS];
+
+            while (!shelf.isFull()) {
+                int col;
+                do {
+                    col = r.nextInt(ModelConstants.COLS_NUMBER);
+                } while (shelf.getFreeSpaces(col) == 0);
+
+                int tiles = Math.min(1 + r.nextInt(ModelConstants.MAX_NUM_OF_MOVES), shelf.getFreeSpaces(col));
+                int toRow = shelf.getFreeSpaces(col) - 1;
+                for (int i = 0; i < tiles; i++) shelf.add(new Tile(colors[r.nextInt(usedColors)], 1), col);
+                int fromRow = toRow - tiles + 1;
+
+                for (int goal = 0; goal < ModelConstants.TOTAL_GOALS; goal++) {
+                    CommonGoal commonGoal = CommonGoalFactory.createCommonGoal(goal);
+                    boolean expected = commonGoal.evaluate(shelf);
+                    if (!satisfied[goal]) {
+                        assertEquals(expected, commonGoal.evaluateAfterInsert(shelf, col, fromRow, toRow), "goal " + goal + " in game " + game);
+                        if (expected) reached[goal]++;
+                    }
+                    satisfied[goal] = expected;
+                }
+            }
+        }
+
+        // the rarest goals (all different colors, ladder) are reached seldom by random shelves, so only the total is checked
+        assertTrue(Arrays.stream(reached).sum() > 500);
+    }
+
+    /**
+     * This method builds every ladder with random moves in random columns and checks that evaluateAfterInsert
+     * gives the same result of evaluate until the ladder is completed
+     */
+    @Test
+    void ladderAfterInsert() {
+        Random r = new Random(17);
+        CommonGoal ladder = CommonGoalFactory.createCommonGoal(ModelConstants.TOTAL_GOALS - 1);
+
+        for (int top = ModelConstants.ROWS_NUMBER - 1; top <= ModelConstants.ROWS_NUMBER; top++) {
+            for (boolean fromLeft : new boolean[]{true, false}) {
+                for (int game = 0; game < 50; game++) {
+                    Shelf shelf = new Shelf();
+                    boolean reached = false;
+
+                    while (!reached) {
+                        int col = r.nextInt(ModelConstants.COLS_NUMBER);
+                        int height = top - (fromLeft ? col : ModelConstants.COLS_NUMBER - 1 - col);
+                        int missing = height - (ModelConstants.ROWS_NUMBER - shelf.getFreeSpaces(col));
+                        if (missing == 0) continue;
+
+                        int tiles = Math.min(1 + r.nextInt(ModelConstants.MAX_NUM_OF_MOVES), missing);
+                        int toRow = shelf.getFreeSpaces(col) - 1;
+                        for (int i = 0; i < tiles; i++) shelf.add(new Tile(TileColor.values()[r.nextInt(ModelConstants.TOTAL_COLORS)], 1), col);
+
+                        reached = ladder.evaluate(shelf);
+                        assertEquals(reached, ladder.evaluateAfterInsert(shelf, col, toRow - tiles + 1, toRow));
+                    }
+                }
+            }
+        }
+    }
+}
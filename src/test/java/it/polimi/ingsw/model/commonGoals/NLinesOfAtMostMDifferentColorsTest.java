@@ -2,6 +2,7 @@ package it.polimi.ingsw.model.commonGoals;
 
 import com.google.gson.Gson;
 import it.polimi.ingsw.UtilityTestFunctions;
+import it.polimi.ingsw.model.Position;
 import it.polimi.ingsw.model.Shelf;
 import it.polimi.ingsw.model.Tile;
 import it.polimi.ingsw.model.TileColor;
@@ -9,6 +10,10 @@ import it.polimi.ingsw.constants.ModelConstants;
 import it.polimi.ingsw.utilities.JsonWithExposeSingleton;
 import org.junit.jupiter.api.Test;
 
+import java.util.HashSet;
+import java.util.Random;
+import java.util.Set;
+
 import static org.junit.jupiter.api.Assertions.*;
 
 /**
@@ -185,4 +190,61 @@ class NLinesOfAtMostMDifferentColorsTest {
         shelf.add(new Tile(TileColor.YELLOW, 0), 4);
         assertTrue(nLinesOfAtMostMDifferentColors.evaluate(shelf));
     }
-}
\ No newline at end of file
+
+    /**
+     * This method checks the evaluation based on the color masks of the lines against a count of the colors
+     * done tile by tile, on random shelves
+     */
+    @Test
+    void sameResultsOfTileByTileEvaluation() {
+        Gson jsonLoader= JsonWithExposeSingleton.getJsonWithExposeSingleton();
+        NLinesOfAtMostMDifferentColorsConfiguration configuration = jsonLoader.fromJson(UtilityTestFunctions.getReaderFromFileNameRelativePath("commonGoals5and8and9and10.json", this.getClass()), NLinesOfAtMostMDifferentColorsConfiguration.class);
+        // n, m and isColumn of the goals of the config file
+        int[][] goals = {{3, 3, 1}, {4, 3, 0}, {2, 6, 1}, {2, 5, 0}};
+        Random r = new Random(5);
+        int reached = 0;
+
+        for (int game = 0; game < 300; game++) {
+            Shelf shelf = new Shelf();
+            int usedColors = 1 + r.nextInt(ModelConstants.TOTAL_COLORS);
+
+            while (!shelf.isFull()) {
+                UtilityTestFunctions.addRandomTile(shelf, r, usedColors);
+
+                for (int goal = 0; goal < goals.length; goal++) {
+                    boolean expected = countValidLines(shelf, goals[goal][1], goals[goal][2] == 1) >= goals[goal][0];
+                    assertEquals(expected, configuration.getGoalAt(goal).evaluate(shelf));
+                    if (expected) reached++;
+                }
+            }
+        }
+
+        assertTrue(reached > 1000);
+    }
+
+    /**
+     * This method counts tile by tile the full lines with at most m colors (exactly m if m is greater than 3)
+     * @param shelf the shelf
+     * @param m the number of colors
+     * @param isColumn true to count the columns, false to count the rows
+     * @return the number of valid lines
+     */
+    private int countValidLines(Shelf shelf, int m, boolean isColumn) {
+        int lines = isColumn ? ModelConstants.COLS_NUMBER : ModelConstants.ROWS_NUMBER;
+        int length = isColumn ? ModelConstants.ROWS_NUMBER : ModelConstants.COLS_NUMBER;
+        int result = 0;
+
+        for (int line = 0; line < lines; line++) {
+            Set<TileColor> colors = new HashSet<>();
+            boolean full = true;
+            for (int i = 0; i < length; i++) {
+                Tile tile = shelf.getTile(new Position(isColumn ? line : i, isColumn ? i : line));
+                if (tile.isEmpty()) full = false;
+                colors.add(tile.getColor());
+            }
+            if (full && (m > 3 ? colors.size() == m : colors.size() <= m)) result++;
+        }
+
+        return result;
+    }
+}
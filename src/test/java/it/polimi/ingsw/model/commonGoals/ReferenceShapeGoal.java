@@ -0,0 +1,86 @@
+package it.polimi.ingsw.model.commonGoals;
+
+import com.google.gson.annotations.Expose;
+import it.polimi.ingsw.UtilityTestFunctions;
+import it.polimi.ingsw.constants.ModelConstants;
+import it.polimi.ingsw.model.Position;
+import it.polimi.ingsw.model.Shelf;
+import it.polimi.ingsw.model.TileColor;
+import it.polimi.ingsw.utilities.JsonWithExposeSingleton;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * This class is the original implementation of SingleOccurrenceOfGivenShape, which checks every translated and
+ * mirrored shape tile by tile. It is kept as reference for the tests and the benchmarks of the goal
+ */
+public class ReferenceShapeGoal {
+    @Expose
+    private List<Position> shape;
+    @Expose
+    private int shapeXSize;
+    @Expose
+    private int shapeYSize;
+    @Expose
+    private boolean isSymmetric;
+
+    /**
+     * This class is used to read the goals from the configuration file
+     */
+    private static class Configuration {
+        @Expose
+        private List<ReferenceShapeGoal> goalList;
+    }
+
+    /**
+     * This method loads the goals from the same configuration file of SingleOccurrenceOfGivenShapeConfiguration
+     * @return the reference goals, in the same order of the file
+     */
+    public static List<ReferenceShapeGoal> load() {
+        return JsonWithExposeSingleton.getJsonWithExposeSingleton().fromJson(
+                UtilityTestFunctions.getReaderFromFileNameRelativePath("commonGoals3and7and11.json", ReferenceShapeGoal.class), Configuration.class).goalList;
+    }
+
+    /**
+     * This method checks every translation (and mirror) of the shape, tile by tile
+     * @param shelf the shelf
+     * @return true if the shape is found
+     */
+    public boolean evaluate(Shelf shelf) {
+        List<Position> shiftingShape;
+        List<Position> shiftingShapeSymmetric;
+
+        for (int i = 0; i <= ModelConstants.ROWS_NUMBER - shapeYSize; i++) {
+            for (int j = 0; j <= ModelConstants.COLS_NUMBER - shapeXSize; j++) {
+                shiftingShape = new ArrayList<>();
+                shiftingShapeSymmetric = new ArrayList<>();
+
+                for (Position position : shape) {
+                    shiftingShape.add(new Position(position.x() + j, position.y() + i));
+                    if (!isSymmetric) shiftingShapeSymmetric.add(new Position(ModelConstants.COLS_NUMBER - 1 - position.x() - j, position.y() + i));
+                }
+
+                if (sameColor(shiftingShape, shelf) || sameColor(shiftingShapeSymmetric, shelf)) return true;
+            }
+        }
+
+        return false;
+    }
+
+    /**
+     * This method checks if all the given positions contain tiles of the same color
+     * @param shape the positions
+     * @param shelf the shelf
+     * @return true if the tiles are not empty and of the same color
+     */
+    private boolean sameColor(List<Position> shape, Shelf shelf) {
+        if (shape.isEmpty() || shelf.getTile(shape.get(0)).isEmpty()) return false;
+        TileColor color = shelf.getTile(shape.get(0)).getColor();
+
+        for (Position position : shape) {
+            if (!shelf.getTile(position).getColor().equals(color)) return false;
+        }
+        return true;
+    }
+}
@@ -0,0 +1,63 @@
+package it.polimi.ingsw.model.commonGoals;
+
+import it.polimi.ingsw.constants.ModelConstants;
+import it.polimi.ingsw.model.Position;
+import it.polimi.ingsw.model.Shelf;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static it.polimi.ingsw.utilities.UtilityFunctionsModel.findGroupContainingGivenPosition;
+
+/**
+ * This class is the original implementation of TwoSquares, which looks for the groups with a BFS and for the squares
+ * in the lists of positions of the groups. It is kept as reference for the tests and the benchmarks of the goal
+ */
+public class ReferenceTwoSquares {
+    /**
+     * This method evaluate if the given shelf satisfies the goal
+     *
+     * @param x the shelf
+     * @return true if the goal has been satisfied
+     */
+    public boolean evaluate(Shelf x) {
+        // cards already part of a group found
+        boolean[][] visited = new boolean[ModelConstants.ROWS_NUMBER][ModelConstants.COLS_NUMBER];
+
+        // counter for group of four tiles
+        int groupNum = 0;
+
+        List<Position> group;
+
+        // foreach tile in shelf look if its part of a group and return the group dimension
+        for (int i = 0; i < ModelConstants.ROWS_NUMBER - 1; i++) {
+            for (int j = 0; j < ModelConstants.COLS_NUMBER - 1; j++) {
+                group = findGroupContainingGivenPosition(x, new Position(j, i), visited);
+
+                groupNum += group.size() >= 4 ? (containSquare(group) ? 1 : 0) : 0;
+            }
+        }
+
+        return groupNum >= 2;
+    }
+
+    /**
+     * This method check if a larger group contains a square
+     *
+     * @param group group to analyze
+     * @return  true if a square is contained, false elsewhere
+     */
+    private boolean containSquare(List<Position> group) {
+        List<Position> square;
+        for (Position position : group) {
+            square = new ArrayList<>();
+            square.add(new Position(position.x() + 1, position.y()));
+            square.add(new Position(position.x(), position.y() + 1));
+            square.add(new Position(position.x() + 1, position.y() + 1));
+
+            if (group.containsAll(square)) return true;
+        }
+
+        return false;
+    }
+}
@@ -9,6 +9,9 @@ import it.polimi.ingsw.model.TileColor;
 import it.polimi.ingsw.utilities.JsonWithExposeSingleton;
 import org.junit.jupiter.api.Test;
 
+import java.util.List;
+import java.util.Random;
+
 import static org.junit.jupiter.api.Assertions.*;
 
 /**
@@ -173,4 +176,35 @@ class SingleOccurrenceOfGivenShapeTest {
 
         assertTrue(singleOccurrenceOfGivenShape.evaluate(shelf));
     }
-}
\ No newline at end of file
+
+    /**
+     * This method checks that the evaluation with the placement masks gives the same result of the original
+     * algorithm (which checks every translated and mirrored shape tile by tile) on random shelves
+     */
+    @Test
+    void sameResultsOfTileByTileEvaluation() {
+        Gson jsonLoader = JsonWithExposeSingleton.getJsonWithExposeSingleton();
+        SingleOccurrenceOfGivenShapeConfiguration goals = jsonLoader.fromJson(UtilityTestFunctions.getReaderFromFileNameRelativePath("commonGoals3and7and11.json", this.getClass()), SingleOccurrenceOfGivenShapeConfiguration.class);
+        List<ReferenceShapeGoal> referenceShapes = ReferenceShapeGoal.load();
+        Random r = new Random(3);
+        int reached = 0;
+
+        for (int game = 0; game < 300; game++) {
+            Shelf shelf = new Shelf();
+            int usedColors = 1 + r.nextInt(3);
+
+            while (!shelf.isFull()) {
+                UtilityTestFunctions.addRandomTile(shelf, r, usedColors);
+
+                for (int goal = 0; goal < referenceShapes.size(); goal++) {
+                    boolean expected = referenceShapes.get(goal).evaluate(shelf);
+                    assertEquals(expected, goals.getGoalAt(goal).evaluate(shelf));
+                    if (expected) reached++;
+                }
+            }
+        }
+
+        // the random shelves must reach the goals often enough for the comparison to be meaningful
+        assertTrue(reached > 1000);
+    }
+}
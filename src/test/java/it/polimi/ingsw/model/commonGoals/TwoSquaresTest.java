@@ -1,10 +1,13 @@
 package it.polimi.ingsw.model.commonGoals;
 
+import it.polimi.ingsw.UtilityTestFunctions;
 import it.polimi.ingsw.model.Tile;
 import it.polimi.ingsw.model.TileColor;
 import it.polimi.ingsw.model.Shelf;
 import org.junit.jupiter.api.Test;
 
+import java.util.Random;
+
 import static org.junit.jupiter.api.Assertions.*;
 
 /**
@@ -51,4 +54,90 @@ class TwoSquaresTest {
         lib.add(cGreen, 3);
         assertTrue(cg4.evaluate(lib));
     }
-}
\ No newline at end of file
+
+    /**
+     * This method checks the evaluation with the bitboards against the original evaluation with the BFS on random shelves
+     */
+    @Test
+    void sameResultsOfBfsEvaluationOnRandomShelves() {
+        ReferenceTwoSquares reference = new ReferenceTwoSquares();
+        Random r = new Random(11);
+        int reached = 0;
+
+        for (int game = 0; game < 500; game++) {
+            Shelf shelf = new Shelf();
+            int usedColors = 1 + r.nextInt(4);
+
+            while (!shelf.isFull()) {
+                UtilityTestFunctions.addRandomTile(shelf, r, usedColors);
+
+                boolean expected = reference.evaluate(shelf);
+                assertEquals(expected, cg4.evaluate(shelf));
+                if (expected) reached++;
+            }
+        }
+
+        // the random shelves must reach the goal often enough for the comparison to be meaningful
+        assertTrue(reached > 200);
+    }
+
+    /**
+     * This method checks the evaluation with the bitboards against the original evaluation with the BFS on every
+     * shelf whose bottom left 4x4 block is filled with two colors: it contains all the ways squares can touch,
+     * overlap, share a group or be separated only diagonally
+     */
+    @Test
+    void sameResultsOfBfsEvaluationOnAllTwoColorBlocks() {
+        ReferenceTwoSquares reference = new ReferenceTwoSquares();
+        int block = 4;
+
+        for (int pattern = 0; pattern < 1 << (block * block); pattern++) {
+            Shelf shelf = new Shelf();
+            for (int col = 0; col < block; col++) {
+                for (int row = 0; row < block; row++) {
+                    shelf.add((pattern >> (col * block + row) & 1) == 0 ? new Tile(TileColor.BLUE, 1) : new Tile(TileColor.GREEN, 1), col);
+                }
+            }
+
+            assertEquals(reference.evaluate(shelf), cg4.evaluate(shelf), "pattern " + pattern);
+        }
+    }
+
+    /**
+     * This method checks some shelves where the squares are not separate
+     */
+    @Test
+    void squaresMustBeSeparate() {
+        Tile cBlue = new Tile(TileColor.BLUE, 0);
+        Tile cGreen = new Tile(TileColor.GREEN, 0);
+
+        // a 2x3 block contains two overlapping squares of the same group
+        Shelf shelf = new Shelf();
+        for (int i = 0; i < 3; i++) {
+            shelf.add(cBlue, 0);
+            shelf.add(cBlue, 1);
+        }
+        assertFalse(cg4.evaluate(shelf));
+
+        // two squares of the same color touching only at a corner are two different groups
+        shelf = new Shelf();
+        shelf.add(cBlue, 0);
+        shelf.add(cBlue, 1);
+        shelf.add(cGreen, 2);
+        shelf.add(cGreen, 3);
+        shelf.add(cBlue, 0);
+        shelf.add(cBlue, 1);
+        shelf.add(cGreen, 2);
+        shelf.add(cGreen, 3);
+        shelf.add(cGreen, 0);
+        shelf.add(cGreen, 1);
+        shelf.add(cBlue, 2);
+        shelf.add(cBlue, 3);
+        shelf.add(cGreen, 0);
+        shelf.add(cGreen, 1);
+        shelf.add(cBlue, 2);
+        shelf.add(cBlue, 3);
+        assertTrue(cg4.evaluate(shelf));
+        assertEquals(new ReferenceTwoSquares().evaluate(shelf), cg4.evaluate(shelf));
+    }
+}
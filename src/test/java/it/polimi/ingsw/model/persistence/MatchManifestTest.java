@@ -0,0 +1,161 @@
+package it.polimi.ingsw.model.persistence;
+
+import it.polimi.ingsw.model.GameModel;
+import it.polimi.ingsw.model.Perft;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.nio.file.attribute.FileTime;
+import java.util.Comparator;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit test for the MatchManifest
+ */
+class MatchManifestTest {
+
+    /**
+     * directory of the matches written by the tests
+     */
+    @TempDir
+    Path directory;
+
+    /**
+     * This method closes the manifest, so that the other tests don't record their matches
+     */
+    @AfterEach
+    void closeManifest() {
+        MatchManifest.getMatchManifest().close();
+    }
+
+    /**
+     * This method checks that a missing manifest is rebuilt reading every match, that the next time only the
+     * changed files are read, and that the records describe the matches
+     * @throws IOException if a file can't be read or written
+     */
+    @Test
+    void rebuildAndReuse() throws IOException {
+        MatchManifest manifest = MatchManifest.getMatchManifest();
+        Path running = save("a_b_.json", Perft.startPosition(2, 1, 10));
+        save("c_d_e_.json", Perft.startPosition(3, 2, 1000));
+        save("f_g_.json", Perft.startPosition(2, 3, 0));
+
+        long scanned = manifest.getScannedFiles();
+        manifest.open(directory);
+        assertEquals(3, manifest.getScannedFiles() - scanned);
+        List<ManifestEntry> entries = sortedEntries();
+        assertEquals(3, entries.size());
+        assertEquals(List.of("player0", "player1"), entries.get(0).getPlayers());
+        assertFalse(entries.get(0).isGameOver());
+        assertEquals(10, entries.get(0).getMovesPlayed());
+        assertTrue(entries.get(1).isGameOver());
+        assertEquals(3, entries.get(1).getPlayers().size());
+
+        manifest.close();
+        scanned = manifest.getScannedFiles();
+        manifest.open(directory);
+        assertEquals(0, manifest.getScannedFiles() - scanned);
+        assertEquals(3, manifest.getEntries().size());
+
+        // a file changed while the server was down is read again
+        manifest.close();
+        GameModel changed = Perft.startPosition(2, 1, 12);
+        save("a_b_.json", changed);
+        Files.setLastModifiedTime(running, FileTime.fromMillis(Files.getLastModifiedTime(running).toMillis() + 5000));
+        scanned = manifest.getScannedFiles();
+        manifest.open(directory);
+        assertEquals(1, manifest.getScannedFiles() - scanned);
+        assertEquals(12, sortedEntries().get(0).getMovesPlayed());
+    }
+
+    /**
+     * This method checks that the records appended while the manifest is open are used when it is opened again,
+     * and that a record written partially is ignored
+     * @throws IOException if a file can't be read or written
+     */
+    @Test
+    void appendedRecords() throws IOException {
+        MatchManifest manifest = MatchManifest.getMatchManifest();
+        manifest.open(directory);
+        assertTrue(manifest.getEntries().isEmpty());
+
+        GameModel model = Perft.startPosition(4, 4, 20);
+        Path first = save("a_b_c_d_.json", model);
+        manifest.saved(first, model.getMatchId(), model.getPlayerNicknames(), model.isGameOver(), model.getMovesPlayed());
+        Path second = save("e_f_.json", Perft.startPosition(2, 5, 5));
+        manifest.saved(second, 5, List.of("e", "f"), false, 5);
+        Files.delete(second);
+        manifest.deleted(second);
+        manifest.close();
+
+        Files.write(directory.resolve(MatchManifest.MANIFEST_FILE_NAME), "{\"fileName\":\"e_f".getBytes(), StandardOpenOption.APPEND);
+        long scanned = manifest.getScannedFiles();
+        manifest.open(directory);
+        assertEquals(0, manifest.getScannedFiles() - scanned);
+        List<ManifestEntry> entries = manifest.getEntries();
+        assertEquals(1, entries.size());
+        assertEquals(model.getMatchId(), entries.get(0).getMatchId());
+        assertEquals(model.getPlayerNicknames(), entries.get(0).getPlayers());
+        assertFalse(MatchManifest.isMatchFile(MatchManifest.MANIFEST_FILE_NAME));
+    }
+
+    /**
+     * This method checks that the match of a player is found by the exact nickname (not by a part of the name of
+     * the file), follows the saves and the deletions, and is indexed again when the manifest is opened
+     * @throws IOException if a file can't be read or written
+     */
+    @Test
+    void playerIndex() throws IOException {
+        MatchManifest manifest = MatchManifest.getMatchManifest();
+        manifest.open(directory);
+        Path first = save("ab_c_.json", Perft.startPosition(2, 1, 0));
+        manifest.saved(first, 1, List.of("ab", "c"), false, 0);
+        Path second = save("b_d_.json", Perft.startPosition(2, 2, 0));
+        manifest.saved(second, 2, List.of("b", "d"), false, 0);
+
+        assertEquals("b_d_.json", manifest.getMatchOf("b").getFileName());
+        assertEquals(1, manifest.getMatchOf("ab").getMatchId());
+        assertNull(manifest.getMatchOf("a"));
+
+        Files.delete(second);
+        manifest.deleted(second);
+        assertNull(manifest.getMatchOf("b"));
+        assertNull(manifest.getMatchOf("d"));
+        assertEquals(1, manifest.getMatchOf("c").getMatchId());
+
+        manifest.close();
+        manifest.open(directory);
+        assertEquals(List.of("ab", "c"), manifest.getMatchOf("ab").getPlayers());
+        assertNull(manifest.getMatchOf("b"));
+    }
+
+    /**
+     * This method writes a match in the directory
+     * @param fileName name of the file
+     * @param model the match
+     * @return the file
+     * @throws IOException if the file can't be written
+     */
+    private Path save(String fileName, GameModel model) throws IOException {
+        Path file = directory.resolve(fileName);
+        Files.write(file, model.toBytes(SaveFormat.JSON));
+        return file;
+    }
+
+    /**
+     * This method returns the records of the manifest sorted by the name of the file
+     * @return the records
+     */
+    private List<ManifestEntry> sortedEntries() {
+        return MatchManifest.getMatchManifest().getEntries().stream()
+                .sorted(Comparator.comparing(ManifestEntry::getFileName))
+                .toList();
+    }
+}
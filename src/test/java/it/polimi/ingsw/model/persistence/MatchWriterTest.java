@@ -0,0 +1,170 @@
+package it.polimi.ingsw.model.persistence;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit test for the MatchWriter
+ */
+class MatchWriterTest {
+
+    /**
+     * directory of the files written by the tests
+     */
+    @TempDir
+    Path directory;
+
+    /**
+     * This method restores the default policy, used by all the other tests
+     */
+    @AfterEach
+    void restorePolicy() {
+        MatchWriter.getMatchWriter().setFlushPolicy(FlushPolicy.SYNCHRONOUS, 0);
+    }
+
+    /**
+     * This method checks that with the SYNCHRONOUS policy every state is written before save returns, and that no
+     * temporary file is left
+     * @throws IOException if the file can't be read
+     */
+    @Test
+    void synchronousWrite() throws IOException {
+        MatchWriter writer = MatchWriter.getMatchWriter();
+        Path file = directory.resolve("a_b_.json");
+
+        writer.save(file.toString(), "first");
+        assertEquals("first", Files.readString(file));
+        writer.save(file.toString(), "second");
+        assertEquals("second", Files.readString(file));
+        assertFalse(Files.exists(directory.resolve("a_b_.json" + MatchWriter.TEMP_EXTENSION)));
+    }
+
+    /**
+     * This method checks that with the PERIODIC policy the states saved within the flush interval are coalesced
+     * in a single write of the latest one, and that flush writes it
+     * @throws IOException if the file can't be read
+     */
+    @Test
+    void periodicWriteCoalesces() throws IOException {
+        MatchWriter writer = MatchWriter.getMatchWriter();
+        writer.setFlushPolicy(FlushPolicy.PERIODIC, 60000);
+        Path file = directory.resolve("c_d_.json");
+
+        long written = writer.getWrittenFiles();
+        for (int turn = 0; turn < 10; turn++) writer.save(file.toString(), "turn" + turn);
+        assertFalse(Files.exists(file));
+
+        writer.flush();
+        assertEquals("turn9", Files.readString(file));
+        assertEquals(written + 1, writer.getWrittenFiles());
+    }
+
+    /**
+     * This method checks that with the ASYNCHRONOUS policy the latest state of every match is eventually written
+     * by the background thread
+     * @throws IOException if a file can't be read
+     * @throws InterruptedException if the test is interrupted
+     */
+    @Test
+    void asynchronousWrite() throws IOException, InterruptedException {
+        MatchWriter writer = MatchWriter.getMatchWriter();
+        writer.setFlushPolicy(FlushPolicy.ASYNCHRONOUS, 0);
+        Path first = directory.resolve("e_f_.json");
+        Path second = directory.resolve("g_h_.json");
+
+        for (int turn = 0; turn < 100; turn++) {
+            writer.save(first.toString(), "turn" + turn);
+            writer.save(second.toString(), "turn" + turn);
+        }
+
+        for (int i = 0; i < 100 && !(Files.exists(first) && Files.readString(first).equals("turn99")
+                && Files.exists(second) && Files.readString(second).equals("turn99")); i++) Thread.sleep(50);
+        assertEquals("turn99", Files.readString(first));
+        assertEquals("turn99", Files.readString(second));
+    }
+
+    /**
+     * This method checks that an invalid file name or a failing action doesn't stop the background thread, and that
+     * a file whose action fails is counted as written
+     * @throws IOException if a file can't be read
+     * @throws InterruptedException if the test is interrupted
+     */
+    @Test
+    void errorsDontStopWriter() throws IOException, InterruptedException {
+        MatchWriter writer = MatchWriter.getMatchWriter();
+        writer.setFlushPolicy(FlushPolicy.ASYNCHRONOUS, 0);
+        Path failing = directory.resolve("m_n_.json");
+        Path next = directory.resolve("o_p_.json");
+
+        long written = writer.getWrittenFiles();
+        // the null character makes the path of the file invalid
+        writer.save(directory + "/q\0_r_.json", "invalid");
+        writer.save(failing.toString(), "failing".getBytes(StandardCharsets.UTF_8), () -> { throw new IllegalStateException("test"); });
+        for (int i = 0; i < 100 && !Files.exists(failing); i++) Thread.sleep(50);
+        writer.save(next.toString(), "next");
+
+        for (int i = 0; i < 100 && !Files.exists(next); i++) Thread.sleep(50);
+        assertEquals("failing", Files.readString(failing));
+        assertEquals("next", Files.readString(next));
+        assertTrue(writer.getWrittenFiles() - written >= 2);
+    }
+
+    /**
+     * This method checks that flushing a file writes only its pending state, and that deleting a file drops its
+     * pending state, so that the file is not written again after being deleted
+     * @throws IOException if a file can't be read
+     */
+    @Test
+    void flushAndDeleteFile() throws IOException {
+        MatchWriter writer = MatchWriter.getMatchWriter();
+        writer.setFlushPolicy(FlushPolicy.PERIODIC, 60000);
+        Path first = directory.resolve("i_j_.json");
+        Path second = directory.resolve("k_l_.json");
+
+        writer.save(first.toString(), "first");
+        writer.save(second.toString(), "second");
+        writer.flush(first.toString());
+        assertEquals("first", Files.readString(first));
+        assertFalse(Files.exists(second));
+
+        writer.save(first.toString(), "third");
+        assertTrue(writer.delete(first.toString()));
+        assertFalse(writer.delete(second.toString()));
+        writer.flush();
+        assertFalse(Files.exists(first));
+        assertFalse(Files.exists(second));
+    }
+
+    /**
+     * This method checks that the writer forgets a file once it is deleted, and that deleting a file never saved
+     * doesn't make the writer track it
+     * @throws IOException if a file can't be read
+     */
+    @Test
+    void deleteForgetsFile() throws IOException {
+        MatchWriter writer = MatchWriter.getMatchWriter();
+        Path file = directory.resolve("s_t_.json");
+
+        int tracked = writer.getTrackedFiles();
+        assertFalse(writer.delete(directory.resolve("u_v_.json").toString()));
+        assertEquals(tracked, writer.getTrackedFiles());
+
+        writer.save(file.toString(), "first");
+        assertEquals(tracked + 1, writer.getTrackedFiles());
+        assertTrue(writer.delete(file.toString()));
+        assertEquals(tracked, writer.getTrackedFiles());
+
+        writer.save(file.toString(), "second");
+        assertEquals("second", Files.readString(file));
+        assertTrue(writer.delete(file.toString()));
+        assertEquals(tracked, writer.getTrackedFiles());
+    }
+}
@@ -0,0 +1,181 @@
+package it.polimi.ingsw.model.persistence;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit test for the MoveJournal
+ */
+class MoveJournalTest {
+
+    /**
+     * directory of the segments written by the tests
+     */
+    @TempDir
+    Path directory;
+
+    /**
+     * This method closes the journal, so that the other tests save the matches after every move
+     */
+    @AfterEach
+    void closeJournal() {
+        MoveJournal.getMoveJournal().close();
+    }
+
+    /**
+     * This method appends the moves of many matches from many threads and checks that they are committed with far
+     * fewer commits than moves, and that every match reads its own moves back in order
+     * @throws IOException if the journal can't be opened
+     * @throws InterruptedException if the test is interrupted
+     */
+    @Test
+    void groupCommit() throws IOException, InterruptedException {
+        MoveJournal journal = MoveJournal.getMoveJournal();
+        journal.open(directory, 20, 10);
+        int matches = 8, moves = 500;
+
+        long commits = journal.getCommits();
+        List<Thread> threads = new ArrayList<>();
+        for (int match = 1; match <= matches; match++) {
+            long matchId = match;
+            Thread t = new Thread(() -> {
+                for (int move = 1; move <= moves; move++) journal.append(new MoveEvent(matchId, move, move % 4, move * 31, matchId * move));
+            });
+            threads.add(t);
+            t.start();
+        }
+        for (Thread t : threads) t.join();
+        journal.flush();
+
+        assertTrue(journal.getCommits() - commits < matches * moves / 10);
+        for (long matchId = 1; matchId <= matches; matchId++) {
+            List<MoveEvent> events = journal.readEvents(matchId);
+            assertEquals(moves, events.size());
+            for (int move = 1; move <= moves; move++) {
+                MoveEvent event = events.get(move - 1);
+                assertEquals(matchId, event.getMatchId());
+                assertEquals(move, event.getSequence());
+                assertEquals(move % 4, event.getPlayer());
+                assertEquals(move * 31, event.getMove());
+                assertEquals(matchId * move, event.getRandomState());
+            }
+        }
+    }
+
+    /**
+     * This method checks that an event written only partially (a crash during a commit) is ignored when the journal
+     * is opened again, and that the events after the restart go to a new segment
+     * @throws IOException if the journal can't be opened
+     */
+    @Test
+    void partialEventIgnored() throws IOException {
+        MoveJournal journal = MoveJournal.getMoveJournal();
+        journal.open(directory, 0, 10);
+        for (int move = 1; move <= 3; move++) journal.append(new MoveEvent(42, move, 0, move, move));
+        journal.close();
+
+        Path segment = singleSegment();
+        Files.write(segment, new byte[MoveEvent.BYTES - 1], StandardOpenOption.APPEND);
+
+        journal.open(directory, 0, 10);
+        journal.append(new MoveEvent(42, 4, 0, 4, 4));
+        List<MoveEvent> events = journal.readEvents(42);
+        assertEquals(4, events.size());
+        assertEquals(4, events.get(3).getSequence());
+    }
+
+    /**
+     * This method checks that the old segments are deleted once all their matches have a checkpoint after their
+     * events, and kept until then
+     * @throws IOException if the journal can't be opened
+     */
+    @Test
+    void checkpointsDeleteSegments() throws IOException {
+        MoveJournal journal = MoveJournal.getMoveJournal();
+        journal.open(directory, 0, 10);
+        journal.append(new MoveEvent(1, 1, 0, 1, 1));
+        journal.append(new MoveEvent(2, 1, 0, 1, 1));
+        journal.close();
+        Path old = singleSegment();
+
+        journal.open(directory, 0, 10);
+        journal.checkpointed(1, Integer.MAX_VALUE);
+        assertTrue(Files.exists(old));
+        journal.checkpointed(2, 1);
+        assertFalse(Files.exists(old));
+        assertTrue(journal.readEvents(1).isEmpty());
+    }
+
+    /**
+     * This method checks that the old segments are deleted once the matches without a saved match are forgotten and
+     * the saved ones have a checkpoint after their events
+     * @throws IOException if the journal can't be opened
+     */
+    @Test
+    void unsavedMatchesDeleteSegments() throws IOException {
+        MoveJournal journal = MoveJournal.getMoveJournal();
+        journal.open(directory, 0, 10);
+        journal.append(new MoveEvent(1, 1, 0, 1, 1));
+        journal.append(new MoveEvent(2, 1, 0, 1, 1));
+        journal.close();
+        Path old = singleSegment();
+
+        journal.open(directory, 0, 10);
+        journal.retainSavedMatches(List.of(1L));
+        assertTrue(Files.exists(old));
+        assertFalse(journal.readEvents(1).isEmpty());
+        journal.checkpointed(1, 1);
+        assertFalse(Files.exists(old));
+    }
+
+    /**
+     * This method checks that a commit failing because the next segment can't be created is not counted as
+     * committed, and that its events are committed when the segment can be created again
+     * @throws IOException if the journal can't be opened
+     */
+    @Test
+    void failedCommitRetried() throws IOException {
+        MoveJournal journal = MoveJournal.getMoveJournal();
+        journal.open(directory, 0, 10);
+        // the first segment is filled, so that the next commit has to create a new one
+        for (int move = 1; move <= MoveJournal.SEGMENT_SIZE / MoveEvent.BYTES; move++) journal.append(new MoveEvent(1, move, 0, move, move));
+        assertTrue(journal.flush());
+
+        Files.delete(singleSegment());
+        Files.delete(directory);
+        long failures = journal.getFailedCommits();
+        journal.append(new MoveEvent(2, 1, 0, 1, 1));
+        assertFalse(journal.flush());
+        assertTrue(journal.getFailedCommits() > failures);
+
+        Files.createDirectories(directory);
+        assertTrue(journal.flush());
+        List<MoveEvent> events = journal.readEvents(2);
+        assertEquals(1, events.size());
+        assertEquals(1, events.get(0).getSequence());
+    }
+
+    /**
+     * This method finds the only segment of the directory
+     * @return the path of the segment
+     * @throws IOException if the directory can't be read
+     */
+    private Path singleSegment() throws IOException {
+        try (Stream<Path> files = Files.list(directory)) {
+            List<Path> segments = files.toList();
+            assertEquals(1, segments.size());
+            return segments.get(0);
+        }
+    }
+}
@@ -0,0 +1,85 @@
+package it.polimi.ingsw.model.persistence;
+
+import it.polimi.ingsw.model.GameModel;
+import it.polimi.ingsw.model.Perft;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit test for the save formats of the matches
+ */
+class SaveFormatTest {
+
+    /**
+     * This method checks that matches from the opening to the end are decoded equal to the original from both
+     * formats, and that the binary format is at least ten times smaller
+     * @throws IOException if a match can't be decoded
+     */
+    @Test
+    void roundTrip() throws IOException {
+        for (int numPlayers = 2; numPlayers <= 4; numPlayers++) {
+            for (int randomMoves : new int[]{0, 20, 45, 1000}) {
+                GameModel model = Perft.startPosition(numPlayers, numPlayers, randomMoves);
+                byte[] binary = model.toBytes(SaveFormat.BINARY);
+                byte[] json = model.toBytes(SaveFormat.JSON);
+                assertEquals(SaveFormat.BINARY, SaveFormat.of(binary));
+                assertEquals(SaveFormat.JSON, SaveFormat.of(json));
+                assertTrue(binary.length * 10 <= json.length, binary.length + " bytes against " + json.length);
+
+                for (byte[] content : new byte[][]{binary, json}) {
+                    GameModel decoded = GameModel.fromBytes(content);
+                    assertEquals(model, decoded);
+                    // the binary encoding contains every attribute, sprites and point stacks included
+                    assertArrayEquals(binary, decoded.toBytes(SaveFormat.BINARY));
+                    assertEquals(model.getSeed(), decoded.getSeed());
+                    assertEquals(model.getMatchId(), decoded.getMatchId());
+                    assertEquals(model.getMovesPlayed(), decoded.getMovesPlayed());
+                    assertEquals(model.isGameOver(), decoded.isGameOver());
+                    assertArrayEquals(model.getLegalMoves(), decoded.getLegalMoves());
+                    if (model.isGameOver()) {
+                        assertEquals(model.getLeaderBoard().get(0).getNickname(), decoded.getLeaderBoard().get(0).getNickname());
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * This method checks that an unknown version of the binary format is refused
+     */
+    @Test
+    void unknownVersion() {
+        byte[] binary = Perft.startPosition(2, 2, 0).toBytes(SaveFormat.BINARY);
+        binary[3] = (byte) (SaveFormat.BINARY_VERSION + 1);
+        assertThrows(IOException.class, () -> GameModel.fromBytes(binary));
+        assertThrows(IOException.class, () -> GameModel.fromBytes(new byte[]{1, 2, 3}));
+    }
+
+    /**
+     * This method converts a saved match to the binary format and back, checking the names of the files
+     * @param directory directory of the saved match
+     * @throws IOException if a file can't be read or written
+     */
+    @Test
+    void convert(@TempDir Path directory) throws IOException {
+        GameModel model = Perft.startPosition(3, 5, 30);
+        Path json = directory.resolve("a_b_c" + SaveFormat.JSON.getExtension());
+        Files.write(json, model.toBytes(SaveFormat.JSON));
+
+        Path binary = SaveFormat.BINARY.convert(json);
+        assertEquals("a_b_c" + SaveFormat.BINARY.getExtension(), binary.getFileName().toString());
+        assertFalse(Files.exists(json));
+        assertEquals(model, SaveFormat.read(binary));
+
+        assertEquals(json, SaveFormat.JSON.convert(binary));
+        assertFalse(Files.exists(binary));
+        assertEquals(model, SaveFormat.read(json));
+        assertEquals("a_b_c", SaveFormat.matchName(json.getFileName().toString()));
+    }
+}
@@ -20,109 +20,54 @@ class UtilityFunctionsTest {
      */
     @Test
     void findGroupSize() {
-        Shelf shelf = new Shelf();
-        Shelf copy = new Shelf(shelf);
         Tile card = new Tile(TileColor.BLUE, 0);
 
-        // initializing the library with a group of only one card and check if the method return 1 and if the library has not been changed except for the card valued
-        shelf.add(card, 0);
-        assertEquals(1, UtilityFunctionsModel.findGroupSize(shelf, new Position(0, 5)));
-        for (int i = 0; i < ModelConstants.ROWS_NUMBER; i++) {
-            for (int j = 0; j < ModelConstants.COLS_NUMBER; j++) {
-                Position position = new Position(j, i);
-                assertEquals(copy.getTile(position), shelf.getTile(position));
-            }
-        }
-
-        // add more cards to create a group of 2, then of 3, 4, 5, 6 and 7
-        shelf.add(card, 0);
-        shelf.add(card, 0);
-        assertEquals(2, UtilityFunctionsModel.findGroupSize(shelf, new Position(0, 5)));
-        for (int i = 0; i < ModelConstants.ROWS_NUMBER; i++) {
-            for (int j = 0; j < ModelConstants.COLS_NUMBER; j++) {
-                Position position = new Position(j, i);
-                assertEquals(copy.getTile(position), shelf.getTile(position));
-            }
-        }
-
-        shelf.add(card, 0);
-        shelf.add(card, 0);
-        shelf.add(card, 1);
-        assertEquals(3, UtilityFunctionsModel.findGroupSize(shelf, new Position(0, 5)));
-        for (int i = 0; i < ModelConstants.ROWS_NUMBER; i++) {
-            for (int j = 0; j < ModelConstants.COLS_NUMBER; j++) {
-                Position position = new Position(j, i);
-                assertEquals(copy.getTile(position), shelf.getTile(position));
-            }
-        }
-
-        shelf.add(card, 0);
-        shelf.add(card, 0);
-        shelf.add(card, 1);
-        shelf.add(card, 1);
-        assertEquals(4, UtilityFunctionsModel.findGroupSize(shelf, new Position(0, 5)));
-        for (int i = 0; i < ModelConstants.ROWS_NUMBER; i++) {
-            for (int j = 0; j < ModelConstants.COLS_NUMBER; j++) {
-                Position position = new Position(j, i);
-                assertEquals(copy.getTile(position), shelf.getTile(position));
-            }
-        }
-
-        shelf.add(card, 0);
-        shelf.add(card, 0);
-        shelf.add(card, 1);
-        shelf.add(card, 1);
-        shelf.add(card, 0);
-        assertEquals(5, UtilityFunctionsModel.findGroupSize(shelf, new Position(0, 5)));
-        for (int i = 0; i < ModelConstants.ROWS_NUMBER; i++) {
-            for (int j = 0; j < ModelConstants.COLS_NUMBER; j++) {
-                Position position = new Position(j, i);
-                assertEquals(copy.getTile(position), shelf.getTile(position));
-            }
-        }
-
-        shelf.add(card, 0);
-        shelf.add(card, 0);
-        shelf.add(card, 1);
-        shelf.add(card, 1);
-        shelf.add(card, 0);
-        shelf.add(card, 0);
-        assertEquals(6, UtilityFunctionsModel.findGroupSize(shelf, new Position(0, 5)));
-        for (int i = 0; i < ModelConstants.ROWS_NUMBER; i++) {
-            for (int j = 0; j < ModelConstants.COLS_NUMBER; j++) {
-                Position position = new Position(j, i);
-                assertEquals(copy.getTile(position), shelf.getTile(position));
-            }
-        }
-
-        shelf.add(card, 0);
-        shelf.add(card, 0);
-        shelf.add(card, 1);
-        shelf.add(card, 1);
-        shelf.add(card, 0);
-        shelf.add(card, 0);
-        shelf.add(card, 2);
-        assertEquals(7, UtilityFunctionsModel.findGroupSize(shelf, new Position(0, 5)));
-        for (int i = 0; i < ModelConstants.ROWS_NUMBER; i++) {
-            for (int j = 0; j < ModelConstants.COLS_NUMBER; j++) {
-                Position position = new Position(j, i);
-                assertEquals(copy.getTile(position), shelf.getTile(position));
-            }
+        // create a group of 1, then of 2, 3, 4, 5, 6 and 7 cards and check that the library is never changed
+        int[][] columns = {
+                {0},
+                {0, 0},
+                {0, 0, 1},
+                {0, 0, 1, 1},
+                {0, 0, 1, 1, 0},
+                {0, 0, 1, 1, 0, 0},
+                {0, 0, 1, 1, 0, 0, 2}
+        };
+        for (int i = 0; i < columns.length; i++) {
+            Shelf shelf = new Shelf();
+            for (int col : columns[i]) shelf.add(card, col);
+            assertGroupSize(i + 1, shelf);
         }
 
-        // refill the library with more than one group one near the other to be sure that findGroupSize does not accidentally modify one group while finding the other
+        // fill the library with more than one group one near the other to be sure that findGroupSize does not accidentally modify one group while finding the other
+        Shelf shelf = new Shelf();
         Tile card1 = new Tile(TileColor.GREEN, 0);
         shelf.add(card1, 2);
         shelf.add(card1, 2);
         shelf.add(card1, 2);
         shelf.add(card1, 1);
-        copy = new Shelf(shelf);
         shelf.add(card, 0);
         shelf.add(card, 0);
         shelf.add(card, 1);
         shelf.add(card, 1);
         shelf.add(card, 0);
-        assertEquals(5, UtilityFunctionsModel.findGroupSize(shelf, new Position(0, 5)));
+        assertGroupSize(5, shelf);
+
+        // with a shared visited matrix the same group is found only once
+        boolean[][] visited = new boolean[ModelConstants.ROWS_NUMBER][ModelConstants.COLS_NUMBER];
+        assertEquals(5, UtilityFunctionsModel.findGroupSize(shelf, new Position(0, 5), visited));
+        assertEquals(0, UtilityFunctionsModel.findGroupSize(shelf, new Position(1, 3), visited));
+        assertEquals(4, UtilityFunctionsModel.findGroupSize(shelf, new Position(2, 5), visited));
+    }
+
+    /**
+     * This method checks the size of the group containing the bottom left card and that the library has not been changed
+     * @param expected expected size of the group
+     * @param shelf the library
+     */
+    private void assertGroupSize(int expected, Shelf shelf) {
+        Shelf copy = new Shelf(shelf);
+
+        assertEquals(expected, UtilityFunctionsModel.findGroupSize(shelf, new Position(0, 5)));
         for (int i = 0; i < ModelConstants.ROWS_NUMBER; i++) {
             for (int j = 0; j < ModelConstants.COLS_NUMBER; j++) {
                 Position position = new Position(j, i);
@@ -130,4 +75,4 @@ class UtilityFunctionsTest {
             }
         }
     }
-}
\ No newline at end of file
+}
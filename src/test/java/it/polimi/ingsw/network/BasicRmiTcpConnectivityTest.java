@@ -4,6 +4,7 @@ import it.polimi.ingsw.constants.ModelConstants;
 import it.polimi.ingsw.constants.ServerConstants;
 import it.polimi.ingsw.controller.exceptions.InvalidNicknameException;
 import it.polimi.ingsw.model.Position;
+import it.polimi.ingsw.model.persistence.MatchWriter;
 import it.polimi.ingsw.network.client.Client;
 import it.polimi.ingsw.network.client.RmiClient;
 import it.polimi.ingsw.network.client.TcpClient;
@@ -67,10 +68,11 @@ public class BasicRmiTcpConnectivityTest {
             client1.messageSomeone("Wololo", "Bill1");
 
 
-            // With this we delete the match that we have created
+            // With this we delete the match that we have created (once its pending state is on disk)
+            MatchWriter.getMatchWriter().flush();
             Arrays.stream(Objects.requireNonNull(new File(ModelConstants.PATH_SAVED_MATCHES).list()))
                     .forEach((match) -> {
-                            new File(ModelConstants.PATH_SAVED_MATCHES + match).delete();
+                            MatchWriter.getMatchWriter().delete(ModelConstants.PATH_SAVED_MATCHES + match);
                     });
 
 
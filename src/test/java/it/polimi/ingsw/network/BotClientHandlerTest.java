@@ -0,0 +1,156 @@
+package it.polimi.ingsw.network;
+
+import it.polimi.ingsw.constants.ModelConstants;
+import it.polimi.ingsw.constants.ServerConstants;
+import it.polimi.ingsw.controller.exceptions.InvalidMoveException;
+import it.polimi.ingsw.controller.exceptions.InvalidNicknameException;
+import it.polimi.ingsw.model.GameModel;
+import it.polimi.ingsw.model.Position;
+import it.polimi.ingsw.model.persistence.MatchWriter;
+import it.polimi.ingsw.network.client.exceptions.GameEndedException;
+import it.polimi.ingsw.network.server.BotClientHandler;
+import it.polimi.ingsw.network.server.BotExecutor;
+import it.polimi.ingsw.network.server.LobbyServer;
+import it.polimi.ingsw.network.server.LobbyServerConfig;
+import it.polimi.ingsw.network.server.MatchServer;
+import it.polimi.ingsw.utilities.UtilityFunctionsModel;
+import org.junit.jupiter.api.Test;
+
+import java.rmi.RemoteException;
+import java.rmi.server.UnicastRemoteObject;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * This class tests the bots of the server
+ */
+class BotClientHandlerTest {
+
+    /**
+     * This test fills a match with bots and checks that they play it to the end, keeping the statistics of their
+     * moves and think time (the think time itself depends on the load of the machine, so it isn't bounded)
+     * @throws Exception if the match server can't be created
+     */
+    @Test
+    public void botsPlayWholeMatch() throws Exception {
+        BotExecutor executor = BotExecutor.getBotExecutor();
+        long moveBudget = executor.getMoveBudgetMillis();
+        int threads = executor.getThreads();
+        executor.configure(2, 10);
+        long movesBefore = executor.getMoves();
+
+        LobbyServer lobby = new LobbyServer(new LobbyServerConfig(ServerConstants.RMI_PORT, ServerConstants.TCP_PORT, "dummy", "gamedummy"));
+        MatchServer match = new MatchServer(2, lobby);
+        try {
+            lobby.fillWithBots(match);
+            assertEquals(0, match.getFreeSpaces());
+            List<BotClientHandler> bots = match.getBots();
+            assertEquals(2, bots.size());
+            assertNotEquals(bots.get(0).name(), bots.get(1).name());
+
+            long timeout = System.currentTimeMillis() + 60000;
+            while (!bots.stream().allMatch(BotClientHandler::isStopped) && System.currentTimeMillis() < timeout) Thread.sleep(20);
+            assertTrue(bots.stream().allMatch(BotClientHandler::isStopped));
+
+            long moves = 0;
+            for (BotClientHandler bot : bots) {
+                assertTrue(bot.getMoves() > 0);
+                assertTrue(bot.getThinkNanos() > 0);
+                assertTrue(bot.getLastDepth() >= 1);
+                assertTrue(bot.getMaxThinkNanos() > 0);
+                assertTrue(bot.getMaxThinkNanos() * bot.getMoves() >= bot.getThinkNanos());
+                assertTrue(bot.getMeanThinkMillis() > 0);
+                moves += bot.getMoves();
+            }
+            assertEquals(movesBefore + moves, executor.getMoves());
+            assertTrue(match.getBots().isEmpty());
+        } finally {
+            executor.configure(threads, moveBudget);
+            UnicastRemoteObject.unexportObject(match, true);
+            MatchWriter.getMatchWriter().delete(ModelConstants.PATH_SAVED_MATCHES + UtilityFunctionsModel.getJSONFileName(match.getNicknamesList()));
+        }
+    }
+
+    /**
+     * This test checks that the bots still play the match to the end when a search fails and when their moves are
+     * refused: the first legal move is played instead
+     * @throws Exception if the match server can't be created
+     */
+    @Test
+    public void botsSurviveRefusedMoves() throws Exception {
+        BotExecutor executor = BotExecutor.getBotExecutor();
+        long moveBudget = executor.getMoveBudgetMillis();
+        int threads = executor.getThreads();
+        executor.configure(2, 5);
+
+        LobbyServer lobby = new LobbyServer(new LobbyServerConfig(ServerConstants.RMI_PORT, ServerConstants.TCP_PORT, "dummy", "gamedummy"));
+        RefusingMatchServer match = new RefusingMatchServer(lobby);
+        try {
+            lobby.fillWithBots(match);
+            List<BotClientHandler> bots = match.getBots();
+
+            long timeout = System.currentTimeMillis() + 60000;
+            while (!bots.stream().allMatch(BotClientHandler::isStopped) && System.currentTimeMillis() < timeout) Thread.sleep(20);
+            assertTrue(bots.stream().allMatch(BotClientHandler::isStopped));
+            assertTrue(match.refusedMoves >= 2);
+            assertTrue(match.failedCopies >= 1);
+        } finally {
+            executor.configure(threads, moveBudget);
+            UnicastRemoteObject.unexportObject(match, true);
+            MatchWriter.getMatchWriter().delete(ModelConstants.PATH_SAVED_MATCHES + UtilityFunctionsModel.getJSONFileName(match.getNicknamesList()));
+        }
+    }
+
+    /**
+     * This class is a match server for two players which fails the first copy of the match for a search, and refuses
+     * the first move and throws an exception at the third one
+     */
+    private static class RefusingMatchServer extends MatchServer {
+        /**
+         * number of moves asked to the server
+         */
+        private int moves;
+        /**
+         * number of moves refused
+         */
+        private volatile int refusedMoves;
+        /**
+         * number of copies of the match failed
+         */
+        private volatile int failedCopies;
+
+        /**
+         * Constructor of the class
+         * @param lobby the lobby server
+         * @throws RemoteException if the server can't be exported
+         */
+        private RefusingMatchServer(LobbyServer lobby) throws RemoteException {
+            super(2, lobby);
+        }
+
+        @Override
+        public synchronized void makeMove(List<Position> pos, int col, String nickname) throws RemoteException, InvalidNicknameException, InvalidMoveException, GameEndedException {
+            this.moves++;
+            if (this.moves == 1) {
+                this.refusedMoves++;
+                throw new InvalidMoveException();
+            }
+            if (this.moves == 3) {
+                this.refusedMoves++;
+                throw new IllegalStateException("Refused move");
+            }
+            super.makeMove(pos, col, nickname);
+        }
+
+        @Override
+        public synchronized GameModel getSearchCopy(long randomState) {
+            GameModel copy = super.getSearchCopy(randomState);
+            if (copy != null && this.failedCopies == 0) {
+                this.failedCopies++;
+                throw new IllegalStateException("Failed copy");
+            }
+            return copy;
+        }
+    }
+}
@@ -69,6 +69,10 @@ class LobbyServerTest {
         assertTrue(ls.chooseNickname("call"));
         assertTrue(ls.chooseNickname("allc"));
         assertTrue(ls.chooseNickname("All"));
+        // the nicknames of the bots are reserved
+        assertThrows(IllegalNicknameException.class, ()-> ls.chooseNickname(ServerConstants.BOT_NICKNAME + "1"));
+        assertTrue(ls.chooseNickname(ServerConstants.BOT_NICKNAME));
+        assertTrue(ls.chooseNickname(ServerConstants.BOT_NICKNAME + "1a"));
     }
 
     /**